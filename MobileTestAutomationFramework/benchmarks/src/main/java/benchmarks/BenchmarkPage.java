@@ -0,0 +1,58 @@
+package benchmarks;
+
+import global.PageUtils;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Page object used by the benchmarks.
+ * Compiled outside the framework, so no locators are generated for it and BasePage falls back to
+ * PageFactory, unlike the framework's own pages.
+ */
+public class BenchmarkPage extends PageUtils {
+
+    @AndroidFindBy(id = "username_input")
+    @iOSXCUITFindBy(accessibility = "username_input")
+    private WebElement usernameInput;
+
+    @AndroidFindBy(id = "password_input")
+    @iOSXCUITFindBy(accessibility = "password_input")
+    private WebElement passwordInput;
+
+    @AndroidFindBy(id = "login_button")
+    @iOSXCUITFindBy(accessibility = "login_button")
+    private WebElement loginButton;
+
+    @AndroidFindBy(id = "error_message")
+    @iOSXCUITFindBy(accessibility = "error_message")
+    private WebElement errorMessage;
+
+    /**
+     * Constructor to initialize BenchmarkPage.
+     *
+     * @param driver AppiumDriver instance
+     */
+    public BenchmarkPage(AppiumDriver driver) {
+        super(driver);
+    }
+
+    /**
+     * Gets the username input.
+     *
+     * @return The element proxy
+     */
+    public WebElement getUsernameInput() {
+        return usernameInput;
+    }
+
+    /**
+     * Gets the login button.
+     *
+     * @return The element proxy
+     */
+    public WebElement getLoginButton() {
+        return loginButton;
+    }
+}
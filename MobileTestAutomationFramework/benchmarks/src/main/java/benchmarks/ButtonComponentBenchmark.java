@@ -0,0 +1,84 @@
+package benchmarks;
+
+import components.ButtonComponent;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the ButtonComponent methods, including their INFO logging.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml")
+public class ButtonComponentBenchmark {
+
+    private AppiumDriver driver;
+    private ButtonComponent buttons;
+    private WebElement loginButton;
+
+    /**
+     * Starts a session against the fake server.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        driver = FakeDriver.create();
+        buttons = ButtonComponent.forDriver(driver);
+        loginButton = new BenchmarkPage(driver).getLoginButton();
+    }
+
+    /**
+     * Looks up the shared component of the session, as every page constructor does.
+     *
+     * @return The component
+     */
+    @Benchmark
+    public ButtonComponent forDriver() {
+        return ButtonComponent.forDriver(driver);
+    }
+
+    /**
+     * Clicks a button.
+     *
+     * @return true if the click succeeded
+     */
+    @Benchmark
+    public boolean clickButton() {
+        return buttons.clickButton(loginButton, "Login");
+    }
+
+    /**
+     * Checks whether a button is enabled.
+     *
+     * @return true if it is
+     */
+    @Benchmark
+    public boolean isButtonEnabled() {
+        return buttons.isButtonEnabled(loginButton, "Login");
+    }
+
+    /**
+     * Reads the text of a button.
+     *
+     * @return The text
+     */
+    @Benchmark
+    public String getButtonText() {
+        return buttons.getButtonText(loginButton, "Login");
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import io.appium.java_client.AppiumDriver;
+import metrics.InstrumentedCommandExecutor;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for an Appium server.
+ * Commands go through the same driver, element and executor code as against a real server, but are
+ * answered in memory instead of over HTTP, so the benchmarks measure only the framework's overhead.
+ * Every element is found, displayed and enabled.
+ */
+public final class FakeDriver {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String PAGE_SOURCE = "<hierarchy><android.widget.Button resource-id=\"login_button\""
+            + " text=\"Login\" displayed=\"true\" enabled=\"true\"/></hierarchy>";
+
+    private FakeDriver() {
+    }
+
+    /**
+     * Creates an Android driver connected to a fake server.
+     *
+     * @return The driver
+     */
+    public static AppiumDriver create() {
+        return new AppiumDriver(new Executor(), new DesiredCapabilities(Map.of("platformName", "Android")));
+    }
+
+    /**
+     * Executor answering commands in memory.
+     * It extends the executor used in production, so the command timing overhead is included.
+     */
+    private static final class Executor extends InstrumentedCommandExecutor {
+
+        private final AtomicLong elementIds = new AtomicLong();
+
+        private Executor() {
+            super(localhost());
+        }
+
+        private static URL localhost() {
+            try {
+                return new URL("http://127.0.0.1:4723");
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        protected Response send(Command command) {
+            Response response = new Response();
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setSessionId(UUID.randomUUID().toString());
+                response.setValue(Map.of("platformName", "Android"));
+                return response;
+            }
+            response.setSessionId(command.getSessionId().toString());
+            response.setValue(valueOf(command.getName()));
+            return response;
+        }
+
+        private Object valueOf(String command) {
+            switch (command) {
+                case DriverCommand.FIND_ELEMENT:
+                case DriverCommand.FIND_CHILD_ELEMENT:
+                    return newElement();
+                case DriverCommand.FIND_ELEMENTS:
+                case DriverCommand.FIND_CHILD_ELEMENTS:
+                    return List.of(newElement());
+                case DriverCommand.IS_ELEMENT_DISPLAYED:
+                case DriverCommand.IS_ELEMENT_ENABLED:
+                    return true;
+                case DriverCommand.GET_ELEMENT_TEXT:
+                    return "Login";
+                case DriverCommand.GET_PAGE_SOURCE:
+                    return PAGE_SOURCE;
+                default:
+                    return null;
+            }
+        }
+
+        private Map<String, String> newElement() {
+            return Map.of(ELEMENT_KEY, "element-" + elementIds.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import org.apache.logging.log4j.LogManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.LoggerUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation per LoggerUtils call.
+ * Compares concatenated and parameterized messages, enabled and disabled levels, and synchronous
+ * and asynchronous file logging. Run with "-prof gc" to see the bytes allocated per call
+ * (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggerUtilsBenchmark {
+
+    /** Log4j configuration: sync writes on the calling thread, async hands events to a ring buffer. */
+    @Param({"sync", "async"})
+    public String mode;
+
+    private String buttonName;
+    private boolean enabled;
+
+    /**
+     * Selects the log4j configuration before LoggerUtils initializes its logger.
+     * Each parameter combination runs in its own fork, so the configuration applies to the whole trial.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty("log4j2.configurationFile", "log4j2-benchmark-" + mode + ".xml");
+        buttonName = "Login";
+        enabled = true;
+    }
+
+    /**
+     * Flushes and stops the async logger threads at the end of the trial.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LogManager.shutdown();
+    }
+
+    /**
+     * INFO message built by concatenation, as most call sites did.
+     */
+    @Benchmark
+    public void infoConcatenated() {
+        LoggerUtils.info("Button " + buttonName + " is " + (enabled ? "enabled" : "disabled"));
+    }
+
+    /**
+     * INFO message with placeholders.
+     */
+    @Benchmark
+    public void infoParameterized() {
+        LoggerUtils.info("Button {} is {}", buttonName, enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * INFO message with placeholders from 16 threads, as with 16 parallel test workers.
+     */
+    @Benchmark
+    @Threads(16)
+    public void infoParameterizedContended() {
+        LoggerUtils.info("Button {} is {}", buttonName, enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * DEBUG message built by concatenation while DEBUG is disabled; the string is built anyway.
+     */
+    @Benchmark
+    public void debugDisabledConcatenated() {
+        LoggerUtils.debug("Button " + buttonName + " is " + (enabled ? "enabled" : "disabled"));
+    }
+
+    /**
+     * DEBUG message with placeholders while DEBUG is disabled.
+     */
+    @Benchmark
+    public void debugDisabledParameterized() {
+        LoggerUtils.debug("Button {} is {}", buttonName, enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * DEBUG message from a supplier while DEBUG is disabled.
+     */
+    @Benchmark
+    public void debugDisabledSupplier() {
+        LoggerUtils.debug(() -> "Button " + buttonName + " is " + (enabled ? "enabled" : "disabled"));
+    }
+}
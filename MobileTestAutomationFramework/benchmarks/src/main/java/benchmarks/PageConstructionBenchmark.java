@@ -0,0 +1,83 @@
+package benchmarks;
+
+import global.BasePage;
+import io.appium.java_client.AppiumDriver;
+import locators.ElementCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of constructing a page object.
+ * The framework's pages are bound from locators generated at compile time; BenchmarkPage has none
+ * and goes through PageFactory, as every page did before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml")
+public class PageConstructionBenchmark {
+
+    private AppiumDriver driver;
+
+    /**
+     * Starts a session against the fake server.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        driver = FakeDriver.create();
+    }
+
+    /**
+     * Drops the element cache, which registers the proxies of every constructed page.
+     */
+    @TearDown(Level.Iteration)
+    public void releaseCache() {
+        ElementCache.release(driver);
+    }
+
+    /**
+     * LoginPage, bound through PageBinder.
+     *
+     * @return The page
+     */
+    @Benchmark
+    public BasePage loginPage() {
+        return new LoginPage(driver);
+    }
+
+    /**
+     * HomePage, bound through PageBinder.
+     *
+     * @return The page
+     */
+    @Benchmark
+    public BasePage homePage() {
+        return new HomePage(driver);
+    }
+
+    /**
+     * Page with the same fields as LoginPage, initialized by PageFactory.
+     *
+     * @return The page
+     */
+    @Benchmark
+    public BasePage pageFactoryPage() {
+        return new BenchmarkPage(driver);
+    }
+}
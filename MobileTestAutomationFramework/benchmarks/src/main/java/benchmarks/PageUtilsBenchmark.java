@@ -0,0 +1,99 @@
+package benchmarks;
+
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the PageUtils wait and interaction paths when the element is there straight away.
+ * Page elements are resolved through the element cache; a plain element found on the driver is not
+ * registered and takes the uncached path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml")
+public class PageUtilsBenchmark {
+
+    private BenchmarkPage page;
+    private WebElement unregistered;
+
+    /**
+     * Starts a session against the fake server and constructs the page.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        AppiumDriver driver = FakeDriver.create();
+        page = new BenchmarkPage(driver);
+        unregistered = driver.findElement(By.id("login_button"));
+    }
+
+    /**
+     * Waits for a page element to be visible.
+     *
+     * @return The element
+     */
+    @Benchmark
+    public WebElement waitForVisibility() {
+        return page.waitForVisibility(page.getLoginButton());
+    }
+
+    /**
+     * Waits for a page element to be clickable and clicks it.
+     */
+    @Benchmark
+    public void click() {
+        page.click(page.getLoginButton());
+    }
+
+    /**
+     * Clicks an element that is not registered with the element cache.
+     */
+    @Benchmark
+    public void clickUnregistered() {
+        page.click(unregistered);
+    }
+
+    /**
+     * Types into a page element.
+     */
+    @Benchmark
+    public void sendKeys() {
+        page.sendKeys(page.getUsernameInput(), "testuser");
+    }
+
+    /**
+     * Reads the text of a page element.
+     *
+     * @return The text
+     */
+    @Benchmark
+    public String getText() {
+        return page.getText(page.getLoginButton());
+    }
+
+    /**
+     * Checks whether a page element is on screen without waiting.
+     *
+     * @return true if it is
+     */
+    @Benchmark
+    public boolean isPresentNow() {
+        return page.isPresentNow(page.getLoginButton());
+    }
+}
@@ -5,12 +5,20 @@ import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.WebElement;
 import utilities.LoggerUtils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Component class for button elements.
  * Provides methods for interacting with button elements.
+ * The component holds no per-page state, so one instance is shared by all pages of a session.
  */
 public class ButtonComponent extends PageUtils {
     
+    // Held strongly for as long as the session lives; the component references its driver, so it is
+    // dropped with release() when the session ends, like the session's ElementCache
+    private static final Map<AppiumDriver, ButtonComponent> INSTANCES = new HashMap<>();
+    
     /**
      * Constructor to initialize ButtonComponent.
      *
@@ -20,6 +28,29 @@ public class ButtonComponent extends PageUtils {
         super(driver);
     }
     
+    /**
+     * Gets the shared button component of a session, creating it on first use.
+     *
+     * @param driver AppiumDriver instance of the session
+     * @return The session's button component
+     */
+    public static ButtonComponent forDriver(AppiumDriver driver) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(driver, ButtonComponent::new);
+        }
+    }
+    
+    /**
+     * Drops the shared button component of a session that has ended.
+     *
+     * @param driver AppiumDriver instance of the session
+     */
+    public static void release(AppiumDriver driver) {
+        synchronized (INSTANCES) {
+            INSTANCES.remove(driver);
+        }
+    }
+    
     /**
      * Clicks on a button element.
      *
@@ -29,11 +60,11 @@ public class ButtonComponent extends PageUtils {
      */
     public boolean clickButton(WebElement button, String buttonName) {
         try {
-            LoggerUtils.info("Clicking on button: " + buttonName);
+            LoggerUtils.info("Clicking on button: {}", buttonName);
             click(button);
             return true;
         } catch (Exception e) {
-            LoggerUtils.error("Failed to click on button: " + buttonName, e);
+            LoggerUtils.error("Failed to click on button: {}", buttonName, e);
             return false;
         }
     }
@@ -48,10 +79,10 @@ public class ButtonComponent extends PageUtils {
     public boolean isButtonEnabled(WebElement button, String buttonName) {
         try {
             boolean isEnabled = waitForVisibility(button).isEnabled();
-            LoggerUtils.info("Button " + buttonName + " is " + (isEnabled ? "enabled" : "disabled"));
+            LoggerUtils.info("Button {} is {}", buttonName, isEnabled ? "enabled" : "disabled");
             return isEnabled;
         } catch (Exception e) {
-            LoggerUtils.error("Failed to check if button is enabled: " + buttonName, e);
+            LoggerUtils.error("Failed to check if button is enabled: {}", buttonName, e);
             return false;
         }
     }
@@ -66,10 +97,10 @@ public class ButtonComponent extends PageUtils {
     public boolean isButtonDisplayed(WebElement button, String buttonName) {
         try {
             boolean isDisplayed = isElementDisplayed(button);
-            LoggerUtils.info("Button " + buttonName + " is " + (isDisplayed ? "displayed" : "not displayed"));
+            LoggerUtils.info("Button {} is {}", buttonName, isDisplayed ? "displayed" : "not displayed");
             return isDisplayed;
         } catch (Exception e) {
-            LoggerUtils.error("Failed to check if button is displayed: " + buttonName, e);
+            LoggerUtils.error("Failed to check if button is displayed: {}", buttonName, e);
             return false;
         }
     }
@@ -84,10 +115,10 @@ public class ButtonComponent extends PageUtils {
     public String getButtonText(WebElement button, String buttonName) {
         try {
             String text = getText(button);
-            LoggerUtils.info("Button " + buttonName + " text: " + text);
+            LoggerUtils.info("Button {} text: {}", buttonName, text);
             return text;
         } catch (Exception e) {
-            LoggerUtils.error("Failed to get button text: " + buttonName, e);
+            LoggerUtils.error("Failed to get button text: {}", buttonName, e);
             return null;
         }
     }
@@ -0,0 +1,514 @@
+package config;
+
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, typed view of the framework configuration, loaded once per JVM.
+ * Values are layered, each layer overriding the previous one:
+ * <ol>
+ * <li>the properties file ({@code properties/app.properties}, or the file named by the
+ *     {@code config.file} system property)</li>
+ * <li>environment variables named after a known key in upper case with dots replaced by
+ *     underscores, e.g. {@code TEST_TIMEOUT_EXPLICIT} for {@code test.timeout.explicit}</li>
+ * <li>system properties in one of the configuration's namespaces, e.g.
+ *     {@code -Dtest.timeout.explicit=60}</li>
+ * <li>the keys of a device profile, {@code profile.<name>.<key>}, when a profile is selected with
+ *     {@link #forProfile(String)}</li>
+ * </ol>
+ * Known keys are validated when the configuration is loaded, so a typo in a number or an unknown
+ * polling strategy fails the run at startup instead of in the middle of a test.
+ */
+public final class FrameworkConfig {
+
+    public static final String DEFAULT_FILE = "properties/app.properties";
+    /** Key naming the device profile to apply when the run does not name a device. */
+    public static final String PROFILE_KEY = "config.profile";
+    private static final String PROFILE_PREFIX = "profile.";
+
+    /** Where a value came from. */
+    public enum Source {
+        FILE, ENVIRONMENT, SYSTEM, PROFILE
+    }
+
+    private static final Map<String, Function<String, String>> RULES = new LinkedHashMap<>();
+
+    static {
+        rule(FrameworkConfig::url, "appium.server.url");
+        rule(FrameworkConfig::bool, "app.install.cache", "appium.server.autostart", "fake.server.enabled",
+                "fake.server.driverScripts", "session.pool.reuse", "session.lazy", "transport.http.shared",
+                "transport.http.keepAlive", "transport.http.compressResponses", "transport.http.compressRequests",
+                "page.batch.enabled", "report.screenshot.onFailure", "report.video.enabled", "report.metrics.enabled",
+                "log.buffer.enabled");
+        rule(value -> atLeast(value, 0), "fake.server.latencyMs", "fake.server.jitterMs", "fake.server.transitionMs",
+                "session.pool.checkoutTimeout", "transport.http.idleTimeoutSeconds",
+                "transport.http.connectTimeoutSeconds", "transport.http.readTimeoutSeconds",
+                "transport.http.acquireTimeoutSeconds", "transport.http.compressRequestsMinBytes",
+                "test.timeout.implicit", "test.timeout.explicit", "test.timeout.pageLoad",
+                "test.timeout.pollingInitialMs", "test.timeout.pollingMaxMs", "test.timeout.uiIdleWindowMs",
+                "test.timeout.uiIdle", "test.timeout.absenceMs", "test.retry.count");
+        rule(value -> atLeast(value, 1), "session.pool.maxSize", "android.session.pool.maxSize",
+                "ios.session.pool.maxSize", "transport.http.poolSize", "report.video.segmentSeconds",
+                "report.video.keepSeconds", "report.screenshot.workers", "report.screenshot.queueSize",
+                "log.buffer.size", "data.partitions");
+        rule(FrameworkConfig::probability, "fake.server.failureRate");
+        rule(FrameworkConfig::integer, "fake.server.seed");
+        rule(value -> oneOf(value, "fixed", "exponential", "learned", "server"), "test.timeout.polling");
+        rule(value -> oneOf(value, "none", "relaunch", "clear_data", "new_session"), "session.reset");
+        rule(value -> oneOf(value, "class", "method"), "session.reset.scope");
+        rule(value -> oneOf(value, "direct", "snapshot"), "page.resolution.mode");
+        rule(value -> oneOf(value, "png", "jpg"), "report.screenshot.format");
+        rule(FrameworkConfig::partition, "data.partition");
+    }
+
+    private static volatile FrameworkConfig instance;
+
+    private final Map<String, String> values;
+    private final Map<String, Source> sources;
+    private final String profile;
+    private final Map<String, FrameworkConfig> profiles = new ConcurrentHashMap<>();
+
+    private FrameworkConfig(Map<String, String> values, Map<String, Source> sources, String profile) {
+        this.values = Collections.unmodifiableMap(values);
+        this.sources = Collections.unmodifiableMap(sources);
+        this.profile = profile;
+    }
+
+    /**
+     * Gets the configuration of this JVM, loading and validating it on first use.
+     * A missing default file leaves only the environment and system property layers; a missing file
+     * named by {@code config.file} is an error.
+     *
+     * @return The shared configuration
+     * @throws IllegalStateException if the file cannot be read or a value is invalid
+     */
+    public static FrameworkConfig get() {
+        FrameworkConfig config = instance;
+        if (config == null) {
+            synchronized (FrameworkConfig.class) {
+                config = instance;
+                if (config == null) {
+                    String file = System.getProperty("config.file");
+                    Properties properties = new Properties();
+                    try {
+                        if (file != null || new File(DEFAULT_FILE).exists()) {
+                            properties = JavaUtils.loadProperties(file != null ? file : DEFAULT_FILE);
+                        } else {
+                            LoggerUtils.warn("No {} found, using environment and system properties only", DEFAULT_FILE);
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to load configuration " + file, e);
+                    }
+                    config = load(properties, System.getenv(), System.getProperties());
+                    LoggerUtils.info("Configuration loaded from {} ({} keys, {} overridden)",
+                            file != null ? file : DEFAULT_FILE, config.values.size(), config.countOverrides());
+                    instance = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Builds a configuration from explicit layers.
+     * Environment variables only override keys that the file or the validation rules know, as their
+     * names cannot be mapped back to mixed-case keys. System properties override or add any key in a
+     * namespace of the configuration (the part before the first dot, e.g. {@code test},
+     * {@code profile} or {@code config}), which keeps JVM properties such as {@code java.version} out.
+     *
+     * @param file The properties file layer
+     * @param environment The environment variables
+     * @param systemProperties The system properties
+     * @return The validated configuration
+     * @throws IllegalStateException listing every invalid value
+     */
+    public static FrameworkConfig load(Properties file, Map<String, String> environment, Properties systemProperties) {
+        Map<String, String> values = new TreeMap<>();
+        Map<String, Source> sources = new TreeMap<>();
+        for (String key : file.stringPropertyNames()) {
+            values.put(key, file.getProperty(key).trim());
+            sources.put(key, Source.FILE);
+        }
+
+        Set<String> known = new HashSet<>(values.keySet());
+        known.addAll(RULES.keySet());
+        for (String key : known) {
+            String value = environment.get(environmentName(key));
+            if (value != null) {
+                values.put(key, value.trim());
+                sources.put(key, Source.ENVIRONMENT);
+            }
+        }
+
+        Set<String> namespaces = new HashSet<>();
+        for (String key : known) {
+            namespaces.add(namespaceOf(key));
+        }
+        namespaces.add(namespaceOf(PROFILE_PREFIX));
+        namespaces.add(namespaceOf(PROFILE_KEY));
+        for (String key : systemProperties.stringPropertyNames()) {
+            if (key.indexOf('.') > 0 && namespaces.contains(namespaceOf(key))) {
+                values.put(key, systemProperties.getProperty(key).trim());
+                sources.put(key, Source.SYSTEM);
+            }
+        }
+        return validated(new FrameworkConfig(values, sources, ""));
+    }
+
+    /**
+     * Gets the configuration of a device profile: this configuration with every
+     * {@code profile.<name>.<key>} value applied to {@code <key>}.
+     * Profiles are built once and cached.
+     *
+     * @param name The profile name, usually the device name; empty for no profile
+     * @return The profile's configuration, or this configuration when the name is empty
+     * @throws IllegalStateException if a value of the profile is invalid
+     */
+    public FrameworkConfig forProfile(String name) {
+        if (name == null || name.isEmpty() || name.equals(profile)) {
+            return this;
+        }
+        return profiles.computeIfAbsent(name, n -> {
+            Map<String, String> merged = new TreeMap<>(values);
+            Map<String, Source> mergedSources = new TreeMap<>(sources);
+            String prefix = PROFILE_PREFIX + n + ".";
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                if (entry.getKey().startsWith(prefix)) {
+                    String key = entry.getKey().substring(prefix.length());
+                    merged.put(key, entry.getValue());
+                    mergedSources.put(key, Source.PROFILE);
+                }
+            }
+            return validated(new FrameworkConfig(merged, mergedSources, n));
+        });
+    }
+
+    /**
+     * Gets the name of the applied device profile.
+     *
+     * @return The profile name, or an empty string for none
+     */
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * Checks whether a key has a value.
+     *
+     * @param key The key
+     * @return true if any layer sets the key
+     */
+    public boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Gets the layer a value came from.
+     *
+     * @param key The key
+     * @return The source, or null if the key is not set
+     */
+    public Source getSource(String key) {
+        return sources.get(key);
+    }
+
+    /**
+     * Gets a string value.
+     *
+     * @param key The key
+     * @return The value, or null if the key is not set
+     */
+    public String getString(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Gets a string value.
+     *
+     * @param key The key
+     * @param defaultValue Value used when the key is not set
+     * @return The value
+     */
+    public String getString(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * Gets a string value that must be set.
+     *
+     * @param key The key
+     * @return The value
+     * @throws IllegalStateException if the key is not set
+     */
+    public String getRequiredString(String key) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException("Missing configuration: " + key);
+        }
+        return value;
+    }
+
+    /**
+     * Gets an integer value.
+     *
+     * @param key The key
+     * @param defaultValue Value used when the key is not set
+     * @return The value
+     * @throws IllegalStateException if the value is not an integer
+     */
+    public int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    /**
+     * Gets a long value.
+     *
+     * @param key The key
+     * @param defaultValue Value used when the key is not set
+     * @return The value
+     * @throws IllegalStateException if the value is not an integer
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value, "an integer");
+        }
+    }
+
+    /**
+     * Gets a decimal value.
+     *
+     * @param key The key
+     * @param defaultValue Value used when the key is not set
+     * @return The value
+     * @throws IllegalStateException if the value is not a number
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw invalid(key, value, "a number");
+        }
+    }
+
+    /**
+     * Gets a boolean value.
+     *
+     * @param key The key
+     * @param defaultValue Value used when the key is not set
+     * @return The value
+     * @throws IllegalStateException if the value is neither true nor false
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (bool(value) != null) {
+            throw invalid(key, value, "true or false");
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Gets a duration given in seconds.
+     *
+     * @param key The key
+     * @param defaultSeconds Seconds used when the key is not set
+     * @return The duration
+     */
+    public Duration getSeconds(String key, long defaultSeconds) {
+        return Duration.ofSeconds(getLong(key, defaultSeconds));
+    }
+
+    /**
+     * Gets a duration given in milliseconds.
+     *
+     * @param key The key
+     * @param defaultMillis Milliseconds used when the key is not set
+     * @return The duration
+     */
+    public Duration getMillis(String key, long defaultMillis) {
+        return Duration.ofMillis(getLong(key, defaultMillis));
+    }
+
+    /**
+     * Gets an enum value, matching the constant names case-insensitively.
+     *
+     * @param key The key
+     * @param type The enum class
+     * @param defaultValue Value used when the key is not set
+     * @param <E> The enum type
+     * @return The value
+     * @throws IllegalStateException if the value is not a constant of the enum
+     */
+    public <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value)) {
+                return constant;
+            }
+        }
+        throw invalid(key, value, "one of " + Arrays.toString(type.getEnumConstants()));
+    }
+
+    /**
+     * Copies the values into properties, for components configured from a Properties object.
+     *
+     * @return A new Properties object holding every value
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameworkConfig{" + values.size() + " keys" + (profile.isEmpty() ? "" : ", profile " + profile) + "}";
+    }
+
+    private int countOverrides() {
+        int overrides = 0;
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            if (entry.getValue() != Source.FILE) {
+                LoggerUtils.debug("Configuration {} set by {}", entry.getKey(), entry.getValue());
+                overrides++;
+            }
+        }
+        return overrides;
+    }
+
+    private static FrameworkConfig validated(FrameworkConfig config) {
+        List<String> errors = new ArrayList<>();
+        for (Map.Entry<String, Function<String, String>> rule : RULES.entrySet()) {
+            String value = config.values.get(rule.getKey());
+            if (value == null) {
+                continue;
+            }
+            String error = rule.getValue().apply(value);
+            if (error != null) {
+                errors.add(rule.getKey() + "=" + value + " (" + config.sources.get(rule.getKey()) + ") must be " + error);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid configuration"
+                    + (config.profile.isEmpty() ? "" : " for profile " + config.profile) + ":\n  "
+                    + String.join("\n  ", errors));
+        }
+        return config;
+    }
+
+    private static String environmentName(String key) {
+        return key.toUpperCase().replace('.', '_');
+    }
+
+    private static String namespaceOf(String key) {
+        int dot = key.indexOf('.');
+        return dot < 0 ? key : key.substring(0, dot);
+    }
+
+    private IllegalStateException invalid(String key, String value, String expected) {
+        return new IllegalStateException("Configuration " + key + "=" + value + " (" + sources.get(key)
+                + ") must be " + expected);
+    }
+
+    private static void rule(Function<String, String> check, String... keys) {
+        for (String key : keys) {
+            RULES.put(key, check);
+        }
+    }
+
+    // Each check returns null for a valid value, otherwise a description of what is expected
+
+    private static String bool(String value) {
+        return "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value) ? null : "true or false";
+    }
+
+    private static String integer(String value) {
+        try {
+            Long.parseLong(value);
+            return null;
+        } catch (NumberFormatException e) {
+            return "an integer";
+        }
+    }
+
+    private static String atLeast(String value, long min) {
+        try {
+            return Long.parseLong(value) >= min ? null : "at least " + min;
+        } catch (NumberFormatException e) {
+            return "an integer of at least " + min;
+        }
+    }
+
+    private static String probability(String value) {
+        try {
+            double probability = Double.parseDouble(value);
+            return probability >= 0 && probability <= 1 ? null : "between 0 and 1";
+        } catch (NumberFormatException e) {
+            return "a number between 0 and 1";
+        }
+    }
+
+    private static String oneOf(String value, String... allowed) {
+        for (String candidate : allowed) {
+            if (candidate.equalsIgnoreCase(value)) {
+                return null;
+            }
+        }
+        return "one of " + String.join(", ", allowed);
+    }
+
+    private static String partition(String value) {
+        String[] parts = value.split("/");
+        try {
+            if (value.isEmpty() || parts.length == 2 && Integer.parseInt(parts[0].trim()) >= 0
+                    && Integer.parseInt(parts[0].trim()) < Integer.parseInt(parts[1].trim())) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        return "empty or index/count with index below count";
+    }
+
+    private static String url(String value) {
+        try {
+            new URL(value);
+            return null;
+        } catch (MalformedURLException e) {
+            return "a URL";
+        }
+    }
+}
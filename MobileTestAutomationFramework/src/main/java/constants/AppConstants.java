@@ -11,17 +11,22 @@ public class AppConstants {
     public static final int EXTENDED_TIMEOUT = 30;
     public static final int SHORT_TIMEOUT = 5;
     
-    // Wait constants
+    // Wait constants for JavaUtils sleeps, deprecated in favor of PageUtils.waitForUiIdle()
+    @Deprecated
     public static final int LONG_WAIT = 10000; // 10 seconds
+    @Deprecated
     public static final int MEDIUM_WAIT = 5000; // 5 seconds
+    @Deprecated
     public static final int SHORT_WAIT = 2000; // 2 seconds
     
     // File paths
     public static final String SCREENSHOT_PATH = "screenshots/";
     public static final String REPORT_PATH = "reports/";
+    public static final String APP_INSTALL_CACHE_FILE = "test-history/app-installs.properties";
     
     // Test data
     public static final String TEST_DATA_FILE = "testdata/testdata.json";
+    public static final String LOGIN_FAILURES_FILE = "testdata/login-failures.csv";
     
     // Application specific constants
     public static final String LOGIN_PAGE_TITLE = "Login";
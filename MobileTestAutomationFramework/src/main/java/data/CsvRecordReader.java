@@ -0,0 +1,114 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the records of a CSV file whose first row holds the column names.
+ * Fields may be quoted with double quotes; quoted fields can contain commas, line breaks and
+ * doubled quotes. Empty lines are skipped and empty fields are read as empty strings.
+ */
+public class CsvRecordReader extends RecordReader {
+
+    private final BufferedReader reader;
+    private final String source;
+    private DataRecord.Columns columns;
+    private long line;
+
+    /**
+     * Constructor to initialize CsvRecordReader.
+     *
+     * @param reader The CSV content
+     * @param source Name of the content used in error messages, e.g. the file path
+     */
+    public CsvRecordReader(Reader reader, String source) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.source = source;
+    }
+
+    @Override
+    protected DataRecord readNext(long index) throws IOException {
+        if (columns == null) {
+            List<String> header = readRow();
+            if (header == null) {
+                return null;
+            }
+            columns = new DataRecord.Columns(header.stream().map(String::trim).toArray(String[]::new));
+        }
+        List<String> row = readRow();
+        if (row == null) {
+            return null;
+        }
+        if (row.size() > columns.size()) {
+            throw new IOException(source + " line " + line + ": " + row.size() + " fields but "
+                    + columns.size() + " columns");
+        }
+        return new DataRecord(columns, row.toArray(new String[0]), index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the fields of the next non-empty row.
+     *
+     * @return The fields, or null at the end of the content
+     * @throws IOException If the content cannot be read or a quote is not closed
+     */
+    private List<String> readRow() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isEmpty());
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        long startLine = line;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // A quoted field continues on the next line
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    throw new IOException(source + " line " + startLine + ": unclosed quote");
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+}
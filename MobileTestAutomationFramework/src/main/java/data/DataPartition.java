@@ -0,0 +1,111 @@
+package data;
+
+import java.util.Objects;
+
+/**
+ * A deterministic share of the records of a data file: partition {@code index} of {@code count}
+ * holds every record whose index modulo {@code count} equals {@code index}. Every record belongs to
+ * exactly one partition, whichever worker or device reads it and in whichever order partitions run.
+ */
+public final class DataPartition {
+
+    private static final DataPartition ALL = new DataPartition(0, 1);
+
+    private final int index;
+    private final int count;
+
+    /**
+     * Constructor to initialize DataPartition.
+     *
+     * @param index The zero-based partition index
+     * @param count The number of partitions
+     */
+    public DataPartition(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid partition " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Gets the partition holding every record.
+     *
+     * @return The single partition
+     */
+    public static DataPartition all() {
+        return ALL;
+    }
+
+    /**
+     * Parses a partition written as {@code index/count}, e.g. {@code 2/4}.
+     *
+     * @param text The partition, or an empty string for all records
+     * @return The partition
+     * @throws IllegalArgumentException if the text is malformed
+     */
+    public static DataPartition parse(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return ALL;
+        }
+        String[] parts = text.trim().split("/");
+        try {
+            if (parts.length == 2) {
+                return new DataPartition(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Partition must be written as index/count: " + text);
+    }
+
+    /**
+     * Checks whether a record belongs to this partition.
+     *
+     * @param record The record
+     * @return true if the partition holds the record
+     */
+    public boolean contains(DataRecord record) {
+        return record.getIndex() % count == index;
+    }
+
+    /**
+     * Gets the partition index.
+     *
+     * @return The zero-based index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the number of partitions.
+     *
+     * @return The partition count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DataPartition)) {
+            return false;
+        }
+        DataPartition other = (DataPartition) o;
+        return index == other.index && count == other.count;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, count);
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,134 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One record of a test data file, e.g. one account of a login matrix.
+ * Records of the same file share their column names, so a record only holds its values.
+ * The record index is its position in the file, which keeps partitioning independent of how the
+ * file is read or split.
+ */
+public final class DataRecord {
+
+    private final Columns columns;
+    private final String[] values;
+    private final long index;
+
+    DataRecord(Columns columns, String[] values, long index) {
+        this.columns = columns;
+        this.values = values;
+        this.index = index;
+    }
+
+    /**
+     * Gets the position of the record in its file.
+     *
+     * @return The zero-based record index
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param column The column name
+     * @return The value, or null if the record has no such column or the value is null
+     */
+    public String get(String column) {
+        Integer position = columns.positions.get(column);
+        return position == null || position >= values.length ? null : values[position];
+    }
+
+    /**
+     * Gets a value, falling back to a default when it is missing.
+     *
+     * @param column The column name
+     * @param defaultValue Value used when the column is missing or null
+     * @return The value
+     */
+    public String get(String column, String defaultValue) {
+        String value = get(column);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Gets a boolean value.
+     *
+     * @param column The column name
+     * @return true if the value is "true", ignoring case
+     */
+    public boolean getBoolean(String column) {
+        return Boolean.parseBoolean(get(column));
+    }
+
+    /**
+     * Gets the column names of the record.
+     *
+     * @return The column names: in file order for CSV files, sorted for JSON files
+     */
+    public List<String> getColumns() {
+        return columns.names;
+    }
+
+    /**
+     * Copies the record into a map.
+     *
+     * @return The values by column name, in column order
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String name : columns.names) {
+            map.put(name, get(name));
+        }
+        return map;
+    }
+
+    /**
+     * Describes the record for test reports. Values of columns whose name contains "password" are masked.
+     *
+     * @return The record index and values
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("#").append(index).append(" {");
+        for (int i = 0; i < columns.names.size(); i++) {
+            String name = columns.names.get(i);
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(name).append('=')
+                    .append(name.toLowerCase().contains("password") ? "***" : get(name));
+        }
+        return text.append('}').toString();
+    }
+
+    /**
+     * Column names shared by the records of a file.
+     */
+    static final class Columns {
+
+        private final List<String> names;
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        Columns(String... names) {
+            this.names = Collections.unmodifiableList(Arrays.asList(names.clone()));
+            for (int i = 0; i < names.length; i++) {
+                positions.putIfAbsent(names[i], i);
+            }
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        boolean hasNames(String[] other) {
+            return names.equals(Arrays.asList(other));
+        }
+    }
+}
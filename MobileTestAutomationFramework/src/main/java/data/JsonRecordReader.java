@@ -0,0 +1,134 @@
+package data;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.TreeSet;
+
+/**
+ * Streams the objects of a JSON array, parsing one object at a time.
+ * The array is either the whole document or, when a section is given, the value of that key in
+ * the top-level object (e.g. {@code "invalidAccounts"} in {@code {"validAccounts": [...],
+ * "invalidAccounts": [...]}}). Values of other keys before the section are parsed and dropped, so
+ * large arrays should be the document itself or come first. Nested values are kept as JSON text.
+ * A section that is not in the document is reported with an IllegalArgumentException.
+ */
+public class JsonRecordReader extends RecordReader {
+
+    private final Reader reader;
+    private final JSONTokener tokener;
+    private final String section;
+    private final String source;
+    private DataRecord.Columns columns;
+    private boolean started;
+
+    /**
+     * Constructor to initialize JsonRecordReader.
+     *
+     * @param reader The JSON content
+     * @param section Key of the array in the top-level object, or null if the document is the array
+     * @param source Name of the content used in error messages, e.g. the file path
+     */
+    public JsonRecordReader(Reader reader, String section, String source) {
+        this.reader = reader;
+        this.tokener = new JSONTokener(reader);
+        this.section = section;
+        this.source = section == null ? source : source + "#" + section;
+    }
+
+    @Override
+    protected DataRecord readNext(long index) throws IOException {
+        try {
+            if (!started) {
+                started = true;
+                openArray();
+                if (tokener.nextClean() == ']') {
+                    return null;
+                }
+                tokener.back();
+            } else {
+                char separator = tokener.nextClean();
+                if (separator == ']') {
+                    return null;
+                }
+                if (separator != ',') {
+                    throw new IOException(source + ": expected , or ] after record " + (index - 1) + " but found "
+                            + separator);
+                }
+            }
+            Object value = tokener.nextValue();
+            if (!(value instanceof JSONObject)) {
+                throw new IOException(source + ": record " + index + " is not an object");
+            }
+            return toRecord((JSONObject) value, index);
+        } catch (JSONException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Moves the tokener past the opening bracket of the records array.
+     * A missing section is an error rather than an empty array: a data provider without rows skips
+     * its test, so a misspelled section would otherwise pass unnoticed.
+     *
+     * @throws IOException If the document has another shape
+     * @throws IllegalArgumentException If the top-level object has no such section
+     */
+    private void openArray() throws IOException {
+        char first = tokener.nextClean();
+        if (section == null) {
+            if (first != '[') {
+                throw new IOException(source + ": expected an array");
+            }
+            return;
+        }
+        if (first != '{') {
+            throw new IOException(source + ": expected an object with a " + section + " array");
+        }
+        while (true) {
+            char c = tokener.nextClean();
+            if (c == '}') {
+                close();
+                throw new IllegalArgumentException(source + ": the document has no \"" + section + "\" section");
+            }
+            if (c == ',') {
+                c = tokener.nextClean();
+            }
+            if (c != '"') {
+                throw new IOException(source + ": expected a key but found " + c);
+            }
+            String key = tokener.nextString('"');
+            if (tokener.nextClean() != ':') {
+                throw new IOException(source + ": expected : after " + key);
+            }
+            if (key.equals(section)) {
+                if (tokener.nextClean() != '[') {
+                    throw new IOException(source + ": not an array");
+                }
+                return;
+            }
+            tokener.nextValue();
+        }
+    }
+
+    private DataRecord toRecord(JSONObject object, long index) {
+        String[] names = new TreeSet<>(object.keySet()).toArray(new String[0]);
+        if (columns == null || !columns.hasNames(names)) {
+            columns = new DataRecord.Columns(names);
+        }
+        String[] values = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Object value = object.get(names[i]);
+            values[i] = value == JSONObject.NULL ? null : String.valueOf(value);
+        }
+        return new DataRecord(columns, values, index);
+    }
+}
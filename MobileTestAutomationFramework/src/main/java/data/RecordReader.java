@@ -0,0 +1,63 @@
+package data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records of a test data file one at a time, holding only the current record in memory.
+ * Read errors are thrown as UncheckedIOException from {@link #hasNext()}.
+ */
+public abstract class RecordReader implements Iterator<DataRecord>, Closeable {
+
+    private DataRecord next;
+    private boolean finished;
+    private long index;
+
+    /**
+     * Reads the values of the next record.
+     *
+     * @param index The index the record will have
+     * @return The record, or null at the end of the file
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    protected abstract DataRecord readNext(long index) throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readNext(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (next == null) {
+                finished = true;
+                closeQuietly();
+            } else {
+                index++;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public DataRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DataRecord record = next;
+        next = null;
+        return record;
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // Everything has been read
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Entry point for test data files, returning records as TestNG data provider rows.
+ * Files are streamed: a data provider built here reads the next record only when TestNG asks for
+ * it, so a sequential data provider holds one record at a time however large the file is.
+ * The rows of a provider run serially: a test class's session is bound to the thread that set it up,
+ * so {@code @DataProvider(parallel = true)} is not supported. To run records side by side, split them
+ * over workers or devices with a {@link DataPartition}.
+ */
+public final class TestData {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestData() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Opens a CSV or JSON data file, chosen by its extension.
+     *
+     * @param filePath The path to the file
+     * @param section For JSON files, the key of the records array in the top-level object, or null
+     *                if the document is the array; ignored for CSV files
+     * @return A reader over the records; closed automatically once all records are read
+     * @throws IOException If the file cannot be opened or has an unknown extension
+     */
+    public static RecordReader open(String filePath, String section) throws IOException {
+        Path path = Paths.get(filePath);
+        String name = path.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return new CsvRecordReader(Files.newBufferedReader(path, StandardCharsets.UTF_8), filePath);
+        }
+        if (name.endsWith(".json")) {
+            return new JsonRecordReader(Files.newBufferedReader(path, StandardCharsets.UTF_8), section, filePath);
+        }
+        throw new IOException("Unsupported test data file (expected .csv or .json): " + filePath);
+    }
+
+    /**
+     * Builds data provider rows from the records of a partition, one record per row.
+     *
+     * @param filePath The path to the file
+     * @param section The JSON section, or null; see {@link #open(String, String)}
+     * @param partition The share of the records to return
+     * @return Lazily read rows, each holding a single DataRecord
+     * @throws IOException If the file cannot be opened
+     */
+    public static Iterator<Object[]> rows(String filePath, String section, DataPartition partition)
+            throws IOException {
+        return new PartitionRows(open(filePath, section), partition);
+    }
+
+    /**
+     * The rows of one partition, read on demand.
+     */
+    private static final class PartitionRows implements Iterator<Object[]> {
+
+        private final RecordReader reader;
+        private final DataPartition partition;
+        private DataRecord next;
+
+        private PartitionRows(RecordReader reader, DataPartition partition) {
+            this.reader = reader;
+            this.partition = partition;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && reader.hasNext()) {
+                DataRecord record = reader.next();
+                if (partition.contains(record)) {
+                    next = record;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object[] row = {next};
+            next = null;
+            return row;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+package fakeserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import utilities.LoggerUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Embeddable stand-in for an Appium server.
+ * Implements the W3C WebDriver endpoints the framework uses on top of a ScriptedApp per session,
+ * so BaseTest, the page objects and the tests run end to end without a device. Every command is
+ * delayed and may fail as configured by the LatencyProfile, which makes the server usable for
+ * load-testing the scheduler, waits and session pool, and for reproducing latency-induced flakiness.
+ * Command names follow Selenium's DriverCommand names (findElement, clickElement, ...).
+ */
+public class FakeAppiumServer implements AutoCloseable {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String SESSION = "(?:/wd/hub)?/session/([^/]+)";
+    private static final String ELEMENT = SESSION + "/element/([^/]+)";
+    private static final Pattern DRIVER_SCRIPT_ACTIONS = Pattern.compile("^const actions = (\\[.*]);$", Pattern.MULTILINE);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyProfile profile;
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, FakeSession> sessions = new ConcurrentHashMap<>();
+    private final Map<ScriptedApp.Screen, byte[]> screenshots = new EnumMap<>(ScriptedApp.Screen.class);
+
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+    private final AtomicLong appLaunches = new AtomicLong();
+    private final AtomicLong sessionsCreated = new AtomicLong();
+    private final AtomicInteger maxSessionCount = new AtomicInteger();
+    private final AtomicLong compressedRequests = new AtomicLong();
+    private volatile boolean driverScriptsEnabled = true;
+
+    /**
+     * Constructor to initialize FakeAppiumServer. Call {@link #start()} to accept connections.
+     *
+     * @param port The port to listen on, or 0 to pick a free port
+     * @param profile Latency and failures of the server
+     * @throws IOException If the port cannot be bound
+     */
+    public FakeAppiumServer(int port, LatencyProfile profile) throws IOException {
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fake-appium-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        registerRoutes();
+    }
+
+    /**
+     * Starts accepting connections.
+     *
+     * @return This server
+     */
+    public FakeAppiumServer start() {
+        server.start();
+        LoggerUtils.info("Fake Appium server listening on {} with {}", getUrl(), profile);
+        return this;
+    }
+
+    /**
+     * Stops the server, ending all sessions.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        sessions.clear();
+        LoggerUtils.info("Fake Appium server stopped. {}", this);
+    }
+
+    /**
+     * Gets the URL to pass to the driver.
+     *
+     * @return The server URL
+     */
+    public URL getUrl() {
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the number of open sessions.
+     *
+     * @return The session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of sessions created since the server started.
+     *
+     * @return The number of created sessions
+     */
+    public long getSessionsCreated() {
+        return sessionsCreated.get();
+    }
+
+    /**
+     * Gets the highest number of sessions that were open at the same time, e.g. to check that
+     * several devices really ran in parallel.
+     *
+     * @return The peak session count
+     */
+    public int getMaxSessionCount() {
+        return maxSessionCount.get();
+    }
+
+    /**
+     * Gets the number of commands received.
+     *
+     * @return The command count
+     */
+    public long getCommandCount() {
+        return commands.get();
+    }
+
+    /**
+     * Gets how often an app was relaunched in a live session (mobile: activateApp after terminateApp or clearApp).
+     *
+     * @return The number of app launches
+     */
+    public long getAppLaunches() {
+        return appLaunches.get();
+    }
+
+    /**
+     * Gets the number of commands failed on purpose.
+     *
+     * @return The number of injected failures
+     */
+    public long getInjectedFailures() {
+        return injectedFailures.get();
+    }
+
+    /**
+     * Gets the number of requests received with a gzipped body.
+     *
+     * @return The number of compressed requests
+     */
+    public long getCompressedRequests() {
+        return compressedRequests.get();
+    }
+
+    /**
+     * Sets whether driver scripts (execute_driver) are accepted, as with Appium's
+     * {@code --allow-insecure=execute_driver_script}. They are by default.
+     *
+     * @param enabled false to reject driver scripts like a default Appium server
+     * @return This server
+     */
+    public FakeAppiumServer setDriverScriptsEnabled(boolean enabled) {
+        this.driverScriptsEnabled = enabled;
+        return this;
+    }
+
+    private void registerRoutes() {
+        route("GET", "(?:/wd/hub)?/status", "status", (session, path, body) ->
+                new JSONObject().put("ready", true).put("message", "Fake Appium server"));
+        route("POST", "(?:/wd/hub)?/session", "newSession", (session, path, body) -> newSession(body));
+        route("DELETE", SESSION, "quit", (session, path, body) -> {
+            sessions.remove(path.group(1));
+            return null;
+        });
+        route("GET", SESSION, "getSession", (session, path, body) -> session.capabilities);
+        route("GET", SESSION + "/timeouts", "getTimeouts", (session, path, body) ->
+                new JSONObject().put("implicit", session.implicitWait.toMillis())
+                        .put("pageLoad", 300000).put("script", 30000));
+        route("POST", SESSION + "/timeouts", "setTimeout", (session, path, body) -> {
+            if (body.has("implicit")) {
+                session.implicitWait = Duration.ofMillis(body.getLong("implicit"));
+            }
+            return null;
+        });
+        route("POST", SESSION + "/element", "findElement", (session, path, body) ->
+                toElement(findWithImplicitWait(session, body, true).get(0)));
+        route("POST", SESSION + "/elements", "findElements", (session, path, body) -> {
+            JSONArray elements = new JSONArray();
+            findWithImplicitWait(session, body, false).forEach(id -> elements.put(toElement(id)));
+            return elements;
+        });
+        // Screens are flat, so elements have no children
+        route("POST", ELEMENT + "/element", "findChildElement", (session, path, body) -> {
+            session.app.isDisplayed(path.group(2));
+            throw WebDriverError.noSuchElement(body.optString("using"), body.optString("value"));
+        });
+        route("POST", ELEMENT + "/elements", "findChildElements", (session, path, body) -> {
+            session.app.isDisplayed(path.group(2));
+            return new JSONArray();
+        });
+        route("POST", ELEMENT + "/click", "clickElement", (session, path, body) -> {
+            session.app.click(path.group(2));
+            return null;
+        });
+        route("POST", ELEMENT + "/value", "sendKeysToElement", (session, path, body) -> {
+            session.app.sendKeys(path.group(2), textOf(body));
+            return null;
+        });
+        route("POST", ELEMENT + "/clear", "clearElement", (session, path, body) -> {
+            session.app.clear(path.group(2));
+            return null;
+        });
+        route("GET", ELEMENT + "/text", "getElementText", (session, path, body) ->
+                session.app.getText(path.group(2)));
+        route("GET", ELEMENT + "/displayed", "isElementDisplayed", (session, path, body) ->
+                session.app.isDisplayed(path.group(2)));
+        // Every element of the scripted screens is enabled and none is selected
+        route("GET", ELEMENT + "/enabled", "isElementEnabled", (session, path, body) -> {
+            session.app.isDisplayed(path.group(2));
+            return true;
+        });
+        route("GET", ELEMENT + "/selected", "isElementSelected", (session, path, body) -> {
+            session.app.isDisplayed(path.group(2));
+            return false;
+        });
+        route("GET", ELEMENT + "/attribute/([^/]+)", "getElementAttribute", (session, path, body) ->
+                session.app.getAttribute(path.group(2), path.group(3)));
+        route("GET", ELEMENT + "/rect", "getElementRect", (session, path, body) -> {
+            session.app.isDisplayed(path.group(2));
+            return new JSONObject().put("x", 0).put("y", 0).put("width", 100).put("height", 40);
+        });
+        route("POST", SESSION + "/appium/execute_driver", "executeDriverScript", (session, path, body) ->
+                runDriverScript(session, body));
+        route("POST", SESSION + "/execute/sync", "executeScript", (session, path, body) ->
+                runMobileCommand(session, body));
+        route("GET", SESSION + "/source", "getPageSource", (session, path, body) -> session.app.getPageSource());
+        route("GET", SESSION + "/screenshot", "screenshot", (session, path, body) ->
+                Base64.getEncoder().encodeToString(screenshotOf(session.app.getScreen())));
+        route("POST", SESSION + "/appium/start_recording_screen", "startRecordingScreen", (session, path, body) -> {
+            session.recordingSince = System.nanoTime();
+            return null;
+        });
+        route("POST", SESSION + "/appium/stop_recording_screen", "stopRecordingScreen", (session, path, body) -> {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - session.recordingSince);
+            return Base64.getEncoder().encodeToString(("fake video of " + millis + " ms")
+                    .getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private void route(String method, String pattern, String command, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(pattern + "/?"), command, handler));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        int status = 200;
+        JSONObject response = new JSONObject();
+        try {
+            Object value = dispatch(method, path, readBody(exchange));
+            response.put("value", value == null ? JSONObject.NULL : value);
+        } catch (WebDriverError e) {
+            status = e.getStatus();
+            response.put("value", new JSONObject().put("error", e.getError())
+                    .put("message", e.getMessage()).put("stacktrace", ""));
+        } catch (RuntimeException e) {
+            status = 500;
+            LoggerUtils.error("Fake Appium server failed on " + method + " " + path, e);
+            response.put("value", new JSONObject().put("error", "unknown error")
+                    .put("message", String.valueOf(e.getMessage())).put("stacktrace", ""));
+        }
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Object dispatch(String method, String path, JSONObject body) {
+        for (Route route : routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (!route.method.equals(method) || !matcher.matches()) {
+                continue;
+            }
+            commands.incrementAndGet();
+            FakeSession session = null;
+            if (!"status".equals(route.command) && !"newSession".equals(route.command)) {
+                session = sessions.get(matcher.group(1));
+                if (session == null) {
+                    throw WebDriverError.invalidSession(matcher.group(1));
+                }
+            }
+            sleep(profile.nextDelay(route.command));
+            boolean injectable = !"newSession".equals(route.command) && !"quit".equals(route.command);
+            if (injectable && profile.nextFailure(route.command)) {
+                injectedFailures.incrementAndGet();
+                throw new WebDriverError("unknown error", 500, "Injected failure of " + route.command);
+            }
+            return route.handler.handle(session, matcher, body);
+        }
+        throw WebDriverError.unknownCommand(method, path);
+    }
+
+    private JSONObject newSession(JSONObject body) {
+        JSONObject requested = body.optJSONObject("capabilities");
+        JSONObject capabilities = new JSONObject();
+        if (requested != null) {
+            JSONObject alwaysMatch = requested.optJSONObject("alwaysMatch");
+            if (alwaysMatch != null) {
+                alwaysMatch.keySet().forEach(key -> capabilities.put(key, alwaysMatch.get(key)));
+            }
+            JSONArray firstMatch = requested.optJSONArray("firstMatch");
+            if (firstMatch != null && firstMatch.length() > 0) {
+                JSONObject first = firstMatch.getJSONObject(0);
+                first.keySet().forEach(key -> capabilities.put(key, first.get(key)));
+            }
+        }
+        boolean ios = "ios".equalsIgnoreCase(capabilities.optString("platformName", "android"));
+        capabilities.put("platformName", ios ? "iOS" : "Android");
+        String appPackage = capabilities.optString(ios ? "appium:bundleId" : "appium:appPackage",
+                "com.example.mymobileapp");
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, new FakeSession(new ScriptedApp(ios, appPackage, profile.getTransitionDelay()),
+                capabilities));
+        sessionsCreated.incrementAndGet();
+        maxSessionCount.accumulateAndGet(sessions.size(), Math::max);
+        return new JSONObject().put("sessionId", sessionId).put("capabilities", capabilities);
+    }
+
+    /**
+     * Runs the app management extensions of the UiAutomator2 and XCUITest drivers on the scripted app.
+     * A terminated or cleared app starts again on the login screen when it is activated.
+     */
+    private Object runMobileCommand(FakeSession session, JSONObject body) {
+        String script = body.optString("script").trim();
+        switch (script) {
+            case "mobile: terminateApp":
+                boolean wasRunning = session.appRunning;
+                session.appRunning = false;
+                return wasRunning;
+            case "mobile: clearApp":
+                session.appRunning = false;
+                return null;
+            case "mobile: activateApp":
+                if (!session.appRunning) {
+                    session.app.restart();
+                    session.appRunning = true;
+                    appLaunches.incrementAndGet();
+                }
+                return null;
+            default:
+                throw new WebDriverError("unsupported operation", 500, "The fake server only runs the "
+                        + "mobile: terminateApp, activateApp and clearApp scripts, not " + script);
+        }
+    }
+
+    /**
+     * Runs a driver script built by global.ActionBatch. There is no JavaScript engine here: the
+     * script's action list (its first line) is run the way the script's own runner would, waiting for
+     * each element to be displayed before acting on it.
+     */
+    private JSONObject runDriverScript(FakeSession session, JSONObject body) {
+        if (!driverScriptsEnabled) {
+            throw new WebDriverError("unknown error", 500, "Potentially insecure feature 'execute_driver_script' "
+                    + "has not been enabled. If you want to enable this feature and accept the security "
+                    + "ramifications, please do so by following the documented instructions");
+        }
+        Matcher actions = DRIVER_SCRIPT_ACTIONS.matcher(body.optString("script"));
+        if (!actions.find()) {
+            throw new WebDriverError("unknown error", 500,
+                    "Could not execute driver script. The fake server only runs action batches");
+        }
+        JSONArray results = new JSONArray();
+        for (Object item : new JSONArray(actions.group(1))) {
+            JSONObject action = (JSONObject) item;
+            String using = action.getString("using");
+            String value = action.getString("value");
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(action.getLong("timeoutMs"));
+            String elementId = null;
+            while (elementId == null) {
+                List<String> found = session.app.find(using, value);
+                if (!found.isEmpty() && session.app.isDisplayed(found.get(0))) {
+                    elementId = found.get(0);
+                } else if (System.nanoTime() >= deadline) {
+                    throw new WebDriverError("unknown error", 500, "Could not execute driver script. "
+                            + "Original error was: Error: Timed out waiting for " + using + "=" + value);
+                } else {
+                    sleep(Duration.ofMillis(10));
+                }
+            }
+            switch (action.getString("type")) {
+                case "click":
+                    session.app.click(elementId);
+                    results.put(JSONObject.NULL);
+                    break;
+                case "sendKeys":
+                    if (action.optBoolean("clear")) {
+                        session.app.clear(elementId);
+                    }
+                    session.app.sendKeys(elementId, action.getString("text"));
+                    results.put(JSONObject.NULL);
+                    break;
+                default:
+                    results.put(session.app.getText(elementId));
+                    break;
+            }
+        }
+        return new JSONObject().put("result", results).put("logs", new JSONObject()
+                .put("log", new JSONArray()).put("warn", new JSONArray()).put("error", new JSONArray()));
+    }
+
+    /**
+     * Finds elements, polling until the session's implicit wait expires as a real server does.
+     */
+    private List<String> findWithImplicitWait(FakeSession session, JSONObject body, boolean single) {
+        String using = body.optString("using");
+        String value = body.optString("value");
+        long deadline = System.nanoTime() + session.implicitWait.toNanos();
+        while (true) {
+            List<String> found = session.app.find(using, value);
+            if (!found.isEmpty() || System.nanoTime() >= deadline) {
+                if (found.isEmpty() && single) {
+                    throw WebDriverError.noSuchElement(using, value);
+                }
+                return found;
+            }
+            sleep(Duration.ofMillis(10));
+        }
+    }
+
+    private static JSONObject toElement(String elementId) {
+        return new JSONObject().put(ELEMENT_KEY, elementId).put("ELEMENT", elementId);
+    }
+
+    private static String textOf(JSONObject body) {
+        if (body.has("text")) {
+            return body.getString("text");
+        }
+        StringBuilder text = new StringBuilder();
+        JSONArray keys = body.optJSONArray("value");
+        for (int i = 0; keys != null && i < keys.length(); i++) {
+            text.append(keys.getString(i));
+        }
+        return text.toString();
+    }
+
+    private synchronized byte[] screenshotOf(ScriptedApp.Screen screen) {
+        return screenshots.computeIfAbsent(screen, s -> {
+            BufferedImage image = new BufferedImage(90, 160, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(s == ScriptedApp.Screen.LOGIN ? Color.WHITE : Color.LIGHT_GRAY);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ImageIO.write(image, "png", out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        });
+    }
+
+    private JSONObject readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        // Appium accepts gzipped bodies, as does any Express server
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            compressedRequests.incrementAndGet();
+            try (InputStream in = new GZIPInputStream(exchange.getRequestBody())) {
+                bytes = in.readAllBytes();
+            }
+        } else {
+            bytes = exchange.getRequestBody().readAllBytes();
+        }
+        if (bytes.length == 0) {
+            return new JSONObject();
+        }
+        try {
+            return new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            throw new WebDriverError("invalid argument", 400, "Request body is not a JSON object");
+        }
+    }
+
+    private static void sleep(Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis(), delay.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverError("unknown error", 500, "Interrupted");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FakeAppiumServer[sessions=" + sessions.size() + ", created=" + sessionsCreated
+                + ", commands=" + commands + ", injectedFailures=" + injectedFailures + "]";
+    }
+
+    /**
+     * Runs the server on its own, e.g. to point a full suite run at it.
+     * Latency is read from system properties with the prefix "fake.server.", as in app.properties.
+     *
+     * @param args Optional port, 4723 by default
+     * @throws IOException If the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4723;
+        FakeAppiumServer fake = new FakeAppiumServer(port,
+                LatencyProfile.fromProperties(System.getProperties(), "fake.server.")).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(fake::close));
+    }
+
+    /**
+     * Handles one command of a session.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(FakeSession session, Matcher path, JSONObject body);
+    }
+
+    /**
+     * Endpoint of a command.
+     */
+    private static final class Route {
+        private final String method;
+        private final Pattern pattern;
+        private final String command;
+        private final Handler handler;
+
+        private Route(String method, Pattern pattern, String command, Handler handler) {
+            this.method = method;
+            this.pattern = pattern;
+            this.command = command;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * State of one session.
+     */
+    private static final class FakeSession {
+        private final ScriptedApp app;
+        private final JSONObject capabilities;
+        private volatile Duration implicitWait = Duration.ZERO;
+        private volatile long recordingSince = System.nanoTime();
+        private volatile boolean appRunning = true;
+
+        private FakeSession(ScriptedApp app, JSONObject capabilities) {
+            this.app = app;
+            this.capabilities = capabilities;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package fakeserver;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * How slow and unreliable the fake server is.
+ * Every command is delayed by a base latency (or a per-command latency) plus a uniformly random
+ * jitter, and fails with the configured probability. Screen transitions, e.g. from the login screen
+ * to the home screen, take {@link #getTransitionDelay()} before the new screen shows. The random
+ * source is seeded, so a flaky run can be reproduced by reusing its seed.
+ * Instances are immutable; the {@code with...} methods return modified copies.
+ */
+public final class LatencyProfile {
+
+    private final Duration latency;
+    private final Duration jitter;
+    private final double failureRate;
+    private final Duration transitionDelay;
+    private final Map<String, Duration> commandLatencies;
+    private final Map<String, Double> commandFailureRates;
+    private final long seed;
+    private final Random random;
+
+    private LatencyProfile(Duration latency, Duration jitter, double failureRate, Duration transitionDelay,
+                           Map<String, Duration> commandLatencies, Map<String, Double> commandFailureRates,
+                           long seed) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("Failure rate must be between 0 and 1: " + failureRate);
+        }
+        this.latency = latency;
+        this.jitter = jitter;
+        this.failureRate = failureRate;
+        this.transitionDelay = transitionDelay;
+        this.commandLatencies = Map.copyOf(commandLatencies);
+        this.commandFailureRates = Map.copyOf(commandFailureRates);
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Gets a profile without latency or failures.
+     *
+     * @return The profile
+     */
+    public static LatencyProfile none() {
+        return new LatencyProfile(Duration.ZERO, Duration.ZERO, 0, Duration.ZERO, Map.of(), Map.of(), 0);
+    }
+
+    /**
+     * Reads a profile from properties:
+     * {@code <prefix>latencyMs}, {@code <prefix>jitterMs}, {@code <prefix>failureRate},
+     * {@code <prefix>transitionMs}, {@code <prefix>seed} and {@code <prefix>latencyMs.<command>}.
+     *
+     * @param properties The properties
+     * @param prefix The key prefix, e.g. "fake.server."
+     * @return The profile
+     */
+    public static LatencyProfile fromProperties(Properties properties, String prefix) {
+        LatencyProfile profile = none()
+                .withLatency(Duration.ofMillis(Long.parseLong(properties.getProperty(prefix + "latencyMs", "0"))))
+                .withJitter(Duration.ofMillis(Long.parseLong(properties.getProperty(prefix + "jitterMs", "0"))))
+                .withFailureRate(Double.parseDouble(properties.getProperty(prefix + "failureRate", "0")))
+                .withTransitionDelay(Duration.ofMillis(
+                        Long.parseLong(properties.getProperty(prefix + "transitionMs", "0"))))
+                .withSeed(Long.parseLong(properties.getProperty(prefix + "seed", "0")));
+        String commandPrefix = prefix + "latencyMs.";
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(commandPrefix)) {
+                profile = profile.withCommandLatency(key.substring(commandPrefix.length()),
+                        Duration.ofMillis(Long.parseLong(properties.getProperty(key))));
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Sets the latency of every command without a per-command latency.
+     *
+     * @param commandLatency The base latency
+     * @return The modified profile
+     */
+    public LatencyProfile withLatency(Duration commandLatency) {
+        return new LatencyProfile(commandLatency, jitter, failureRate, transitionDelay, commandLatencies,
+                commandFailureRates, seed);
+    }
+
+    /**
+     * Sets the largest random delay added to every command.
+     *
+     * @param maxJitter The maximum jitter
+     * @return The modified profile
+     */
+    public LatencyProfile withJitter(Duration maxJitter) {
+        return new LatencyProfile(latency, maxJitter, failureRate, transitionDelay, commandLatencies,
+                commandFailureRates, seed);
+    }
+
+    /**
+     * Sets the probability that a command fails. Session creation and deletion never fail.
+     *
+     * @param rate The probability, between 0 and 1
+     * @return The modified profile
+     */
+    public LatencyProfile withFailureRate(double rate) {
+        return new LatencyProfile(latency, jitter, rate, transitionDelay, commandLatencies,
+                commandFailureRates, seed);
+    }
+
+    /**
+     * Sets how long a new screen takes to show after the action that opens it.
+     *
+     * @param delay The transition delay
+     * @return The modified profile
+     */
+    public LatencyProfile withTransitionDelay(Duration delay) {
+        return new LatencyProfile(latency, jitter, failureRate, delay, commandLatencies,
+                commandFailureRates, seed);
+    }
+
+    /**
+     * Sets the latency of one command.
+     *
+     * @param command The command name, e.g. "findElement" or "getPageSource"
+     * @param commandLatency The latency of the command
+     * @return The modified profile
+     */
+    public LatencyProfile withCommandLatency(String command, Duration commandLatency) {
+        Map<String, Duration> latencies = new HashMap<>(commandLatencies);
+        latencies.put(command, commandLatency);
+        return new LatencyProfile(latency, jitter, failureRate, transitionDelay, latencies,
+                commandFailureRates, seed);
+    }
+
+    /**
+     * Sets the failure probability of one command.
+     *
+     * @param command The command name, e.g. "clickElement"
+     * @param rate The probability, between 0 and 1
+     * @return The modified profile
+     */
+    public LatencyProfile withCommandFailureRate(String command, double rate) {
+        Map<String, Double> rates = new HashMap<>(commandFailureRates);
+        rates.put(command, rate);
+        return new LatencyProfile(latency, jitter, failureRate, transitionDelay, commandLatencies, rates, seed);
+    }
+
+    /**
+     * Sets the seed of the random source used for jitter and failures.
+     *
+     * @param randomSeed The seed
+     * @return The modified profile
+     */
+    public LatencyProfile withSeed(long randomSeed) {
+        return new LatencyProfile(latency, jitter, failureRate, transitionDelay, commandLatencies,
+                commandFailureRates, randomSeed);
+    }
+
+    /**
+     * Draws the delay of one command.
+     *
+     * @param command The command name
+     * @return The delay to apply
+     */
+    Duration nextDelay(String command) {
+        Duration base = commandLatencies.getOrDefault(command, latency);
+        if (jitter.isZero()) {
+            return base;
+        }
+        return base.plusNanos((long) (random.nextDouble() * jitter.toNanos()));
+    }
+
+    /**
+     * Draws whether one command fails.
+     *
+     * @param command The command name
+     * @return true if the command must fail
+     */
+    boolean nextFailure(String command) {
+        double rate = commandFailureRates.getOrDefault(command, failureRate);
+        return rate > 0 && random.nextDouble() < rate;
+    }
+
+    /**
+     * Gets how long a new screen takes to show.
+     *
+     * @return The transition delay
+     */
+    public Duration getTransitionDelay() {
+        return transitionDelay;
+    }
+
+    /**
+     * Gets the seed of the random source.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyProfile[latency=" + latency.toMillis() + "ms, jitter=" + jitter.toMillis()
+                + "ms, failureRate=" + failureRate + ", transition=" + transitionDelay.toMillis()
+                + "ms, seed=" + seed + ", commands=" + commandLatencies + "]";
+    }
+}
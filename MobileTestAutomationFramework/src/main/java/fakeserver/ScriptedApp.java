@@ -0,0 +1,417 @@
+package fakeserver;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The app under test as seen through one fake session.
+ * A login screen with username, password and login button leads to a home screen when the valid
+ * credentials are entered; other credentials show the login error. Screen changes take the
+ * transition delay of the latency profile, and elements found on a previous screen become stale.
+ * The UI is served in the page source format of the session's platform, so PageSnapshot and
+ * XPath locators work as against a real device.
+ */
+class ScriptedApp {
+
+    static final String VALID_USERNAME = "validuser";
+    static final String VALID_PASSWORD = "validpassword";
+    static final String LOGIN_ERROR = "Invalid username or password";
+    static final String HOME_TITLE = "Home";
+
+    private static final String INDEX = "fake.index";
+
+    /**
+     * Screens of the app.
+     */
+    enum Screen {
+        LOGIN,
+        HOME
+    }
+
+    private final boolean ios;
+    private final String appPackage;
+    private final Duration transitionDelay;
+
+    private Screen screen = Screen.LOGIN;
+    private Screen pendingScreen;
+    private long pendingAt;
+    private long errorAt = Long.MAX_VALUE;
+    private int generation;
+    private List<Node> nodes;
+    private String username = "";
+    private String password = "";
+
+    /**
+     * Constructor to initialize ScriptedApp.
+     *
+     * @param ios true to serve the iOS page source format, false for Android
+     * @param appPackage Package of the app, used in Android resource ids
+     * @param transitionDelay How long a screen change takes
+     */
+    ScriptedApp(boolean ios, String appPackage, Duration transitionDelay) {
+        this.ios = ios;
+        this.appPackage = appPackage;
+        this.transitionDelay = transitionDelay;
+        this.nodes = build(screen);
+    }
+
+    /**
+     * Restarts the app on the login screen.
+     */
+    synchronized void restart() {
+        username = "";
+        password = "";
+        errorAt = Long.MAX_VALUE;
+        pendingScreen = null;
+        show(Screen.LOGIN);
+    }
+
+    /**
+     * Gets the screen currently shown.
+     *
+     * @return The screen
+     */
+    synchronized Screen getScreen() {
+        settle();
+        return screen;
+    }
+
+    /**
+     * Finds elements on the current screen.
+     *
+     * @param using The W3C locator strategy
+     * @param value The locator value
+     * @return Ids of the matching elements, in document order
+     */
+    synchronized List<String> find(String using, String value) {
+        settle();
+        List<String> ids = new ArrayList<>();
+        if ("xpath".equals(using)) {
+            for (int index : evaluateXPath(value)) {
+                ids.add(idOf(index));
+            }
+            return ids;
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (node.isShown() && matches(node, using, value)) {
+                ids.add(idOf(i));
+            }
+        }
+        return ids;
+    }
+
+    private boolean matches(Node node, String using, String value) {
+        switch (using) {
+            case "id":
+                return value.equals(node.id) || value.equals(resourceIdOf(node));
+            case "accessibility id":
+                return value.equals(node.id);
+            case "class name":
+                return value.equals(node.type);
+            case "css selector":
+                // Selenium rewrites By.id and By.name into CSS; only those forms are understood
+                String id = value.replaceAll("^\\*?\\[(?:id|name)=[\"']?(.*?)[\"']?]$", "$1").replaceAll("^#", "");
+                return id.equals(node.id);
+            default:
+                throw WebDriverError.invalidSelector(using);
+        }
+    }
+
+    /**
+     * Clicks an element.
+     *
+     * @param elementId Id of the element
+     */
+    synchronized void click(String elementId) {
+        Node node = resolve(elementId);
+        if ("login_button".equals(node.id)) {
+            if (VALID_USERNAME.equals(username) && VALID_PASSWORD.equals(password)) {
+                pendingScreen = Screen.HOME;
+                pendingAt = System.nanoTime() + transitionDelay.toNanos();
+            } else {
+                errorAt = Math.min(errorAt, System.nanoTime() + transitionDelay.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Types into an element. As with the real drivers, the text replaces the content of the field on
+     * Android and is appended to it on iOS.
+     *
+     * @param elementId Id of the element
+     * @param text The text to type
+     */
+    synchronized void sendKeys(String elementId, String text) {
+        Node node = resolve(elementId);
+        if ("username_input".equals(node.id)) {
+            username = ios ? username + text : text;
+            node.text = username;
+        } else if ("password_input".equals(node.id)) {
+            password = ios ? password + text : text;
+            node.text = "•".repeat(password.length());
+        }
+    }
+
+    /**
+     * Clears an input element.
+     *
+     * @param elementId Id of the element
+     */
+    synchronized void clear(String elementId) {
+        Node node = resolve(elementId);
+        if ("username_input".equals(node.id)) {
+            username = "";
+        } else if ("password_input".equals(node.id)) {
+            password = "";
+        }
+        node.text = "";
+    }
+
+    /**
+     * Gets the visible text of an element.
+     *
+     * @param elementId Id of the element
+     * @return The text
+     */
+    synchronized String getText(String elementId) {
+        return resolve(elementId).text;
+    }
+
+    /**
+     * Checks whether an element is displayed.
+     *
+     * @param elementId Id of the element
+     * @return true if it is displayed
+     */
+    synchronized boolean isDisplayed(String elementId) {
+        return resolve(elementId).isShown();
+    }
+
+    /**
+     * Gets an attribute of an element, using the attribute names of the session's platform.
+     *
+     * @param elementId Id of the element
+     * @param name The attribute name
+     * @return The value, or null if the element has no such attribute
+     */
+    synchronized String getAttribute(String elementId, String name) {
+        Element element = elementAt(render(), nodes.indexOf(resolve(elementId)));
+        if (element == null || !element.hasAttribute(name)) {
+            return null;
+        }
+        return element.getAttribute(name);
+    }
+
+    /**
+     * Gets the page source of the current screen.
+     *
+     * @return The UI hierarchy as XML
+     */
+    synchronized String getPageSource() {
+        settle();
+        try {
+            StringWriter out = new StringWriter();
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.transform(new DOMSource(render()), new StreamResult(out));
+            return out.toString();
+        } catch (TransformerException e) {
+            throw new IllegalStateException("Failed to render page source", e);
+        }
+    }
+
+    private Node resolve(String elementId) {
+        settle();
+        int separator = elementId.indexOf('-');
+        try {
+            if (separator > 0 && Integer.parseInt(elementId.substring(0, separator)) == generation) {
+                return nodes.get(Integer.parseInt(elementId.substring(separator + 1)));
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            // Not an id of this session
+        }
+        throw WebDriverError.staleElement(elementId);
+    }
+
+    private String idOf(int index) {
+        return generation + "-" + index;
+    }
+
+    private void settle() {
+        long now = System.nanoTime();
+        if (pendingScreen != null && now >= pendingAt) {
+            Screen next = pendingScreen;
+            pendingScreen = null;
+            show(next);
+        }
+        if (screen == Screen.LOGIN && now >= errorAt) {
+            for (Node node : nodes) {
+                if ("error_message".equals(node.id)) {
+                    node.visible = true;
+                }
+            }
+        }
+    }
+
+    private void show(Screen next) {
+        screen = next;
+        generation++;
+        nodes = build(next);
+    }
+
+    private List<Node> build(Screen target) {
+        List<Node> built = new ArrayList<>();
+        if (target == Screen.LOGIN) {
+            built.add(new Node("username_input", input(), ""));
+            built.add(new Node("password_input", ios ? "XCUIElementTypeSecureTextField" : "android.widget.EditText", ""));
+            built.add(new Node("login_button", button(), "Login"));
+            Node error = new Node("error_message", label(), LOGIN_ERROR);
+            error.visible = false;
+            built.add(error);
+        } else {
+            built.add(new Node("home_title", label(), HOME_TITLE));
+            built.add(new Node("profile_button", button(), "Profile"));
+            built.add(new Node("settings_button", button(), "Settings"));
+            built.add(new Node("notifications_button", button(), "Notifications"));
+            built.add(new Node("search_button", button(), "Search"));
+        }
+        return built;
+    }
+
+    private String input() {
+        return ios ? "XCUIElementTypeTextField" : "android.widget.EditText";
+    }
+
+    private String button() {
+        return ios ? "XCUIElementTypeButton" : "android.widget.Button";
+    }
+
+    private String label() {
+        return ios ? "XCUIElementTypeStaticText" : "android.widget.TextView";
+    }
+
+    private String resourceIdOf(Node node) {
+        return appPackage + ":id/" + node.id;
+    }
+
+    /**
+     * Renders the shown nodes as a DOM in the page source format of the platform.
+     * Each element carries the index of its node as user data, so XPath results map back to nodes.
+     */
+    private Document render() {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+        Element root = document.createElement(ios ? "XCUIElementTypeApplication" : "hierarchy");
+        document.appendChild(root);
+        Element parent = root;
+        if (!ios) {
+            parent = document.createElement("android.widget.FrameLayout");
+            parent.setAttribute("class", "android.widget.FrameLayout");
+            parent.setAttribute("package", appPackage);
+            parent.setAttribute("displayed", "true");
+            parent.setAttribute("enabled", "true");
+            root.appendChild(parent);
+        } else {
+            root.setAttribute("type", "XCUIElementTypeApplication");
+            root.setAttribute("name", appPackage);
+            root.setAttribute("visible", "true");
+            root.setAttribute("enabled", "true");
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (!node.isShown()) {
+                continue;
+            }
+            Element element = document.createElement(node.type);
+            if (ios) {
+                element.setAttribute("type", node.type);
+                element.setAttribute("name", node.id);
+                element.setAttribute("label", node.text);
+                element.setAttribute("value", node.text);
+                element.setAttribute("visible", "true");
+            } else {
+                element.setAttribute("class", node.type);
+                element.setAttribute("package", appPackage);
+                element.setAttribute("resource-id", resourceIdOf(node));
+                element.setAttribute("content-desc", node.id);
+                element.setAttribute("text", node.text);
+                element.setAttribute("displayed", "true");
+                element.setAttribute("clickable", String.valueOf(node.type.endsWith("Button")));
+            }
+            element.setAttribute("enabled", "true");
+            element.setUserData(INDEX, i, null);
+            parent.appendChild(element);
+        }
+        return document;
+    }
+
+    private static Element elementAt(Document document, int index) {
+        NodeList all = document.getElementsByTagName("*");
+        for (int i = 0; i < all.getLength(); i++) {
+            Element element = (Element) all.item(i);
+            if (Integer.valueOf(index).equals(element.getUserData(INDEX))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private List<Integer> evaluateXPath(String expression) {
+        try {
+            NodeList matches = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(expression, render(), XPathConstants.NODESET);
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < matches.getLength(); i++) {
+                Object index = matches.item(i).getUserData(INDEX);
+                if (index != null) {
+                    indexes.add((Integer) index);
+                }
+            }
+            return indexes;
+        } catch (XPathExpressionException e) {
+            throw new WebDriverError("invalid selector", 400, "Invalid XPath: " + expression);
+        }
+    }
+
+    /**
+     * One element of a screen.
+     */
+    private static final class Node {
+        private final String id;
+        private final String type;
+        private String text;
+        private boolean visible = true;
+
+        private Node(String id, String type, String text) {
+            this.id = id;
+            this.type = type;
+            this.text = text;
+        }
+
+        private boolean isShown() {
+            return visible;
+        }
+    }
+}
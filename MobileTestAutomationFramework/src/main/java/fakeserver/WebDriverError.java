@@ -0,0 +1,54 @@
+package fakeserver;
+
+/**
+ * W3C WebDriver error returned by the fake server, e.g. "no such element" with HTTP status 404.
+ */
+class WebDriverError extends RuntimeException {
+
+    private final String error;
+    private final int status;
+
+    /**
+     * Constructor to initialize WebDriverError.
+     *
+     * @param error The W3C error code, e.g. "no such element"
+     * @param status The HTTP status of the response
+     * @param message The error message
+     */
+    WebDriverError(String error, int status, String message) {
+        super(message);
+        this.error = error;
+        this.status = status;
+    }
+
+    static WebDriverError noSuchElement(String using, String value) {
+        return new WebDriverError("no such element", 404, "An element could not be located on the page using "
+                + using + "=" + value);
+    }
+
+    static WebDriverError staleElement(String elementId) {
+        return new WebDriverError("stale element reference", 404, "Element " + elementId
+                + " is no longer attached to the page");
+    }
+
+    static WebDriverError invalidSession(String sessionId) {
+        return new WebDriverError("invalid session id", 404, "No session " + sessionId);
+    }
+
+    static WebDriverError unknownCommand(String method, String path) {
+        return new WebDriverError("unknown command", 404, "The fake server does not implement " + method + " " + path);
+    }
+
+    static WebDriverError invalidSelector(String using) {
+        return new WebDriverError("invalid selector", 400, "Locator strategy '" + using
+                + "' is not supported by the fake server");
+    }
+
+    String getError() {
+        return error;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
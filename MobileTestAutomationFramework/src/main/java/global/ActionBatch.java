@@ -0,0 +1,310 @@
+package global;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.driverscripts.ScriptOptions;
+import io.appium.java_client.driverscripts.ScriptType;
+import locators.ElementCache;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import utilities.LoggerUtils;
+import waits.WaitEngine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A sequence of element actions sent to the server in one request.
+ * The actions are run on the server by Appium's driver script command (execute_driver), which waits
+ * for each element and acts on it without a client round trip in between, so a login costs one
+ * request instead of one per wait, lookup and action. Servers that reject driver scripts (Appium
+ * only allows them with {@code --allow-insecure=execute_driver_script}) get the same actions one
+ * by one through the page's own methods; the first rejection is remembered per session.
+ * Only elements registered with the element cache can be batched, as the script needs their locators.
+ */
+public class ActionBatch {
+
+    /** How often the script checks whether an element is ready. */
+    private static final int POLL_MILLIS = 100;
+    private static final String ACTIONS_PREFIX = "const actions = ";
+    /** Name of Appium's execute_driver command in the java client's command repository. */
+    private static final String EXECUTE_DRIVER_SCRIPT = "executeDriverScript";
+
+    private static final Map<AppiumDriver, Boolean> UNSUPPORTED = Collections.synchronizedMap(new WeakHashMap<>());
+    private static volatile boolean enabled = true;
+
+    private final PageUtils page;
+    private final List<Action> actions = new ArrayList<>();
+
+    ActionBatch(PageUtils page) {
+        this.page = page;
+    }
+
+    /**
+     * Enables or disables batching for all pages. When disabled, batches run action by action.
+     *
+     * @param batchingEnabled false to always run actions one by one
+     */
+    public static void setEnabled(boolean batchingEnabled) {
+        enabled = batchingEnabled;
+    }
+
+    /**
+     * Checks whether batching is enabled.
+     *
+     * @return true if batches are sent as driver scripts
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds entering text in an input field once it is visible, replacing its content. Android sets
+     * the field's value; on iOS, where typing appends, the script clears the field first.
+     *
+     * @param element WebElement to enter text into
+     * @param text Text to enter
+     * @return This batch
+     */
+    public ActionBatch sendKeys(WebElement element, String text) {
+        actions.add(new Action(Action.Type.SEND_KEYS, element, text));
+        return this;
+    }
+
+    /**
+     * Adds clicking an element once it is clickable.
+     *
+     * @param element WebElement to click
+     * @return This batch
+     */
+    public ActionBatch click(WebElement element) {
+        actions.add(new Action(Action.Type.CLICK, element, null));
+        return this;
+    }
+
+    /**
+     * Adds reading the text of an element once it is visible.
+     *
+     * @param element WebElement to read
+     * @return This batch
+     */
+    public ActionBatch getText(WebElement element) {
+        actions.add(new Action(Action.Type.GET_TEXT, element, null));
+        return this;
+    }
+
+    /**
+     * Gets the number of actions in the batch.
+     *
+     * @return The action count
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * Runs the actions, in one request when the server supports driver scripts.
+     *
+     * @return One entry per action: the text for getText actions, null for the others
+     * @throws TimeoutException if an element did not become ready in time
+     */
+    public List<String> run() {
+        if (actions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        AppiumDriver driver = page.getDriver();
+        List<By> locators = enabled && !UNSUPPORTED.containsKey(driver) ? locatorsOf(page.getElementCache()) : null;
+        if (locators != null) {
+            try {
+                return runScript(driver, locators);
+            } catch (UnsupportedCommandException e) {
+                markUnsupported(driver, e);
+            } catch (WebDriverException e) {
+                if (!isRejectedScript(e)) {
+                    throw e;
+                }
+                markUnsupported(driver, e);
+            }
+        }
+        return runSequentially();
+    }
+
+    /**
+     * Builds the driver script of the batch: a fixed WebdriverIO runner over the list of actions.
+     *
+     * @param locators The locator of every action
+     * @param timeout How long each element may take to become ready
+     * @return The script source
+     */
+    private String toScript(List<By> locators, Duration timeout) {
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < actions.size(); i++) {
+            Action action = actions.get(i);
+            By.Remotable.Parameters parameters = ((By.Remotable) locators.get(i)).getRemoteParameters();
+            JSONObject json = new JSONObject()
+                    .put("type", action.type.scriptName)
+                    .put("using", parameters.using())
+                    .put("value", parameters.value())
+                    .put("timeoutMs", timeout.toMillis());
+            if (action.text != null) {
+                json.put("text", action.text);
+            }
+            if (action.type == Action.Type.SEND_KEYS && page.appendsTypedText()) {
+                json.put("clear", true);
+            }
+            list.put(json);
+        }
+        return String.join("\n",
+                ACTIONS_PREFIX + list + ";",
+                "const W3C = 'element-6066-11e4-a52e-4f735466cecf';",
+                "const sleep = ms => new Promise(resolve => setTimeout(resolve, ms));",
+                "const results = [];",
+                "for (const a of actions) {",
+                "  const deadline = Date.now() + a.timeoutMs;",
+                "  let id = null;",
+                "  while (id === null) {",
+                "    try {",
+                "      const found = await driver.findElement(a.using, a.value);",
+                "      const candidate = found[W3C] || found.ELEMENT;",
+                "      if (await driver.isElementDisplayed(candidate)",
+                "          && (a.type !== 'click' || await driver.isElementEnabled(candidate))) {",
+                "        id = candidate;",
+                "      }",
+                "    } catch (e) {",
+                "      // Not on screen yet",
+                "    }",
+                "    if (id === null) {",
+                "      if (Date.now() > deadline) {",
+                "        throw new Error('Timed out waiting for ' + a.using + '=' + a.value);",
+                "      }",
+                "      await sleep(" + POLL_MILLIS + ");",
+                "    }",
+                "  }",
+                "  if (a.type === 'click') {",
+                "    await driver.elementClick(id);",
+                "    results.push(null);",
+                "  } else if (a.type === 'sendKeys') {",
+                "    if (a.clear) {",
+                "      await driver.elementClear(id);",
+                "    }",
+                "    await driver.elementSendKeys(id, a.text);",
+                "    results.push(null);",
+                "  } else {",
+                "    results.push(await driver.getElementText(id));",
+                "  }",
+                "}",
+                "return results;");
+    }
+
+    private List<By> locatorsOf(ElementCache cache) {
+        List<By> locators = new ArrayList<>();
+        for (Action action : actions) {
+            ElementCache.ElementKey key = cache.keyOf(action.element);
+            if (key == null) {
+                LoggerUtils.debug("Running batch of {} one by one: an element has no registered locator",
+                        page.getClass().getSimpleName());
+                return null;
+            }
+            locators.add(key.getLocator().toBy());
+        }
+        return locators;
+    }
+
+    private List<String> runScript(AppiumDriver driver, List<By> locators) {
+        Duration timeout = WaitEngine.getDefaultTimeout();
+        Map<String, Object> parameters = new HashMap<>(new ScriptOptions()
+                .withScriptType(ScriptType.WEBDRIVERIO)
+                // Room for every action to wait out its own timeout
+                .withTimeout(timeout.toMillis() * actions.size() + 1000)
+                .build());
+        parameters.put("script", toScript(locators, timeout));
+        Object value;
+        try {
+            value = driver.execute(EXECUTE_DRIVER_SCRIPT, parameters).getValue();
+        } catch (WebDriverException e) {
+            if (String.valueOf(e.getMessage()).contains("Timed out waiting for")) {
+                throw new TimeoutException("Batched actions of " + page.getClass().getSimpleName()
+                        + " timed out: " + e.getMessage(), e);
+            }
+            throw e;
+        }
+        Object result = value instanceof Map ? ((Map<?, ?>) value).get("result") : null;
+        List<String> results = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object item : (List<?>) result) {
+                results.add(item == null ? null : String.valueOf(item));
+            }
+        }
+        LoggerUtils.debug("Ran {} actions of {} in one request", actions.size(), page.getClass().getSimpleName());
+        return results;
+    }
+
+    private List<String> runSequentially() {
+        List<String> results = new ArrayList<>();
+        for (Action action : actions) {
+            switch (action.type) {
+                case SEND_KEYS:
+                    page.sendKeys(action.element, action.text);
+                    results.add(null);
+                    break;
+                case CLICK:
+                    page.click(action.element);
+                    results.add(null);
+                    break;
+                default:
+                    results.add(page.getText(action.element));
+                    break;
+            }
+        }
+        return results;
+    }
+
+    private static boolean isRejectedScript(WebDriverException e) {
+        String message = String.valueOf(e.getMessage());
+        return message.contains("execute_driver_script") || message.contains("unknown command")
+                || message.contains("has not been enabled");
+    }
+
+    private static void markUnsupported(AppiumDriver driver, WebDriverException e) {
+        UNSUPPORTED.put(driver, Boolean.TRUE);
+        LoggerUtils.info("Server does not run driver scripts, sending actions one by one: {}",
+                String.valueOf(e.getMessage()).split("\n")[0]);
+    }
+
+    /**
+     * One action of the batch.
+     */
+    private static final class Action {
+
+        private enum Type {
+            SEND_KEYS("sendKeys"),
+            CLICK("click"),
+            GET_TEXT("getText");
+
+            private final String scriptName;
+
+            Type(String scriptName) {
+                this.scriptName = scriptName;
+            }
+        }
+
+        private final Type type;
+        private final WebElement element;
+        private final String text;
+
+        private Action(Type type, WebElement element, String text) {
+            this.type = type;
+            this.element = element;
+            this.text = text;
+        }
+    }
+}
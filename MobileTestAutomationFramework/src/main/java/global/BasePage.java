@@ -2,23 +2,246 @@ package global;
 
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import locators.ElementCache;
+import locators.Locator;
+import locators.PageBinder;
+import locators.PageLocators;
+import locators.PageSnapshot;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
+import session.DriverHandle;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Base class for all page objects.
  * Provides common functionality for page objects.
+ * Pages built from a DriverHandle that is not open yet leave the session closed until their first
+ * command, so creating pages in set-up code does not create a session by itself.
  */
 public abstract class BasePage {
-    
-    protected AppiumDriver driver;
-    
+
+    /**
+     * How page-level element checks are resolved.
+     * DIRECT asks the server once per element; SNAPSHOT reads the page source once and matches all
+     * locators locally, calling the server only for elements that need a real handle.
+     */
+    public enum ResolutionMode {
+        DIRECT,
+        SNAPSHOT
+    }
+
+    private static volatile ResolutionMode defaultResolutionMode = ResolutionMode.DIRECT;
+
+    private final DriverHandle handle;
+    private final boolean generatedBinding;
+    private AppiumDriver driver;
+    private Platform platform;
+
     /**
      * Constructor to initialize the page objects.
-     * 
+     * Pages with locator metadata generated at compile time are bound through PageBinder; other pages
+     * fall back to PageFactory.
+     *
      * @param driver AppiumDriver instance
      */
     public BasePage(AppiumDriver driver) {
-        this.driver = driver;
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        this(DriverHandle.of(driver));
+    }
+
+    /**
+     * Constructor to initialize the page objects on a session that may not be open yet.
+     * Pages with locator metadata generated at compile time are bound without opening the session;
+     * pages that fall back to PageFactory open it right away.
+     *
+     * @param handle The handle of the session
+     */
+    public BasePage(DriverHandle handle) {
+        this.handle = handle;
+        this.generatedBinding = PageBinder.bindLazily(this, handle::get, getPlatform(), getClass().getSimpleName());
+        if (handle.isOpen() || !generatedBinding) {
+            getDriver();
+        }
+    }
+
+    /**
+     * Sets the resolution mode used by all pages.
+     *
+     * @param mode The resolution mode
+     */
+    public static void setDefaultResolutionMode(ResolutionMode mode) {
+        defaultResolutionMode = mode;
+    }
+
+    /**
+     * Gets the resolution mode used by all pages.
+     *
+     * @return The resolution mode
+     */
+    public static ResolutionMode getDefaultResolutionMode() {
+        return defaultResolutionMode;
+    }
+
+    /**
+     * Gets the platform of the session this page runs on.
+     *
+     * @return Platform.ANDROID or Platform.IOS
+     */
+    protected Platform getPlatform() {
+        if (platform == null) {
+            platform = handle.getPlatform();
+        }
+        return platform;
+    }
+
+    /**
+     * Gets the driver of the session this page runs on, opening the session on first use.
+     * When the session was replaced since the last call, the page's elements are bound to the new one.
+     *
+     * @return The AppiumDriver instance
+     */
+    protected AppiumDriver getDriver() {
+        AppiumDriver current = handle.get();
+        if (current != driver) {
+            boolean replaced = driver != null;
+            driver = current;
+            if (!generatedBinding) {
+                PageFactory.initElements(new AppiumFieldDecorator(current), this);
+            }
+            registerElements();
+            if (replaced) {
+                onSessionReplaced();
+            }
+        }
+        return driver;
+    }
+
+    /**
+     * Called when the session of this page was replaced by a new one, e.g. after an infrastructure
+     * failure. Subclasses drop whatever they keep of the old session.
+     */
+    protected void onSessionReplaced() {
+    }
+
+    /**
+     * Gets the handle of the session this page runs on, for building further pages on it.
+     *
+     * @return The session's handle
+     */
+    protected DriverHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Gets the locators declared on this page for the current platform.
+     *
+     * @return Locators keyed by field name
+     */
+    protected Map<String, Locator> getLocators() {
+        return PageLocators.forPage(getClass(), getPlatform());
+    }
+
+    /**
+     * Takes a snapshot of the current UI hierarchy with a single page source call.
+     *
+     * @return The parsed snapshot
+     */
+    protected PageSnapshot takeSnapshot() {
+        return PageSnapshot.capture(getDriver(), getPlatform());
+    }
+
+    /**
+     * Checks whether all given elements of this page are displayed.
+     * In SNAPSHOT mode this costs one page source call, matched against all locally resolvable locators
+     * in a single pass, plus the calls for locators that only the server can evaluate. Those, and every
+     * element in DIRECT mode, are resolved through the session's element cache, so an element found
+     * before only costs its visibility check.
+     *
+     * @param fieldNames Names of the element fields to check
+     * @return true if every element is displayed, false otherwise
+     */
+    protected boolean areElementsDisplayed(String... fieldNames) {
+        Map<String, Locator> declared = getLocators();
+        Map<String, Locator> locators = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            locators.put(fieldName, locatorOf(declared, fieldName));
+        }
+        Map<String, List<PageSnapshot.SnapshotElement>> matches = defaultResolutionMode == ResolutionMode.SNAPSHOT
+                ? takeSnapshot().matchAll(locators) : Collections.emptyMap();
+        for (Map.Entry<String, Locator> entry : locators.entrySet()) {
+            List<PageSnapshot.SnapshotElement> matched = matches.get(entry.getKey());
+            boolean displayed = matched != null
+                    ? !matched.isEmpty() && matched.get(0).isDisplayed()
+                    : isDisplayedNow(entry.getValue());
+            if (!displayed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks on the server whether the first element matching a locator of this page is displayed,
+     * reusing the element cached for the locator when it is still valid.
+     */
+    private boolean isDisplayedNow(Locator locator) {
+        ElementCache cache = ElementCache.forDriver(getDriver());
+        ElementCache.ElementKey key = new ElementCache.ElementKey(getClass().getSimpleName(), locator);
+        WebElement cached = cache.get(key);
+        if (cached != null) {
+            try {
+                return cached.isDisplayed();
+            } catch (StaleElementReferenceException e) {
+                cache.invalidate(key);
+            }
+        }
+        List<WebElement> elements = getDriver().findElements(locator.toBy());
+        if (elements.isEmpty()) {
+            return false;
+        }
+        cache.put(key, elements.get(0));
+        return elements.get(0).isDisplayed();
+    }
+
+    /**
+     * Registers the PageFactory proxies, or the proxies bound from generated metadata, of this page with
+     * the session's element cache, keyed by the page (screen) and the field's locator.
+     */
+    private void registerElements() {
+        Map<String, Locator> locators = getLocators();
+        if (locators.isEmpty()) {
+            return;
+        }
+        ElementCache cache = ElementCache.forDriver(getDriver());
+        String screen = getClass().getSimpleName();
+        for (Class<?> c = getClass(); c != BasePage.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                Locator locator = locators.get(field.getName());
+                if (locator == null || !WebElement.class.isAssignableFrom(field.getType())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    cache.register((WebElement) field.get(this), new ElementCache.ElementKey(screen, locator));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read element field " + field, e);
+                }
+            }
+        }
+    }
+
+    private Locator locatorOf(Map<String, Locator> locators, String fieldName) {
+        Locator locator = locators.get(fieldName);
+        if (locator == null) {
+            throw new IllegalArgumentException("No " + getPlatform() + " locator declared for field "
+                    + getClass().getSimpleName() + "." + fieldName);
+        }
+        return locator;
     }
 }
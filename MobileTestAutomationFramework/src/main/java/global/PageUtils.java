@@ -1,23 +1,61 @@
 package global;
 
+import config.FrameworkConfig;
 import io.appium.java_client.AppiumDriver;
-import org.openqa.selenium.By;
+import locators.ElementCache;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import session.DriverHandle;
+import utilities.LoggerUtils;
+import waits.PollingStrategy;
+import waits.UiIdleWait;
+import waits.WaitEngine;
 
 import java.time.Duration;
 import java.util.Properties;
+import java.util.function.Function;
 
 /**
  * Utility class for page interactions.
  * Contains common methods used across page objects.
+ * Page elements are resolved through the session's ElementCache, so an element is located once
+ * per screen and reused until the page navigates away or the server reports it as stale.
+ * Waits go through the WaitEngine, which uses the globally configured polling strategy unless
+ * a strategy is passed per call. Both are created when the page first needs its session.
  */
 public class PageUtils extends BasePage {
 
+    /**
+     * Default explicit wait in seconds.
+     *
+     * @deprecated Waits go through the WaitEngine; use {@link WaitEngine#getDefaultTimeout()}, set by
+     *             test.timeout.explicit.
+     */
+    @Deprecated
     protected static final int DEFAULT_WAIT = 10;
+
+    /**
+     * Explicit wait on this page's session, with the WaitEngine's default timeout. Set once the session
+     * is open: a page built from a DriverHandle that is not open yet gets it with its first command.
+     *
+     * @deprecated Use {@link #getWaits()}, which adapts its polling and learns element latencies.
+     */
+    @Deprecated
     protected WebDriverWait wait;
-    protected Properties properties;
+
+    /**
+     * The framework configuration as properties.
+     *
+     * @deprecated Use {@link FrameworkConfig#get()}.
+     */
+    @Deprecated
+    protected Properties properties = FrameworkConfig.get().toProperties();
+
+    private WaitEngine waits;
+    private ElementCache elementCache;
 
     /**
      * Constructor to initialize PageUtils.
@@ -26,7 +64,47 @@ public class PageUtils extends BasePage {
      */
     public PageUtils(AppiumDriver driver) {
         super(driver);
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_WAIT));
+        this.wait = newLegacyWait(driver);
+    }
+
+    /**
+     * Constructor to initialize PageUtils on a session that is opened on first use.
+     *
+     * @param handle The handle of the session
+     */
+    public PageUtils(DriverHandle handle) {
+        super(handle);
+        if (handle.isOpen()) {
+            this.wait = newLegacyWait(getDriver());
+        }
+    }
+
+    /**
+     * Gets the wait engine of this page, opening the session on first use.
+     *
+     * @return The wait engine
+     */
+    protected WaitEngine getWaits() {
+        // Ask for the driver first: it drops the wait engine of a session that was replaced
+        AppiumDriver driver = getDriver();
+        if (waits == null) {
+            waits = new WaitEngine(driver);
+        }
+        if (wait == null) {
+            wait = newLegacyWait(driver);
+        }
+        return waits;
+    }
+
+    @Override
+    protected void onSessionReplaced() {
+        waits = null;
+        elementCache = null;
+        wait = newLegacyWait(getDriver());
+    }
+
+    private static WebDriverWait newLegacyWait(AppiumDriver driver) {
+        return new WebDriverWait(driver, WaitEngine.getDefaultTimeout());
     }
 
     /**
@@ -36,7 +114,19 @@ public class PageUtils extends BasePage {
      * @return WebElement that is now visible
      */
     public WebElement waitForVisibility(WebElement element) {
-        return wait.until(ExpectedConditions.visibilityOf(element));
+        return waitForVisibility(element, WaitEngine.getDefaultTimeout(), WaitEngine.getDefaultStrategy());
+    }
+
+    /**
+     * Waits for an element to be visible with a specific timeout and polling strategy.
+     *
+     * @param element WebElement to wait for
+     * @param timeout How long to wait
+     * @param strategy How to poll
+     * @return WebElement that is now visible
+     */
+    public WebElement waitForVisibility(WebElement element, Duration timeout, PollingStrategy strategy) {
+        return waitFor(element, e -> e.isDisplayed() ? e : null, timeout, strategy);
     }
 
     /**
@@ -46,7 +136,47 @@ public class PageUtils extends BasePage {
      * @return WebElement that is now clickable
      */
     public WebElement waitForClickability(WebElement element) {
-        return wait.until(ExpectedConditions.elementToBeClickable(element));
+        return waitForClickability(element, WaitEngine.getDefaultTimeout(), WaitEngine.getDefaultStrategy());
+    }
+
+    /**
+     * Waits for an element to be clickable with a specific timeout and polling strategy.
+     *
+     * @param element WebElement to wait for
+     * @param timeout How long to wait
+     * @param strategy How to poll
+     * @return WebElement that is now clickable
+     */
+    public WebElement waitForClickability(WebElement element, Duration timeout, PollingStrategy strategy) {
+        return waitFor(element, e -> e.isDisplayed() && e.isEnabled() ? e : null, timeout, strategy);
+    }
+
+    /**
+     * Waits until the screen stops changing, e.g. after an animation or transition.
+     * Use this instead of fixed sleeps: it returns as soon as the hierarchy has been stable for the
+     * configured window, and waits longer on slow devices.
+     *
+     * @return true if the screen became idle, false if it was still changing when the timeout expired
+     */
+    public boolean waitForUiIdle() {
+        return waitForUiIdle(WaitEngine.getUiIdleWindow(), WaitEngine.getUiIdleTimeout());
+    }
+
+    /**
+     * Waits until the screen has been stable for a specific window.
+     *
+     * @param stableWindow How long the hierarchy must stay unchanged
+     * @param timeout How long to wait at most
+     * @return true if the screen became idle, false if it was still changing when the timeout expired
+     */
+    public boolean waitForUiIdle(Duration stableWindow, Duration timeout) {
+        UiIdleWait idleWait = new UiIdleWait(getDriver()::getPageSource, Duration.ofMillis(50), Duration.ofMillis(250));
+        long start = System.nanoTime();
+        boolean idle = idleWait.waitForIdle(stableWindow, timeout);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        LoggerUtils.debug("UI {} after {} ms and {} samples", idle ? "idle" : "still changing",
+                elapsedMillis, idleWait.getSamples());
+        return idle;
     }
 
     /**
@@ -55,17 +185,38 @@ public class PageUtils extends BasePage {
      * @param element WebElement to click
      */
     public void click(WebElement element) {
-        waitForClickability(element).click();
+        retryIfStale(element, e -> {
+            waitForClickability(e).click();
+            return null;
+        });
     }
 
     /**
-     * Enters text in an input field after waiting for it to be visible.
+     * Enters text in an input field after waiting for it to be visible, replacing its content.
      *
      * @param element WebElement to enter text into
      * @param text Text to enter
      */
     public void sendKeys(WebElement element, String text) {
-        waitForVisibility(element).sendKeys(text);
+        retryIfStale(element, e -> {
+            WebElement field = waitForVisibility(e);
+            if (appendsTypedText()) {
+                field.clear();
+            }
+            field.sendKeys(text);
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether typing adds to the current content of a field instead of replacing it.
+     * UiAutomator2 sets the field's value, replacing its content, while XCUITest types after it; on
+     * iOS fields are therefore cleared before text is entered, also in action batches.
+     *
+     * @return true on iOS, false on Android
+     */
+    boolean appendsTypedText() {
+        return getPlatform().is(Platform.IOS);
     }
 
     /**
@@ -75,7 +226,7 @@ public class PageUtils extends BasePage {
      * @return Text of the element
      */
     public String getText(WebElement element) {
-        return waitForVisibility(element).getText();
+        return retryIfStale(element, e -> waitForVisibility(e).getText());
     }
 
     /**
@@ -86,9 +237,186 @@ public class PageUtils extends BasePage {
      */
     public boolean isElementDisplayed(WebElement element) {
         try {
-            return element.isDisplayed();
+            ElementCache.ElementKey key = getElementCache().keyOf(element);
+            if (key == null) {
+                return element.isDisplayed();
+            }
+            return retryIfStale(element, e -> resolveCached(key).isDisplayed());
         } catch (Exception e) {
             return false;
         }
     }
+
+    /**
+     * Checks if an element is on screen right now, without waiting for it.
+     * Uses a single findElements call, which returns an empty list instead of waiting out a timeout
+     * when nothing matches (the framework keeps the implicit wait at zero).
+     *
+     * @param element WebElement to check
+     * @return true if a matching element is present and displayed, false otherwise
+     */
+    public boolean isPresentNow(WebElement element) {
+        ElementCache.ElementKey key = getElementCache().keyOf(element);
+        if (key == null) {
+            return isElementDisplayed(element);
+        }
+        WebElement cached = getElementCache().get(key);
+        if (cached != null) {
+            try {
+                if (cached.isDisplayed()) {
+                    return true;
+                }
+            } catch (StaleElementReferenceException e) {
+                getElementCache().invalidate(key);
+            }
+        }
+        for (WebElement found : getDriver().findElements(key.getLocator().toBy())) {
+            try {
+                if (found.isDisplayed()) {
+                    getElementCache().put(key, found);
+                    return true;
+                }
+            } catch (StaleElementReferenceException e) {
+                // Removed between the lookup and the check, so it no longer counts as present
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits for an element to disappear, polling for at most the absence timeout
+     * ({@link WaitEngine#getAbsenceTimeout()}, set by test.timeout.absenceMs).
+     *
+     * @param element WebElement to wait for
+     * @return true if the element is gone, false if it was still displayed when the timeout expired
+     */
+    public boolean waitUntilGone(WebElement element) {
+        return waitUntilGone(element, WaitEngine.getAbsenceTimeout(), WaitEngine.getDefaultStrategy());
+    }
+
+    /**
+     * Waits for an element to disappear with a specific timeout and polling strategy.
+     * Returns immediately when the element is already absent.
+     *
+     * @param element WebElement to wait for
+     * @param timeout How long to wait
+     * @param strategy How to poll
+     * @return true if the element is gone, false if it was still displayed when the timeout expired
+     */
+    public boolean waitUntilGone(WebElement element, Duration timeout, PollingStrategy strategy) {
+        ElementCache.ElementKey key = getElementCache().keyOf(element);
+        String waitKey = (key == null ? getClass().getSimpleName() + ":unregistered" : key.toString()) + ":gone";
+        try {
+            return getWaits().until(waitKey, () -> !isPresentNow(element), timeout, strategy);
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Asserts that an element is absent, allowing it up to the absence timeout to disappear.
+     *
+     * @param element WebElement that must not be displayed
+     * @param description Name of the element used in the failure message
+     * @throws AssertionError if the element is still displayed
+     */
+    public void assertAbsent(WebElement element, String description) {
+        if (!waitUntilGone(element)) {
+            throw new AssertionError(description + " is still displayed after "
+                    + WaitEngine.getAbsenceTimeout().toMillis() + " ms");
+        }
+    }
+
+    /**
+     * Starts a batch of element actions that is sent to the server in one request.
+     * Use it for multi-step flows on one screen, e.g. filling in a form and submitting it; the batch
+     * falls back to this page's own click, sendKeys and getText when the server cannot run it.
+     *
+     * @return An empty batch for this page
+     */
+    public ActionBatch batch() {
+        return new ActionBatch(this);
+    }
+
+    /**
+     * Gets the element cache of the current session, opening the session on first use.
+     *
+     * @return The element cache, including its hit and miss counters
+     */
+    public ElementCache getElementCache() {
+        AppiumDriver driver = getDriver();
+        if (elementCache == null) {
+            elementCache = ElementCache.forDriver(driver);
+        }
+        return elementCache;
+    }
+
+    /**
+     * Drops all cached elements after an action that leaves the current screen.
+     * Page methods that navigate must call this once the navigation has been triggered.
+     */
+    protected void onNavigation() {
+        getElementCache().invalidateAll();
+        LoggerUtils.debug("Element cache invalidated after navigation. {}", getElementCache());
+    }
+
+    /**
+     * Waits until a check passes on an element. Registered page elements are resolved through the
+     * cache and keyed by screen and locator, so learned latencies are tracked per locator.
+     */
+    private WebElement waitFor(WebElement element, Function<WebElement, WebElement> check,
+                               Duration timeout, PollingStrategy strategy) {
+        ElementCache.ElementKey key = getElementCache().keyOf(element);
+        if (key == null) {
+            return getWaits().until(getClass().getSimpleName() + ":unregistered", () -> check.apply(element),
+                    timeout, strategy);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return getWaits().until(key.toString(), () -> withCachedElement(key, check,
+                Duration.ofNanos(Math.max(0, deadline - System.nanoTime())), strategy), timeout, strategy);
+    }
+
+    private WebElement resolveCached(ElementCache.ElementKey key) {
+        return resolveCached(key, Duration.ZERO, WaitEngine.getDefaultStrategy());
+    }
+
+    private WebElement resolveCached(ElementCache.ElementKey key, Duration serverWait, PollingStrategy strategy) {
+        WebElement cached = getElementCache().get(key);
+        if (cached != null) {
+            return cached;
+        }
+        WebElement found = getWaits().find(key.getLocator().toBy(), serverWait, strategy);
+        getElementCache().put(key, found);
+        return found;
+    }
+
+    /**
+     * Applies a check to the cached element of a key, for use inside getWaits().
+     * A stale element is dropped from the cache and null is returned so the wait polls again.
+     */
+    private <T> T withCachedElement(ElementCache.ElementKey key, Function<WebElement, T> check,
+                                    Duration serverWait, PollingStrategy strategy) {
+        try {
+            return check.apply(resolveCached(key, serverWait, strategy));
+        } catch (StaleElementReferenceException e) {
+            getElementCache().invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Runs an action on an element, re-locating it once if the cached handle turns out to be stale.
+     */
+    private <T> T retryIfStale(WebElement element, Function<WebElement, T> action) {
+        try {
+            return action.apply(element);
+        } catch (StaleElementReferenceException e) {
+            ElementCache.ElementKey key = getElementCache().keyOf(element);
+            if (key == null) {
+                throw e;
+            }
+            getElementCache().invalidate(key);
+            return action.apply(element);
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package locators;
+
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session cache of resolved elements, keyed by screen and locator.
+ * Page objects register their PageFactory proxies here so PageUtils can look up the locator behind
+ * a proxy and reuse the element found last time instead of locating it again on every call.
+ * Entries are dropped on navigation and when the server reports an element as stale.
+ */
+public final class ElementCache {
+
+    private static final int MAX_REGISTERED_PROXIES = 512;
+    private static final Map<SearchContext, ElementCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<ElementKey, WebElement> elements = new ConcurrentHashMap<>();
+    private final Map<IdentityKey, ElementKey> proxies = Collections.synchronizedMap(
+            new LinkedHashMap<IdentityKey, ElementKey>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IdentityKey, ElementKey> eldest) {
+                    return size() > MAX_REGISTERED_PROXIES;
+                }
+            });
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Gets the cache of a driver session, creating it on first use.
+     *
+     * @param driver The driver owning the session
+     * @return The session's element cache
+     */
+    public static ElementCache forDriver(SearchContext driver) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(driver, d -> new ElementCache());
+        }
+    }
+
+    /**
+     * Drops the element cache of a session that has ended.
+     * Cached elements and proxies reference their driver, so the cache would otherwise outlive it.
+     *
+     * @param driver The driver owning the session
+     */
+    public static void release(SearchContext driver) {
+        CACHES.remove(driver);
+    }
+
+    /**
+     * Registers a page element proxy so its locator can be looked up later.
+     *
+     * @param proxy The element proxy of the field, from PageBinder or PageFactory
+     * @param key The screen and locator of the field
+     */
+    public void register(WebElement proxy, ElementKey key) {
+        proxies.put(new IdentityKey(proxy), key);
+    }
+
+    /**
+     * Gets the key registered for a page element proxy.
+     *
+     * @param element The element passed to a page utility
+     * @return The key, or null if the element is not a registered proxy
+     */
+    public ElementKey keyOf(WebElement element) {
+        return proxies.get(new IdentityKey(element));
+    }
+
+    /**
+     * Gets a cached element.
+     * Counts a hit or a miss.
+     *
+     * @param key The screen and locator
+     * @return The cached element, or null if not cached
+     */
+    public WebElement get(ElementKey key) {
+        WebElement element = elements.get(key);
+        if (element != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return element;
+    }
+
+    /**
+     * Stores a resolved element.
+     *
+     * @param key The screen and locator
+     * @param element The resolved element
+     */
+    public void put(ElementKey key, WebElement element) {
+        elements.put(key, element);
+    }
+
+    /**
+     * Drops one cached element, e.g. after a StaleElementReferenceException.
+     *
+     * @param key The screen and locator
+     */
+    public void invalidate(ElementKey key) {
+        if (elements.remove(key) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every cached element, e.g. after navigating to another screen.
+     */
+    public void invalidateAll() {
+        int size = elements.size();
+        elements.clear();
+        invalidations.addAndGet(size);
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return The hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to locate the element.
+     *
+     * @return The miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of cached elements dropped so far.
+     *
+     * @return The invalidation count
+     */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Gets the share of lookups served from the cache.
+     *
+     * @return Hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ElementCache[hits=" + hits + ", misses=" + misses + ", invalidations=" + invalidations + "]";
+    }
+
+    /**
+     * Identifies a page element: the screen (page class) it belongs to and its locator.
+     */
+    public static final class ElementKey {
+
+        private final String screen;
+        private final Locator locator;
+
+        /**
+         * Constructor to initialize ElementKey.
+         *
+         * @param screen The screen name, usually the page class name
+         * @param locator The element locator
+         */
+        public ElementKey(String screen, Locator locator) {
+            this.screen = Objects.requireNonNull(screen, "screen");
+            this.locator = Objects.requireNonNull(locator, "locator");
+        }
+
+        /**
+         * Gets the screen name.
+         *
+         * @return The screen name
+         */
+        public String getScreen() {
+            return screen;
+        }
+
+        /**
+         * Gets the element locator.
+         *
+         * @return The locator
+         */
+        public Locator getLocator() {
+            return locator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ElementKey)) {
+                return false;
+            }
+            ElementKey other = (ElementKey) o;
+            return screen.equals(other.screen) && locator.equals(other.locator);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(screen, locator);
+        }
+
+        @Override
+        public String toString() {
+            return screen + ":" + locator;
+        }
+    }
+
+    /**
+     * Compares proxies by identity; calling equals or hashCode on a PageFactory proxy would locate it.
+     */
+    private static final class IdentityKey {
+
+        private final Object target;
+
+        IdentityKey(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).target == target;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(target);
+        }
+    }
+}
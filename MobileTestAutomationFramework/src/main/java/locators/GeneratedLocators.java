@@ -0,0 +1,39 @@
+package locators;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locator metadata generated at compile time for one page class.
+ * Implementations are named {@code <Page>_Locators} and live next to the page class.
+ */
+public interface GeneratedLocators {
+
+    /**
+     * Gets the annotated fields declared by the page class.
+     *
+     * @return Field names in declaration order
+     */
+    List<String> fields();
+
+    /**
+     * Gets the Android locators of the page class.
+     *
+     * @return Locators keyed by field name
+     */
+    Map<String, Locator> android();
+
+    /**
+     * Gets the iOS locators of the page class.
+     *
+     * @return Locators keyed by field name
+     */
+    Map<String, Locator> ios();
+
+    /**
+     * Checks whether every annotated field is a plain WebElement field that PageBinder can assign.
+     *
+     * @return true if the page can be bound from this metadata, false otherwise
+     */
+    boolean isBindable();
+}
@@ -0,0 +1,116 @@
+package locators;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+
+import java.util.Objects;
+
+/**
+ * A platform-specific element locator declared on a page object field.
+ */
+public final class Locator {
+
+    /**
+     * Locator strategies supported by the page object annotations.
+     */
+    public enum Strategy {
+        ID,
+        ACCESSIBILITY_ID,
+        XPATH,
+        CLASS_NAME,
+        UI_AUTOMATOR,
+        IOS_PREDICATE,
+        IOS_CLASS_CHAIN
+    }
+
+    private final Strategy strategy;
+    private final String value;
+
+    /**
+     * Constructor to initialize Locator.
+     *
+     * @param strategy The locator strategy
+     * @param value The locator value
+     */
+    public Locator(Strategy strategy, String value) {
+        this.strategy = Objects.requireNonNull(strategy, "strategy");
+        this.value = Objects.requireNonNull(value, "value");
+    }
+
+    /**
+     * Gets the locator strategy.
+     *
+     * @return The strategy
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the locator value.
+     *
+     * @return The value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Checks whether the locator can be matched against a page source snapshot without the server.
+     * UiAutomator, predicate and class chain queries are evaluated by the device and cannot.
+     *
+     * @return true if the locator can be matched locally, false otherwise
+     */
+    public boolean isLocallyResolvable() {
+        return strategy == Strategy.ID || strategy == Strategy.ACCESSIBILITY_ID
+                || strategy == Strategy.XPATH || strategy == Strategy.CLASS_NAME;
+    }
+
+    /**
+     * Converts the locator into a Selenium By.
+     *
+     * @return The By for this locator
+     */
+    public By toBy() {
+        switch (strategy) {
+            case ID:
+                return AppiumBy.id(value);
+            case ACCESSIBILITY_ID:
+                return AppiumBy.accessibilityId(value);
+            case XPATH:
+                return AppiumBy.xpath(value);
+            case CLASS_NAME:
+                return AppiumBy.className(value);
+            case UI_AUTOMATOR:
+                return AppiumBy.androidUIAutomator(value);
+            case IOS_PREDICATE:
+                return AppiumBy.iOSNsPredicateString(value);
+            case IOS_CLASS_CHAIN:
+                return AppiumBy.iOSClassChain(value);
+            default:
+                throw new IllegalStateException("Unknown strategy: " + strategy);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Locator)) {
+            return false;
+        }
+        Locator other = (Locator) o;
+        return strategy == other.strategy && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(strategy, value);
+    }
+
+    @Override
+    public String toString() {
+        return strategy + "=" + value;
+    }
+}
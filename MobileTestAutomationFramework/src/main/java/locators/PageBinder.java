@@ -0,0 +1,210 @@
+package locators;
+
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Binds page element fields from locator metadata generated at compile time.
+ * The fields of a page class are resolved once per JVM; binding a page instance then only creates
+ * one lightweight proxy per field, which resolves its element through the session's ElementCache.
+ * This replaces PageFactory's per-instance field scan, annotation parsing and proxy generation.
+ */
+public final class PageBinder {
+
+    private static final Class<?>[] PROXY_INTERFACES = {WebElement.class, WrapsElement.class, Locatable.class};
+
+    private static final ClassValue<Optional<List<BoundField>>> BINDINGS = new ClassValue<>() {
+        @Override
+        protected Optional<List<BoundField>> computeValue(Class<?> type) {
+            return Optional.ofNullable(fieldsOf(type));
+        }
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PageBinder() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Checks whether instances of a page class can be bound from generated metadata.
+     *
+     * @param pageClass The page class
+     * @return true if generated metadata covers every annotated field of the class
+     */
+    public static boolean isBindable(Class<?> pageClass) {
+        return BINDINGS.get(pageClass).isPresent();
+    }
+
+    /**
+     * Binds the element fields of a page and registers them with the session's element cache.
+     *
+     * @param page The page object
+     * @param driver The driver of the session
+     * @param platform The platform of the session
+     * @param screen Name of the screen used in element cache keys
+     * @return true if the page was bound, false if it must be initialized through PageFactory
+     */
+    public static boolean bind(Object page, SearchContext driver, Platform platform, String screen) {
+        return bind(page, () -> driver, ElementCache.forDriver(driver), platform, screen);
+    }
+
+    /**
+     * Binds the element fields of a page without touching the session.
+     * The proxies ask for the driver on every call and follow it when it changes; the page must register
+     * them with the element cache of each session it runs on.
+     *
+     * @param page The page object
+     * @param driver Supplies the driver of the session, opening it if needed
+     * @param platform The platform of the session
+     * @param screen Name of the screen used in element cache keys
+     * @return true if the page was bound, false if it must be initialized through PageFactory
+     */
+    public static boolean bindLazily(Object page, Supplier<? extends SearchContext> driver, Platform platform,
+                                     String screen) {
+        return bind(page, driver, null, platform, screen);
+    }
+
+    private static boolean bind(Object page, Supplier<? extends SearchContext> driver, ElementCache cache,
+                                Platform platform, String screen) {
+        Optional<List<BoundField>> binding = BINDINGS.get(page.getClass());
+        if (binding.isEmpty()) {
+            return false;
+        }
+        boolean ios = platform.is(Platform.IOS);
+        for (BoundField bound : binding.get()) {
+            if (bound.locator(ios) == null) {
+                return false;
+            }
+        }
+        for (BoundField bound : binding.get()) {
+            ElementCache.ElementKey key = new ElementCache.ElementKey(screen, bound.locator(ios));
+            WebElement proxy = (WebElement) Proxy.newProxyInstance(PageBinder.class.getClassLoader(),
+                    PROXY_INTERFACES, new ElementHandler(driver, cache, key));
+            try {
+                bound.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot assign element field " + bound.field, e);
+            }
+            if (cache != null) {
+                cache.register(proxy, key);
+            }
+        }
+        return true;
+    }
+
+    private static List<BoundField> fieldsOf(Class<?> pageClass) {
+        if (PageLocators.generatedFor(pageClass) == null) {
+            return null;
+        }
+        List<BoundField> fields = new ArrayList<>();
+        for (Class<?> c = pageClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            GeneratedLocators generated = PageLocators.generatedFor(c);
+            if (generated == null) {
+                continue;
+            }
+            if (!generated.isBindable()) {
+                return null;
+            }
+            for (String name : generated.fields()) {
+                try {
+                    Field field = c.getDeclaredField(name);
+                    field.setAccessible(true);
+                    fields.add(new BoundField(field, generated.android().get(name), generated.ios().get(name)));
+                } catch (NoSuchFieldException e) {
+                    throw new IllegalStateException("Generated locators are out of date for " + c.getName(), e);
+                }
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * A page field together with its locators.
+     */
+    private static final class BoundField {
+        private final Field field;
+        private final Locator android;
+        private final Locator ios;
+
+        private BoundField(Field field, Locator android, Locator ios) {
+            this.field = field;
+            this.android = android;
+            this.ios = ios;
+        }
+
+        private Locator locator(boolean forIos) {
+            return forIos ? ios : android;
+        }
+    }
+
+    /**
+     * Resolves the element behind a proxy through the element cache on every call.
+     * equals, hashCode and toString are answered locally so the proxy can be used as a map key.
+     * A lazily bound proxy looks up the driver and its cache on its first call, and again whenever
+     * the supplier returns another driver, e.g. after the session was replaced.
+     */
+    private static final class ElementHandler implements InvocationHandler {
+        private final Supplier<? extends SearchContext> driver;
+        private SearchContext context;
+        private ElementCache cache;
+        private final ElementCache.ElementKey key;
+
+        private ElementHandler(Supplier<? extends SearchContext> driver, ElementCache cache,
+                               ElementCache.ElementKey key) {
+            this.driver = driver;
+            this.context = cache == null ? null : driver.get();
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Proxy element for: " + key;
+                case "getWrappedElement":
+                    return resolve();
+                default:
+                    try {
+                        return method.invoke(resolve(), args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        private WebElement resolve() {
+            SearchContext current = driver.get();
+            if (current != context) {
+                context = current;
+                cache = ElementCache.forDriver(current);
+            }
+            WebElement element = cache.get(key);
+            if (element == null) {
+                element = current.findElement(key.getLocator().toBy());
+                cache.put(key, element);
+            }
+            return element;
+        }
+    }
+}
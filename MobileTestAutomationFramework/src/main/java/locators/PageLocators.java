@@ -0,0 +1,185 @@
+package locators;
+
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.Platform;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the locators declared on page object fields.
+ * Metadata generated at compile time is used when available; otherwise the annotations are read
+ * reflectively. Results are cached per page class and platform, so each class is read once per JVM.
+ */
+public final class PageLocators {
+
+    private static final String GENERATED_SUFFIX = "_Locators";
+
+    private static final Map<String, Map<String, Locator>> CACHE = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Optional<GeneratedLocators>> GENERATED = new ClassValue<>() {
+        @Override
+        protected Optional<GeneratedLocators> computeValue(Class<?> type) {
+            return Optional.ofNullable(loadGenerated(type));
+        }
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PageLocators() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Gets the locators of a page class for a platform, keyed by field name.
+     * Fields of superclasses are included; fields without a locator for the platform are skipped.
+     *
+     * @param pageClass The page object class
+     * @param platform The platform (Platform.ANDROID or Platform.IOS)
+     * @return Unmodifiable map from field name to locator, in declaration order
+     */
+    public static Map<String, Locator> forPage(Class<?> pageClass, Platform platform) {
+        boolean ios = platform.is(Platform.IOS);
+        return CACHE.computeIfAbsent(pageClass.getName() + (ios ? "#ios" : "#android"),
+                k -> Collections.unmodifiableMap(scan(pageClass, ios)));
+    }
+
+    /**
+     * Determines the platform of a driver from its capabilities.
+     *
+     * @param driver The driver
+     * @return Platform.IOS for iOS sessions, Platform.ANDROID otherwise
+     */
+    public static Platform platformOf(HasCapabilities driver) {
+        Capabilities capabilities = driver.getCapabilities();
+        Platform platform = capabilities.getPlatformName();
+        return platform != null && platform.is(Platform.IOS) ? Platform.IOS : Platform.ANDROID;
+    }
+
+    /**
+     * Gets the metadata generated at compile time for a class.
+     *
+     * @param type The page class
+     * @return The generated metadata, or null if none was generated for the class
+     */
+    public static GeneratedLocators generatedFor(Class<?> type) {
+        return GENERATED.get(type).orElse(null);
+    }
+
+    private static GeneratedLocators loadGenerated(Class<?> type) {
+        try {
+            Class<?> generated = Class.forName(type.getName() + GENERATED_SUFFIX, true, type.getClassLoader());
+            return (GeneratedLocators) generated.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Invalid generated locators for " + type.getName(), e);
+        }
+    }
+
+    private static Map<String, Locator> scan(Class<?> pageClass, boolean ios) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = pageClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        Map<String, Locator> locators = new LinkedHashMap<>();
+        for (Class<?> c : hierarchy) {
+            GeneratedLocators generated = generatedFor(c);
+            if (generated != null) {
+                locators.putAll(ios ? generated.ios() : generated.android());
+            } else {
+                locators.putAll(scanAnnotations(c, ios));
+            }
+        }
+        return locators;
+    }
+
+    /**
+     * Reads the locators of the fields declared by one class from their annotations.
+     *
+     * @param type The class
+     * @param ios true for iOS locators, false for Android locators
+     * @return Locators keyed by field name, in declaration order
+     */
+    static Map<String, Locator> scanAnnotations(Class<?> type, boolean ios) {
+        Map<String, Locator> locators = new LinkedHashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            Locator locator = ios
+                    ? fromIos(field.getAnnotation(iOSXCUITFindBy.class))
+                    : fromAndroid(field.getAnnotation(AndroidFindBy.class));
+            if (locator != null) {
+                locators.put(field.getName(), locator);
+            }
+        }
+        return locators;
+    }
+
+    /**
+     * Converts an Android annotation into a locator.
+     *
+     * @param findBy The annotation, may be null
+     * @return The locator, or null if the annotation is absent or uses an unsupported strategy
+     */
+    public static Locator fromAndroid(AndroidFindBy findBy) {
+        if (findBy == null) {
+            return null;
+        }
+        if (!findBy.id().isEmpty()) {
+            return new Locator(Locator.Strategy.ID, findBy.id());
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return new Locator(Locator.Strategy.ACCESSIBILITY_ID, findBy.accessibility());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return new Locator(Locator.Strategy.XPATH, findBy.xpath());
+        }
+        if (!findBy.className().isEmpty()) {
+            return new Locator(Locator.Strategy.CLASS_NAME, findBy.className());
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return new Locator(Locator.Strategy.UI_AUTOMATOR, findBy.uiAutomator());
+        }
+        return null;
+    }
+
+    /**
+     * Converts an iOS annotation into a locator.
+     *
+     * @param findBy The annotation, may be null
+     * @return The locator, or null if the annotation is absent or uses an unsupported strategy
+     */
+    public static Locator fromIos(iOSXCUITFindBy findBy) {
+        if (findBy == null) {
+            return null;
+        }
+        if (!findBy.id().isEmpty()) {
+            return new Locator(Locator.Strategy.ID, findBy.id());
+        }
+        if (!findBy.accessibility().isEmpty()) {
+            return new Locator(Locator.Strategy.ACCESSIBILITY_ID, findBy.accessibility());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return new Locator(Locator.Strategy.XPATH, findBy.xpath());
+        }
+        if (!findBy.className().isEmpty()) {
+            return new Locator(Locator.Strategy.CLASS_NAME, findBy.className());
+        }
+        if (!findBy.iOSNsPredicate().isEmpty()) {
+            return new Locator(Locator.Strategy.IOS_PREDICATE, findBy.iOSNsPredicate());
+        }
+        if (!findBy.iOSClassChain().isEmpty()) {
+            return new Locator(Locator.Strategy.IOS_CLASS_CHAIN, findBy.iOSClassChain());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,275 @@
+package locators;
+
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.WebDriver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed copy of the UI hierarchy taken with a single getPageSource call.
+ * Locators are matched against the snapshot locally, the way UiAutomator2 and XCUITest match them
+ * on the server, so presence, visibility and text checks of many elements cost one round trip.
+ */
+public final class PageSnapshot {
+
+    private final Document document;
+    private final boolean ios;
+    private final long takenAt;
+
+    private PageSnapshot(Document document, boolean ios) {
+        this.document = document;
+        this.ios = ios;
+        this.takenAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Fetches the page source from the driver and parses it.
+     *
+     * @param driver The driver to read the hierarchy from
+     * @param platform The platform of the session
+     * @return The snapshot
+     */
+    public static PageSnapshot capture(WebDriver driver, Platform platform) {
+        return parse(driver.getPageSource(), platform);
+    }
+
+    /**
+     * Parses a page source document.
+     *
+     * @param pageSource The XML page source
+     * @param platform The platform the source was taken from
+     * @return The snapshot
+     */
+    public static PageSnapshot parse(String pageSource, Platform platform) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource)));
+            return new PageSnapshot(document, platform.is(Platform.IOS));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Page source is not valid XML", e);
+        }
+    }
+
+    /**
+     * Gets the time the snapshot was parsed.
+     *
+     * @return Time in epoch milliseconds
+     */
+    public long getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Finds all nodes matching a locator.
+     *
+     * @param locator A locally resolvable locator
+     * @return The matching nodes, in document order
+     */
+    public List<SnapshotElement> findAll(Locator locator) {
+        if (!locator.isLocallyResolvable()) {
+            throw new IllegalArgumentException("Locator must be resolved by the server: " + locator);
+        }
+        if (locator.getStrategy() == Locator.Strategy.XPATH) {
+            return evaluateXpath(locator.getValue());
+        }
+        List<SnapshotElement> matches = new ArrayList<>();
+        collect(document.getDocumentElement(), locator, matches);
+        return matches;
+    }
+
+    /**
+     * Matches every locally resolvable locator of a page in a single walk of the snapshot.
+     * Locators that only the server can evaluate are left out of the result.
+     *
+     * @param locators Locators keyed by field name
+     * @return Matching nodes keyed by field name
+     */
+    public Map<String, List<SnapshotElement>> matchAll(Map<String, Locator> locators) {
+        Map<String, List<SnapshotElement>> matches = new LinkedHashMap<>();
+        Map<String, Locator> walked = new LinkedHashMap<>();
+        for (Map.Entry<String, Locator> entry : locators.entrySet()) {
+            Locator locator = entry.getValue();
+            if (!locator.isLocallyResolvable()) {
+                continue;
+            }
+            if (locator.getStrategy() == Locator.Strategy.XPATH) {
+                matches.put(entry.getKey(), evaluateXpath(locator.getValue()));
+            } else {
+                walked.put(entry.getKey(), locator);
+                matches.put(entry.getKey(), new ArrayList<>());
+            }
+        }
+        if (!walked.isEmpty()) {
+            walk(document.getDocumentElement(), walked, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Checks whether at least one node matches the locator.
+     *
+     * @param locator A locally resolvable locator
+     * @return true if the element is present, false otherwise
+     */
+    public boolean isPresent(Locator locator) {
+        return !findAll(locator).isEmpty();
+    }
+
+    /**
+     * Checks whether the first node matching the locator is displayed.
+     *
+     * @param locator A locally resolvable locator
+     * @return true if the element is present and displayed, false otherwise
+     */
+    public boolean isDisplayed(Locator locator) {
+        List<SnapshotElement> matches = findAll(locator);
+        return !matches.isEmpty() && matches.get(0).isDisplayed();
+    }
+
+    /**
+     * Gets the text of the first node matching the locator.
+     *
+     * @param locator A locally resolvable locator
+     * @return The text, or null if no node matches
+     */
+    public String getText(Locator locator) {
+        List<SnapshotElement> matches = findAll(locator);
+        return matches.isEmpty() ? null : matches.get(0).getText();
+    }
+
+    private void walk(Element element, Map<String, Locator> locators, Map<String, List<SnapshotElement>> matches) {
+        for (Map.Entry<String, Locator> entry : locators.entrySet()) {
+            if (matches(element, entry.getValue())) {
+                matches.get(entry.getKey()).add(new SnapshotElement(element, ios));
+            }
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                walk((Element) child, locators, matches);
+            }
+        }
+    }
+
+    private void collect(Element element, Locator locator, List<SnapshotElement> matches) {
+        if (matches(element, locator)) {
+            matches.add(new SnapshotElement(element, ios));
+        }
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                collect((Element) child, locator, matches);
+            }
+        }
+    }
+
+    private boolean matches(Element element, Locator locator) {
+        String value = locator.getValue();
+        switch (locator.getStrategy()) {
+            case ID:
+                if (ios) {
+                    return value.equals(element.getAttribute("name"));
+                }
+                String resourceId = element.getAttribute("resource-id");
+                return value.equals(resourceId) || resourceId.endsWith(":id/" + value);
+            case ACCESSIBILITY_ID:
+                return value.equals(element.getAttribute(ios ? "name" : "content-desc"));
+            case CLASS_NAME:
+                return ios ? value.equals(element.getTagName()) : value.equals(element.getAttribute("class"));
+            default:
+                return false;
+        }
+    }
+
+    private List<SnapshotElement> evaluateXpath(String expression) {
+        try {
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(expression, document, XPathConstants.NODESET);
+            if (nodes.getLength() == 0) {
+                return Collections.emptyList();
+            }
+            List<SnapshotElement> matches = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element) {
+                    matches.add(new SnapshotElement((Element) nodes.item(i), ios));
+                }
+            }
+            return matches;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath: " + expression, e);
+        }
+    }
+
+    /**
+     * A node of the snapshot.
+     */
+    public static final class SnapshotElement {
+
+        private final Element element;
+        private final boolean ios;
+
+        SnapshotElement(Element element, boolean ios) {
+            this.element = element;
+            this.ios = ios;
+        }
+
+        /**
+         * Gets a raw attribute of the node.
+         *
+         * @param name The attribute name
+         * @return The attribute value, or an empty string if absent
+         */
+        public String getAttribute(String name) {
+            return element.getAttribute(name);
+        }
+
+        /**
+         * Gets the text of the node as the driver would report it.
+         *
+         * @return The text
+         */
+        public String getText() {
+            if (!ios) {
+                return element.getAttribute("text");
+            }
+            String value = element.getAttribute("value");
+            return value.isEmpty() ? element.getAttribute("label") : value;
+        }
+
+        /**
+         * Checks whether the node is displayed.
+         * Nodes without a visibility attribute are treated as displayed.
+         *
+         * @return true if displayed, false otherwise
+         */
+        public boolean isDisplayed() {
+            String flag = element.getAttribute(ios ? "visible" : "displayed");
+            return flag.isEmpty() || Boolean.parseBoolean(flag);
+        }
+
+        /**
+         * Checks whether the node is enabled.
+         *
+         * @return true if enabled, false otherwise
+         */
+        public boolean isEnabled() {
+            String flag = element.getAttribute("enabled");
+            return flag.isEmpty() || Boolean.parseBoolean(flag);
+        }
+    }
+}
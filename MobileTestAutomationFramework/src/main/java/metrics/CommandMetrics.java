@@ -0,0 +1,188 @@
+package metrics;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import utilities.JavaUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latency of the WebDriver commands sent by the test running on the current thread.
+ * InstrumentedCommandExecutor records every command twice: in a histogram per command name
+ * (findElement, clickElement, ...) and in a histogram per page-object method and command name
+ * (e.g. LoginPage.login / sendKeysToElement). Commands sent outside a page object are recorded
+ * under {@value #NO_PAGE}.
+ */
+public final class CommandMetrics {
+
+    /** Origin of commands that were not sent from a page-object method. */
+    public static final String NO_PAGE = "(test)";
+
+    private static final ThreadLocal<CommandMetrics> CURRENT = new ThreadLocal<>();
+    private static volatile boolean enabled = true;
+
+    private final String testName;
+    private final Map<String, LatencyHistogram> byCommand = new TreeMap<>();
+    private final Map<String, Map<String, LatencyHistogram>> byOrigin = new TreeMap<>();
+
+    private CommandMetrics(String testName) {
+        this.testName = testName;
+    }
+
+    /**
+     * Enables or disables command metrics for all threads.
+     *
+     * @param metricsEnabled false to stop recording command latencies
+     */
+    public static void configure(boolean metricsEnabled) {
+        enabled = metricsEnabled;
+    }
+
+    /**
+     * Starts recording the commands of a test on the current thread, replacing any previous test.
+     *
+     * @param testName Name of the test
+     */
+    public static void start(String testName) {
+        if (enabled) {
+            CURRENT.set(new CommandMetrics(testName));
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Stops recording on the current thread.
+     *
+     * @return The metrics of the test that was running, or null if none was started
+     */
+    public static CommandMetrics stop() {
+        CommandMetrics metrics = CURRENT.get();
+        CURRENT.remove();
+        return metrics;
+    }
+
+    /**
+     * Gets the metrics of the current thread.
+     *
+     * @return The metrics, or null if no test is being recorded on this thread
+     */
+    public static CommandMetrics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records one command.
+     *
+     * @param command The WebDriver command name
+     * @param origin The page-object method that sent it, e.g. "LoginPage.login", or null
+     * @param nanos How long the command took
+     */
+    public synchronized void record(String command, String origin, long nanos) {
+        byCommand.computeIfAbsent(command, c -> new LatencyHistogram()).record(nanos);
+        byOrigin.computeIfAbsent(origin == null ? NO_PAGE : origin, o -> new TreeMap<>())
+                .computeIfAbsent(command, c -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Gets the name of the recorded test.
+     *
+     * @return The test name
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * Gets the histogram of one command.
+     *
+     * @param command The WebDriver command name
+     * @return The histogram, or null if the command was not sent
+     */
+    public synchronized LatencyHistogram getHistogram(String command) {
+        return byCommand.get(command);
+    }
+
+    /**
+     * Gets the histogram of one command sent from one page-object method.
+     *
+     * @param origin The page-object method, e.g. "LoginPage.login", or {@value #NO_PAGE}
+     * @param command The WebDriver command name
+     * @return The histogram, or null if the method did not send the command
+     */
+    public synchronized LatencyHistogram getHistogram(String origin, String command) {
+        Map<String, LatencyHistogram> commands = byOrigin.get(origin);
+        return commands == null ? null : commands.get(command);
+    }
+
+    /**
+     * Gets the number of commands recorded.
+     *
+     * @return The command count
+     */
+    public synchronized long getCommandCount() {
+        return byCommand.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    /**
+     * Converts the metrics to JSON. Latencies are in milliseconds.
+     *
+     * @return The metrics as JSON
+     */
+    public synchronized JSONObject toJson() {
+        JSONArray commands = new JSONArray();
+        byCommand.forEach((command, histogram) -> commands.put(toJson(histogram).put("command", command)));
+        JSONArray origins = new JSONArray();
+        byOrigin.forEach((origin, histograms) -> histograms.forEach((command, histogram) ->
+                origins.put(toJson(histogram).put("origin", origin).put("command", command))));
+        return new JSONObject()
+                .put("test", testName)
+                .put("commands", commands)
+                .put("byOrigin", origins);
+    }
+
+    private static JSONObject toJson(LatencyHistogram histogram) {
+        return new JSONObject()
+                .put("count", histogram.getCount())
+                .put("totalMs", millis(histogram.getTotal()))
+                .put("p50Ms", millis(histogram.getPercentile(50)))
+                .put("p95Ms", millis(histogram.getPercentile(95)))
+                .put("p99Ms", millis(histogram.getPercentile(99)))
+                .put("maxMs", millis(histogram.getMax()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Writes the metrics as JSON to a file in a directory, named after the test.
+     *
+     * @param directory The directory to write to, created if missing
+     * @return The written file
+     * @throws IOException If the file cannot be written
+     */
+    public Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String fileName = testName.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                + JavaUtils.getCurrentTimestamp("yyyyMMdd-HHmmss-SSS") + ".json";
+        Path file = directory.resolve(fileName);
+        Files.write(file, toJson().toString(2).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder out = new StringBuilder("Command latency of ").append(testName).append(':');
+        byCommand.forEach((command, histogram) -> out.append(String.format(
+                "%n  %-24s n=%-5d p50=%.1fms p95=%.1fms p99=%.1fms", command, histogram.getCount(),
+                millis(histogram.getPercentile(50)), millis(histogram.getPercentile(95)),
+                millis(histogram.getPercentile(99)))));
+        return out.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package metrics;
+
+import global.BasePage;
+import global.PageUtils;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.net.URL;
+import java.util.Optional;
+
+/**
+ * Command executor that times every WebDriver command of a session.
+ * Element commands (click, sendKeys, getText, ...) go through the executor as well, so this
+ * sees all the traffic of the driver without wrapping it. Each command is recorded in the
+ * CommandMetrics of the test running on the calling thread, together with the page-object
+ * method that sent it. When no test is being recorded a command costs one thread-local lookup.
+ */
+public class InstrumentedCommandExecutor extends AppiumCommandExecutor {
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    // Pages and components; PageUtils and BasePage only hold the shared helpers
+    private static final ClassValue<Boolean> PAGE_OBJECT = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return BasePage.class.isAssignableFrom(type) && type != BasePage.class && type != PageUtils.class;
+        }
+    };
+
+    /**
+     * Constructor to initialize InstrumentedCommandExecutor.
+     *
+     * @param serverUrl The Appium server URL
+     */
+    public InstrumentedCommandExecutor(URL serverUrl) {
+        super(MobileCommand.commandRepository, serverUrl);
+    }
+
+    /**
+     * Constructor to initialize InstrumentedCommandExecutor with its own HTTP client factory.
+     *
+     * @param serverUrl The Appium server URL
+     * @param httpClientFactory Creates the HTTP client of the session
+     */
+    public InstrumentedCommandExecutor(URL serverUrl, HttpClient.Factory httpClientFactory) {
+        super(MobileCommand.commandRepository, serverUrl, httpClientFactory);
+    }
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        CommandMetrics metrics = CommandMetrics.current();
+        if (metrics == null) {
+            return send(command);
+        }
+        String origin = findOrigin();
+        long start = System.nanoTime();
+        try {
+            return send(command);
+        } finally {
+            metrics.record(command.getName(), origin, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends a command to the server.
+     *
+     * @param command The command to send
+     * @return The response of the server
+     * @throws WebDriverException If the command fails
+     */
+    protected Response send(Command command) throws WebDriverException {
+        return super.execute(command);
+    }
+
+    /**
+     * Finds the page-object method the current command was sent from.
+     * The outermost page-object frame is used, so a command sent by LoginPage.login through
+     * LoginPage.clickLoginButton and ButtonComponent.clickButton is attributed to LoginPage.login.
+     *
+     * @return The method as "Page.method", or null if the command was not sent from a page object
+     */
+    static String findOrigin() {
+        Optional<StackWalker.StackFrame> outermost = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> PAGE_OBJECT.get(frame.getDeclaringClass())
+                        && !frame.getMethodName().startsWith("lambda$"))
+                .reduce((inner, outer) -> outer));
+        return outermost.map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+                .orElse(null);
+    }
+}
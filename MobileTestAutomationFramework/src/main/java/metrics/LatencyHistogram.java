@@ -0,0 +1,102 @@
+package metrics;
+
+/**
+ * Fixed-size latency histogram with logarithmic buckets.
+ * Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so a recorded value is
+ * reported with at most ~6% error however large it is, while the histogram itself stays a few
+ * KB whatever the number of samples. Count, sum, min and max are kept exactly.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values are in microseconds; 2^40 us is well over a week
+    private static final int MAX_EXPONENT = 40;
+
+    private final long[] counts = new long[(MAX_EXPONENT + 1) * SUB_BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts[indexOf(micros)]++;
+        count++;
+        sum += micros;
+        min = Math.min(min, micros);
+        max = Math.max(max, micros);
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(micros));
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) Math.min(SUB_BUCKETS - 1, (micros >>> shift) - SUB_BUCKETS);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Gets the latency below which a given fraction of the recorded latencies fall.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in microseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, upperBoundOf(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The sample count
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the recorded latencies.
+     *
+     * @return The total in microseconds
+     */
+    public synchronized long getTotal() {
+        return sum;
+    }
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return The maximum in microseconds, or 0 if nothing was recorded
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+}
@@ -6,6 +6,7 @@ import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.WebElement;
+import session.DriverHandle;
 import utilities.LoggerUtils;
 
 /**
@@ -44,7 +45,34 @@ public class HomePage extends PageUtils {
      */
     public HomePage(AppiumDriver driver) {
         super(driver);
-        buttonComponent = new ButtonComponent(driver);
+    }
+    
+    /**
+     * Constructor to initialize the home page on a session that is opened on first use.
+     *
+     * @param handle The handle of the session
+     */
+    public HomePage(DriverHandle handle) {
+        super(handle);
+    }
+    
+    /**
+     * Gets the session's shared button component, once the page needs the session.
+     *
+     * @return The button component
+     */
+    private ButtonComponent getButtonComponent() {
+        AppiumDriver driver = getDriver();
+        if (buttonComponent == null) {
+            buttonComponent = ButtonComponent.forDriver(driver);
+        }
+        return buttonComponent;
+    }
+    
+    @Override
+    protected void onSessionReplaced() {
+        super.onSessionReplaced();
+        buttonComponent = null;
     }
     
     /**
@@ -54,10 +82,22 @@ public class HomePage extends PageUtils {
      */
     public boolean isHomePageDisplayed() {
         boolean isDisplayed = isElementDisplayed(homeTitle);
-        LoggerUtils.info("Home page is " + (isDisplayed ? "displayed" : "not displayed"));
+        LoggerUtils.info("Home page is {}", isDisplayed ? "displayed" : "not displayed");
         return isDisplayed;
     }
     
+    /**
+     * Checks if the home page is fully loaded, i.e. the title and all navigation buttons are displayed.
+     *
+     * @return true if the home page is loaded, false otherwise
+     */
+    public boolean isHomePageLoaded() {
+        boolean isLoaded = areElementsDisplayed("homeTitle", "profileButton", "settingsButton",
+                "notificationsButton", "searchButton");
+        LoggerUtils.info("Home page is {}", isLoaded ? "loaded" : "not loaded");
+        return isLoaded;
+    }
+    
     /**
      * Gets the home page title text.
      *
@@ -65,7 +105,7 @@ public class HomePage extends PageUtils {
      */
     public String getHomePageTitle() {
         String title = getText(homeTitle);
-        LoggerUtils.info("Home page title: " + title);
+        LoggerUtils.info("Home page title: {}", title);
         return title;
     }
     
@@ -74,7 +114,8 @@ public class HomePage extends PageUtils {
      */
     public void navigateToProfile() {
         LoggerUtils.info("Navigating to profile page");
-        buttonComponent.clickButton(profileButton, "Profile");
+        getButtonComponent().clickButton(profileButton, "Profile");
+        onNavigation();
     }
     
     /**
@@ -82,7 +123,8 @@ public class HomePage extends PageUtils {
      */
     public void navigateToSettings() {
         LoggerUtils.info("Navigating to settings page");
-        buttonComponent.clickButton(settingsButton, "Settings");
+        getButtonComponent().clickButton(settingsButton, "Settings");
+        onNavigation();
     }
     
     /**
@@ -90,7 +132,8 @@ public class HomePage extends PageUtils {
      */
     public void navigateToNotifications() {
         LoggerUtils.info("Navigating to notifications page");
-        buttonComponent.clickButton(notificationsButton, "Notifications");
+        getButtonComponent().clickButton(notificationsButton, "Notifications");
+        onNavigation();
     }
     
     /**
@@ -98,7 +141,8 @@ public class HomePage extends PageUtils {
      */
     public void openSearch() {
         LoggerUtils.info("Opening search");
-        buttonComponent.clickButton(searchButton, "Search");
+        getButtonComponent().clickButton(searchButton, "Search");
+        onNavigation();
     }
     
     /**
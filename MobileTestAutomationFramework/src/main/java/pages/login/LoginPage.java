@@ -6,6 +6,7 @@ import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.WebElement;
+import session.DriverHandle;
 import utilities.LoggerUtils;
 
 /**
@@ -40,7 +41,45 @@ public class LoginPage extends PageUtils {
      */
     public LoginPage(AppiumDriver driver) {
         super(driver);
-        buttonComponent = new ButtonComponent(driver);
+    }
+    
+    /**
+     * Constructor to initialize the login page on a session that is opened on first use.
+     *
+     * @param handle The handle of the session
+     */
+    public LoginPage(DriverHandle handle) {
+        super(handle);
+    }
+    
+    /**
+     * Gets the session's shared button component, once the page needs the session.
+     *
+     * @return The button component
+     */
+    private ButtonComponent getButtonComponent() {
+        AppiumDriver driver = getDriver();
+        if (buttonComponent == null) {
+            buttonComponent = ButtonComponent.forDriver(driver);
+        }
+        return buttonComponent;
+    }
+    
+    @Override
+    protected void onSessionReplaced() {
+        super.onSessionReplaced();
+        buttonComponent = null;
+    }
+    
+    /**
+     * Checks if the login page is loaded, i.e. both input fields and the login button are displayed.
+     *
+     * @return true if the login page is loaded, false otherwise
+     */
+    public boolean isLoginPageLoaded() {
+        boolean isLoaded = areElementsDisplayed("usernameInput", "passwordInput", "loginButton");
+        LoggerUtils.info("Login page is {}", isLoaded ? "loaded" : "not loaded");
+        return isLoaded;
     }
     
     /**
@@ -50,7 +89,7 @@ public class LoginPage extends PageUtils {
      * @return The LoginPage instance for method chaining
      */
     public LoginPage enterUsername(String username) {
-        LoggerUtils.info("Entering username: " + username);
+        LoggerUtils.info("Entering username: {}", username);
         sendKeys(usernameInput, username);
         return this;
     }
@@ -74,7 +113,8 @@ public class LoginPage extends PageUtils {
      */
     public LoginPage clickLoginButton() {
         LoggerUtils.info("Clicking login button");
-        buttonComponent.clickButton(loginButton, "Login");
+        getButtonComponent().clickButton(loginButton, "Login");
+        onNavigation();
         return this;
     }
     
@@ -86,22 +126,41 @@ public class LoginPage extends PageUtils {
      * @return The LoginPage instance for method chaining
      */
     public LoginPage login(String username, String password) {
-        LoggerUtils.info("Performing login with username: " + username);
+        LoggerUtils.info("Performing login with username: {}", username);
         enterUsername(username);
         enterPassword(password);
         clickLoginButton();
         return this;
     }
     
+    /**
+     * Performs the login operation in a single server request where the server supports it.
+     * Same steps as {@link #login(String, String)}, sent as one batch instead of a request per wait
+     * and action.
+     *
+     * @param username The username to enter
+     * @param password The password to enter
+     * @return The LoginPage instance for method chaining
+     */
+    public LoginPage loginBatched(String username, String password) {
+        LoggerUtils.info("Performing batched login with username: {}", username);
+        batch().sendKeys(usernameInput, username)
+                .sendKeys(passwordInput, password)
+                .click(loginButton)
+                .run();
+        onNavigation();
+        return this;
+    }
+    
     /**
      * Gets the error message text if present.
      *
      * @return The error message text, or null if not present
      */
     public String getErrorMessage() {
-        if (isElementDisplayed(errorMessage)) {
+        if (isPresentNow(errorMessage)) {
             String message = getText(errorMessage);
-            LoggerUtils.info("Error message displayed: " + message);
+            LoggerUtils.info("Error message displayed: {}", message);
             return message;
         }
         return null;
@@ -113,9 +172,9 @@ public class LoginPage extends PageUtils {
      * @return true if login was successful, false otherwise
      */
     public boolean isLoginSuccessful() {
-        // Check if error message is not displayed
-        boolean noErrorMessage = !isElementDisplayed(errorMessage);
-        LoggerUtils.info("Login " + (noErrorMessage ? "successful" : "failed"));
+        // Check if error message is not displayed, without waiting for it in the happy path
+        boolean noErrorMessage = !isPresentNow(errorMessage);
+        LoggerUtils.info("Login {}", noErrorMessage ? "successful" : "failed");
         return noErrorMessage;
     }
 }
@@ -0,0 +1,228 @@
+package processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates locator metadata for page objects at compile time.
+ * For every class with @AndroidFindBy or @iOSXCUITFindBy fields, a {@code <Page>_Locators} class
+ * implementing locators.GeneratedLocators is written next to it. BasePage binds page elements from
+ * this metadata, so pages no longer parse their annotations reflectively each time they are built.
+ * The processor is compiled in a separate execution before the rest of the module (see pom.xml),
+ * so it only depends on the JDK.
+ */
+@SupportedAnnotationTypes({
+        PageLocatorProcessor.ANDROID_FIND_BY,
+        PageLocatorProcessor.IOS_FIND_BY
+})
+public class PageLocatorProcessor extends AbstractProcessor {
+
+    static final String ANDROID_FIND_BY = "io.appium.java_client.pagefactory.AndroidFindBy";
+    static final String IOS_FIND_BY = "io.appium.java_client.pagefactory.iOSXCUITFindBy";
+
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+    private static final String SUFFIX = "_Locators";
+
+    /** Annotation attribute to locator strategy, in the order PageLocators checks them. */
+    private static final Map<String, String> ANDROID_STRATEGIES = new LinkedHashMap<>();
+    private static final Map<String, String> IOS_STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        ANDROID_STRATEGIES.put("id", "ID");
+        ANDROID_STRATEGIES.put("accessibility", "ACCESSIBILITY_ID");
+        ANDROID_STRATEGIES.put("xpath", "XPATH");
+        ANDROID_STRATEGIES.put("className", "CLASS_NAME");
+        ANDROID_STRATEGIES.put("uiAutomator", "UI_AUTOMATOR");
+
+        IOS_STRATEGIES.put("id", "ID");
+        IOS_STRATEGIES.put("accessibility", "ACCESSIBILITY_ID");
+        IOS_STRATEGIES.put("xpath", "XPATH");
+        IOS_STRATEGIES.put("className", "CLASS_NAME");
+        IOS_STRATEGIES.put("iOSNsPredicate", "IOS_PREDICATE");
+        IOS_STRATEGIES.put("iOSClassChain", "IOS_CLASS_CHAIN");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> pages = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD
+                        && element.getEnclosingElement().getKind() == ElementKind.CLASS) {
+                    pages.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+        for (TypeElement page : pages) {
+            try {
+                generate(page);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Cannot generate locators for " + page + ": " + e.getMessage(), page);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement page) throws IOException {
+        String packageName = ((PackageElement) packageOf(page)).getQualifiedName().toString();
+        String simpleName = binarySimpleName(page) + SUFFIX;
+        TypeMirror webElement = processingEnv.getElementUtils().getTypeElement(WEB_ELEMENT).asType();
+
+        StringBuilder fields = new StringBuilder();
+        StringBuilder android = new StringBuilder();
+        StringBuilder ios = new StringBuilder();
+        boolean bindable = true;
+        for (Element member : page.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            VariableElement field = (VariableElement) member;
+            String androidLocator = locatorOf(field, ANDROID_FIND_BY, ANDROID_STRATEGIES);
+            String iosLocator = locatorOf(field, IOS_FIND_BY, IOS_STRATEGIES);
+            if (androidLocator == null && iosLocator == null) {
+                continue;
+            }
+            String name = field.getSimpleName().toString();
+            if (!processingEnv.getTypeUtils().isSameType(field.asType(), webElement)
+                    || field.getModifiers().contains(Modifier.STATIC)
+                    || field.getModifiers().contains(Modifier.FINAL)) {
+                bindable = false;
+            }
+            fields.append("        fields.add(\"").append(name).append("\");\n");
+            if (androidLocator != null) {
+                android.append("        android.put(\"").append(name).append("\", ").append(androidLocator).append(");\n");
+            }
+            if (iosLocator != null) {
+                ios.append("        ios.put(\"").append(name).append("\", ").append(iosLocator).append(");\n");
+            }
+        }
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + "." + simpleName, page);
+        try (Writer out = file.openWriter()) {
+            out.write("package " + packageName + ";\n\n"
+                    + "import locators.GeneratedLocators;\n"
+                    + "import locators.Locator;\n\n"
+                    + "import javax.annotation.processing.Generated;\n"
+                    + "import java.util.ArrayList;\n"
+                    + "import java.util.Collections;\n"
+                    + "import java.util.LinkedHashMap;\n"
+                    + "import java.util.List;\n"
+                    + "import java.util.Map;\n\n"
+                    + "/**\n"
+                    + " * Locator metadata of {@link " + page.getQualifiedName() + "}.\n"
+                    + " */\n"
+                    + "@Generated(\"" + PageLocatorProcessor.class.getName() + "\")\n"
+                    + "public final class " + simpleName + " implements GeneratedLocators {\n\n"
+                    + "    private static final List<String> FIELDS;\n"
+                    + "    private static final Map<String, Locator> ANDROID;\n"
+                    + "    private static final Map<String, Locator> IOS;\n\n"
+                    + "    static {\n"
+                    + "        List<String> fields = new ArrayList<>();\n"
+                    + fields
+                    + "        FIELDS = Collections.unmodifiableList(fields);\n"
+                    + "        Map<String, Locator> android = new LinkedHashMap<>();\n"
+                    + android
+                    + "        ANDROID = Collections.unmodifiableMap(android);\n"
+                    + "        Map<String, Locator> ios = new LinkedHashMap<>();\n"
+                    + ios
+                    + "        IOS = Collections.unmodifiableMap(ios);\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public List<String> fields() {\n"
+                    + "        return FIELDS;\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public Map<String, Locator> android() {\n"
+                    + "        return ANDROID;\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public Map<String, Locator> ios() {\n"
+                    + "        return IOS;\n"
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public boolean isBindable() {\n"
+                    + "        return " + bindable + ";\n"
+                    + "    }\n"
+                    + "}\n");
+        }
+    }
+
+    /**
+     * Builds the Java expression creating the locator of a field, or returns null if the field has
+     * no supported locator for the annotation.
+     */
+    private String locatorOf(VariableElement field, String annotationType, Map<String, String> strategies) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(annotationType)) {
+                continue;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof String && !((String) value).isEmpty()) {
+                    values.put(entry.getKey().getSimpleName().toString(), (String) value);
+                }
+            }
+            for (Map.Entry<String, String> strategy : strategies.entrySet()) {
+                String value = values.get(strategy.getKey());
+                if (value != null) {
+                    return "new Locator(Locator.Strategy." + strategy.getValue() + ", "
+                            + processingEnv.getElementUtils().getConstantExpression(value) + ")";
+                }
+            }
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "No supported locator strategy on " + field.getSimpleName(), field, mirror);
+        }
+        return null;
+    }
+
+    private static Element packageOf(Element element) {
+        Element current = element;
+        while (current.getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        return current;
+    }
+
+    /**
+     * Gets the simple name of a class as it appears in its binary name, e.g. Outer$Inner for
+     * nested classes, so the generated class can be found from Class.getName().
+     */
+    private static String binarySimpleName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            name = enclosing.getSimpleName() + "$" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name;
+    }
+}
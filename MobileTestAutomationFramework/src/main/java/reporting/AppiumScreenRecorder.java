@@ -0,0 +1,33 @@
+package reporting;
+
+import io.appium.java_client.screenrecording.CanRecordScreen;
+
+import java.util.Base64;
+
+/**
+ * Screen recorder backed by the Appium screen recording commands of a session.
+ */
+public class AppiumScreenRecorder implements ScreenRecorder {
+
+    private final CanRecordScreen driver;
+
+    /**
+     * Constructor to initialize AppiumScreenRecorder.
+     *
+     * @param driver The driver of the session to record, e.g. an AndroidDriver or IOSDriver
+     */
+    public AppiumScreenRecorder(CanRecordScreen driver) {
+        this.driver = driver;
+    }
+
+    @Override
+    public void start() {
+        driver.startRecordingScreen();
+    }
+
+    @Override
+    public byte[] stop() {
+        String video = driver.stopRecordingScreen();
+        return video == null ? new byte[0] : Base64.getMimeDecoder().decode(video);
+    }
+}
@@ -0,0 +1,49 @@
+package reporting;
+
+import io.qameta.allure.listener.TestLifecycleListener;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.TestResult;
+
+/**
+ * Tags Allure results with the platform they ran on.
+ * When the Android and iOS suites run side by side into one allure-results directory, the results of
+ * the same test method would otherwise share a history id and show up as retries of one another.
+ * BaseTest sets the platform of the test thread before each test method; this listener, registered
+ * through META-INF/services, adds it as a tag and a parameter and makes the history id per platform.
+ */
+public class PlatformLabels implements TestLifecycleListener {
+
+    private static final ThreadLocal<String> CURRENT_PLATFORM = new ThreadLocal<>();
+
+    /**
+     * Sets the platform of the tests run by the current thread.
+     *
+     * @param platform The platform name, e.g. android or ios; null to stop tagging
+     */
+    public static void setCurrentPlatform(String platform) {
+        CURRENT_PLATFORM.set(platform);
+    }
+
+    /**
+     * Gets the platform of the tests run by the current thread.
+     *
+     * @return The platform name, or null if none was set
+     */
+    public static String getCurrentPlatform() {
+        return CURRENT_PLATFORM.get();
+    }
+
+    @Override
+    public void beforeTestStop(TestResult result) {
+        String platform = CURRENT_PLATFORM.get();
+        if (platform == null) {
+            return;
+        }
+        result.getLabels().add(new Label().setName("tag").setValue(platform));
+        result.getParameters().add(new Parameter().setName("platform").setValue(platform));
+        if (result.getHistoryId() != null) {
+            result.setHistoryId(result.getHistoryId() + "-" + platform);
+        }
+    }
+}
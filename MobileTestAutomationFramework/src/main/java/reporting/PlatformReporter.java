@@ -0,0 +1,326 @@
+package reporting;
+
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import utilities.LoggerUtils;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Merges the results of the platform suites of a run into one JUnit XML file and logs a combined
+ * timing summary.
+ * Register it in the root suite that lists the platform suites. The file has one testsuite per platform,
+ * and each test case's classname is prefixed with its platform (e.g. {@code android.tests.login.LoginTest}),
+ * so CI servers keep the Android and iOS results of the same test apart. Attempts that were retried
+ * are left out; only the final outcome of each test is reported.
+ */
+public class PlatformReporter implements IReporter {
+
+    public static final String REPORT_FILE = "platform-results.xml";
+
+    /**
+     * The results of one platform across the suites of a run.
+     */
+    public static final class PlatformResult {
+
+        private final String platform;
+        private final List<ITestResult> results = new ArrayList<>();
+        private long startMillis = Long.MAX_VALUE;
+        private long endMillis = Long.MIN_VALUE;
+
+        /**
+         * Constructor to initialize PlatformResult.
+         *
+         * @param platform The platform name
+         */
+        public PlatformResult(String platform) {
+            this.platform = platform;
+        }
+
+        /**
+         * Adds the final outcome of a test; retried attempts are ignored.
+         *
+         * @param result The test result
+         */
+        public void add(ITestResult result) {
+            if (result.wasRetried()) {
+                return;
+            }
+            results.add(result);
+            extendTo(result.getStartMillis(), result.getEndMillis());
+        }
+
+        /**
+         * Widens the time span of the platform, e.g. to the start and end of one of its suite's tests.
+         *
+         * @param start Start time in epoch milliseconds
+         * @param end End time in epoch milliseconds
+         */
+        public void extendTo(long start, long end) {
+            startMillis = Math.min(startMillis, start);
+            endMillis = Math.max(endMillis, end);
+        }
+
+        /**
+         * Gets the platform name.
+         *
+         * @return The platform name
+         */
+        public String getPlatform() {
+            return platform;
+        }
+
+        /**
+         * Gets the final outcomes of the platform's tests.
+         *
+         * @return The test results
+         */
+        public List<ITestResult> getResults() {
+            return Collections.unmodifiableList(results);
+        }
+
+        /**
+         * Gets the time from the start of the platform's first test to the end of its last one.
+         *
+         * @return Wall-clock milliseconds, or 0 if nothing ran
+         */
+        public long getWallMillis() {
+            return endMillis < startMillis ? 0 : endMillis - startMillis;
+        }
+
+        /**
+         * Counts the tests of the platform with a given status.
+         *
+         * @param status An ITestResult status, e.g. ITestResult.FAILURE
+         * @return The number of tests
+         */
+        public int count(int status) {
+            return (int) results.stream().filter(result -> statusOf(result) == status).count();
+        }
+
+        long getStartMillis() {
+            return startMillis;
+        }
+
+        long getEndMillis() {
+            return endMillis;
+        }
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        List<PlatformResult> platforms = collect(suites);
+        if (platforms.isEmpty()) {
+            return;
+        }
+        LoggerUtils.info(summary(platforms));
+        try {
+            Path file = writeJUnitXml(platforms, Paths.get(outputDirectory, REPORT_FILE));
+            LoggerUtils.info("Platform results written to {}", file);
+        } catch (IOException e) {
+            LoggerUtils.error("Failed to write platform results", e);
+        }
+    }
+
+    /**
+     * Groups the results of the suites of a run by platform.
+     *
+     * @param suites The suites that ran
+     * @return One entry per platform, in the order the platforms were first seen
+     */
+    public static List<PlatformResult> collect(List<ISuite> suites) {
+        Map<String, PlatformResult> byPlatform = new LinkedHashMap<>();
+        for (ISuite suite : suites) {
+            for (ISuiteResult suiteResult : suite.getResults().values()) {
+                ITestContext context = suiteResult.getTestContext();
+                PlatformResult platform = byPlatform.computeIfAbsent(platformOf(context.getCurrentXmlTest()),
+                        PlatformResult::new);
+                platform.extendTo(context.getStartDate().getTime(), context.getEndDate().getTime());
+                for (Collection<ITestResult> results : List.of(context.getPassedTests().getAllResults(),
+                        context.getFailedTests().getAllResults(),
+                        context.getFailedButWithinSuccessPercentageTests().getAllResults(),
+                        context.getSkippedTests().getAllResults())) {
+                    results.forEach(platform::add);
+                }
+            }
+        }
+        return new ArrayList<>(byPlatform.values());
+    }
+
+    /**
+     * Determines the platform a test ran on, the way BaseTest does: from its platform parameter,
+     * else from the suite's platformName parameter, else android.
+     *
+     * @param test The test of a suite
+     * @return The platform name in lower case
+     */
+    public static String platformOf(XmlTest test) {
+        String platform = test.getParameter("platform");
+        if (platform == null || platform.isEmpty()) {
+            platform = test.getParameter("platformName");
+        }
+        return platform == null || platform.isEmpty() ? "android" : platform.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Describes how long each platform took and how long the run took overall.
+     *
+     * @param platforms The results per platform
+     * @return The summary, one line per platform plus a total line
+     */
+    public static String summary(List<PlatformResult> platforms) {
+        StringBuilder summary = new StringBuilder("Platform timing:");
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        long sequential = 0;
+        for (PlatformResult platform : platforms) {
+            summary.append(String.format(Locale.ROOT, "%n  %s: %d tests (%d passed, %d failed, %d skipped) in %.1f s",
+                    platform.getPlatform(), platform.getResults().size(), platform.count(ITestResult.SUCCESS),
+                    platform.count(ITestResult.FAILURE), platform.count(ITestResult.SKIP),
+                    platform.getWallMillis() / 1000.0));
+            if (platform.getWallMillis() > 0) {
+                start = Math.min(start, platform.getStartMillis());
+                end = Math.max(end, platform.getEndMillis());
+                sequential += platform.getWallMillis();
+            }
+        }
+        long wall = end < start ? 0 : end - start;
+        summary.append(String.format(Locale.ROOT, "%n  Total: %.1f s wall clock, %.1f s if run one after another",
+                wall / 1000.0, sequential / 1000.0));
+        return summary.toString();
+    }
+
+    /**
+     * Writes the results of all platforms as one JUnit XML file.
+     *
+     * @param platforms The results per platform
+     * @param file The file to write
+     * @return The written file
+     * @throws IOException If the file cannot be written
+     */
+    public static Path writeJUnitXml(List<PlatformResult> platforms, Path file) throws IOException {
+        Document document;
+        try {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No XML document builder available", e);
+        }
+        Element root = document.createElement("testsuites");
+        document.appendChild(root);
+        int tests = 0;
+        int failures = 0;
+        int skipped = 0;
+        for (PlatformResult platform : platforms) {
+            Element suite = document.createElement("testsuite");
+            suite.setAttribute("name", platform.getPlatform());
+            suite.setAttribute("tests", String.valueOf(platform.getResults().size()));
+            suite.setAttribute("failures", String.valueOf(platform.count(ITestResult.FAILURE)));
+            suite.setAttribute("skipped", String.valueOf(platform.count(ITestResult.SKIP)));
+            suite.setAttribute("errors", "0");
+            suite.setAttribute("time", seconds(platform.getWallMillis()));
+            Element properties = document.createElement("properties");
+            Element property = document.createElement("property");
+            property.setAttribute("name", "platform");
+            property.setAttribute("value", platform.getPlatform());
+            properties.appendChild(property);
+            suite.appendChild(properties);
+            Map<String, Integer> rows = new HashMap<>();
+            for (ITestResult result : platform.getResults()) {
+                suite.appendChild(testCase(document, platform.getPlatform(), result, rows));
+            }
+            root.appendChild(suite);
+            tests += platform.getResults().size();
+            failures += platform.count(ITestResult.FAILURE);
+            skipped += platform.count(ITestResult.SKIP);
+        }
+        root.setAttribute("tests", String.valueOf(tests));
+        root.setAttribute("failures", String.valueOf(failures));
+        root.setAttribute("skipped", String.valueOf(skipped));
+        root.setAttribute("errors", "0");
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(document), new StreamResult(file.toFile()));
+        } catch (TransformerException e) {
+            throw new IOException("Cannot write " + file, e);
+        }
+        return file;
+    }
+
+    /**
+     * Builds the testcase element of a result. Data provider rows of the same method are numbered.
+     */
+    private static Element testCase(Document document, String platform, ITestResult result,
+                                    Map<String, Integer> rows) {
+        String className = platform + "." + result.getTestClass().getName();
+        String name = result.getName();
+        if (result.getParameters() != null && result.getParameters().length > 0) {
+            name += "[" + rows.merge(className + "#" + name, 1, Integer::sum) + "]";
+        }
+        Element testCase = document.createElement("testcase");
+        testCase.setAttribute("classname", className);
+        testCase.setAttribute("name", name);
+        testCase.setAttribute("time", seconds(result.getEndMillis() - result.getStartMillis()));
+        int status = statusOf(result);
+        if (status == ITestResult.FAILURE) {
+            Throwable throwable = result.getThrowable();
+            Element failure = document.createElement("failure");
+            if (throwable != null) {
+                failure.setAttribute("type", throwable.getClass().getName());
+                failure.setAttribute("message", String.valueOf(throwable.getMessage()));
+                StringWriter trace = new StringWriter();
+                throwable.printStackTrace(new PrintWriter(trace));
+                failure.setTextContent(trace.toString());
+            }
+            testCase.appendChild(failure);
+        } else if (status == ITestResult.SKIP) {
+            testCase.appendChild(document.createElement("skipped"));
+        }
+        return testCase;
+    }
+
+    /**
+     * Maps a result to SUCCESS, FAILURE or SKIP; failures within the success percentage count as failures.
+     */
+    private static int statusOf(ITestResult result) {
+        int status = result.getStatus();
+        return status == ITestResult.SUCCESS_PERCENTAGE_FAILURE ? ITestResult.FAILURE : status;
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", Math.max(0, millis) / 1000.0);
+    }
+}
@@ -0,0 +1,227 @@
+package reporting;
+
+import utilities.LoggerUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the screen in short segments kept in a bounded ring on local disk.
+ * Only the segments needed to cover the last {@code keepWindow} of a test are ever stored. When the
+ * test fails they are moved to the output directory; otherwise they are deleted straight away.
+ * All recorder calls run on one background thread, so segment rotation never blocks the test.
+ */
+public class RollingScreenRecorder implements AutoCloseable {
+
+    private static final String EXTENSION = ".mp4";
+
+    private final ScreenRecorder recorder;
+    private final Path ringDirectory;
+    private final Duration segmentLength;
+    private final Duration keepWindow;
+    private final int maxSegments;
+    private final ScheduledExecutorService scheduler;
+
+    // Only accessed on the scheduler thread
+    private final Deque<Segment> ring = new ArrayDeque<>();
+    private ScheduledFuture<?> rotation;
+    private boolean recording;
+    private long segmentStart;
+    private int sequence;
+
+    /**
+     * Constructor to initialize RollingScreenRecorder.
+     *
+     * @param recorder Records the individual segments
+     * @param ringDirectory Directory holding the segments of the running test
+     * @param segmentLength Length of one segment
+     * @param keepWindow How much of the end of a failed test to keep
+     */
+    public RollingScreenRecorder(ScreenRecorder recorder, Path ringDirectory, Duration segmentLength,
+                                 Duration keepWindow) {
+        if (segmentLength.isZero() || segmentLength.isNegative()) {
+            throw new IllegalArgumentException("Segment length must be positive: " + segmentLength);
+        }
+        this.recorder = recorder;
+        this.ringDirectory = ringDirectory;
+        this.segmentLength = segmentLength;
+        this.keepWindow = keepWindow;
+        // The oldest kept segment may only partly overlap the window
+        this.maxSegments = (int) Math.max(1, (keepWindow.toMillis() + segmentLength.toMillis() - 1)
+                / segmentLength.toMillis()) + 1;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "screen-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts recording a test, dropping anything left from a previous test.
+     */
+    public void start() {
+        onRecorderThread(() -> {
+            stopRecording();
+            clearRing();
+            Files.createDirectories(ringDirectory);
+            recorder.start();
+            recording = true;
+            segmentStart = System.nanoTime();
+            rotation = scheduler.scheduleWithFixedDelay(this::rotate, segmentLength.toMillis(),
+                    segmentLength.toMillis(), TimeUnit.MILLISECONDS);
+            return null;
+        });
+    }
+
+    /**
+     * Stops recording and keeps the segments covering the last part of the test.
+     *
+     * @param testName Name of the failed test, used for the output file names
+     * @param outputDirectory Directory the kept segments are moved to
+     * @return The kept segment files, oldest first
+     */
+    public List<Path> keep(String testName, Path outputDirectory) {
+        return onRecorderThread(() -> {
+            stopRecording();
+            List<Segment> kept = new ArrayList<>();
+            long covered = 0;
+            for (Iterator<Segment> it = ring.descendingIterator(); it.hasNext() && covered < keepWindow.toNanos(); ) {
+                Segment segment = it.next();
+                kept.add(0, segment);
+                covered += segment.durationNanos;
+            }
+            Files.createDirectories(outputDirectory);
+            String prefix = testName.replaceAll("[^A-Za-z0-9._-]", "_");
+            List<Path> files = new ArrayList<>();
+            for (int i = 0; i < kept.size(); i++) {
+                Path target = outputDirectory.resolve(prefix + "-part" + (i + 1) + EXTENSION);
+                files.add(Files.move(kept.get(i).file, target, StandardCopyOption.REPLACE_EXISTING));
+                ring.remove(kept.get(i));
+            }
+            clearRing();
+            return Collections.unmodifiableList(files);
+        });
+    }
+
+    /**
+     * Stops recording and deletes every segment of the test.
+     */
+    public void discard() {
+        onRecorderThread(() -> {
+            stopRecording();
+            clearRing();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the most segments the ring holds at any time.
+     *
+     * @return The ring capacity
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Discards any running recording and stops the background thread.
+     */
+    @Override
+    public void close() {
+        try {
+            discard();
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void rotate() {
+        if (!recording) {
+            return;
+        }
+        try {
+            finishSegment();
+            recorder.start();
+            segmentStart = System.nanoTime();
+        } catch (Exception e) {
+            recording = false;
+            LoggerUtils.warn("Screen recording stopped after a failed segment rotation: {}", e.getMessage());
+        }
+    }
+
+    private void stopRecording() throws Exception {
+        if (rotation != null) {
+            rotation.cancel(false);
+            rotation = null;
+        }
+        if (recording) {
+            recording = false;
+            finishSegment();
+        }
+    }
+
+    private void finishSegment() throws Exception {
+        byte[] video = recorder.stop();
+        long end = System.nanoTime();
+        // Make room first, so the ring never holds more than maxSegments files
+        while (ring.size() >= maxSegments) {
+            delete(ring.removeFirst().file);
+        }
+        Path file = ringDirectory.resolve("segment-" + (++sequence) + EXTENSION);
+        Files.write(file, video);
+        ring.addLast(new Segment(file, end - segmentStart));
+    }
+
+    private void clearRing() {
+        while (!ring.isEmpty()) {
+            delete(ring.removeFirst().file);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LoggerUtils.warn("Could not delete recording segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private <T> T onRecorderThread(Callable<T> task) {
+        try {
+            return scheduler.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the screen recorder", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Screen recording failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * A recorded segment in the ring.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final long durationNanos;
+
+        private Segment(Path file, long durationNanos) {
+            this.file = file;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package reporting;
+
+/**
+ * Records the device screen one segment at a time.
+ */
+public interface ScreenRecorder {
+
+    /**
+     * Starts recording a new segment.
+     *
+     * @throws Exception If the recording cannot be started
+     */
+    void start() throws Exception;
+
+    /**
+     * Stops the current segment.
+     *
+     * @return The recorded video
+     * @throws Exception If the recording cannot be stopped or retrieved
+     */
+    byte[] stop() throws Exception;
+}
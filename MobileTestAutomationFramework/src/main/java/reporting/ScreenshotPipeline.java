@@ -0,0 +1,236 @@
+package reporting;
+
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes screenshots in the background.
+ * The test thread only takes the screenshot and hands the bytes over; encoding, de-duplication and
+ * disk writes run on a small worker pool with a bounded queue. When the queue is full (e.g. a bad
+ * build failing hundreds of tests at once) new screenshots are dropped instead of stalling tests.
+ * Identical images are detected by content hash and written once.
+ */
+public class ScreenshotPipeline {
+
+    /**
+     * Image format of the written files.
+     */
+    public enum Format {
+        PNG,
+        JPG
+    }
+
+    private static final float JPG_QUALITY = 0.8f;
+
+    private final Path directory;
+    private final Format format;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Path>> byHash = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructor to initialize ScreenshotPipeline.
+     *
+     * @param directory Directory the screenshots are written to
+     * @param format Image format of the written files
+     * @param workers Number of background threads
+     * @param queueSize Number of screenshots that may wait for a worker
+     */
+    public ScreenshotPipeline(Path directory, Format format, int workers, int queueSize) {
+        this(directory, format, newExecutor(workers, queueSize));
+    }
+
+    ScreenshotPipeline(Path directory, Format format, ThreadPoolExecutor executor) {
+        this.directory = directory;
+        this.format = format;
+        this.executor = executor;
+    }
+
+    static ThreadPoolExecutor newExecutor(int workers, int queueSize) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "screenshot-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hands a screenshot over for writing.
+     *
+     * @param name Name of the screenshot, typically the test name
+     * @param png The screenshot as returned by the driver
+     * @return Completes with the written file (or the file of an identical earlier screenshot),
+     *         or with null if the screenshot was dropped because the queue was full
+     */
+    public CompletableFuture<Path> submit(String name, byte[] png) {
+        submitted.incrementAndGet();
+        CompletableFuture<Path> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(process(name, png));
+                } catch (Exception e) {
+                    LoggerUtils.error("Failed to write screenshot " + name, e);
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+            LoggerUtils.warn("Screenshot queue full, dropping screenshot {}", name);
+            result.complete(null);
+        }
+        return result;
+    }
+
+    private Path process(String name, byte[] png) throws IOException {
+        String hash = sha256(png);
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> existing = byHash.putIfAbsent(hash, mine);
+        if (existing != null) {
+            duplicates.incrementAndGet();
+            Path file = existing.join();
+            LoggerUtils.debug("Screenshot {} is identical to {}", name, file);
+            return file;
+        }
+        try {
+            byte[] encoded = format == Format.JPG ? toJpg(png) : png;
+            JavaUtils.createDirectory(directory.toString());
+            String fileName = name.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                    + JavaUtils.getCurrentTimestamp("yyyyMMdd-HHmmss-SSS") + "." + format.name().toLowerCase();
+            Path file = Files.write(directory.resolve(fileName), encoded);
+            written.incrementAndGet();
+            mine.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            byHash.remove(hash, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static byte[] toJpg(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            throw new IOException("Screenshot is not a readable image");
+        }
+        // JPEG has no alpha channel
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(source, 0, 0, null);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPG_QUALITY);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Waits for queued screenshots to be written and stops the workers.
+     *
+     * @param timeoutSeconds How long to wait for pending screenshots
+     */
+    public void shutdown(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                LoggerUtils.warn("Screenshot pipeline did not finish within {}s", timeoutSeconds);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+        LoggerUtils.info("Screenshot pipeline shut down. {}", this);
+    }
+
+    /**
+     * Gets the number of screenshots handed over.
+     *
+     * @return The number of submitted screenshots
+     */
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    /**
+     * Gets the number of files written.
+     *
+     * @return The number of written screenshots
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * Gets the number of screenshots skipped because an identical one was already written.
+     *
+     * @return The number of duplicates
+     */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Gets the number of screenshots dropped because the queue was full.
+     *
+     * @return The number of dropped screenshots
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenshotPipeline[submitted=" + submitted + ", written=" + written
+                + ", duplicates=" + duplicates + ", dropped=" + dropped + "]";
+    }
+}
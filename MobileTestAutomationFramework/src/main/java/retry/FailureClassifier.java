@@ -0,0 +1,124 @@
+package retry;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.openqa.selenium.remote.http.ConnectionFailedException;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sorts test failures into infrastructure failures, which say nothing about the app and are worth
+ * retrying on a fresh session, and test failures, which are real results.
+ * A failure is infrastructure when its exception, or any of its causes, is one of the known session,
+ * transport or stale element exceptions, or its message names a lost device or server. Everything
+ * else, assertion errors and element waits that timed out included, is a test failure.
+ */
+public class FailureClassifier {
+
+    /**
+     * Kind of a failure.
+     */
+    public enum Kind {
+        INFRASTRUCTURE,
+        TEST
+    }
+
+    private static final List<Class<? extends Throwable>> INFRASTRUCTURE_TYPES = List.of(
+            NoSuchSessionException.class,
+            SessionNotCreatedException.class,
+            UnreachableBrowserException.class,
+            ConnectionFailedException.class,
+            StaleElementReferenceException.class,
+            SocketTimeoutException.class,
+            SocketException.class,
+            HttpTimeoutException.class,
+            TimeoutException.class);
+
+    /** Message fragments of Appium and adb errors raised when a device or its driver goes away. */
+    private static final List<String> INFRASTRUCTURE_MESSAGES = List.of(
+            "device offline",
+            "device not found",
+            "device unauthorized",
+            "could not find a connected",
+            "instrumentation process is not running",
+            "uiautomator2 server",
+            "socket hang up",
+            "econnreset",
+            "econnrefused",
+            "session is either terminated or not started");
+
+    private final List<String> messages;
+
+    /**
+     * Constructor to initialize FailureClassifier with the built-in rules only.
+     */
+    public FailureClassifier() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Constructor to initialize FailureClassifier.
+     *
+     * @param extraMessages Further message fragments that mark a failure as infrastructure, case-insensitive
+     */
+    public FailureClassifier(List<String> extraMessages) {
+        List<String> all = new ArrayList<>(INFRASTRUCTURE_MESSAGES);
+        for (String message : extraMessages) {
+            if (!message.isBlank()) {
+                all.add(message.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.messages = List.copyOf(all);
+    }
+
+    /**
+     * Classifies a failure.
+     *
+     * @param failure The exception or error the test failed with, may be null
+     * @return INFRASTRUCTURE if the failure is caused by the session, transport or device, TEST otherwise
+     */
+    public Kind classify(Throwable failure) {
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable cause = failure; cause != null && seen.add(cause); cause = cause.getCause()) {
+            if (cause instanceof AssertionError) {
+                return Kind.TEST;
+            }
+            for (Class<? extends Throwable> type : INFRASTRUCTURE_TYPES) {
+                if (type.isInstance(cause)) {
+                    return Kind.INFRASTRUCTURE;
+                }
+            }
+            String message = cause.getMessage();
+            if (message != null) {
+                String lower = message.toLowerCase(Locale.ROOT);
+                for (String fragment : messages) {
+                    if (lower.contains(fragment)) {
+                        return Kind.INFRASTRUCTURE;
+                    }
+                }
+            }
+        }
+        return Kind.TEST;
+    }
+
+    /**
+     * Checks whether a failure is caused by the infrastructure.
+     *
+     * @param failure The exception or error the test failed with, may be null
+     * @return true if the failure is an infrastructure failure, false otherwise
+     */
+    public boolean isInfrastructure(Throwable failure) {
+        return classify(failure) == Kind.INFRASTRUCTURE;
+    }
+}
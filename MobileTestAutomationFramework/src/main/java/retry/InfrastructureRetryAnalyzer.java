@@ -0,0 +1,100 @@
+package retry;
+
+import config.FrameworkConfig;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+import org.testng.xml.XmlTest;
+import session.DriverManager;
+import session.PooledSession;
+import utilities.LoggerUtils;
+
+import java.util.Arrays;
+
+/**
+ * Retries tests that failed for infrastructure reasons, up to test.retry.count times.
+ * TestNG reruns a retried test right away on the same worker, so the retry runs alongside the rest of
+ * the suite instead of in a serial rerun at its end. The session the test failed on is flagged as
+ * broken, and BaseTest replaces it with a healthy session from the pool before the retry starts.
+ * Assertion failures and other test failures are never retried.
+ * TestNG creates one analyzer per test method and data provider row; attach it to every test with
+ * {@link RetryListener}.
+ */
+public class InfrastructureRetryAnalyzer implements IRetryAnalyzer {
+
+    /** Default number of retries until {@link #configure(FrameworkConfig)} is called. */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    private static volatile int maxRetries = DEFAULT_MAX_RETRIES;
+    private static volatile FailureClassifier classifier = new FailureClassifier();
+
+    private int retries;
+
+    /**
+     * Configures the retries of all tests: test.retry.count retries at most, and test.retry.infraMessages,
+     * a comma-separated list of further message fragments that mark a failure as infrastructure.
+     *
+     * @param config The framework configuration
+     */
+    public static synchronized void configure(FrameworkConfig config) {
+        maxRetries = config.getInt("test.retry.count", DEFAULT_MAX_RETRIES);
+        classifier = new FailureClassifier(Arrays.asList(config.getString("test.retry.infraMessages", "").split(",")));
+        LoggerUtils.debug("Retry analyzer configured: {} retries of infrastructure failures", maxRetries);
+    }
+
+    /**
+     * Gets the classifier used to sort failures.
+     *
+     * @return The configured classifier
+     */
+    public static FailureClassifier getClassifier() {
+        return classifier;
+    }
+
+    @Override
+    public boolean retry(ITestResult result) {
+        String device = deviceOf(result);
+        boolean infrastructure = classifier.isInfrastructure(result.getThrowable());
+        boolean retry = infrastructure && retries < maxRetries;
+        if (infrastructure) {
+            PooledSession session = DriverManager.getSession();
+            if (session != null) {
+                session.markUnhealthy();
+            }
+        }
+        RetryStats.global().recordFailure(device, infrastructure, retry);
+        if (retry) {
+            retries++;
+            LoggerUtils.warn("Retrying {} on {} after infrastructure failure ({} of {}): {}", result.getName(), device,
+                    retries, maxRetries, String.valueOf(result.getThrowable()));
+        }
+        return retry;
+    }
+
+    /**
+     * Gets how often this analyzer's test has been retried.
+     *
+     * @return The retry count
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Gets the device a test ran on, from the device, udid or platform suite parameter.
+     *
+     * @param result The test result
+     * @return The device name, or "local" if the suite names no device
+     */
+    static String deviceOf(ITestResult result) {
+        XmlTest test = result.getTestContext() == null ? null : result.getTestContext().getCurrentXmlTest();
+        if (test != null) {
+            for (String parameter : new String[] {"device", "udid", "platform"}) {
+                String value = test.getParameter(parameter);
+                if (value != null && !value.isEmpty()) {
+                    return value;
+                }
+            }
+        }
+        return "local";
+    }
+}
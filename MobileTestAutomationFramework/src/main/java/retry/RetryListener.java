@@ -0,0 +1,42 @@
+package retry;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.internal.annotations.DisabledRetryAnalyzer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * TestNG listener that attaches {@link InfrastructureRetryAnalyzer} to every test without a retry
+ * analyzer of its own, and counts the attempts of each device in {@link RetryStats}.
+ * Register it in the suite's listeners; the device farm adds it to every run.
+ */
+public class RetryListener implements IAnnotationTransformer, ITestListener {
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
+        Class<? extends IRetryAnalyzer> current = annotation.getRetryAnalyzerClass();
+        if (current == null || current == DisabledRetryAnalyzer.class) {
+            annotation.setRetryAnalyzer(InfrastructureRetryAnalyzer.class);
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        RetryStats.global().recordAttempt(InfrastructureRetryAnalyzer.deviceOf(result));
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        IRetryAnalyzer analyzer = result.getMethod().getRetryAnalyzer(result);
+        if (analyzer instanceof InfrastructureRetryAnalyzer
+                && ((InfrastructureRetryAnalyzer) analyzer).getRetries() > 0) {
+            RetryStats.global().recordRecovered(InfrastructureRetryAnalyzer.deviceOf(result));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package retry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry counters per device: how many test attempts ran, how many failed for infrastructure reasons,
+ * how many were retried and how many of those retries passed.
+ * A device with a high retry rate is usually unstable and worth taking out of the farm.
+ */
+public final class RetryStats {
+
+    private static final RetryStats GLOBAL = new RetryStats();
+
+    /**
+     * Counters of one device.
+     */
+    public static final class DeviceStats {
+
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong infrastructureFailures = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong recovered = new AtomicLong();
+
+        /**
+         * Gets the number of test attempts, retries included.
+         *
+         * @return The attempt count
+         */
+        public long getAttempts() {
+            return attempts.get();
+        }
+
+        /**
+         * Gets the number of attempts that failed for infrastructure reasons.
+         *
+         * @return The infrastructure failure count
+         */
+        public long getInfrastructureFailures() {
+            return infrastructureFailures.get();
+        }
+
+        /**
+         * Gets the number of attempts that were retried.
+         *
+         * @return The retry count
+         */
+        public long getRetries() {
+            return retries.get();
+        }
+
+        /**
+         * Gets the number of tests that passed on a retry.
+         *
+         * @return The recovered count
+         */
+        public long getRecovered() {
+            return recovered.get();
+        }
+
+        /**
+         * Gets the share of attempts that had to be retried.
+         *
+         * @return Retries divided by attempts, 0 if nothing ran
+         */
+        public double getRetryRate() {
+            long total = attempts.get();
+            return total == 0 ? 0 : (double) retries.get() / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d attempts, %d infrastructure failures, %d retries (%.1f%%), %d recovered",
+                    getAttempts(), getInfrastructureFailures(), getRetries(), getRetryRate() * 100, getRecovered());
+        }
+    }
+
+    private final Map<String, DeviceStats> devices = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the counters shared by all test runs in this JVM.
+     *
+     * @return The global retry stats
+     */
+    public static RetryStats global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Counts a test attempt on a device.
+     *
+     * @param device The device name
+     */
+    public void recordAttempt(String device) {
+        of(device).attempts.incrementAndGet();
+    }
+
+    /**
+     * Counts a failed attempt on a device.
+     *
+     * @param device The device name
+     * @param infrastructure Whether the failure was caused by the infrastructure
+     * @param retried Whether the attempt is retried
+     */
+    public void recordFailure(String device, boolean infrastructure, boolean retried) {
+        DeviceStats stats = of(device);
+        if (infrastructure) {
+            stats.infrastructureFailures.incrementAndGet();
+        }
+        if (retried) {
+            stats.retries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a test that passed on a retry.
+     *
+     * @param device The device name
+     */
+    public void recordRecovered(String device) {
+        of(device).recovered.incrementAndGet();
+    }
+
+    /**
+     * Gets the counters of a device.
+     *
+     * @param device The device name
+     * @return The counters, all zero if nothing ran on the device
+     */
+    public DeviceStats get(String device) {
+        DeviceStats stats = devices.get(device);
+        return stats == null ? new DeviceStats() : stats;
+    }
+
+    /**
+     * Gets the counters of every device that ran tests.
+     *
+     * @return The counters per device name, sorted by name
+     */
+    public Map<String, DeviceStats> getByDevice() {
+        return new TreeMap<>(devices);
+    }
+
+    /**
+     * Builds a short human-readable summary with one line per device.
+     *
+     * @return The summary text
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder("Retries per device:");
+        getByDevice().forEach((device, stats) ->
+                sb.append(System.lineSeparator()).append("  ").append(device).append(": ").append(stats));
+        return sb.toString();
+    }
+
+    private DeviceStats of(String device) {
+        return devices.computeIfAbsent(device, name -> new DeviceStats());
+    }
+}
@@ -0,0 +1,101 @@
+package scheduler;
+
+import java.util.Objects;
+
+/**
+ * A device or emulator that tests can be dispatched to.
+ * Each device has its own Appium server URL and UDID. A device is identified by its UDID; a device
+ * without one is left to its server to pick, and is identified by its name on that server instead.
+ */
+public final class Device {
+
+    private final String name;
+    private final String platform;
+    private final String serverUrl;
+    private final String udid;
+
+    /**
+     * Constructor to initialize Device.
+     *
+     * @param name The logical device name
+     * @param platform The platform name (android or ios)
+     * @param serverUrl The Appium server URL for this device
+     * @param udid The device UDID
+     */
+    public Device(String name, String platform, String serverUrl, String udid) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.platform = Objects.requireNonNull(platform, "platform").toLowerCase();
+        this.serverUrl = Objects.requireNonNull(serverUrl, "serverUrl");
+        this.udid = udid == null ? "" : udid;
+    }
+
+    /**
+     * Gets the logical device name.
+     *
+     * @return The device name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the platform name in lower case.
+     *
+     * @return The platform name
+     */
+    public String getPlatform() {
+        return platform;
+    }
+
+    /**
+     * Gets the Appium server URL.
+     *
+     * @return The server URL
+     */
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    /**
+     * Gets the device UDID.
+     *
+     * @return The UDID, or an empty string if the server picks the device
+     */
+    public String getUdid() {
+        return udid;
+    }
+
+    /**
+     * Gets the identity of the device, unique among the devices of a farm.
+     * Emulators are often declared under the same name on several servers, so a device the server
+     * picks is identified by its name together with its server URL.
+     *
+     * @return The UDID, or name@serverUrl if the server picks the device
+     */
+    public String getId() {
+        return udid.isEmpty() ? name + "@" + serverUrl : udid;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Device)) {
+            return false;
+        }
+        Device other = (Device) o;
+        return name.equals(other.name) && platform.equals(other.platform)
+                && serverUrl.equals(other.serverUrl) && udid.equals(other.udid);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, platform, serverUrl, udid);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + platform + ", " + (udid.isEmpty() ? "any" : udid) + " @ " + serverUrl + ")";
+    }
+}
@@ -0,0 +1,150 @@
+package scheduler;
+
+import config.FrameworkConfig;
+import data.DataPartition;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+import retry.InfrastructureRetryAnalyzer;
+import retry.RetryStats;
+import utilities.LoggerUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command-line entry point that runs the classes of a TestNG suite across all declared devices.
+ * The classes are split into balanced shards from the durations recorded in earlier runs (see
+ * {@link ShardPlanner}), and the durations of this run are recorded for the next one. Infrastructure
+ * failures are retried on a fresh session, or handed to another device, while the run goes on; the
+ * retry rate of each device is logged at the end.
+ * Usage: {@code DeviceFarmRunner <suite.xml> [platform]}. Test classes must be on the classpath,
+ * e.g. {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=scheduler.DeviceFarmRunner
+ * -Dexec.args="src/test/resources/android-testng.xml"}.
+ */
+public final class DeviceFarmRunner {
+
+    public static final String DEVICES_FILE = "properties/devices.properties";
+    public static final String DEFAULT_HISTORY_FILE = "test-history/durations.properties";
+    private static final String OUTPUT_DIRECTORY = "test-output/device-farm";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DeviceFarmRunner() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Runs the suite given on the command line.
+     *
+     * @param args Suite file path and optional platform name
+     * @throws Exception If the suite or device list cannot be read
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: DeviceFarmRunner <suite.xml> [platform]");
+        }
+        Parser parser = new Parser(args[0]);
+        parser.setLoadClasses(false);
+        XmlSuite suite = parser.parseToList().get(0);
+        String platform = args.length > 1 ? args[1] : suite.getParameter("platformName");
+        if (platform == null) {
+            throw new IllegalArgumentException("Platform not given and suite has no platformName parameter");
+        }
+
+        List<Device> devices = DeviceRegistry.loadForPlatform(DEVICES_FILE, platform,
+                FrameworkConfig.get().toProperties());
+        List<WorkItem> items = workItemsOf(suite, FrameworkConfig.get().getInt("data.partitions", 1));
+        LoggerUtils.info("Dispatching " + items.size() + " work items to " + devices.size() + " devices");
+
+        InfrastructureRetryAnalyzer.configure(FrameworkConfig.get());
+        DurationHistory history = DurationHistory.forFile(FrameworkConfig.get().getString("scheduler.history.path",
+                DEFAULT_HISTORY_FILE));
+        ShardPlan plan = new ShardPlanner(history).plan(platform, devices, items);
+        WorkStealingScheduler scheduler = new WorkStealingScheduler(
+                new TestNGExecutor(OUTPUT_DIRECTORY, Collections.emptyMap()), 2, 2);
+        ScheduleReport report = scheduler.runPlanned(devices, plan);
+        recordDurations(history, platform, report);
+        LoggerUtils.info(RetryStats.global().summary());
+        System.exit(report.isSuccessful() ? 0 : 1);
+    }
+
+    /**
+     * Records the durations of the items that ran to completion and saves the history for the next plan.
+     * Items that errored or never ran are left out, as their time says nothing about the tests.
+     *
+     * @param history The duration history
+     * @param platform The platform of the run
+     * @param report The report of the run
+     */
+    public static void recordDurations(DurationHistory history, String platform, ScheduleReport report) {
+        for (ScheduleReport.ItemResult result : report.getResults()) {
+            if (result.getOutcome() == ScheduleReport.Outcome.PASSED
+                    || result.getOutcome() == ScheduleReport.Outcome.FAILED) {
+                history.record(DurationHistory.itemKey(platform, result.getItem()), result.getDurationMillis());
+            }
+        }
+        history.save();
+    }
+
+    /**
+     * Collects the test classes of every test in a suite.
+     *
+     * @param suite The parsed suite
+     * @return One work item per test class
+     */
+    public static List<WorkItem> workItemsOf(XmlSuite suite) {
+        return workItemsOf(suite, 1);
+    }
+
+    /**
+     * Collects the test classes of every test in a suite, splitting data-driven tests into partitions.
+     * A class with data provider tests becomes one work item per data partition, covering those
+     * tests, plus one work item for its other tests; devices then share the records of large data
+     * files instead of one device running them all.
+     *
+     * @param suite The parsed suite
+     * @param dataPartitions How many partitions to split the records of data provider tests into
+     * @return The work items
+     */
+    public static List<WorkItem> workItemsOf(XmlSuite suite, int dataPartitions) {
+        List<WorkItem> items = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> testClass;
+                try {
+                    testClass = Class.forName(xmlClass.getName());
+                } catch (ClassNotFoundException e) {
+                    LoggerUtils.warn("Skipping unknown test class: " + xmlClass.getName());
+                    continue;
+                }
+                List<String> dataMethods = new ArrayList<>();
+                List<String> otherMethods = new ArrayList<>();
+                for (Method method : testClass.getMethods()) {
+                    Test annotation = method.getAnnotation(Test.class);
+                    if (annotation != null) {
+                        (annotation.dataProvider().isEmpty() ? otherMethods : dataMethods).add(method.getName());
+                    }
+                }
+                if (dataPartitions <= 1 || dataMethods.isEmpty()) {
+                    items.add(new WorkItem(xmlClass.getName()));
+                    continue;
+                }
+                Collections.sort(dataMethods);
+                Collections.sort(otherMethods);
+                if (!otherMethods.isEmpty()) {
+                    items.add(new WorkItem(xmlClass.getName(), otherMethods));
+                }
+                for (int i = 0; i < dataPartitions; i++) {
+                    items.add(new WorkItem(xmlClass.getName(), dataMethods, new DataPartition(i, dataPartitions)));
+                }
+            }
+        }
+        return items;
+    }
+}
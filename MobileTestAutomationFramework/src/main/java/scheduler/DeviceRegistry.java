@@ -0,0 +1,130 @@
+package scheduler;
+
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads the list of devices available to the scheduler.
+ * Devices are declared in a properties file:
+ * <pre>
+ * devices=pixel1,pixel2
+ * device.pixel1.platform=android
+ * device.pixel1.url=http://localhost:4723
+ * device.pixel1.udid=emulator-5554
+ * </pre>
+ * A device without a udid is picked by its server. Device names, UDIDs and the servers picking a
+ * device for a platform must each be unique, so that no two devices can end up running on the same
+ * device and sharing its sessions.
+ */
+public final class DeviceRegistry {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DeviceRegistry() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Loads the devices declared in a properties file.
+     *
+     * @param filePath The path to the devices file
+     * @return The declared devices, in declaration order
+     * @throws IOException If the file cannot be read
+     */
+    public static List<Device> load(String filePath) throws IOException {
+        return fromProperties(JavaUtils.loadProperties(filePath));
+    }
+
+    /**
+     * Loads the devices of one platform, falling back to the single device described by the
+     * application properties when no devices file exists.
+     *
+     * @param filePath The path to the devices file
+     * @param platform The platform to keep
+     * @param appProperties The application properties used for the fallback device
+     * @return The devices of the platform
+     * @throws IOException If the devices file exists but cannot be read
+     */
+    public static List<Device> loadForPlatform(String filePath, String platform, Properties appProperties)
+            throws IOException {
+        List<Device> devices = new ArrayList<>();
+        if (new File(filePath).exists()) {
+            for (Device device : load(filePath)) {
+                if (device.getPlatform().equalsIgnoreCase(platform)) {
+                    devices.add(device);
+                }
+            }
+        }
+        if (devices.isEmpty()) {
+            LoggerUtils.warn("No " + platform + " devices declared in " + filePath + ", using app.properties device");
+            devices.add(new Device(appProperties.getProperty(platform.toLowerCase() + ".deviceName", platform),
+                    platform, appProperties.getProperty("appium.server.url"), ""));
+        }
+        return devices;
+    }
+
+    /**
+     * Builds the device list from already loaded properties.
+     *
+     * @param properties The devices properties
+     * @return The declared devices, in declaration order
+     * @throws IllegalArgumentException If a device is incomplete or the same as another one
+     */
+    public static List<Device> fromProperties(Properties properties) {
+        String names = properties.getProperty("devices", "").trim();
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Device> devices = new ArrayList<>();
+        Map<String, Device> seen = new HashMap<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String prefix = "device." + name + ".";
+            String platform = properties.getProperty(prefix + "platform");
+            String url = properties.getProperty(prefix + "url");
+            if (platform == null || url == null) {
+                throw new IllegalArgumentException("Device " + name + " needs " + prefix + "platform and "
+                        + prefix + "url");
+            }
+            Device device = new Device(name, platform, url, properties.getProperty(prefix + "udid", "").trim());
+            for (String key : identityKeys(device)) {
+                Device other = seen.putIfAbsent(key, device);
+                if (other != null) {
+                    throw new IllegalArgumentException("Devices " + other.getName() + " and " + name
+                            + " are the same device (" + key + "); give each one its own " + prefix + "udid");
+                }
+            }
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    /**
+     * Gets the keys that no two devices may share: the name, and the UDID or, for a device its server
+     * picks, the server and platform.
+     *
+     * @param device The device
+     * @return The identity keys of the device
+     */
+    private static List<String> identityKeys(Device device) {
+        List<String> keys = new ArrayList<>();
+        keys.add("name " + device.getName());
+        keys.add(device.getUdid().isEmpty()
+                ? "any " + device.getPlatform() + " device @ " + device.getServerUrl()
+                : "udid " + device.getUdid());
+        return keys;
+    }
+}
@@ -0,0 +1,189 @@
+package scheduler;
+
+import data.DataPartition;
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Durations of past test runs per platform, kept in a small properties file between runs.
+ * Two kinds of entries are stored: the duration of a whole work item as run by the device farm
+ * ({@code android|tests.login.LoginTest}), and the total time of each test method within one run of
+ * its class ({@code android|tests.login.LoginTest#testFailedLogin}, summed over data provider rows and
+ * scaled up to all rows when only a data partition ran).
+ * New measurements are blended into the stored value with an exponential moving average, so one
+ * slow run does not throw off the next plan.
+ * One instance is shared per file, so the device farm and the test classes it runs in the same JVM
+ * record into the same store.
+ */
+public final class DurationHistory {
+
+    /** Weight of a new measurement in the moving average. */
+    private static final double SMOOTHING = 0.3;
+    private static final Map<String, DurationHistory> STORES = new ConcurrentHashMap<>();
+
+    private final String filePath;
+    private final Map<String, Double> millis = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor to initialize an empty, unsaved DurationHistory.
+     */
+    public DurationHistory() {
+        this(null);
+    }
+
+    private DurationHistory(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Gets the history stored in a file, loading it on first use.
+     * A missing or unreadable file gives an empty history.
+     *
+     * @param filePath The history file
+     * @return The shared history of the file
+     */
+    public static DurationHistory forFile(String filePath) {
+        return STORES.computeIfAbsent(filePath, path -> {
+            DurationHistory history = new DurationHistory(path);
+            history.load();
+            return history;
+        });
+    }
+
+    /**
+     * Builds the history key of a work item.
+     *
+     * @param platform The platform the item ran on
+     * @param item The work item
+     * @return The key
+     */
+    public static String itemKey(String platform, WorkItem item) {
+        return platform.toLowerCase() + "|" + item;
+    }
+
+    /**
+     * Builds the history key of a test method.
+     *
+     * @param platform The platform the method ran on
+     * @param className The fully qualified test class name
+     * @param methodName The test method name
+     * @return The key
+     */
+    public static String methodKey(String platform, String className, String methodName) {
+        return platform.toLowerCase() + "|" + className + "#" + methodName;
+    }
+
+    /**
+     * Records a measured duration.
+     *
+     * @param key The item or method key
+     * @param durationMillis The measured duration in milliseconds
+     */
+    public void record(String key, long durationMillis) {
+        millis.merge(key, (double) durationMillis, (old, value) -> old + SMOOTHING * (value - old));
+    }
+
+    /**
+     * Records the time a test method took over one data partition as the time of the whole method,
+     * since the partition ran about one in {@code count} of its data provider rows.
+     *
+     * @param key The method key
+     * @param durationMillis The measured duration of the partition in milliseconds
+     * @param partition The data partition that ran
+     */
+    public void recordPartition(String key, long durationMillis, DataPartition partition) {
+        record(key, durationMillis * partition.getCount());
+    }
+
+    /**
+     * Gets the expected duration of a key.
+     *
+     * @param key The item or method key
+     * @return The expected duration in milliseconds, or null if the key has never been recorded
+     */
+    public Long get(String key) {
+        Double value = millis.get(key);
+        return value == null ? null : Math.round(value);
+    }
+
+    /**
+     * Estimates how long a work item will take.
+     * Uses the item's own history when there is one, otherwise the sum of the recorded methods of its
+     * class (only the item's methods when it is narrowed to some), divided across its data partitions.
+     *
+     * @param platform The platform the item will run on
+     * @param item The work item
+     * @return The estimate in milliseconds, or null if nothing about the item has been recorded
+     */
+    public Long estimate(String platform, WorkItem item) {
+        Long own = get(itemKey(platform, item));
+        if (own != null) {
+            return own;
+        }
+        String prefix = platform.toLowerCase() + "|" + item.getClassName() + "#";
+        List<String> methods = item.getMethodNames();
+        double total = 0;
+        boolean found = false;
+        for (Map.Entry<String, Double> entry : millis.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(prefix) && (methods.isEmpty() || methods.contains(key.substring(prefix.length())))) {
+                total += entry.getValue();
+                found = true;
+            }
+        }
+        return found ? Math.round(total / item.getPartition().getCount()) : null;
+    }
+
+    /**
+     * Gets the number of recorded keys.
+     *
+     * @return The number of items and methods with a duration
+     */
+    public int size() {
+        return millis.size();
+    }
+
+    /**
+     * Writes the history back to its file. Does nothing for a history not read from a file.
+     */
+    public synchronized void save() {
+        if (filePath == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        millis.forEach((key, value) -> properties.setProperty(key, String.valueOf(Math.round(value))));
+        File file = new File(filePath);
+        if (file.getParentFile() != null) {
+            JavaUtils.createDirectory(file.getParent());
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "Test durations in milliseconds per platform");
+        } catch (IOException e) {
+            LoggerUtils.warn("Could not save duration history {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!new File(filePath).exists()) {
+            return;
+        }
+        try {
+            Properties properties = JavaUtils.loadProperties(filePath);
+            for (String key : properties.stringPropertyNames()) {
+                millis.put(key, Double.parseDouble(properties.getProperty(key)));
+            }
+            LoggerUtils.info("Loaded {} test durations from {}", properties.size(), filePath);
+        } catch (IOException | NumberFormatException e) {
+            LoggerUtils.warn("Ignoring unreadable duration history {}: {}", filePath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a scheduler run: which device ran what, how much work was stolen, and how long it took,
+ * compared with the shard plan when the run was planned from duration history.
+ */
+public class ScheduleReport {
+
+    /**
+     * Result of one work item.
+     */
+    public enum Outcome {
+        PASSED,
+        FAILED,
+        ERROR,
+        NOT_RUN
+    }
+
+    /**
+     * Execution record of one work item.
+     */
+    public static final class ItemResult {
+
+        private final WorkItem item;
+        private final Device device;
+        private final Outcome outcome;
+        private final long durationMillis;
+        private final boolean stolen;
+
+        ItemResult(WorkItem item, Device device, Outcome outcome, long durationMillis, boolean stolen) {
+            this.item = item;
+            this.device = device;
+            this.outcome = outcome;
+            this.durationMillis = durationMillis;
+            this.stolen = stolen;
+        }
+
+        /**
+         * Gets the work item.
+         *
+         * @return The work item
+         */
+        public WorkItem getItem() {
+            return item;
+        }
+
+        /**
+         * Gets the device that ran the item.
+         *
+         * @return The device, or null if the item was never run
+         */
+        public Device getDevice() {
+            return device;
+        }
+
+        /**
+         * Gets the outcome of the item.
+         *
+         * @return The outcome
+         */
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * Gets how long the item ran.
+         *
+         * @return Duration in milliseconds
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * Checks whether the item was stolen from another device's queue.
+         *
+         * @return true if the item was stolen, false otherwise
+         */
+        public boolean isStolen() {
+            return stolen;
+        }
+    }
+
+    private final List<ItemResult> results = Collections.synchronizedList(new ArrayList<>());
+    private volatile long makespanMillis;
+    private volatile ShardPlan plan;
+
+    void record(ItemResult result) {
+        results.add(result);
+    }
+
+    void setMakespanMillis(long makespanMillis) {
+        this.makespanMillis = makespanMillis;
+    }
+
+    void setPlan(ShardPlan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Gets the shard plan the run started from.
+     *
+     * @return The plan, or null if the work was not planned from duration history
+     */
+    public ShardPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Gets the results of all work items, in completion order.
+     *
+     * @return The item results
+     */
+    public List<ItemResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    /**
+     * Gets the wall-clock time of the whole run.
+     *
+     * @return Makespan in milliseconds
+     */
+    public long getMakespanMillis() {
+        return makespanMillis;
+    }
+
+    /**
+     * Gets how long each device spent running work.
+     *
+     * @return Busy time in milliseconds per device name
+     */
+    public Map<String, Long> getBusyMillisByDevice() {
+        Map<String, Long> busy = new LinkedHashMap<>();
+        for (ItemResult result : getResults()) {
+            if (result.getDevice() != null) {
+                busy.merge(result.getDevice().getName(), result.getDurationMillis(), Long::sum);
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Counts the items that were stolen from another device's queue.
+     *
+     * @return The number of stolen items
+     */
+    public long getStolenCount() {
+        return getResults().stream().filter(ItemResult::isStolen).count();
+    }
+
+    /**
+     * Checks whether every item ran and passed.
+     *
+     * @return true if all items passed, false otherwise
+     */
+    public boolean isSuccessful() {
+        return getResults().stream().allMatch(r -> r.getOutcome() == Outcome.PASSED);
+    }
+
+    /**
+     * Builds a short human-readable summary.
+     *
+     * @return The summary text
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        ShardPlan shardPlan = plan;
+        sb.append("Makespan: ").append(makespanMillis).append(" ms");
+        if (shardPlan != null) {
+            sb.append(" (predicted ").append(shardPlan.getPredictedMakespanMillis()).append(" ms)");
+        }
+        sb.append(", stolen items: ").append(getStolenCount());
+        Map<String, Long> predicted = shardPlan == null ? Collections.emptyMap() : shardPlan.getPredictedMillisByDevice();
+        for (Map.Entry<String, Long> entry : getBusyMillisByDevice().entrySet()) {
+            sb.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                    .append(" busy ").append(entry.getValue()).append(" ms");
+            if (predicted.containsKey(entry.getKey())) {
+                sb.append(" (predicted ").append(predicted.get(entry.getKey())).append(" ms)");
+            }
+        }
+        for (ItemResult result : getResults()) {
+            if (result.getOutcome() != Outcome.PASSED) {
+                sb.append(System.lineSeparator()).append("  ").append(result.getOutcome())
+                        .append(": ").append(result.getItem());
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The shards planned for a run: the work items of each device and how long they are expected to take.
+ */
+public final class ShardPlan {
+
+    private final List<Device> devices;
+    private final List<List<WorkItem>> shards;
+    private final long[] predictedMillis;
+    private final int itemsWithoutHistory;
+
+    ShardPlan(List<Device> devices, List<List<WorkItem>> shards, long[] predictedMillis, int itemsWithoutHistory) {
+        this.devices = List.copyOf(devices);
+        List<List<WorkItem>> copies = new ArrayList<>();
+        for (List<WorkItem> shard : shards) {
+            copies.add(Collections.unmodifiableList(new ArrayList<>(shard)));
+        }
+        this.shards = Collections.unmodifiableList(copies);
+        this.predictedMillis = predictedMillis.clone();
+        this.itemsWithoutHistory = itemsWithoutHistory;
+    }
+
+    /**
+     * Gets the shards, in the same order as the devices.
+     *
+     * @return The work items of each device, longest first
+     */
+    public List<List<WorkItem>> getShards() {
+        return shards;
+    }
+
+    /**
+     * Gets the predicted busy time of each device.
+     *
+     * @return Predicted milliseconds per device name
+     */
+    public Map<String, Long> getPredictedMillisByDevice() {
+        Map<String, Long> predicted = new LinkedHashMap<>();
+        for (int i = 0; i < devices.size(); i++) {
+            predicted.put(devices.get(i).getName(), predictedMillis[i]);
+        }
+        return predicted;
+    }
+
+    /**
+     * Gets the predicted wall-clock time of the run: the busy time of the most loaded device.
+     *
+     * @return Predicted makespan in milliseconds
+     */
+    public long getPredictedMakespanMillis() {
+        long makespan = 0;
+        for (long millis : predictedMillis) {
+            makespan = Math.max(makespan, millis);
+        }
+        return makespan;
+    }
+
+    /**
+     * Gets the number of items planned with an assumed duration, as they had no history.
+     *
+     * @return The number of items without history
+     */
+    public int getItemsWithoutHistory() {
+        return itemsWithoutHistory;
+    }
+
+    @Override
+    public String toString() {
+        return "predicted makespan " + getPredictedMakespanMillis() + " ms, per device " + getPredictedMillisByDevice();
+    }
+}
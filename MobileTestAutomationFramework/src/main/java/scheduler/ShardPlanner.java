@@ -0,0 +1,85 @@
+package scheduler;
+
+import utilities.LoggerUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits work items into balanced shards, one per device, from their recorded durations.
+ * Uses longest-processing-time-first: items are taken from the longest to the shortest and each
+ * goes to the device with the least predicted work so far. Each shard therefore also starts with its
+ * longest items, which leaves the short ones at the tail of the queues for work stealing to even out.
+ * Items without history are assumed to take the average of the known items.
+ */
+public class ShardPlanner {
+
+    /** Estimate used when no item has any history yet, so that items are spread evenly. */
+    private static final long UNKNOWN_MILLIS = 1;
+
+    private final DurationHistory history;
+
+    /**
+     * Constructor to initialize ShardPlanner.
+     *
+     * @param history The recorded durations
+     */
+    public ShardPlanner(DurationHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Plans the shards of a run.
+     *
+     * @param platform The platform the items will run on
+     * @param devices The devices to spread the items over
+     * @param items The items to run
+     * @return The plan, with one shard per device in device order
+     */
+    public ShardPlan plan(String platform, List<Device> devices, List<WorkItem> items) {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("At least one device is required");
+        }
+        Map<WorkItem, Long> estimates = new LinkedHashMap<>();
+        long knownTotal = 0;
+        int known = 0;
+        for (WorkItem item : items) {
+            Long estimate = history.estimate(platform, item);
+            if (estimate != null) {
+                knownTotal += estimate;
+                known++;
+            }
+            estimates.put(item, estimate);
+        }
+        long fallback = known == 0 ? UNKNOWN_MILLIS : Math.max(UNKNOWN_MILLIS, knownTotal / known);
+        estimates.replaceAll((item, estimate) -> estimate == null ? fallback : estimate);
+
+        List<WorkItem> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparing((WorkItem item) -> estimates.get(item)).reversed()
+                .thenComparing(WorkItem::toString));
+
+        List<List<WorkItem>> shards = new ArrayList<>();
+        long[] loads = new long[devices.size()];
+        PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(
+                Comparator.comparingLong((Integer device) -> loads[device]).thenComparingInt(device -> device));
+        for (int i = 0; i < devices.size(); i++) {
+            shards.add(new ArrayList<>());
+            leastLoaded.add(i);
+        }
+        for (WorkItem item : ordered) {
+            int device = leastLoaded.poll();
+            shards.get(device).add(item);
+            loads[device] += estimates.get(item);
+            leastLoaded.add(device);
+        }
+
+        ShardPlan plan = new ShardPlan(devices, shards, loads, items.size() - known);
+        LoggerUtils.info("Planned {} items on {} devices ({} without history): {}", items.size(), devices.size(),
+                items.size() - known, plan);
+        return plan;
+    }
+}
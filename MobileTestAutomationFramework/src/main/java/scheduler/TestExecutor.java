@@ -0,0 +1,20 @@
+package scheduler;
+
+/**
+ * Runs one work item on one device.
+ */
+@FunctionalInterface
+public interface TestExecutor {
+
+    /**
+     * Runs a work item on a device and waits for it to finish.
+     * Test failures are reported through the return value; an exception means the device could
+     * not run the work at all (for example, the Appium server is unreachable).
+     *
+     * @param device The device to run on
+     * @param item The work to run
+     * @return true if every test in the item passed, false otherwise
+     * @throws Exception If the device could not run the work
+     */
+    boolean execute(Device device, WorkItem item) throws Exception;
+}
@@ -0,0 +1,121 @@
+package scheduler;
+
+import org.testng.IConfigurationListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import retry.InfrastructureRetryAnalyzer;
+import retry.RetryListener;
+import utilities.LoggerUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a work item through TestNG on the given device.
+ * The device is passed to BaseTest as the platform, udid, serverUrl and device suite parameters; the
+ * device name selects its configuration profile. The data partition of the item is passed as the
+ * dataPartition parameter.
+ * Tests that fail for infrastructure reasons are retried within the run by {@link RetryListener}. When
+ * every failure left after that is an infrastructure failure, the device is reported as unable to run
+ * the item, so that the scheduler hands it to another device while the other work goes on.
+ */
+public class TestNGExecutor implements TestExecutor {
+
+    private final String outputDirectory;
+    private final Map<String, String> extraParameters;
+
+    /**
+     * Constructor to initialize TestNGExecutor.
+     *
+     * @param outputDirectory Directory for TestNG reports; one sub-directory is used per device
+     * @param extraParameters Additional suite parameters passed to every run
+     */
+    public TestNGExecutor(String outputDirectory, Map<String, String> extraParameters) {
+        this.outputDirectory = outputDirectory;
+        this.extraParameters = new HashMap<>(extraParameters);
+    }
+
+    /**
+     * Collects the failures of a run that were not retried.
+     */
+    private static final class FailureCollector implements ITestListener, IConfigurationListener {
+
+        private final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean skipped;
+
+        @Override
+        public void onTestFailure(ITestResult result) {
+            failures.add(result.getThrowable());
+        }
+
+        @Override
+        public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+            failures.add(result.getThrowable());
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            if (!result.wasRetried()) {
+                skipped = true;
+            }
+        }
+
+        @Override
+        public void onConfigurationFailure(ITestResult result) {
+            failures.add(result.getThrowable());
+        }
+    }
+
+    @Override
+    public boolean execute(Device device, WorkItem item) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(device.getName() + " - " + item.getClassName());
+        Map<String, String> parameters = new HashMap<>(extraParameters);
+        parameters.put("platform", device.getPlatform());
+        parameters.put("udid", device.getUdid());
+        parameters.put("serverUrl", device.getServerUrl());
+        parameters.put("device", device.getName());
+        parameters.put("dataPartition", item.getPartition().toString());
+        suite.setParameters(parameters);
+
+        XmlTest test = new XmlTest(suite);
+        test.setName(item.toString());
+        XmlClass xmlClass = new XmlClass(item.getClassName());
+        if (!item.getMethodNames().isEmpty()) {
+            List<XmlInclude> includes = item.getMethodNames().stream()
+                    .map(XmlInclude::new)
+                    .collect(Collectors.toList());
+            xmlClass.setIncludedMethods(includes);
+        }
+        test.setXmlClasses(Collections.singletonList(xmlClass));
+
+        FailureCollector collector = new FailureCollector();
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.setOutputDirectory(outputDirectory + "/" + device.getName());
+        testng.addListener(new RetryListener());
+        testng.addListener(collector);
+        LoggerUtils.info("Running " + item + " on " + device);
+        testng.run();
+
+        List<Throwable> failures;
+        synchronized (collector.failures) {
+            failures = new ArrayList<>(collector.failures);
+        }
+        if (!failures.isEmpty()
+                && failures.stream().allMatch(InfrastructureRetryAnalyzer.getClassifier()::isInfrastructure)) {
+            throw new IllegalStateException(failures.size() + " infrastructure failures running " + item + " on "
+                    + device.getName() + ", last: " + failures.get(failures.size() - 1), failures.get(0));
+        }
+        return failures.isEmpty() && !collector.skipped;
+    }
+}
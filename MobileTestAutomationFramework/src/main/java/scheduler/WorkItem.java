@@ -0,0 +1,101 @@
+package scheduler;
+
+import data.DataPartition;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A unit of work for the scheduler: a test class, optionally narrowed to some of its methods and to
+ * a partition of the records of their data providers.
+ */
+public final class WorkItem {
+
+    private final String className;
+    private final List<String> methodNames;
+    private final DataPartition partition;
+
+    /**
+     * Constructor for a work item covering a whole test class.
+     *
+     * @param className The fully qualified test class name
+     */
+    public WorkItem(String className) {
+        this(className, Collections.emptyList());
+    }
+
+    /**
+     * Constructor for a work item covering some methods of a test class.
+     *
+     * @param className The fully qualified test class name
+     * @param methodNames The methods to run, or an empty list for all methods
+     */
+    public WorkItem(String className, List<String> methodNames) {
+        this(className, methodNames, DataPartition.all());
+    }
+
+    /**
+     * Constructor for a work item covering some methods of a test class and a share of their test data.
+     *
+     * @param className The fully qualified test class name
+     * @param methodNames The methods to run, or an empty list for all methods
+     * @param partition The share of data provider records to run
+     */
+    public WorkItem(String className, List<String> methodNames, DataPartition partition) {
+        this.className = Objects.requireNonNull(className, "className");
+        this.methodNames = List.copyOf(methodNames);
+        this.partition = Objects.requireNonNull(partition, "partition");
+    }
+
+    /**
+     * Gets the test class name.
+     *
+     * @return The fully qualified class name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Gets the methods to run.
+     *
+     * @return The method names, or an empty list for all methods
+     */
+    public List<String> getMethodNames() {
+        return methodNames;
+    }
+
+    /**
+     * Gets the share of data provider records to run.
+     *
+     * @return The data partition, {@link DataPartition#all()} for every record
+     */
+    public DataPartition getPartition() {
+        return partition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WorkItem)) {
+            return false;
+        }
+        WorkItem other = (WorkItem) o;
+        return className.equals(other.className) && methodNames.equals(other.methodNames)
+                && partition.equals(other.partition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(className, methodNames, partition);
+    }
+
+    @Override
+    public String toString() {
+        String text = methodNames.isEmpty() ? className : className + methodNames;
+        return partition.getCount() == 1 ? text : text + " data " + partition;
+    }
+}
@@ -0,0 +1,264 @@
+package scheduler;
+
+import utilities.LoggerUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches work items across devices with work stealing.
+ * Every device gets its own deque, filled round-robin at the start. A device takes work from the
+ * head of its own deque; once that is empty it steals from the tail of the busiest other deque,
+ * so devices that finish early keep pulling pending work instead of idling until the run ends.
+ * A device that fails to run work several times in a row is retired and its work is taken over
+ * by the remaining devices; an item that failed is retried by the next device that is free.
+ */
+public class WorkStealingScheduler {
+
+    private final TestExecutor executor;
+    private final int maxDeviceFailures;
+    private final int maxItemAttempts;
+
+    /**
+     * Constructor to initialize WorkStealingScheduler.
+     *
+     * @param executor Runs a work item on a device
+     * @param maxDeviceFailures Consecutive execution errors after which a device is retired
+     * @param maxItemAttempts Execution errors after which a work item is given up
+     */
+    public WorkStealingScheduler(TestExecutor executor, int maxDeviceFailures, int maxItemAttempts) {
+        this.executor = executor;
+        this.maxDeviceFailures = maxDeviceFailures;
+        this.maxItemAttempts = maxItemAttempts;
+    }
+
+    /**
+     * Runs all work items on the given devices and waits for them to finish.
+     *
+     * @param devices The devices to use, one worker thread each
+     * @param items The work items, in preferred execution order
+     * @return The report of the run
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public ScheduleReport run(List<Device> devices, List<WorkItem> items) throws InterruptedException {
+        if (devices.isEmpty()) {
+            throw new IllegalArgumentException("At least one device is required");
+        }
+        List<ConcurrentLinkedDeque<WorkItem>> queues = new ArrayList<>();
+        for (int i = 0; i < devices.size(); i++) {
+            queues.add(new ConcurrentLinkedDeque<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            queues.get(i % devices.size()).addLast(items.get(i));
+        }
+        return runQueues(devices, queues);
+    }
+
+    /**
+     * Runs pre-assigned work and waits for it to finish.
+     * Each device starts with its own queue; work stealing balances whatever the assignment got wrong.
+     *
+     * @param devices The devices to use, one worker thread each
+     * @param assignments Initial work per device, in the same order as the devices
+     * @return The report of the run
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public ScheduleReport runAssigned(List<Device> devices, List<List<WorkItem>> assignments)
+            throws InterruptedException {
+        if (devices.size() != assignments.size()) {
+            throw new IllegalArgumentException("Need one assignment per device");
+        }
+        List<ConcurrentLinkedDeque<WorkItem>> queues = new ArrayList<>();
+        for (List<WorkItem> assignment : assignments) {
+            queues.add(new ConcurrentLinkedDeque<>(assignment));
+        }
+        return runQueues(devices, queues);
+    }
+
+    /**
+     * Runs the shards of a plan and waits for them to finish.
+     * The report compares the actual makespan and busy times with the plan's predictions.
+     *
+     * @param devices The devices the plan was made for, one worker thread each
+     * @param plan The planned shards
+     * @return The report of the run
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     */
+    public ScheduleReport runPlanned(List<Device> devices, ShardPlan plan) throws InterruptedException {
+        ScheduleReport report = runAssigned(devices, plan.getShards());
+        report.setPlan(plan);
+        LoggerUtils.info("Predicted makespan {} ms, actual {} ms", plan.getPredictedMakespanMillis(),
+                report.getMakespanMillis());
+        return report;
+    }
+
+    private ScheduleReport runQueues(List<Device> devices, List<ConcurrentLinkedDeque<WorkItem>> queues)
+            throws InterruptedException {
+        ScheduleReport report = new ScheduleReport();
+        RunState state = new RunState(queues);
+        CountDownLatch finished = new CountDownLatch(devices.size());
+        long start = System.currentTimeMillis();
+
+        for (int i = 0; i < devices.size(); i++) {
+            final int index = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    work(devices.get(index), index, state, report);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            }, "device-" + devices.get(i).getName());
+            worker.start();
+        }
+        finished.await();
+
+        // Anything still queued was left when every device had been retired
+        Taken left;
+        while ((left = state.take(-1)) != null) {
+            report.record(new ScheduleReport.ItemResult(left.item, null, ScheduleReport.Outcome.NOT_RUN, 0, false));
+        }
+        report.setMakespanMillis(System.currentTimeMillis() - start);
+        LoggerUtils.info("Device farm run finished. " + report.summary());
+        return report;
+    }
+
+    private void work(Device device, int index, RunState state, ScheduleReport report)
+            throws InterruptedException {
+        int consecutiveFailures = 0;
+        while (true) {
+            Taken taken = state.take(index);
+            if (taken == null) {
+                return;
+            }
+            WorkItem item = taken.item;
+            boolean stolen = taken.stolen;
+            if (stolen) {
+                LoggerUtils.info("{} stole {}", device.getName(), item);
+            }
+
+            long started = System.currentTimeMillis();
+            try {
+                boolean passed = executor.execute(device, item);
+                consecutiveFailures = 0;
+                report.record(new ScheduleReport.ItemResult(item, device,
+                        passed ? ScheduleReport.Outcome.PASSED : ScheduleReport.Outcome.FAILED,
+                        System.currentTimeMillis() - started, stolen));
+            } catch (Exception e) {
+                consecutiveFailures++;
+                LoggerUtils.error("Device " + device.getName() + " could not run " + item, e);
+                int itemAttempts = state.attempts.computeIfAbsent(item, k -> new AtomicInteger()).incrementAndGet();
+                if (itemAttempts >= maxItemAttempts) {
+                    report.record(new ScheduleReport.ItemResult(item, device, ScheduleReport.Outcome.ERROR,
+                            System.currentTimeMillis() - started, stolen));
+                } else {
+                    // Put the item where the next free device picks it up first, whichever device that is
+                    state.retry(item);
+                }
+                if (consecutiveFailures >= maxDeviceFailures) {
+                    LoggerUtils.warn("Retiring device " + device.getName() + " after "
+                            + consecutiveFailures + " consecutive errors");
+                    return;
+                }
+            } finally {
+                state.done();
+            }
+        }
+    }
+
+    /**
+     * The queues of one run, shared by its workers.
+     * Items that failed on a device go to a retry deque that every worker polls before its own queue.
+     * A worker that finds nothing to take waits while other devices still run items, as any of them
+     * may fail and be retried; it only stops once nothing is queued and nothing is running.
+     */
+    private static final class RunState {
+
+        private final List<ConcurrentLinkedDeque<WorkItem>> queues;
+        private final ConcurrentLinkedDeque<WorkItem> retries = new ConcurrentLinkedDeque<>();
+        private final Map<WorkItem, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private int running;
+
+        private RunState(List<ConcurrentLinkedDeque<WorkItem>> queues) {
+            this.queues = queues;
+        }
+
+        /**
+         * Takes the next item for a worker: a retried item, else the head of its own queue, else the
+         * tail of the busiest other queue. Waits while the queues are empty but items are still running.
+         *
+         * @param index The worker's queue, or -1 to drain the queues without waiting
+         * @return The item, or null once there is no work left
+         */
+        private synchronized Taken take(int index) throws InterruptedException {
+            while (true) {
+                WorkItem item = retries.pollFirst();
+                boolean stolen = false;
+                if (item == null && index >= 0) {
+                    item = queues.get(index).pollFirst();
+                }
+                if (item == null) {
+                    int victim = busiestQueue(index);
+                    item = victim < 0 ? null : queues.get(victim).pollLast();
+                    stolen = item != null;
+                }
+                if (item != null) {
+                    if (index >= 0) {
+                        running++;
+                    }
+                    return new Taken(item, stolen);
+                }
+                if (index < 0 || running == 0) {
+                    return null;
+                }
+                wait();
+            }
+        }
+
+        private synchronized void retry(WorkItem item) {
+            retries.addFirst(item);
+            notifyAll();
+        }
+
+        private synchronized void done() {
+            running--;
+            notifyAll();
+        }
+
+        private int busiestQueue(int thiefIndex) {
+            int victim = -1;
+            int victimSize = 0;
+            for (int i = 0; i < queues.size(); i++) {
+                if (i == thiefIndex) {
+                    continue;
+                }
+                int size = queues.get(i).size();
+                if (size > victimSize) {
+                    victim = i;
+                    victimSize = size;
+                }
+            }
+            return victim;
+        }
+    }
+
+    /**
+     * An item taken by a worker, and whether it came from another device's queue.
+     */
+    private static final class Taken {
+
+        private final WorkItem item;
+        private final boolean stolen;
+
+        private Taken(WorkItem item, boolean stolen) {
+            this.item = item;
+            this.stolen = stolen;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package session;
+
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Record of the app builds installed on each device, kept in a small properties file between runs.
+ * A build is identified by the SHA-256 of its file (an .apk or .ipa) or of the files of its bundle
+ * directory (an .app), so a session only needs the {@code app} capability, which makes Appium push and
+ * install the binary, when the device does not have that build yet. Otherwise the installed app is
+ * launched by its package or bundle id.
+ * One instance is shared per file.
+ */
+public final class AppInstallCache {
+
+    private static final Map<String, AppInstallCache> STORES = new ConcurrentHashMap<>();
+    /** Fingerprints of app builds, keyed by their files, size and modification time, so a build is hashed once. */
+    private static final Map<String, String> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private final String filePath;
+    private final Map<String, String> installed = new ConcurrentHashMap<>();
+
+    private AppInstallCache(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Gets the install record stored in a file, loading it on first use.
+     * A missing or unreadable file gives an empty record, so every app is installed once.
+     *
+     * @param filePath The record file
+     * @return The shared record of the file
+     */
+    public static AppInstallCache forFile(String filePath) {
+        return STORES.computeIfAbsent(filePath, path -> {
+            AppInstallCache cache = new AppInstallCache(path);
+            cache.load();
+            return cache;
+        });
+    }
+
+    /**
+     * Computes the content hash of an app build.
+     * The hash of a file or directory is computed once per JVM unless its files, size or modification time change.
+     *
+     * @param app The .apk or .ipa file, or the .app bundle directory
+     * @return The hex SHA-256 of the build
+     * @throws IOException If the build cannot be read
+     */
+    public static String fingerprint(File app) throws IOException {
+        List<Path> files = filesOf(app.toPath());
+        long size = 0;
+        long lastModified = 0;
+        for (Path file : files) {
+            size += Files.size(file);
+            lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+        }
+        String memoKey = app.getAbsolutePath() + "|" + files.hashCode() + "|" + size + "|" + lastModified;
+        String fingerprint = FINGERPRINTS.get(memoKey);
+        if (fingerprint == null) {
+            long start = System.currentTimeMillis();
+            fingerprint = hash(app.toPath(), files);
+            FINGERPRINTS.put(memoKey, fingerprint);
+            LoggerUtils.debug("Hashed {} ({} bytes) in {} ms", app, size, System.currentTimeMillis() - start);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Checks whether a build of an app is recorded as installed on a device.
+     *
+     * @param device The device, e.g. its UDID
+     * @param appId The package name or bundle id of the app
+     * @param fingerprint The hash of the build
+     * @return true if that build was installed on the device, false otherwise
+     */
+    public boolean isInstalled(String device, String appId, String fingerprint) {
+        return fingerprint.equals(installed.get(key(device, appId)));
+    }
+
+    /**
+     * Records that a build of an app was installed on a device and saves the record.
+     *
+     * @param device The device, e.g. its UDID
+     * @param appId The package name or bundle id of the app
+     * @param fingerprint The hash of the build
+     */
+    public void recordInstall(String device, String appId, String fingerprint) {
+        installed.put(key(device, appId), fingerprint);
+        save();
+    }
+
+    /**
+     * Forgets the build of an app on a device, e.g. after the app turned out to be missing,
+     * so that it is installed again.
+     *
+     * @param device The device, e.g. its UDID
+     * @param appId The package name or bundle id of the app
+     */
+    public void forget(String device, String appId) {
+        if (installed.remove(key(device, appId)) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Gets the number of recorded installs.
+     *
+     * @return The number of device and app pairs with a known build
+     */
+    public int size() {
+        return installed.size();
+    }
+
+    private static String key(String device, String appId) {
+        return device + "|" + appId;
+    }
+
+    private static List<Path> filesOf(Path app) throws IOException {
+        if (!Files.isDirectory(app)) {
+            return Collections.singletonList(app);
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(app)) {
+            walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+        }
+        return files;
+    }
+
+    private static String hash(Path app, List<Path> files) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        for (Path file : files) {
+            if (!file.equals(app)) {
+                // Bundle directories also hash the layout, so a renamed file is a different build
+                digest.update(app.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private synchronized void save() {
+        Properties properties = new Properties();
+        properties.putAll(installed);
+        File file = new File(filePath);
+        if (file.getParentFile() != null) {
+            JavaUtils.createDirectory(file.getParent());
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "SHA-256 of the app build installed per device and app");
+        } catch (IOException e) {
+            LoggerUtils.warn("Could not save app install record {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!new File(filePath).exists()) {
+            return;
+        }
+        try {
+            Properties properties = JavaUtils.loadProperties(filePath);
+            for (String key : properties.stringPropertyNames()) {
+                installed.put(key, properties.getProperty(key));
+            }
+            LoggerUtils.info("Loaded {} app installs from {}", properties.size(), filePath);
+        } catch (IOException e) {
+            LoggerUtils.warn("Ignoring unreadable app install record {}: {}", filePath, e.getMessage());
+        }
+    }
+}
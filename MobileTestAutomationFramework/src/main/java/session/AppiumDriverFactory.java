@@ -0,0 +1,54 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+import metrics.InstrumentedCommandExecutor;
+import org.openqa.selenium.remote.http.HttpClient;
+import utilities.LoggerUtils;
+
+/**
+ * Default driver factory.
+ * Creates an AndroidDriver or IOSDriver against the server URL of the key.
+ * The drivers send their commands through an InstrumentedCommandExecutor, so the latency of every
+ * command is recorded in the CommandMetrics of the running test. When created with an HTTP client
+ * factory, e.g. a SharedHttpClientFactory, every session sends its commands through it; otherwise
+ * each session gets Selenium's default client.
+ */
+public class AppiumDriverFactory implements DriverFactory {
+
+    private final HttpClient.Factory httpClientFactory;
+
+    /**
+     * Constructor to initialize AppiumDriverFactory with Selenium's default HTTP client.
+     */
+    public AppiumDriverFactory() {
+        this(null);
+    }
+
+    /**
+     * Constructor to initialize AppiumDriverFactory.
+     *
+     * @param httpClientFactory Creates the HTTP client of every session, or null for Selenium's default
+     */
+    public AppiumDriverFactory(HttpClient.Factory httpClientFactory) {
+        this.httpClientFactory = httpClientFactory;
+    }
+
+    @Override
+    public AppiumDriver create(SessionKey key) {
+        LoggerUtils.info("Creating new " + key.getPlatform() + " session on " + key.getServerUrl());
+        if (key.isAndroid()) {
+            return new AndroidDriver(newExecutor(key), key.getCapabilities());
+        } else if ("ios".equals(key.getPlatform())) {
+            return new IOSDriver(newExecutor(key), key.getCapabilities());
+        }
+        throw new IllegalArgumentException("Invalid platform: " + key.getPlatform());
+    }
+
+    private InstrumentedCommandExecutor newExecutor(SessionKey key) {
+        return httpClientFactory == null
+                ? new InstrumentedCommandExecutor(key.getServerUrl())
+                : new InstrumentedCommandExecutor(key.getServerUrl(), httpClientFactory);
+    }
+}
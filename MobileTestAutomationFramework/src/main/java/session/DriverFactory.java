@@ -0,0 +1,19 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+
+/**
+ * Creates new driver sessions for the session pool.
+ */
+@FunctionalInterface
+public interface DriverFactory {
+
+    /**
+     * Creates a new driver session for the given key.
+     *
+     * @param key The key describing the session to create
+     * @return A new AppiumDriver instance
+     * @throws Exception If the session cannot be created
+     */
+    AppiumDriver create(SessionKey key) throws Exception;
+}
@@ -0,0 +1,121 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+import locators.PageLocators;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.SessionNotCreatedException;
+
+/**
+ * A driver whose session is opened on first use.
+ * Page objects accept a handle instead of a driver, so building them costs nothing: the session is
+ * only created when a page sends its first command, and a test class whose methods are all filtered
+ * out by groups never creates one. A handle that was never opened needs no teardown. When the session
+ * is replaced, the handle is rebound to the new one, so pages built earlier keep working.
+ */
+public final class DriverHandle {
+
+    /**
+     * Opens the session of a handle.
+     */
+    @FunctionalInterface
+    public interface Opener {
+
+        /**
+         * Opens the session.
+         *
+         * @return The driver of the new session
+         * @throws Exception If the session could not be created
+         */
+        AppiumDriver open() throws Exception;
+    }
+
+    private final Opener opener;
+    private volatile Platform platform;
+    private volatile AppiumDriver driver;
+
+    /**
+     * Creates a handle whose session is opened on first use.
+     *
+     * @param platform The platform the session will run on, known without opening it
+     * @param opener Opens the session
+     */
+    public DriverHandle(Platform platform, Opener opener) {
+        this.platform = platform;
+        this.opener = opener;
+    }
+
+    /**
+     * Creates a handle of a session that is already open.
+     *
+     * @param driver The driver of the session
+     * @return The open handle
+     */
+    public static DriverHandle of(AppiumDriver driver) {
+        DriverHandle handle = new DriverHandle(null, () -> driver);
+        handle.driver = driver;
+        return handle;
+    }
+
+    /**
+     * Gets the driver, opening the session on the first call.
+     * A session that could not be opened is tried again on the next call.
+     *
+     * @return The AppiumDriver instance
+     * @throws SessionNotCreatedException If the session could not be opened
+     */
+    public AppiumDriver get() {
+        AppiumDriver current = driver;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (driver == null) {
+                try {
+                    driver = opener.open();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new SessionNotCreatedException("Could not open the session: " + e.getMessage(), e);
+                }
+            }
+            return driver;
+        }
+    }
+
+    /**
+     * Points the handle at another session, e.g. one that replaced a broken session.
+     * Pages built from the handle send their next command to the new session.
+     *
+     * @param session The session that takes the place of the current one
+     */
+    public synchronized void rebind(PooledSession session) {
+        driver = session.getDriver();
+    }
+
+    /**
+     * Checks whether the session has been opened.
+     *
+     * @return true if a command has needed the driver, false otherwise
+     */
+    public boolean isOpen() {
+        return driver != null;
+    }
+
+    /**
+     * Gets the platform of the session, without opening it when the platform was given up front.
+     *
+     * @return Platform.ANDROID or Platform.IOS
+     */
+    public Platform getPlatform() {
+        if (platform == null) {
+            platform = PageLocators.platformOf(get());
+        }
+        return platform;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverHandle[" + (platform == null ? "unknown platform" : platform) + ", "
+                + (isOpen() ? "open" : "not opened") + "]";
+    }
+}
@@ -0,0 +1,114 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+
+/**
+ * Thread-confined access to the session checked out by the current worker thread.
+ * Test code and page objects obtain the driver through this class instead of a shared field,
+ * so several workers can run side by side without seeing each other's sessions.
+ * A thread may also hold a handle whose session is only opened when the driver is first needed.
+ */
+public final class DriverManager {
+
+    private static final ThreadLocal<PooledSession> CURRENT_SESSION = new ThreadLocal<>();
+    private static final ThreadLocal<DriverHandle> CURRENT_HANDLE = new ThreadLocal<>();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DriverManager() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Binds a session to the current thread.
+     *
+     * @param session The session checked out by this thread
+     */
+    public static void setSession(PooledSession session) {
+        if (CURRENT_SESSION.get() != null) {
+            throw new IllegalStateException("Thread " + Thread.currentThread().getName()
+                    + " already holds a session");
+        }
+        CURRENT_SESSION.set(session);
+        // A lazy handle opening this session keeps its place; pages built from it see the same driver
+        DriverHandle handle = CURRENT_HANDLE.get();
+        if (handle == null) {
+            CURRENT_HANDLE.set(DriverHandle.of(session.getDriver()));
+        } else if (handle.isOpen()) {
+            // The session replaces a detached one; pages built from the handle follow it
+            handle.rebind(session);
+        }
+    }
+
+    /**
+     * Binds a handle to the current thread whose session is opened on first use.
+     * The handle's opener is expected to bind the session it opens with {@link #setSession(PooledSession)}.
+     *
+     * @param handle The handle of the session this thread will use
+     */
+    public static void setLazySession(DriverHandle handle) {
+        if (CURRENT_SESSION.get() != null || CURRENT_HANDLE.get() != null) {
+            throw new IllegalStateException("Thread " + Thread.currentThread().getName()
+                    + " already holds a session");
+        }
+        CURRENT_HANDLE.set(handle);
+    }
+
+    /**
+     * Gets the session bound to the current thread.
+     *
+     * @return The current session, or null if none is bound or its handle has not been opened yet
+     */
+    public static PooledSession getSession() {
+        return CURRENT_SESSION.get();
+    }
+
+    /**
+     * Gets the handle of the session bound to the current thread, without opening the session.
+     *
+     * @return The current handle
+     */
+    public static DriverHandle getHandle() {
+        DriverHandle handle = CURRENT_HANDLE.get();
+        if (handle == null) {
+            throw new IllegalStateException("No session bound to thread " + Thread.currentThread().getName());
+        }
+        return handle;
+    }
+
+    /**
+     * Gets the driver of the session bound to the current thread, opening the session if it is lazy
+     * and has not been used yet.
+     *
+     * @return The current AppiumDriver
+     */
+    public static AppiumDriver getDriver() {
+        PooledSession session = CURRENT_SESSION.get();
+        return session != null ? session.getDriver() : getHandle().get();
+    }
+
+    /**
+     * Unbinds the session from the current thread but keeps its handle, so that the session bound
+     * next with {@link #setSession(PooledSession)} takes its place in the handle.
+     *
+     * @return The session that was bound, or null if none was
+     */
+    public static PooledSession detachSession() {
+        PooledSession session = CURRENT_SESSION.get();
+        CURRENT_SESSION.remove();
+        return session;
+    }
+
+    /**
+     * Unbinds the session and its handle from the current thread.
+     *
+     * @return The session that was bound, or null if none was or its handle was never opened
+     */
+    public static PooledSession removeSession() {
+        PooledSession session = CURRENT_SESSION.get();
+        CURRENT_SESSION.remove();
+        CURRENT_HANDLE.remove();
+        return session;
+    }
+}
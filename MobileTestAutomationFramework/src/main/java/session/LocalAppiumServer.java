@@ -0,0 +1,95 @@
+package session;
+
+import io.appium.java_client.service.local.AppiumDriverLocalService;
+import io.appium.java_client.service.local.AppiumServiceBuilder;
+import io.appium.java_client.service.local.flags.GeneralServerFlag;
+import utilities.LoggerUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+
+/**
+ * An Appium server started by the framework on the local machine.
+ * Used when appium.server.autostart is set and nothing listens on a local appium.server.url yet.
+ * Needs Node.js and the appium package on the PATH.
+ */
+public final class LocalAppiumServer implements AutoCloseable {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 500;
+
+    private final AppiumDriverLocalService service;
+
+    private LocalAppiumServer(AppiumDriverLocalService service) {
+        this.service = service;
+    }
+
+    /**
+     * Starts an Appium server listening on the host, port and base path of a URL.
+     *
+     * @param url The URL the server should serve
+     * @return The running server
+     * @throws RuntimeException if Node.js or Appium cannot be found or the server does not come up
+     */
+    public static LocalAppiumServer start(URL url) {
+        AppiumServiceBuilder builder = new AppiumServiceBuilder()
+                .withIPAddress(url.getHost())
+                .usingPort(url.getPort() < 0 ? url.getDefaultPort() : url.getPort());
+        String basePath = url.getPath();
+        if (!basePath.isEmpty() && !"/".equals(basePath)) {
+            builder.withArgument(GeneralServerFlag.BASEPATH, basePath);
+        }
+        AppiumDriverLocalService service = AppiumDriverLocalService.buildService(builder);
+        service.clearOutPutStreams();
+        service.start();
+        LoggerUtils.info("Started local Appium server at {}", service.getUrl());
+        return new LocalAppiumServer(service);
+    }
+
+    /**
+     * Checks whether a URL points at this machine, where the framework can start a server.
+     *
+     * @param url The server URL
+     * @return true for localhost and loopback addresses
+     */
+    public static boolean isLocal(URL url) {
+        String host = url.getHost();
+        return "localhost".equalsIgnoreCase(host) || host.startsWith("127.") || "[::1]".equals(host)
+                || "::1".equals(host);
+    }
+
+    /**
+     * Checks whether something accepts connections on the host and port of a URL.
+     *
+     * @param url The server URL
+     * @return true if a connection could be opened
+     */
+    public static boolean isListening(URL url) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(url.getHost(), url.getPort() < 0 ? url.getDefaultPort()
+                    : url.getPort()), CONNECT_TIMEOUT_MILLIS);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the URL of the running server.
+     *
+     * @return The server URL
+     */
+    public URL getUrl() {
+        return service.getUrl();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        service.stop();
+        LoggerUtils.info("Stopped local Appium server at {}", service.getUrl());
+    }
+}
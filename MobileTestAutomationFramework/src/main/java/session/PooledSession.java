@@ -0,0 +1,93 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+
+/**
+ * A driver session owned by the session pool.
+ * Only the thread that checked the session out may use its driver until it is checked back in.
+ */
+public final class PooledSession {
+
+    private final SessionKey key;
+    private final AppiumDriver driver;
+    private final long createdAt;
+    private volatile long lastReturnedAt;
+    private volatile boolean healthy = true;
+    private int checkouts;
+
+    PooledSession(SessionKey key, AppiumDriver driver) {
+        this.key = key;
+        this.driver = driver;
+        this.createdAt = System.currentTimeMillis();
+        this.lastReturnedAt = createdAt;
+    }
+
+    /**
+     * Gets the key the session was created for.
+     *
+     * @return The session key
+     */
+    public SessionKey getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the driver backing this session.
+     *
+     * @return The AppiumDriver instance
+     */
+    public AppiumDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Gets the time the session was created.
+     *
+     * @return Creation time in epoch milliseconds
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets how many times the session has been checked out.
+     *
+     * @return The checkout count
+     */
+    public synchronized int getCheckouts() {
+        return checkouts;
+    }
+
+    /**
+     * Flags the session as broken so the pool discards it on check-in.
+     */
+    public void markUnhealthy() {
+        healthy = false;
+    }
+
+    /**
+     * Checks whether the session has been flagged as broken.
+     *
+     * @return true if the session has not been flagged, false otherwise
+     */
+    public boolean isMarkedHealthy() {
+        return healthy;
+    }
+
+    long getLastReturnedAt() {
+        return lastReturnedAt;
+    }
+
+    synchronized void onCheckOut() {
+        checkouts++;
+    }
+
+    void onCheckIn() {
+        lastReturnedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "PooledSession[" + key.getPlatform() + ", checkouts=" + getCheckouts() + "]";
+    }
+}
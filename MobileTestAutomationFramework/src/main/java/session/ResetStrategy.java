@@ -0,0 +1,70 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+
+import java.util.Map;
+
+/**
+ * How a session is brought back to a clean app state before it is used again.
+ * Creating a session takes 10 to 30 seconds with UiAutomator2 or XCUITest, while most test classes
+ * only need the app restarted or its data cleared, which the driver does in well under a second on a
+ * session that stays alive. The in-place resets use the drivers' {@code mobile:} app extensions.
+ */
+public enum ResetStrategy {
+
+    /** Keep the session and leave the app as the previous test left it. */
+    NONE,
+    /** Keep the session; terminate and relaunch the app, keeping its data. */
+    RELAUNCH,
+    /** Keep the session; clear the app's data and relaunch it, as if freshly installed. */
+    CLEAR_DATA,
+    /** Quit the session and create a new one. */
+    NEW_SESSION;
+
+    /**
+     * When a reset runs.
+     */
+    public enum Scope {
+        /** Before a test class uses a session that another class used. */
+        CLASS,
+        /** Also between the test methods of a class. */
+        METHOD
+    }
+
+    /**
+     * Checks whether the session stays alive between uses.
+     *
+     * @return false for NEW_SESSION, true otherwise
+     */
+    public boolean keepsSession() {
+        return this != NEW_SESSION;
+    }
+
+    /**
+     * Resets the app of a live session in place.
+     *
+     * @param session The session to reset
+     * @param appId The package name (Android) or bundle id (iOS) of the app
+     * @throws org.openqa.selenium.WebDriverException If the driver cannot reset the app
+     * @throws IllegalStateException For NEW_SESSION, which cannot be done in place
+     */
+    public void reset(PooledSession session, String appId) {
+        AppiumDriver driver = session.getDriver();
+        Map<String, Object> app = Map.of(session.getKey().isAndroid() ? "appId" : "bundleId", appId);
+        switch (this) {
+            case NONE:
+                break;
+            case RELAUNCH:
+                driver.executeScript("mobile: terminateApp", app);
+                driver.executeScript("mobile: activateApp", app);
+                break;
+            case CLEAR_DATA:
+                // Clearing the data also stops the app
+                driver.executeScript("mobile: clearApp", app);
+                driver.executeScript("mobile: activateApp", app);
+                break;
+            default:
+                throw new IllegalStateException(this + " cannot reset a session in place");
+        }
+    }
+}
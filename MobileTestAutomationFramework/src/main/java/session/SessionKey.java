@@ -0,0 +1,92 @@
+package session;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+
+import java.net.URL;
+import java.util.Objects;
+
+/**
+ * Identifies a kind of Appium session.
+ * Two sessions with the same key are interchangeable, so the pool can hand an idle
+ * session created for one test class to another class asking for the same key.
+ */
+public final class SessionKey {
+
+    private final String platform;
+    private final URL serverUrl;
+    private final Capabilities capabilities;
+
+    /**
+     * Constructor to initialize SessionKey.
+     *
+     * @param platform The platform name (android or ios)
+     * @param serverUrl The Appium server URL
+     * @param capabilities The capabilities used to create the session
+     */
+    public SessionKey(String platform, URL serverUrl, Capabilities capabilities) {
+        this.platform = Objects.requireNonNull(platform, "platform").toLowerCase();
+        this.serverUrl = Objects.requireNonNull(serverUrl, "serverUrl");
+        this.capabilities = new ImmutableCapabilities(Objects.requireNonNull(capabilities, "capabilities"));
+    }
+
+    /**
+     * Gets the platform name in lower case.
+     *
+     * @return The platform name
+     */
+    public String getPlatform() {
+        return platform;
+    }
+
+    /**
+     * Gets the Appium server URL.
+     *
+     * @return The server URL
+     */
+    public URL getServerUrl() {
+        return serverUrl;
+    }
+
+    /**
+     * Gets the capabilities used to create the session.
+     *
+     * @return Immutable capabilities
+     */
+    public Capabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * Checks whether this key targets Android.
+     *
+     * @return true if the platform is Android, false otherwise
+     */
+    public boolean isAndroid() {
+        return "android".equals(platform);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SessionKey)) {
+            return false;
+        }
+        SessionKey other = (SessionKey) o;
+        return platform.equals(other.platform)
+                && serverUrl.toString().equals(other.serverUrl.toString())
+                && capabilities.asMap().equals(other.capabilities.asMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(platform, serverUrl.toString(), capabilities.asMap());
+    }
+
+    @Override
+    public String toString() {
+        return platform + "@" + serverUrl + " " + capabilities.asMap();
+    }
+}
@@ -0,0 +1,302 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+import utilities.LoggerUtils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe pool of Appium sessions.
+ * At most {@code maxSessions} sessions are alive at once across all keys. Idle sessions are
+ * kept per key and health-checked before they are handed out again; when the pool is full
+ * and no session of the requested key is idle, an idle session of another key is evicted.
+ */
+public class SessionPool {
+
+    private final DriverFactory driverFactory;
+    private final int maxSessions;
+    private final Duration checkoutTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition sessionReleased = lock.newCondition();
+    private final Map<SessionKey, Deque<PooledSession>> idleSessions = new HashMap<>();
+    private int liveSessions;
+    private int sessionsCreated;
+    private boolean shutdown;
+
+    /**
+     * Constructor to initialize SessionPool.
+     *
+     * @param driverFactory Factory used to open new sessions
+     * @param maxSessions Maximum number of live sessions
+     * @param checkoutTimeout Maximum time to wait for a free session
+     */
+    public SessionPool(DriverFactory driverFactory, int maxSessions, Duration checkoutTimeout) {
+        if (maxSessions < 1) {
+            throw new IllegalArgumentException("maxSessions must be at least 1: " + maxSessions);
+        }
+        this.driverFactory = driverFactory;
+        this.maxSessions = maxSessions;
+        this.checkoutTimeout = checkoutTimeout;
+    }
+
+    /**
+     * Checks out a session for the given key, creating one if needed.
+     * Blocks while the pool is full.
+     *
+     * @param key The kind of session required
+     * @return A session reserved for the calling thread
+     * @throws Exception If no session becomes available in time or creation fails
+     */
+    public PooledSession checkOut(SessionKey key) throws Exception {
+        long deadline = System.nanoTime() + checkoutTimeout.toNanos();
+        while (true) {
+            PooledSession candidate;
+            PooledSession evicted = null;
+            lock.lock();
+            try {
+                ensureOpen();
+                candidate = pollIdle(key);
+                if (candidate == null) {
+                    if (liveSessions < maxSessions) {
+                        liveSessions++;
+                    } else if ((evicted = pollAnyIdle()) == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new TimeoutException("No session available for " + key.getPlatform()
+                                    + " within " + checkoutTimeout.getSeconds() + " seconds");
+                        }
+                        sessionReleased.awaitNanos(remaining);
+                        continue;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (evicted != null) {
+                LoggerUtils.info("Evicting idle session to make room: " + evicted);
+                quietQuit(evicted);
+            }
+            if (candidate != null) {
+                if (isHealthy(candidate)) {
+                    candidate.onCheckOut();
+                    return candidate;
+                }
+                LoggerUtils.warn("Discarding unhealthy idle session: " + candidate);
+                discard(candidate);
+                continue;
+            }
+            return createSession(key);
+        }
+    }
+
+    /**
+     * Returns a session to the pool so it can be reused.
+     * Sessions flagged as unhealthy, or returned after shutdown, are quit instead.
+     *
+     * @param session The session to return
+     */
+    public void checkIn(PooledSession session) {
+        if (session == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (!shutdown && session.isMarkedHealthy()) {
+                session.onCheckIn();
+                idleSessions.computeIfAbsent(session.getKey(), k -> new ArrayDeque<>()).push(session);
+                sessionReleased.signalAll();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(session);
+    }
+
+    /**
+     * Quits a session and frees its slot in the pool.
+     *
+     * @param session The session to discard
+     */
+    public void discard(PooledSession session) {
+        if (session == null) {
+            return;
+        }
+        quietQuit(session);
+        lock.lock();
+        try {
+            liveSessions--;
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a session still responds.
+     * Uses a single cheap round trip (reading the session timeouts).
+     *
+     * @param session The session to check
+     * @return true if the session is usable, false otherwise
+     */
+    public boolean isHealthy(PooledSession session) {
+        if (!session.isMarkedHealthy()) {
+            return false;
+        }
+        AppiumDriver driver = session.getDriver();
+        try {
+            if (driver.getSessionId() == null) {
+                return false;
+            }
+            driver.manage().timeouts().getImplicitWaitTimeout();
+            return true;
+        } catch (WebDriverException e) {
+            LoggerUtils.warn("Health check failed for " + session + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Quits every idle session and rejects further checkouts.
+     * Sessions still checked out are quit when they are returned.
+     */
+    public void shutdown() {
+        List<PooledSession> toQuit = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Deque<PooledSession> sessions : idleSessions.values()) {
+                toQuit.addAll(sessions);
+            }
+            idleSessions.clear();
+            liveSessions -= toQuit.size();
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        toQuit.forEach(this::quietQuit);
+        LoggerUtils.info("Session pool shut down, " + toQuit.size() + " idle sessions closed");
+    }
+
+    /**
+     * Gets the maximum number of live sessions.
+     *
+     * @return The pool size
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Gets the number of live sessions (idle and checked out).
+     *
+     * @return The live session count
+     */
+    public int getLiveSessions() {
+        lock.lock();
+        try {
+            return liveSessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of idle sessions across all keys.
+     *
+     * @return The idle session count
+     */
+    public int getIdleSessions() {
+        lock.lock();
+        try {
+            return idleSessions.values().stream().mapToInt(Deque::size).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets how many sessions the pool has created since it started.
+     *
+     * @return The created session count
+     */
+    public int getSessionsCreated() {
+        lock.lock();
+        try {
+            return sessionsCreated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PooledSession createSession(SessionKey key) throws Exception {
+        try {
+            AppiumDriver driver = driverFactory.create(key);
+            PooledSession session = new PooledSession(key, driver);
+            session.onCheckOut();
+            lock.lock();
+            try {
+                sessionsCreated++;
+            } finally {
+                lock.unlock();
+            }
+            return session;
+        } catch (Exception | Error e) {
+            lock.lock();
+            try {
+                liveSessions--;
+                sessionReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private PooledSession pollIdle(SessionKey key) {
+        Deque<PooledSession> sessions = idleSessions.get(key);
+        return sessions == null ? null : sessions.poll();
+    }
+
+    private PooledSession pollAnyIdle() {
+        Iterator<Deque<PooledSession>> it = idleSessions.values().iterator();
+        while (it.hasNext()) {
+            Deque<PooledSession> sessions = it.next();
+            PooledSession session = sessions.pollLast();
+            if (sessions.isEmpty()) {
+                it.remove();
+            }
+            if (session != null) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private void ensureOpen() {
+        if (shutdown) {
+            throw new IllegalStateException("Session pool has been shut down");
+        }
+    }
+
+    private void quietQuit(PooledSession session) {
+        try {
+            session.getDriver().quit();
+        } catch (Exception e) {
+            LoggerUtils.warn("Failed to quit session " + session + ": " + e.getMessage());
+        }
+    }
+}
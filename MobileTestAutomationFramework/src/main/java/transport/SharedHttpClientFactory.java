@@ -0,0 +1,334 @@
+package transport;
+
+import io.netty.channel.Channel;
+import org.asynchttpclient.AsyncCompletionHandlerBase;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.Dsl;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.Response;
+import org.asynchttpclient.exception.TooManyConnectionsException;
+import org.asynchttpclient.exception.TooManyConnectionsPerHostException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import utilities.LoggerUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP client factory whose clients share one connection pool per server.
+ * Every driver session gets its own client, but all clients for the same scheme, host and port
+ * send their commands over the same pool of kept-alive connections, so a new session does not
+ * open new connections while earlier ones sit idle. At most {@code poolSize} commands are in
+ * flight per server, which bounds the connections however many sessions run against it; further
+ * commands queue, in arrival order, for a free connection. Pool size, keep-alive, timeouts and
+ * compression come from a {@link TransportConfig}; connection reuse is counted per server in
+ * {@link TransportMetrics}.
+ * WebSockets, e.g. Appium log broadcasts or BiDi, are long-lived and not pooled: each client opens
+ * them through its own client from the default factory.
+ * Closing a client leaves the pool open; {@link #close()} closes all pools.
+ */
+public class SharedHttpClientFactory implements HttpClient.Factory, AutoCloseable {
+
+    private final TransportConfig config;
+    private final Map<String, Server> servers = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Constructor to initialize SharedHttpClientFactory.
+     *
+     * @param config The connection settings
+     */
+    public SharedHttpClientFactory(TransportConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Creates a client for one session, sharing the connection pool of its server.
+     *
+     * @param clientConfig The client settings; only the base URI and the filter are used, the
+     *                     timeouts come from the TransportConfig
+     * @return The client
+     */
+    @Override
+    public HttpClient createClient(ClientConfig clientConfig) {
+        if (closed) {
+            throw new IllegalStateException("HTTP client factory is closed");
+        }
+        URI baseUri = clientConfig.baseUri();
+        Server server = servers.computeIfAbsent(origin(baseUri), this::openServer);
+        return new PooledHttpClient(server, baseUri, clientConfig);
+    }
+
+    /**
+     * Gets the connection statistics of a server.
+     *
+     * @param serverUrl The server URL
+     * @return The statistics, or null if no client was created for the server
+     */
+    public TransportMetrics getMetrics(URL serverUrl) {
+        try {
+            Server server = servers.get(origin(serverUrl.toURI()));
+            return server == null ? null : server.metrics;
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid server URL: " + serverUrl, e);
+        }
+    }
+
+    /**
+     * Gets the connection statistics of every server a client was created for.
+     *
+     * @return The statistics per server
+     */
+    public List<TransportMetrics> getMetrics() {
+        List<TransportMetrics> metrics = new ArrayList<>();
+        for (Server server : servers.values()) {
+            metrics.add(server.metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Gets the connection settings.
+     *
+     * @return The settings
+     */
+    public TransportConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes the connection pools of all servers. Clients created earlier can no longer send.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Server server : servers.values()) {
+            LoggerUtils.info("HTTP transport closed. {}", server.metrics);
+            try {
+                server.client.close();
+            } catch (IOException e) {
+                LoggerUtils.warn("Failed to close HTTP client of {}: {}", server.metrics.getServer(), e.getMessage());
+            }
+        }
+        servers.clear();
+    }
+
+    private Server openServer(String origin) {
+        DefaultAsyncHttpClientConfig.Builder builder = Dsl.config()
+                .setThreadPoolName("transport-" + origin.replaceAll("[^A-Za-z0-9]+", "-"))
+                .setMaxConnectionsPerHost(config.getPoolSize())
+                .setAcquireFreeChannelTimeout((int) config.getAcquireTimeout().toMillis())
+                .setKeepAlive(config.isKeepAlive())
+                .setPooledConnectionIdleTimeout((int) config.getIdleTimeout().toMillis())
+                .setConnectTimeout((int) config.getConnectTimeout().toMillis())
+                .setReadTimeout((int) config.getReadTimeout().toMillis())
+                .setRequestTimeout((int) config.getReadTimeout().toMillis())
+                .setCompressionEnforced(config.isResponseCompression())
+                .setFollowRedirect(false);
+        AsyncHttpClient client = Dsl.asyncHttpClient(builder);
+        LoggerUtils.info("Opened HTTP transport to {} with {}", origin, config);
+        return new Server(client, new Semaphore(config.getPoolSize(), true),
+                new TransportMetrics(origin, client::getClientStats));
+    }
+
+    private static String origin(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ":" + port;
+    }
+
+    /**
+     * The connection pool of one server.
+     * The client only frees a connection slot when a connection closes, so a command waiting on it
+     * would not get a connection returned to the pool meanwhile; commands therefore wait on the
+     * permits instead, one per connection, held for the duration of a command.
+     */
+    private static final class Server {
+        private final AsyncHttpClient client;
+        private final Semaphore permits;
+        private final TransportMetrics metrics;
+
+        private Server(AsyncHttpClient client, Semaphore permits, TransportMetrics metrics) {
+            this.client = client;
+            this.permits = permits;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Client of one session, sending through the pool of its server.
+     */
+    private final class PooledHttpClient implements HttpClient {
+        private final Server server;
+        private final String baseUrl;
+        private final ClientConfig clientConfig;
+        private final HttpHandler handler;
+        private HttpClient socketClient;
+
+        private PooledHttpClient(Server server, URI baseUri, ClientConfig clientConfig) {
+            this.server = server;
+            this.baseUrl = baseUri.toString().replaceAll("/$", "");
+            this.clientConfig = clientConfig;
+            HttpHandler send = this::send;
+            this.handler = send.with(clientConfig.filter());
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        @Override
+        public synchronized WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            if (socketClient == null) {
+                socketClient = HttpClient.Factory.createDefault().createClient(clientConfig);
+            }
+            return socketClient.openSocket(request, listener);
+        }
+
+        @Override
+        public synchronized void close() {
+            // The pool is shared with the other sessions of the server; only this session's sockets close
+            if (socketClient != null) {
+                socketClient.close();
+                socketClient = null;
+            }
+        }
+
+        private HttpResponse send(HttpRequest request) {
+            TransportMetrics metrics = server.metrics;
+            metrics.recordRequest();
+            ConnectionHandler connectionHandler = new ConnectionHandler(metrics);
+            acquire(request);
+            try {
+                Response response = server.client.executeRequest(toRequest(request), connectionHandler).get();
+                HttpResponse result = new HttpResponse().setStatus(response.getStatusCode());
+                for (Map.Entry<String, String> header : response.getHeaders()) {
+                    result.addHeader(header.getKey(), header.getValue());
+                }
+                result.setContent(Contents.bytes(response.getResponseBodyAsBytes()));
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while sending " + request.getMethod() + " "
+                        + request.getUri(), e);
+            } catch (ExecutionException e) {
+                metrics.recordFailure();
+                Throwable cause = e.getCause();
+                if (cause instanceof TooManyConnectionsPerHostException || cause instanceof TooManyConnectionsException) {
+                    metrics.recordPoolTimeout();
+                    throw new WebDriverException("No connection to " + metrics.getServer() + " became free within "
+                            + config.getAcquireTimeout().toSeconds() + "s; raise transport.http.poolSize",
+                            cause);
+                }
+                if (cause instanceof TimeoutException) {
+                    throw new org.openqa.selenium.TimeoutException(cause);
+                }
+                if (cause instanceof IOException) {
+                    throw new UncheckedIOException((IOException) cause);
+                }
+                throw new WebDriverException(cause);
+            } finally {
+                server.permits.release();
+            }
+        }
+
+        private void acquire(HttpRequest request) {
+            TransportMetrics metrics = server.metrics;
+            try {
+                if (!server.permits.tryAcquire(config.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    metrics.recordFailure();
+                    metrics.recordPoolTimeout();
+                    throw new WebDriverException("No connection to " + metrics.getServer() + " became free within "
+                            + config.getAcquireTimeout().toSeconds() + "s for " + request.getMethod() + " "
+                            + request.getUri() + "; raise transport.http.poolSize");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while waiting for a connection to " + metrics.getServer(), e);
+            }
+        }
+
+        private Request toRequest(HttpRequest request) {
+            RequestBuilder builder = new RequestBuilder(request.getMethod().toString())
+                    .setUrl(baseUrl + request.getUri());
+            for (String name : request.getQueryParameterNames()) {
+                for (String value : request.getQueryParameters(name)) {
+                    builder.addQueryParam(name, value);
+                }
+            }
+            for (String name : request.getHeaderNames()) {
+                // Set by the client from the body actually sent, which may be compressed
+                if ("Content-Length".equalsIgnoreCase(name)) {
+                    continue;
+                }
+                for (String value : request.getHeaders(name)) {
+                    builder.addHeader(name, value);
+                }
+            }
+            byte[] body = Contents.bytes(request.getContent());
+            if (body.length > 0) {
+                if (config.isRequestCompression() && body.length >= config.getRequestCompressionMinBytes()) {
+                    body = gzip(body);
+                    builder.setHeader("Content-Encoding", "gzip");
+                }
+                builder.setBody(body);
+            }
+            return builder.build();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Collects the response and records whether it came over a pooled or a new connection.
+     */
+    private static final class ConnectionHandler extends AsyncCompletionHandlerBase {
+        private final TransportMetrics metrics;
+        private final long start = System.nanoTime();
+
+        private ConnectionHandler(TransportMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void onConnectionPooled(Channel channel) {
+            metrics.recordConnection(true, System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTcpConnectSuccess(InetSocketAddress remoteAddress, Channel channel) {
+            metrics.recordConnection(false, System.nanoTime() - start);
+        }
+    }
+}
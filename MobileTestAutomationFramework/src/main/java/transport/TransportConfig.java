@@ -0,0 +1,174 @@
+package transport;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Settings of the HTTP connections between the drivers and the Appium server.
+ * Read from the {@code transport.http.*} keys of app.properties. Instances are immutable.
+ */
+public final class TransportConfig {
+
+    private final int poolSize;
+    private final boolean keepAlive;
+    private final Duration idleTimeout;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration acquireTimeout;
+    private final boolean responseCompression;
+    private final boolean requestCompression;
+    private final int requestCompressionMinBytes;
+
+    /**
+     * Constructor to initialize TransportConfig.
+     *
+     * @param poolSize Most connections, and so concurrent commands, to one server
+     * @param keepAlive Whether connections are kept open and reused between commands
+     * @param idleTimeout How long an unused connection stays in the pool
+     * @param connectTimeout How long opening a connection may take
+     * @param readTimeout How long the server may take to answer a command
+     * @param acquireTimeout How long a command waits for a connection when the pool is full
+     * @param responseCompression Whether the server may gzip its responses
+     * @param requestCompression Whether request bodies are gzipped
+     * @param requestCompressionMinBytes Smallest request body that is gzipped
+     */
+    public TransportConfig(int poolSize, boolean keepAlive, Duration idleTimeout, Duration connectTimeout,
+                           Duration readTimeout, Duration acquireTimeout, boolean responseCompression,
+                           boolean requestCompression, int requestCompressionMinBytes) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        this.poolSize = poolSize;
+        this.keepAlive = keepAlive;
+        this.idleTimeout = idleTimeout;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.responseCompression = responseCompression;
+        this.requestCompression = requestCompression;
+        this.requestCompressionMinBytes = requestCompressionMinBytes;
+    }
+
+    /**
+     * Gets the default settings, matching the timeouts of Selenium's own client.
+     *
+     * @return The default settings
+     */
+    public static TransportConfig defaults() {
+        return fromProperties(new Properties(), "transport.http.");
+    }
+
+    /**
+     * Reads the settings from properties:
+     * {@code <prefix>poolSize}, {@code <prefix>keepAlive},
+     * {@code <prefix>idleTimeoutSeconds}, {@code <prefix>connectTimeoutSeconds},
+     * {@code <prefix>readTimeoutSeconds}, {@code <prefix>acquireTimeoutSeconds},
+     * {@code <prefix>compressResponses}, {@code <prefix>compressRequests} and
+     * {@code <prefix>compressRequestsMinBytes}.
+     *
+     * @param properties The properties
+     * @param prefix The key prefix, e.g. "transport.http."
+     * @return The settings
+     */
+    public static TransportConfig fromProperties(Properties properties, String prefix) {
+        return new TransportConfig(
+                Integer.parseInt(properties.getProperty(prefix + "poolSize", "16")),
+                Boolean.parseBoolean(properties.getProperty(prefix + "keepAlive", "true")),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty(prefix + "idleTimeoutSeconds", "30"))),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty(prefix + "connectTimeoutSeconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty(prefix + "readTimeoutSeconds", "180"))),
+                Duration.ofSeconds(Long.parseLong(properties.getProperty(prefix + "acquireTimeoutSeconds", "30"))),
+                Boolean.parseBoolean(properties.getProperty(prefix + "compressResponses", "true")),
+                Boolean.parseBoolean(properties.getProperty(prefix + "compressRequests", "false")),
+                Integer.parseInt(properties.getProperty(prefix + "compressRequestsMinBytes", "1024")));
+    }
+
+    /**
+     * Gets the most connections, and so concurrent commands, to one server.
+     *
+     * @return The pool size
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Checks whether connections are kept open and reused between commands.
+     *
+     * @return true if keep-alive is enabled
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Gets how long an unused connection stays in the pool.
+     *
+     * @return The idle timeout
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Gets how long opening a connection may take.
+     *
+     * @return The connect timeout
+     */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Gets how long the server may take to answer a command.
+     *
+     * @return The read timeout
+     */
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Gets how long a command waits for a connection when the pool is full.
+     *
+     * @return The acquire timeout
+     */
+    public Duration getAcquireTimeout() {
+        return acquireTimeout;
+    }
+
+    /**
+     * Checks whether the server may gzip its responses.
+     *
+     * @return true if gzipped responses are accepted
+     */
+    public boolean isResponseCompression() {
+        return responseCompression;
+    }
+
+    /**
+     * Checks whether request bodies are gzipped.
+     *
+     * @return true if request compression is enabled
+     */
+    public boolean isRequestCompression() {
+        return requestCompression;
+    }
+
+    /**
+     * Gets the smallest request body that is gzipped.
+     *
+     * @return The size in bytes
+     */
+    public int getRequestCompressionMinBytes() {
+        return requestCompressionMinBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "TransportConfig[poolSize=" + poolSize + ", keepAlive=" + keepAlive + ", idleTimeout=" + idleTimeout
+                + ", connectTimeout=" + connectTimeout
+                + ", readTimeout=" + readTimeout + ", acquireTimeout=" + acquireTimeout
+                + ", compressResponses=" + responseCompression + ", compressRequests=" + requestCompression + "]";
+    }
+}
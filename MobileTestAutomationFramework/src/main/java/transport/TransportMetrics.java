@@ -0,0 +1,160 @@
+package transport;
+
+import org.asynchttpclient.ClientStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Connection statistics of the shared client of one server.
+ * A request either reuses an idle pooled connection or opens a new one; a low reuse ratio means
+ * the commands pay for TCP (and TLS) setup. Waiting for a connection, and requests failing because
+ * none became free within the acquire timeout, mean the pool is too small for the sessions using it.
+ */
+public class TransportMetrics {
+
+    private final String server;
+    private final Supplier<ClientStats> stats;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong poolTimeouts = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+
+    TransportMetrics(String server, Supplier<ClientStats> stats) {
+        this.server = server;
+        this.stats = stats;
+    }
+
+    void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    void recordPoolTimeout() {
+        poolTimeouts.incrementAndGet();
+    }
+
+    void recordConnection(boolean reused, long waitNanos) {
+        (reused ? reusedConnections : newConnections).incrementAndGet();
+        acquireNanos.addAndGet(waitNanos);
+        maxAcquireNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Gets the server these statistics belong to.
+     *
+     * @return The server as "scheme://host:port"
+     */
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Gets the number of requests sent.
+     *
+     * @return The number of requests
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of requests that got no response.
+     *
+     * @return The number of failed requests
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Gets the number of connections opened.
+     *
+     * @return The number of new connections
+     */
+    public long getNewConnections() {
+        return newConnections.get();
+    }
+
+    /**
+     * Gets the number of requests sent on a pooled connection.
+     *
+     * @return The number of reused connections
+     */
+    public long getReusedConnections() {
+        return reusedConnections.get();
+    }
+
+    /**
+     * Gets the share of requests sent on a pooled connection.
+     *
+     * @return The reuse ratio between 0 and 1, or 0 if nothing was sent yet
+     */
+    public double getReuseRatio() {
+        long reused = reusedConnections.get();
+        long total = reused + newConnections.get();
+        return total == 0 ? 0 : (double) reused / total;
+    }
+
+    /**
+     * Gets the number of requests that failed because no connection became free in time.
+     *
+     * @return The number of pool timeouts
+     */
+    public long getPoolTimeouts() {
+        return poolTimeouts.get();
+    }
+
+    /**
+     * Gets the longest time a request waited for a connection, including opening it.
+     *
+     * @return The wait in milliseconds
+     */
+    public double getMaxAcquireMillis() {
+        return maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the average time a request waited for a connection, including opening it.
+     *
+     * @return The wait in milliseconds
+     */
+    public double getAverageAcquireMillis() {
+        long connections = newConnections.get() + reusedConnections.get();
+        return connections == 0 ? 0 : acquireNanos.get() / (double) connections / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the number of connections currently serving a request.
+     *
+     * @return The number of active connections
+     */
+    public long getActiveConnections() {
+        return stats.get().getTotalActiveConnectionCount();
+    }
+
+    /**
+     * Gets the number of open connections waiting in the pool.
+     *
+     * @return The number of idle connections
+     */
+    public long getIdleConnections() {
+        return stats.get().getTotalIdleConnectionCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransportMetrics[server=%s, requests=%d, failures=%d, newConnections=%d, "
+                        + "reusedConnections=%d, reuseRatio=%.2f, poolTimeouts=%d, avgAcquireMs=%.2f, maxAcquireMs=%.2f]",
+                server, getRequests(), getFailures(), getNewConnections(), getReusedConnections(), getReuseRatio(),
+                getPoolTimeouts(), getAverageAcquireMillis(), getMaxAcquireMillis());
+    }
+}
@@ -25,7 +25,10 @@ public class JavaUtils {
      * Pauses execution for the specified number of seconds.
      *
      * @param seconds The number of seconds to pause
+     * @deprecated Fixed sleeps are dead time on fast devices and too short on slow ones.
+     *             Use {@link global.PageUtils#waitForUiIdle()} or an element wait instead.
      */
+    @Deprecated
     public static void pauseInSeconds(int seconds) {
         try {
             Thread.sleep(seconds * 1000L);
@@ -39,7 +42,9 @@ public class JavaUtils {
      * Pauses execution for the specified number of milliseconds.
      *
      * @param milliseconds The number of milliseconds to pause
+     * @deprecated Use {@link global.PageUtils#waitForUiIdle()} or an element wait instead.
      */
+    @Deprecated
     public static void pauseInMilliseconds(long milliseconds) {
         try {
             Thread.sleep(milliseconds);
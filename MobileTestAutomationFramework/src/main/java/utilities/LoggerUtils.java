@@ -3,9 +3,15 @@ package utilities;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.function.Supplier;
+
 /**
  * Utility class for logging.
  * Provides methods for logging at different levels.
+ * Prefer the parameterized overloads ({@code info("Button {} is {}", name, state)}) or the supplier
+ * overloads over string concatenation: the message is only built when the level is enabled or the
+ * test's log is being buffered, and with up to two parameters no varargs array is allocated.
+ * While a test is running, every message is also recorded in the thread's TestLogBuffer.
  */
 public class LoggerUtils {
     
@@ -36,6 +42,7 @@ public class LoggerUtils {
      * @param message The message to log
      */
     public static void log(LogType logType, String message) {
+        TestLogBuffer.record(logType, message);
         switch (logType) {
             case INFO:
                 logger.info(message);
@@ -64,36 +71,199 @@ public class LoggerUtils {
      * @param message The message to log
      */
     public static void info(String message) {
+        TestLogBuffer.record(LogType.INFO, message);
         logger.info(message);
     }
     
+    /**
+     * Logs a parameterized info message.
+     *
+     * @param format The message with a {} placeholder
+     * @param arg The placeholder value
+     */
+    public static void info(String format, Object arg) {
+        TestLogBuffer.record(LogType.INFO, format, arg);
+        logger.info(format, arg);
+    }
+    
+    /**
+     * Logs a parameterized info message.
+     *
+     * @param format The message with two {} placeholders
+     * @param arg1 The first placeholder value
+     * @param arg2 The second placeholder value
+     */
+    public static void info(String format, Object arg1, Object arg2) {
+        TestLogBuffer.record(LogType.INFO, format, arg1, arg2);
+        logger.info(format, arg1, arg2);
+    }
+    
+    /**
+     * Logs a parameterized info message.
+     *
+     * @param format The message with {} placeholders
+     * @param args The placeholder values
+     */
+    public static void info(String format, Object... args) {
+        TestLogBuffer.recordAll(LogType.INFO, format, args);
+        logger.info(format, args);
+    }
+    
+    /**
+     * Logs an info message built only when INFO is enabled or a test's log is being buffered.
+     *
+     * @param message Supplies the message to log
+     */
+    public static void info(Supplier<String> message) {
+        boolean infoEnabled = logger.isInfoEnabled();
+        if (!infoEnabled && TestLogBuffer.current() == null) {
+            return;
+        }
+        String text = message.get();
+        TestLogBuffer.record(LogType.INFO, text);
+        if (infoEnabled) {
+            logger.info(text);
+        }
+    }
+    
     /**
      * Logs a warning message.
      *
      * @param message The message to log
      */
     public static void warn(String message) {
+        TestLogBuffer.record(LogType.WARN, message);
         logger.warn(message);
     }
     
+    /**
+     * Logs a parameterized warning message.
+     *
+     * @param format The message with a {} placeholder
+     * @param arg The placeholder value
+     */
+    public static void warn(String format, Object arg) {
+        TestLogBuffer.record(LogType.WARN, format, arg);
+        logger.warn(format, arg);
+    }
+    
+    /**
+     * Logs a parameterized warning message.
+     *
+     * @param format The message with two {} placeholders
+     * @param arg1 The first placeholder value
+     * @param arg2 The second placeholder value
+     */
+    public static void warn(String format, Object arg1, Object arg2) {
+        TestLogBuffer.record(LogType.WARN, format, arg1, arg2);
+        logger.warn(format, arg1, arg2);
+    }
+    
+    /**
+     * Logs a parameterized warning message.
+     *
+     * @param format The message with {} placeholders
+     * @param args The placeholder values
+     */
+    public static void warn(String format, Object... args) {
+        TestLogBuffer.recordAll(LogType.WARN, format, args);
+        logger.warn(format, args);
+    }
+    
     /**
      * Logs an error message.
      *
      * @param message The message to log
      */
     public static void error(String message) {
+        TestLogBuffer.record(LogType.ERROR, message);
         logger.error(message);
     }
     
+    /**
+     * Logs a parameterized error message.
+     *
+     * @param format The message with a {} placeholder
+     * @param arg The placeholder value
+     */
+    public static void error(String format, Object arg) {
+        TestLogBuffer.record(LogType.ERROR, format, arg);
+        logger.error(format, arg);
+    }
+    
+    /**
+     * Logs a parameterized error message with exception details.
+     *
+     * @param format The message with a {} placeholder
+     * @param arg The placeholder value
+     * @param e The exception
+     */
+    public static void error(String format, Object arg, Throwable e) {
+        TestLogBuffer.recordError(format, arg, 1, e);
+        logger.error(format, arg, e);
+    }
+    
     /**
      * Logs a debug message.
      *
      * @param message The message to log
      */
     public static void debug(String message) {
+        TestLogBuffer.record(LogType.DEBUG, message);
         logger.debug(message);
     }
     
+    /**
+     * Logs a parameterized debug message.
+     *
+     * @param format The message with a {} placeholder
+     * @param arg The placeholder value
+     */
+    public static void debug(String format, Object arg) {
+        TestLogBuffer.record(LogType.DEBUG, format, arg);
+        logger.debug(format, arg);
+    }
+    
+    /**
+     * Logs a parameterized debug message.
+     *
+     * @param format The message with two {} placeholders
+     * @param arg1 The first placeholder value
+     * @param arg2 The second placeholder value
+     */
+    public static void debug(String format, Object arg1, Object arg2) {
+        TestLogBuffer.record(LogType.DEBUG, format, arg1, arg2);
+        logger.debug(format, arg1, arg2);
+    }
+    
+    /**
+     * Logs a parameterized debug message.
+     *
+     * @param format The message with {} placeholders
+     * @param args The placeholder values
+     */
+    public static void debug(String format, Object... args) {
+        TestLogBuffer.recordAll(LogType.DEBUG, format, args);
+        logger.debug(format, args);
+    }
+    
+    /**
+     * Logs a debug message built only when DEBUG is enabled or a test's log is being buffered.
+     *
+     * @param message Supplies the message to log
+     */
+    public static void debug(Supplier<String> message) {
+        boolean debugEnabled = logger.isDebugEnabled();
+        if (!debugEnabled && TestLogBuffer.current() == null) {
+            return;
+        }
+        String text = message.get();
+        TestLogBuffer.record(LogType.DEBUG, text);
+        if (debugEnabled) {
+            logger.debug(text);
+        }
+    }
+    
     /**
      * Logs an error message with exception details.
      *
@@ -101,6 +271,7 @@ public class LoggerUtils {
      * @param e The exception
      */
     public static void error(String message, Throwable e) {
+        TestLogBuffer.recordError(message, null, 0, e);
         logger.error(message, e);
     }
 }
@@ -0,0 +1,274 @@
+package utilities;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory log of the test running on the current thread.
+ * LoggerUtils records every message, at every level, into the buffer of its thread while a test
+ * is running. Messages are stored unformatted in slots preallocated once per thread and reused by
+ * each test, so a passing test costs no formatting and no I/O: its buffer is simply reset by the next
+ * test. Only failed tests render their buffer, keeping the last {@code capacity} messages.
+ * Arguments are kept as they are only when they cannot change afterwards (strings, boxed primitives
+ * and enums); any other argument, and a lazily built message, is turned into a string when recorded,
+ * so the log shows the state at the time of the call and holds no references to live objects.
+ */
+public final class TestLogBuffer {
+
+    /** Default number of messages kept per test. */
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    private static final ThreadLocal<TestLogBuffer> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<TestLogBuffer> REUSABLE = new ThreadLocal<>();
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static volatile int capacity = DEFAULT_CAPACITY;
+    private static volatile boolean enabled = true;
+
+    private final String threadName;
+    private final Entry[] entries;
+    private String testName;
+    private long recorded;
+
+    private TestLogBuffer(int size) {
+        this.threadName = Thread.currentThread().getName();
+        this.entries = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new Entry();
+        }
+    }
+
+    /**
+     * Configures buffering for all threads.
+     *
+     * @param bufferEnabled false to disable buffering altogether
+     * @param size Number of messages kept per test
+     */
+    public static void configure(boolean bufferEnabled, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Log buffer size must be positive: " + size);
+        }
+        enabled = bufferEnabled;
+        capacity = size;
+    }
+
+    /**
+     * Starts buffering the log of a test on the current thread, discarding the previous test's messages.
+     * The thread's buffer is reused; a new one is only allocated on first use or when the size changed.
+     *
+     * @param testName Name of the test
+     */
+    public static void start(String testName) {
+        if (!enabled) {
+            CURRENT.remove();
+            return;
+        }
+        TestLogBuffer buffer = REUSABLE.get();
+        if (buffer == null || buffer.entries.length != capacity) {
+            buffer = new TestLogBuffer(capacity);
+            REUSABLE.set(buffer);
+        }
+        buffer.testName = testName;
+        buffer.recorded = 0;
+        CURRENT.set(buffer);
+    }
+
+    /**
+     * Stops buffering on the current thread.
+     * The returned buffer is reused by the next test started on this thread, so render it before then.
+     *
+     * @return The buffer of the test that was running, or null if none was started
+     */
+    public static TestLogBuffer stop() {
+        TestLogBuffer buffer = CURRENT.get();
+        CURRENT.remove();
+        return buffer;
+    }
+
+    /**
+     * Gets the buffer of the current thread.
+     *
+     * @return The buffer, or null if no test is being buffered on this thread
+     */
+    public static TestLogBuffer current() {
+        return CURRENT.get();
+    }
+
+    static void record(LoggerUtils.LogType level, Object message) {
+        TestLogBuffer buffer = CURRENT.get();
+        if (buffer != null) {
+            buffer.next(level, message, 0, null, null, null, null);
+        }
+    }
+
+    static void record(LoggerUtils.LogType level, String format, Object arg) {
+        TestLogBuffer buffer = CURRENT.get();
+        if (buffer != null) {
+            buffer.next(level, format, 1, arg, null, null, null);
+        }
+    }
+
+    static void record(LoggerUtils.LogType level, String format, Object arg1, Object arg2) {
+        TestLogBuffer buffer = CURRENT.get();
+        if (buffer != null) {
+            buffer.next(level, format, 2, arg1, arg2, null, null);
+        }
+    }
+
+    static void recordAll(LoggerUtils.LogType level, String format, Object[] args) {
+        TestLogBuffer buffer = CURRENT.get();
+        if (buffer != null) {
+            buffer.next(level, format, -1, null, null, args, null);
+        }
+    }
+
+    static void recordError(String format, Object arg, int argCount, Throwable error) {
+        TestLogBuffer buffer = CURRENT.get();
+        if (buffer != null) {
+            buffer.next(LoggerUtils.LogType.ERROR, format, argCount, arg, null, null, error);
+        }
+    }
+
+    private void next(LoggerUtils.LogType level, Object message, int argCount, Object arg1, Object arg2,
+                      Object[] args, Throwable error) {
+        Entry entry = entries[(int) (recorded % entries.length)];
+        entry.time = System.currentTimeMillis();
+        entry.level = level;
+        entry.message = message instanceof Supplier
+                ? String.valueOf(((Supplier<?>) message).get()) : snapshot(message);
+        entry.argCount = argCount;
+        entry.arg1 = snapshot(arg1);
+        entry.arg2 = snapshot(arg2);
+        entry.args = null;
+        if (args != null) {
+            entry.args = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                entry.args[i] = snapshot(args[i]);
+            }
+        }
+        entry.error = error;
+        recorded++;
+    }
+
+    /**
+     * Keeps a value that cannot change after the call, and turns any other value into its string now.
+     */
+    private static Object snapshot(Object value) {
+        if (value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof Short
+                || value instanceof Byte || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Gets the name of the buffered test.
+     *
+     * @return The test name
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * Gets the number of messages recorded, including those that no longer fit in the buffer.
+     *
+     * @return The number of recorded messages
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Gets the number of messages dropped because the buffer was full.
+     *
+     * @return The number of dropped messages
+     */
+    public long getDropped() {
+        return Math.max(0, recorded - entries.length);
+    }
+
+    /**
+     * Formats the buffered messages, oldest first.
+     *
+     * @return The log of the test
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder();
+        out.append("Log of ").append(testName).append(" [").append(threadName).append("]\n");
+        if (getDropped() > 0) {
+            out.append("... ").append(getDropped()).append(" earlier messages dropped\n");
+        }
+        long first = recorded - Math.min(recorded, entries.length);
+        for (long i = first; i < recorded; i++) {
+            Entry entry = entries[(int) (i % entries.length)];
+            out.append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.time))).append(' ')
+                    .append(String.format("%-5s", entry.level)).append(" - ")
+                    .append(entry.format()).append('\n');
+            if (entry.error != null) {
+                StringWriter trace = new StringWriter();
+                entry.error.printStackTrace(new PrintWriter(trace));
+                out.append(trace);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Writes the buffered messages to a file in a directory, named after the test.
+     *
+     * @param directory The directory to write to, created if missing
+     * @return The written file
+     * @throws IOException If the file cannot be written
+     */
+    public Path writeTo(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String fileName = testName.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                + JavaUtils.getCurrentTimestamp("yyyyMMdd-HHmmss-SSS") + ".log";
+        Path file = directory.resolve(fileName);
+        Files.write(file, render().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * One buffered message; slots are preallocated and overwritten in place.
+     * The message and arguments only hold values that no longer change, see {@link #snapshot(Object)}.
+     */
+    private static final class Entry {
+        private long time;
+        private LoggerUtils.LogType level;
+        private Object message;
+        private int argCount;
+        private Object arg1;
+        private Object arg2;
+        private Object[] args;
+        private Throwable error;
+
+        private String format() {
+            String text = String.valueOf(message);
+            switch (argCount) {
+                case 0:
+                    return text;
+                case 1:
+                    return ParameterizedMessage.format(text, new Object[]{arg1});
+                case 2:
+                    return ParameterizedMessage.format(text, new Object[]{arg1, arg2});
+                default:
+                    return ParameterizedMessage.format(text, args);
+            }
+        }
+    }
+}
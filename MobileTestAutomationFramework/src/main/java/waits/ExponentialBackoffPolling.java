@@ -0,0 +1,42 @@
+package waits;
+
+import java.time.Duration;
+
+/**
+ * Starts with a short delay and grows it geometrically up to a cap.
+ * Fast conditions are detected within a few tens of milliseconds, while slow ones do not flood
+ * the server with checks.
+ */
+public class ExponentialBackoffPolling implements PollingStrategy {
+
+    private final long initialMillis;
+    private final double multiplier;
+    private final long maxMillis;
+
+    /**
+     * Constructor to initialize ExponentialBackoffPolling.
+     *
+     * @param initial The delay after the first failed check
+     * @param multiplier Factor applied to the delay after each failed check
+     * @param max The largest delay
+     */
+    public ExponentialBackoffPolling(Duration initial, double multiplier, Duration max) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be at least 1: " + multiplier);
+        }
+        this.initialMillis = Math.max(1, initial.toMillis());
+        this.multiplier = multiplier;
+        this.maxMillis = Math.max(initialMillis, max.toMillis());
+    }
+
+    @Override
+    public Duration nextDelay(String key, int attempt, Duration elapsed) {
+        double delay = initialMillis * Math.pow(multiplier, Math.max(0, attempt - 1));
+        return Duration.ofMillis((long) Math.min(delay, maxMillis));
+    }
+
+    @Override
+    public String toString() {
+        return "exponential(" + initialMillis + "ms x" + multiplier + " up to " + maxMillis + "ms)";
+    }
+}
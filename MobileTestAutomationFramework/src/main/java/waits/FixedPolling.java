@@ -0,0 +1,30 @@
+package waits;
+
+import java.time.Duration;
+
+/**
+ * Polls at a fixed interval, like Selenium's WebDriverWait.
+ */
+public class FixedPolling implements PollingStrategy {
+
+    private final Duration interval;
+
+    /**
+     * Constructor to initialize FixedPolling.
+     *
+     * @param interval The delay between two checks
+     */
+    public FixedPolling(Duration interval) {
+        this.interval = interval;
+    }
+
+    @Override
+    public Duration nextDelay(String key, int attempt, Duration elapsed) {
+        return interval;
+    }
+
+    @Override
+    public String toString() {
+        return "fixed(" + interval.toMillis() + "ms)";
+    }
+}
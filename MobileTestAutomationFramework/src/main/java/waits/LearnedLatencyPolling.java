@@ -0,0 +1,110 @@
+package waits;
+
+import utilities.JavaUtils;
+import utilities.LoggerUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polls according to how long each condition took in past runs.
+ * The first check after the initial one is scheduled just before the condition usually becomes
+ * true; later checks back off exponentially. Latencies are kept as an exponentially weighted
+ * moving average per key and persisted between runs.
+ */
+public class LearnedLatencyPolling implements PollingStrategy {
+
+    private static final double SMOOTHING = 0.3;
+    private static final double LEAD = 0.9;
+
+    private final Map<String, Double> averageMillis = new ConcurrentHashMap<>();
+    private final PollingStrategy fallback;
+
+    /**
+     * Constructor to initialize LearnedLatencyPolling.
+     *
+     * @param fallback Strategy used for keys without history and after the learned delay has passed
+     */
+    public LearnedLatencyPolling(PollingStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Duration nextDelay(String key, int attempt, Duration elapsed) {
+        Double average = averageMillis.get(key);
+        if (average != null && attempt == 1) {
+            long target = (long) (average * LEAD) - elapsed.toMillis();
+            if (target > 0) {
+                return Duration.ofMillis(target);
+            }
+        }
+        return fallback.nextDelay(key, attempt, elapsed);
+    }
+
+    @Override
+    public void onSuccess(String key, Duration elapsed) {
+        double millis = elapsed.toMillis();
+        averageMillis.merge(key, millis, (old, now) -> old + SMOOTHING * (now - old));
+    }
+
+    /**
+     * Gets the learned latency of a key.
+     *
+     * @param key The wait key
+     * @return The average latency in milliseconds, or null if nothing was learned yet
+     */
+    public Double getAverageMillis(String key) {
+        return averageMillis.get(key);
+    }
+
+    /**
+     * Loads latencies learned in previous runs.
+     * A missing file is not an error.
+     *
+     * @param filePath The history file
+     */
+    public void load(String filePath) {
+        if (!new File(filePath).exists()) {
+            return;
+        }
+        try {
+            Properties history = JavaUtils.loadProperties(filePath);
+            for (String key : history.stringPropertyNames()) {
+                averageMillis.put(key, Double.parseDouble(history.getProperty(key)));
+            }
+            LoggerUtils.info("Loaded " + history.size() + " learned wait latencies from " + filePath);
+        } catch (IOException | NumberFormatException e) {
+            LoggerUtils.warn("Ignoring unreadable wait latency history " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the learned latencies for the next run.
+     *
+     * @param filePath The history file
+     */
+    public void save(String filePath) {
+        Properties history = new Properties();
+        averageMillis.forEach((key, value) -> history.setProperty(key, String.valueOf(Math.round(value))));
+        File file = new File(filePath);
+        if (file.getParentFile() != null) {
+            JavaUtils.createDirectory(file.getParent());
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            history.store(out, "Learned wait latencies in milliseconds");
+        } catch (IOException e) {
+            LoggerUtils.warn("Could not save wait latency history " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "learned(" + averageMillis.size() + " keys, fallback " + fallback + ")";
+    }
+}
@@ -0,0 +1,38 @@
+package waits;
+
+import java.time.Duration;
+
+/**
+ * Decides how long the wait engine sleeps between two checks of a condition.
+ */
+public interface PollingStrategy {
+
+    /**
+     * Gets the delay before the next check.
+     *
+     * @param key Identifies what is being waited for, e.g. a screen and locator
+     * @param attempt Number of checks made so far (1 after the first failed check)
+     * @param elapsed Time spent waiting so far
+     * @return The delay before the next check
+     */
+    Duration nextDelay(String key, int attempt, Duration elapsed);
+
+    /**
+     * Called when a condition is met, so strategies can learn from it.
+     *
+     * @param key Identifies what was waited for
+     * @param elapsed Time it took for the condition to be met
+     */
+    default void onSuccess(String key, Duration elapsed) {
+    }
+
+    /**
+     * Checks whether element lookups should be left to the server's implicit wait.
+     * The server then polls for the element locally and answers in a single round trip.
+     *
+     * @return true to use a server-side wait for element lookups, false otherwise
+     */
+    default boolean prefersServerSideWait() {
+        return false;
+    }
+}
@@ -0,0 +1,41 @@
+package waits;
+
+import java.time.Duration;
+
+/**
+ * Leaves element lookups to the server's implicit wait and polls any remaining condition
+ * (visibility, enabled state) with a fallback strategy.
+ */
+public class ServerSidePolling implements PollingStrategy {
+
+    private final PollingStrategy fallback;
+
+    /**
+     * Constructor to initialize ServerSidePolling.
+     *
+     * @param fallback Strategy used for checks that the server cannot wait for
+     */
+    public ServerSidePolling(PollingStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Duration nextDelay(String key, int attempt, Duration elapsed) {
+        return fallback.nextDelay(key, attempt, elapsed);
+    }
+
+    @Override
+    public void onSuccess(String key, Duration elapsed) {
+        fallback.onSuccess(key, elapsed);
+    }
+
+    @Override
+    public boolean prefersServerSideWait() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "server(fallback " + fallback + ")";
+    }
+}
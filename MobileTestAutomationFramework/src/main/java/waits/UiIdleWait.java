@@ -0,0 +1,110 @@
+package waits;
+
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Waits until the screen stops changing.
+ * The screen counts as idle once a cheap signature of its hierarchy has not changed for a short
+ * window. While the screen is changing it is sampled at the initial interval; once it looks stable
+ * the interval grows, so a settled screen is confirmed with few round trips.
+ */
+public class UiIdleWait {
+
+    private final Supplier<String> hierarchy;
+    private final Duration initialInterval;
+    private final Duration maxInterval;
+
+    private int samples;
+
+    /**
+     * Constructor to initialize UiIdleWait.
+     *
+     * @param hierarchy Supplies the current hierarchy, e.g. the driver's page source
+     * @param initialInterval Delay between samples while the screen is changing
+     * @param maxInterval Largest delay between samples while the screen looks stable
+     */
+    public UiIdleWait(Supplier<String> hierarchy, Duration initialInterval, Duration maxInterval) {
+        this.hierarchy = hierarchy;
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval.compareTo(initialInterval) < 0 ? initialInterval : maxInterval;
+    }
+
+    /**
+     * Computes the signature of a hierarchy.
+     * Length and hash are combined so two different hierarchies practically never collide.
+     *
+     * @param source The hierarchy, e.g. a page source
+     * @return The signature
+     */
+    public static long signatureOf(String source) {
+        if (source == null) {
+            return 0;
+        }
+        return ((long) source.length() << 32) | (source.hashCode() & 0xffffffffL);
+    }
+
+    /**
+     * Waits until the hierarchy has been stable for the given window.
+     *
+     * @param stableWindow How long the hierarchy must stay unchanged
+     * @param timeout How long to wait at most
+     * @return true if the screen became idle, false if it was still changing when the timeout expired
+     */
+    public boolean waitForIdle(Duration stableWindow, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long window = stableWindow.toNanos();
+        long interval = initialInterval.toNanos();
+
+        long last = sample();
+        long stableSince = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            if (now - stableSince >= window) {
+                return true;
+            }
+            if (now >= deadline) {
+                return false;
+            }
+            sleep(Math.min(interval, Math.min(window - (now - stableSince), deadline - now)));
+
+            long current = sample();
+            if (current != last) {
+                last = current;
+                stableSince = System.nanoTime();
+                interval = initialInterval.toNanos();
+            } else {
+                interval = Math.min(interval * 2, maxInterval.toNanos());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of hierarchy samples taken so far.
+     *
+     * @return The number of samples
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    private long sample() {
+        samples++;
+        return signatureOf(hierarchy.get());
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for the UI to become idle", e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package waits;
+
+import config.FrameworkConfig;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utilities.LoggerUtils;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Waits for conditions with a pluggable polling strategy.
+ * Replaces WebDriverWait's fixed 500 ms polling, which either overshoots fast conditions by up to
+ * half a second or sends needless checks for slow ones. The global timeout and strategy come from
+ * the test.timeout.* settings of the FrameworkConfig; both can be overridden per call.
+ */
+public class WaitEngine {
+
+    /** Default timeout used until {@link #configure(FrameworkConfig)} is called. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    /** Default time absence checks give an element to disappear. */
+    public static final Duration DEFAULT_ABSENCE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static volatile Duration defaultTimeout = DEFAULT_TIMEOUT;
+    private static volatile PollingStrategy defaultStrategy = new FixedPolling(Duration.ofMillis(500));
+    private static volatile String historyFile;
+    private static volatile Duration uiIdleWindow = Duration.ofMillis(300);
+    private static volatile Duration uiIdleTimeout = Duration.ofSeconds(5);
+    private static volatile Duration absenceTimeout = DEFAULT_ABSENCE_TIMEOUT;
+
+    private final WebDriver driver;
+
+    /**
+     * Constructor to initialize WaitEngine.
+     *
+     * @param driver The driver used for server-side waits
+     */
+    public WaitEngine(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Configures the global timeout and polling strategy.
+     * Reads test.timeout.explicit (seconds), test.timeout.polling (fixed, exponential, learned or
+     * server), test.timeout.pollingInitialMs, test.timeout.pollingMaxMs and
+     * test.timeout.pollingHistory, test.timeout.uiIdleWindowMs and test.timeout.uiIdle (seconds)
+     * for UI idle waits, and test.timeout.absenceMs for absence checks.
+     *
+     * @param config The framework configuration
+     */
+    public static synchronized void configure(FrameworkConfig config) {
+        defaultTimeout = config.getSeconds("test.timeout.explicit", DEFAULT_TIMEOUT.getSeconds());
+        Duration initial = config.getMillis("test.timeout.pollingInitialMs", 50);
+        Duration max = config.getMillis("test.timeout.pollingMaxMs", 500);
+        uiIdleWindow = config.getMillis("test.timeout.uiIdleWindowMs", 300);
+        uiIdleTimeout = config.getSeconds("test.timeout.uiIdle", 5);
+        absenceTimeout = config.getMillis("test.timeout.absenceMs", DEFAULT_ABSENCE_TIMEOUT.toMillis());
+        String mode = config.getString("test.timeout.polling", "exponential").toLowerCase();
+        PollingStrategy backoff = new ExponentialBackoffPolling(initial, 2.0, max);
+
+        switch (mode) {
+            case "fixed":
+                defaultStrategy = new FixedPolling(max);
+                break;
+            case "exponential":
+                defaultStrategy = backoff;
+                break;
+            case "learned":
+                if (!(defaultStrategy instanceof LearnedLatencyPolling)) {
+                    LearnedLatencyPolling learned = new LearnedLatencyPolling(backoff);
+                    historyFile = config.getString("test.timeout.pollingHistory",
+                            "test-history/wait-latency.properties");
+                    learned.load(historyFile);
+                    defaultStrategy = learned;
+                }
+                break;
+            case "server":
+                defaultStrategy = new ServerSidePolling(backoff);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown polling strategy: " + mode);
+        }
+        LoggerUtils.debug("Wait engine configured: timeout {}s, polling {}", defaultTimeout.getSeconds(),
+                defaultStrategy);
+    }
+
+    /**
+     * Saves learned latencies if the global strategy learns from past runs.
+     */
+    public static synchronized void saveHistory() {
+        if (defaultStrategy instanceof LearnedLatencyPolling && historyFile != null) {
+            ((LearnedLatencyPolling) defaultStrategy).save(historyFile);
+        }
+    }
+
+    /**
+     * Gets the global timeout.
+     *
+     * @return The timeout used when none is given per call
+     */
+    public static Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    /**
+     * Gets the global polling strategy.
+     *
+     * @return The strategy used when none is given per call
+     */
+    public static PollingStrategy getDefaultStrategy() {
+        return defaultStrategy;
+    }
+
+    /**
+     * Gets how long the screen must stay unchanged to count as idle.
+     *
+     * @return The UI idle window
+     */
+    public static Duration getUiIdleWindow() {
+        return uiIdleWindow;
+    }
+
+    /**
+     * Gets how long to wait at most for the screen to become idle.
+     *
+     * @return The UI idle timeout
+     */
+    public static Duration getUiIdleTimeout() {
+        return uiIdleTimeout;
+    }
+
+    /**
+     * Gets how long absence checks give an element to disappear.
+     *
+     * @return The absence timeout
+     */
+    public static Duration getAbsenceTimeout() {
+        return absenceTimeout;
+    }
+
+    /**
+     * Waits with the global timeout and strategy until a condition returns a non-null, non-false value.
+     *
+     * @param key Identifies what is being waited for
+     * @param condition The condition to check
+     * @param <T> Type of the condition's result
+     * @return The condition's result
+     */
+    public <T> T until(String key, Supplier<T> condition) {
+        return until(key, condition, defaultTimeout, defaultStrategy);
+    }
+
+    /**
+     * Waits until a condition returns a non-null, non-false value.
+     * Element-not-found and stale-element errors count as "not yet"; any other error is thrown.
+     *
+     * @param key Identifies what is being waited for
+     * @param condition The condition to check
+     * @param timeout How long to wait
+     * @param strategy How to poll
+     * @param <T> Type of the condition's result
+     * @return The condition's result
+     * @throws TimeoutException if the condition is not met in time
+     */
+    public <T> T until(String key, Supplier<T> condition, Duration timeout, PollingStrategy strategy) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        RuntimeException lastError = null;
+        int attempt = 0;
+
+        while (true) {
+            try {
+                T result = condition.get();
+                if (result != null && !Boolean.FALSE.equals(result)) {
+                    strategy.onSuccess(key, Duration.ofNanos(System.nanoTime() - start));
+                    return result;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+            attempt++;
+
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms and " + attempt
+                        + " checks waiting for " + key + " (" + strategy + ")", lastError);
+            }
+            long delay = Math.min(strategy.nextDelay(key, attempt, Duration.ofNanos(now - start)).toNanos(),
+                    deadline - now);
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Finds an element, letting the server wait for it when the strategy prefers that.
+     * The implicit wait is raised for the single lookup and reset to zero afterwards.
+     *
+     * @param by The locator
+     * @param timeout How long the server may wait
+     * @param strategy The polling strategy of the surrounding wait
+     * @return The element
+     */
+    public WebElement find(By by, Duration timeout, PollingStrategy strategy) {
+        if (!strategy.prefersServerSideWait() || timeout.isZero() || timeout.isNegative()) {
+            return driver.findElement(by);
+        }
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        timeouts.implicitlyWait(timeout);
+        try {
+            return driver.findElement(by);
+        } finally {
+            timeouts.implicitlyWait(Duration.ZERO);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+}
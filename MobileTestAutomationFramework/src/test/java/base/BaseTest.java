@@ -1,18 +1,66 @@
 package base;
 
+import components.ButtonComponent;
+import config.FrameworkConfig;
+import constants.AppConstants;
+import data.DataPartition;
+import data.TestData;
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import global.ActionBatch;
+import global.BasePage;
 import io.appium.java_client.AppiumDriver;
-import io.appium.java_client.android.AndroidDriver;
-import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.screenrecording.CanRecordScreen;
+import io.qameta.allure.Allure;
+import locators.ElementCache;
+import metrics.CommandMetrics;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
-import utilities.JavaUtils;
+import reporting.AppiumScreenRecorder;
+import reporting.PlatformLabels;
+import reporting.RollingScreenRecorder;
+import reporting.ScreenshotPipeline;
+import retry.InfrastructureRetryAnalyzer;
+import retry.RetryStats;
+import scheduler.Device;
+import scheduler.DeviceFarmRunner;
+import scheduler.DurationHistory;
+import session.AppInstallCache;
+import session.AppiumDriverFactory;
+import session.DriverHandle;
+import session.DriverManager;
+import session.LocalAppiumServer;
+import session.PooledSession;
+import session.ResetStrategy;
+import session.SessionKey;
+import session.SessionPool;
+import transport.SharedHttpClientFactory;
+import transport.TransportConfig;
 import utilities.LoggerUtils;
+import utilities.TestLogBuffer;
+import waits.WaitEngine;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.net.URL;
-import java.util.Properties;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for all test classes.
@@ -20,38 +68,423 @@ import java.util.Properties;
  */
 public class BaseTest {
     
-    protected AppiumDriver driver;
-    protected Properties properties;
+    private static final Map<String, SessionPool> sessionPools = new HashMap<>();
+    private static int activeSuites;
+    private static ScreenshotPipeline screenshotPipeline;
+    private static FakeAppiumServer fakeServer;
+    private static SharedHttpClientFactory httpClientFactory;
+    private static LocalAppiumServer localAppiumServer;
+    private static boolean componentsConfigured;
+    
+    protected FrameworkConfig config;
+    private String deviceUdid;
+    private String deviceName = "";
+    private String serverUrl;
+    private DataPartition dataPartition = DataPartition.all();
+    private String platform;
+    private String appId;
+    private ResetStrategy resetStrategy = ResetStrategy.NEW_SESSION;
+    private ResetStrategy.Scope resetScope = ResetStrategy.Scope.CLASS;
+    private boolean sessionUsed;
+    private final Map<String, Long> methodMillis = new ConcurrentHashMap<>();
+    private final Set<String> dataDrivenMethods = ConcurrentHashMap.newKeySet();
+    private RollingScreenRecorder screenRecorder;
     
     /**
      * Setup method to initialize the test environment.
-     * Runs before each test class.
+     * Runs before each test class, also when groups are filtered. The session is opened when the
+     * class first needs the driver, unless session.lazy is disabled, so a class whose tests are all
+     * filtered out never creates one.
      *
      * @param platform The platform to run tests on (android or ios)
+     * @param udid The UDID of the device to use, or empty to let the server pick one
+     * @param serverUrl The Appium server URL, or empty to use appium.server.url
+     * @param device The device name, selecting its configuration profile; empty to use config.profile
+     * @param dataPartition The share of data provider records to run, as index/count; empty to use data.partition
      * @throws Exception If an error occurs during setup
      */
-    @BeforeClass
-    @Parameters({"platform"})
-    public void setup(@Optional("android") String platform) throws Exception {
-        LoggerUtils.info("Setting up test environment for platform: " + platform);
+    @BeforeClass(alwaysRun = true)
+    @Parameters({"platform", "udid", "serverUrl", "device", "dataPartition"})
+    public void setup(@Optional("android") String platform, @Optional("") String udid,
+                      @Optional("") String serverUrl, @Optional("") String device,
+                      @Optional("") String dataPartition) throws Exception {
+        LoggerUtils.info("Setting up test environment for platform: " + platform
+                + (udid.isEmpty() ? "" : " on device " + udid));
+        this.deviceUdid = udid;
+        this.deviceName = device;
+        this.platform = platform;
         
-        // Load properties
-        try {
-            properties = JavaUtils.loadProperties("properties/app.properties");
-            LoggerUtils.info("Properties loaded successfully");
-        } catch (IOException e) {
-            LoggerUtils.error("Failed to load properties", e);
-            throw e;
+        // The configuration is loaded and validated once per JVM; a device only selects its profile
+        FrameworkConfig shared = FrameworkConfig.get();
+        config = shared.forProfile(device.isEmpty() ? shared.getString(FrameworkConfig.PROFILE_KEY, "") : device);
+        configureComponents(shared);
+        this.dataPartition = DataPartition.parse(dataPartition.isEmpty()
+                ? config.getString("data.partition", "") : dataPartition);
+        this.resetStrategy = config.getEnum("session.reset", ResetStrategy.class,
+                config.getBoolean("session.pool.reuse", false) ? ResetStrategy.NONE : ResetStrategy.NEW_SESSION);
+        this.resetScope = config.getEnum("session.reset.scope", ResetStrategy.Scope.class, ResetStrategy.Scope.CLASS);
+        this.serverUrl = serverUrl.isEmpty() ? config.getRequiredString("appium.server.url") : serverUrl;
+        if (config.getBoolean("fake.server.enabled", false)) {
+            this.serverUrl = getFakeServer(config).getUrl().toString();
+        } else if (config.getBoolean("appium.server.autostart", false)) {
+            startLocalAppiumServer(new URL(this.serverUrl));
         }
         
-        // Initialize driver based on platform
+        // Initialize driver based on platform, on first use
+        Platform sessionPlatform;
         if (platform.equalsIgnoreCase("android")) {
-            initializeAndroidDriver();
+            sessionPlatform = Platform.ANDROID;
         } else if (platform.equalsIgnoreCase("ios")) {
-            initializeIOSDriver();
+            sessionPlatform = Platform.IOS;
         } else {
             throw new IllegalArgumentException("Invalid platform: " + platform);
         }
+        sessionUsed = false;
+        DriverHandle handle = new DriverHandle(sessionPlatform, this::openSession);
+        DriverManager.setLazySession(handle);
+        if (!config.getBoolean("session.lazy", true)) {
+            handle.get();
+        }
+    }
+    
+    /**
+     * Gets the driver of the session checked out by the current thread, opening the session on first use.
+     *
+     * @return The AppiumDriver instance
+     */
+    protected AppiumDriver getDriver() {
+        return DriverManager.getDriver();
+    }
+    
+    /**
+     * Gets the handle of the session of the current thread without opening the session.
+     * Page objects built from the handle open it on their first command.
+     *
+     * @return The session's handle
+     */
+    protected DriverHandle getDriverHandle() {
+        return DriverManager.getHandle();
+    }
+    
+    /**
+     * Streams the records of a test data file as data provider rows, keeping only the records of
+     * this class's data partition. Use from a {@code @DataProvider} method returning
+     * {@code Iterator<Object[]>}; test methods then take a single DataRecord parameter. The provider must
+     * not be parallel: the class's session is bound to the thread that ran {@link #setup}.
+     *
+     * @param filePath The path to a CSV or JSON file
+     * @param section For JSON files, the key of the records array, or null if the document is the array
+     * @return The rows, read as TestNG asks for them
+     * @throws IOException If the file cannot be opened
+     */
+    protected Iterator<Object[]> testData(String filePath, String section) throws IOException {
+        if (dataPartition.getCount() > 1) {
+            LoggerUtils.info("Running data partition {} of {}", dataPartition, filePath);
+        }
+        return TestData.rows(filePath, section, dataPartition);
+    }
+    
+    /**
+     * Configures the suite-wide components (waits, batching, retries, logging, metrics) once per JVM.
+     * Device profiles only apply to the settings of their own sessions.
+     *
+     * @param config The shared configuration
+     */
+    protected static synchronized void configureComponents(FrameworkConfig config) {
+        if (componentsConfigured) {
+            return;
+        }
+        ActionBatch.setEnabled(config.getBoolean("page.batch.enabled", true));
+        BasePage.setDefaultResolutionMode(config.getEnum("page.resolution.mode", BasePage.ResolutionMode.class,
+                BasePage.ResolutionMode.DIRECT));
+        WaitEngine.configure(config);
+        InfrastructureRetryAnalyzer.configure(config);
+        TestLogBuffer.configure(config.getBoolean("log.buffer.enabled", true),
+                config.getInt("log.buffer.size", TestLogBuffer.DEFAULT_CAPACITY));
+        CommandMetrics.configure(config.getBoolean("report.metrics.enabled", true));
+        componentsConfigured = true;
+    }
+    
+    /**
+     * Starts a local Appium server for appium.server.autostart, unless the URL is remote or a
+     * server already listens on it. A server that cannot be started is logged and left to fail
+     * session creation as before.
+     *
+     * @param url The Appium server URL
+     */
+    protected static synchronized void startLocalAppiumServer(URL url) {
+        if (localAppiumServer != null || !LocalAppiumServer.isLocal(url) || LocalAppiumServer.isListening(url)) {
+            return;
+        }
+        try {
+            localAppiumServer = LocalAppiumServer.start(url);
+        } catch (RuntimeException e) {
+            LoggerUtils.warn("Could not start a local Appium server at {}: {}", url, e.getMessage());
+        }
+    }
+    
+    /**
+     * Gets the session pool shared by the test classes of a platform, creating it on first use.
+     * Each platform has its own pool of {@code <platform>.session.pool.maxSize} sessions (default
+     * session.pool.maxSize), so suites of different platforms running at the same time never wait
+     * for each other's sessions.
+     *
+     * @param config The framework configuration
+     * @param platform The platform name
+     * @return The platform's SessionPool
+     */
+    protected static SessionPool getSessionPool(FrameworkConfig config, String platform) {
+        return getSessionPool(config, platform, "");
+    }
+    
+    /**
+     * Gets the session pool of a platform on one device, creating it on first use.
+     * The device farm runs the suites of all its devices in one JVM; giving each device its own pool,
+     * sized by the device's profile, keeps the devices from waiting for each other's sessions.
+     *
+     * @param config The framework configuration of the device
+     * @param platform The platform name
+     * @param device The device identity (see {@link Device#getId()}), or empty for the pool shared by
+     *                the platform
+     * @return The SessionPool of the platform on the device
+     */
+    protected static synchronized SessionPool getSessionPool(FrameworkConfig config, String platform, String device) {
+        String platformKey = platform.toLowerCase(Locale.ROOT);
+        String key = device.isEmpty() ? platformKey : platformKey + "@" + device;
+        SessionPool pool = sessionPools.get(key);
+        if (pool == null) {
+            int maxSessions = config.getInt(platformKey + ".session.pool.maxSize",
+                    config.getInt("session.pool.maxSize", 1));
+            pool = new SessionPool(new AppiumDriverFactory(getHttpClientFactory(config)), maxSessions,
+                    config.getSeconds("session.pool.checkoutTimeout", 1800));
+            sessionPools.put(key, pool);
+            LoggerUtils.info("Session pool for {} created with {} sessions", key, maxSessions);
+        }
+        return pool;
+    }
+    
+    /**
+     * Gets the session pool of this class's platform and device.
+     *
+     * @return The SessionPool
+     */
+    private SessionPool getSessionPool() {
+        return getSessionPool(config, platform, deviceName.isEmpty() ? ""
+                : new Device(deviceName, platform, serverUrl, deviceUdid).getId());
+    }
+    
+    /**
+     * Gets the HTTP client factory shared by all sessions, creating it on first use.
+     *
+     * @param config The framework configuration
+     * @return The shared factory, or null to give every session Selenium's default client when
+     *         transport.http.shared is disabled
+     */
+    protected static synchronized SharedHttpClientFactory getHttpClientFactory(FrameworkConfig config) {
+        if (httpClientFactory == null && config.getBoolean("transport.http.shared", true)) {
+            httpClientFactory = new SharedHttpClientFactory(
+                    TransportConfig.fromProperties(config.toProperties(), "transport.http."));
+        }
+        return httpClientFactory;
+    }
+    
+    /**
+     * Gets the embedded fake Appium server shared by all test classes, starting it on first use.
+     *
+     * @param config The framework configuration
+     * @return The running fake server
+     * @throws IOException If the server cannot be started
+     */
+    protected static synchronized FakeAppiumServer getFakeServer(FrameworkConfig config) throws IOException {
+        if (fakeServer == null) {
+            fakeServer = new FakeAppiumServer(0, LatencyProfile.fromProperties(config.toProperties(), "fake.server."))
+                    .setDriverScriptsEnabled(config.getBoolean("fake.server.driverScripts", true))
+                    .start();
+        }
+        return fakeServer;
+    }
+    
+    /**
+     * Gets the record of app builds installed per device, unless app.install.cache is disabled.
+     *
+     * @param config The framework configuration
+     * @return The shared install record, or null to install the app in every session
+     */
+    protected static AppInstallCache getAppInstallCache(FrameworkConfig config) {
+        if (!config.getBoolean("app.install.cache", true)) {
+            return null;
+        }
+        return AppInstallCache.forFile(config.getString("app.install.cachePath", AppConstants.APP_INSTALL_CACHE_FILE));
+    }
+    
+    /**
+     * Opens the session of this class, installing the app only when its build is not on the device yet.
+     * A build already on the device is launched by its package or bundle id instead; if that launch
+     * fails, the build is installed after all.
+     *
+     * @param platform The platform name
+     * @param capabilities The capabilities of the session, without the app
+     * @param app The app build (.apk, .ipa or .app)
+     * @param appId The package name or bundle id of the app
+     * @param launchCapabilities The capabilities that launch the installed app
+     * @throws Exception If no session could be checked out
+     */
+    private void openAppSession(String platform, DesiredCapabilities capabilities, File app, String appId,
+                                Map<String, String> launchCapabilities) throws Exception {
+        this.appId = appId;
+        if (!deviceUdid.isEmpty()) {
+            capabilities.setCapability("udid", deviceUdid);
+        }
+        if (!app.exists()) {
+            LoggerUtils.warn("App file not found at: " + app.getPath());
+            launchCapabilities.forEach(capabilities::setCapability);
+            checkOutSession(platform, capabilities);
+            return;
+        }
+        AppInstallCache installs = getAppInstallCache(config);
+        if (installs == null) {
+            capabilities.setCapability("app", app.getAbsolutePath());
+            checkOutSession(platform, capabilities);
+            return;
+        }
+        String device = deviceUdid.isEmpty() ? serverUrl + "|" + capabilities.getCapability("deviceName") : deviceUdid;
+        String fingerprint = AppInstallCache.fingerprint(app);
+        if (installs.isInstalled(device, appId, fingerprint)) {
+            LoggerUtils.info("Build {} of {} is already installed on {}, skipping install",
+                    fingerprint.substring(0, 12), appId, device);
+            DesiredCapabilities launch = new DesiredCapabilities(capabilities);
+            launchCapabilities.forEach(launch::setCapability);
+            try {
+                checkOutSession(platform, launch);
+                return;
+            } catch (Exception e) {
+                LoggerUtils.warn("Could not launch the installed {} on {}, installing it again: {}", appId, device,
+                        e.getMessage());
+                installs.forget(device, appId);
+            }
+        }
+        capabilities.setCapability("app", app.getAbsolutePath());
+        checkOutSession(platform, capabilities);
+        installs.recordInstall(device, appId, fingerprint);
+    }
+    
+    /**
+     * Checks out a session from the pool and binds it to the current thread.
+     *
+     * @param platform The platform name
+     * @param capabilities The capabilities of the session
+     * @throws Exception If no session could be checked out
+     */
+    private void checkOutSession(String platform, DesiredCapabilities capabilities) throws Exception {
+        SessionKey key = new SessionKey(platform, new URL(serverUrl), capabilities);
+        bindSession(checkOutClean(key));
+    }
+    
+    /**
+     * Quits a session and drops the per-session state built on its driver.
+     *
+     * @param session The session to discard
+     */
+    private void discardSession(PooledSession session) {
+        getSessionPool().discard(session);
+        ElementCache.release(session.getDriver());
+        ButtonComponent.release(session.getDriver());
+    }
+    
+    /**
+     * Checks out a session with the app in a clean state.
+     * The pool health-checks a session used before and replaces it if it no longer responds; a healthy
+     * one is reset with session.reset, and replaced by a new session if the reset fails.
+     *
+     * @param key The kind of session required
+     * @return The session
+     * @throws Exception If no session could be checked out
+     */
+    private PooledSession checkOutClean(SessionKey key) throws Exception {
+        SessionPool pool = getSessionPool();
+        while (true) {
+            PooledSession session = pool.checkOut(key);
+            if (session.getCheckouts() == 1 || resetApp(session)) {
+                return session;
+            }
+            discardSession(session);
+        }
+    }
+    
+    /**
+     * Resets the app of a live session with session.reset.
+     *
+     * @param session The session
+     * @return true if the app was reset, false if the session must be replaced by a new one
+     */
+    private boolean resetApp(PooledSession session) {
+        if (!resetStrategy.keepsSession()) {
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            resetStrategy.reset(session, appId);
+            LoggerUtils.info("Reset {} ({}) in {} ms", session, resetStrategy, System.currentTimeMillis() - start);
+            return true;
+        } catch (WebDriverException e) {
+            LoggerUtils.warn("Could not reset {} ({}), replacing it with a new session: {}", session, resetStrategy,
+                    e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Binds a checked-out session to the current thread.
+     *
+     * @param session The session
+     */
+    private void bindSession(PooledSession session) {
+        DriverManager.setSession(session);
+        // A reused session may be on any screen, so start with an empty element cache
+        ElementCache.forDriver(session.getDriver()).invalidateAll();
+        screenRecorder = createScreenRecorder(session.getDriver());
+    }
+    
+    /**
+     * Creates the rolling screen recorder of the session when report.video.enabled is set.
+     *
+     * @param driver The driver of the session
+     * @return The recorder, or null if recording is disabled or not supported by the driver
+     */
+    private RollingScreenRecorder createScreenRecorder(AppiumDriver driver) {
+        if (!config.getBoolean("report.video.enabled", false)) {
+            return null;
+        }
+        if (!(driver instanceof CanRecordScreen)) {
+            LoggerUtils.warn("Screen recording is not supported by {}", driver.getClass().getSimpleName());
+            return null;
+        }
+        Path ring = Paths.get(config.getString("report.video.ringPath", "target/video-ring"),
+                String.valueOf(driver.getSessionId()));
+        return new RollingScreenRecorder(new AppiumScreenRecorder((CanRecordScreen) driver), ring,
+                config.getSeconds("report.video.segmentSeconds", 10), config.getSeconds("report.video.keepSeconds", 30));
+    }
+    
+    /**
+     * Opens the session of this class when its handle is first used.
+     * A session opened by a running test starts recording the screen right away.
+     *
+     * @return The driver of the session
+     * @throws Exception If no session could be checked out
+     */
+    private AppiumDriver openSession() throws Exception {
+        long start = System.currentTimeMillis();
+        if (platform.equalsIgnoreCase("android")) {
+            initializeAndroidDriver();
+        } else {
+            initializeIOSDriver();
+        }
+        LoggerUtils.info("Opened session for {} in {} ms", getClass().getSimpleName(),
+                System.currentTimeMillis() - start);
+        if (sessionUsed) {
+            startScreenRecording();
+        }
+        return DriverManager.getSession().getDriver();
     }
     
     /**
@@ -63,27 +496,20 @@ public class BaseTest {
         LoggerUtils.info("Initializing Android driver");
         
         DesiredCapabilities capabilities = new DesiredCapabilities();
-        capabilities.setCapability("platformName", properties.getProperty("android.platformName"));
-        capabilities.setCapability("deviceName", properties.getProperty("android.deviceName"));
-        capabilities.setCapability("automationName", properties.getProperty("android.automationName"));
-        
-        // Set app path
-        String appPath = properties.getProperty("android.appPath");
-        File app = new File(appPath);
-        if (app.exists()) {
-            capabilities.setCapability("app", app.getAbsolutePath());
-        } else {
-            LoggerUtils.warn("App file not found at: " + appPath);
-            capabilities.setCapability("appPackage", properties.getProperty("app.package"));
-            capabilities.setCapability("appActivity", properties.getProperty("app.activity"));
-        }
+        capabilities.setCapability("platformName", config.getString("android.platformName"));
+        capabilities.setCapability("deviceName", config.getString("android.deviceName"));
+        capabilities.setCapability("automationName", config.getString("android.automationName"));
         
         // Additional capabilities
         capabilities.setCapability("noReset", false);
         capabilities.setCapability("fullReset", false);
         
-        // Initialize driver
-        driver = new AndroidDriver(new URL(properties.getProperty("appium.server.url")), capabilities);
+        // Initialize driver, installing the app only if this build is not on the device yet
+        Map<String, String> launch = new LinkedHashMap<>();
+        launch.put("appPackage", config.getString("app.package"));
+        launch.put("appActivity", config.getString("app.activity"));
+        openAppSession("android", capabilities, new File(config.getString("android.appPath")),
+                config.getString("app.package"), launch);
         LoggerUtils.info("Android driver initialized successfully");
     }
     
@@ -96,69 +522,394 @@ public class BaseTest {
         LoggerUtils.info("Initializing iOS driver");
         
         DesiredCapabilities capabilities = new DesiredCapabilities();
-        capabilities.setCapability("platformName", properties.getProperty("ios.platformName"));
-        capabilities.setCapability("deviceName", properties.getProperty("ios.deviceName"));
-        capabilities.setCapability("automationName", properties.getProperty("ios.automationName"));
-        
-        // Set app path
-        String appPath = properties.getProperty("ios.appPath");
-        File app = new File(appPath);
-        if (app.exists()) {
-            capabilities.setCapability("app", app.getAbsolutePath());
-        } else {
-            LoggerUtils.warn("App file not found at: " + appPath);
-            capabilities.setCapability("bundleId", properties.getProperty("ios.bundleId"));
-        }
+        capabilities.setCapability("platformName", config.getString("ios.platformName"));
+        capabilities.setCapability("deviceName", config.getString("ios.deviceName"));
+        capabilities.setCapability("automationName", config.getString("ios.automationName"));
         
         // Additional capabilities
         capabilities.setCapability("noReset", false);
         capabilities.setCapability("fullReset", false);
         
-        // Initialize driver
-        driver = new IOSDriver(new URL(properties.getProperty("appium.server.url")), capabilities);
+        // Initialize driver, installing the app only if this build is not on the device yet
+        openAppSession("ios", capabilities, new File(config.getString("ios.appPath")),
+                config.getString("ios.bundleId"), Map.of("bundleId", config.getString("ios.bundleId")));
         LoggerUtils.info("iOS driver initialized successfully");
     }
     
     /**
      * Teardown method to clean up after tests.
      * Runs after each test class.
+     * The session goes back to the pool, to be reset for the next class, unless session.reset is
+     * new_session, in which case it is quit. A session that was never opened needs no teardown.
      */
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
         LoggerUtils.info("Tearing down test environment");
-        if (driver != null) {
-            driver.quit();
+        recordMethodDurations();
+        if (screenRecorder != null) {
+            screenRecorder.close();
+            screenRecorder = null;
+        }
+        PooledSession session = DriverManager.removeSession();
+        if (session == null) {
+            LoggerUtils.info("No session was opened for {}, skipping session teardown", getClass().getSimpleName());
+            return;
+        }
+        LoggerUtils.info("Element cache: {}", ElementCache.forDriver(session.getDriver()));
+        if (resetStrategy.keepsSession()) {
+            getSessionPool().checkIn(session);
+            LoggerUtils.info("Session returned to pool");
+        } else {
+            discardSession(session);
             LoggerUtils.info("Driver quit successfully");
         }
     }
     
+    /**
+     * Records how long each test method of this class took, summed over its data provider rows, in
+     * the duration history used to plan device farm shards. Data-driven methods that only ran this
+     * class's data partition are recorded as the time all their rows would take.
+     */
+    private void recordMethodDurations() {
+        if (platform == null || methodMillis.isEmpty()) {
+            return;
+        }
+        DurationHistory history = getDurationHistory();
+        methodMillis.forEach((method, millis) -> {
+            String key = DurationHistory.methodKey(platform, getClass().getName(), method);
+            if (dataDrivenMethods.contains(method)) {
+                history.recordPartition(key, millis, dataPartition);
+            } else {
+                history.record(key, millis);
+            }
+        });
+        methodMillis.clear();
+        dataDrivenMethods.clear();
+    }
+    
+    /**
+     * Gets the duration history of scheduler.history.path.
+     *
+     * @return The shared duration history
+     */
+    protected static DurationHistory getDurationHistory() {
+        return DurationHistory.forFile(FrameworkConfig.get().getString("scheduler.history.path",
+                DeviceFarmRunner.DEFAULT_HISTORY_FILE));
+    }
+    
+    /**
+     * Counts the suites running at the same time, e.g. the Android and iOS suites of the platforms
+     * profile, so that the components they share are only shut down after the last one.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void registerSuite() {
+        synchronized (BaseTest.class) {
+            activeSuites++;
+        }
+    }
+    
+    /**
+     * Saves learned wait latencies and test durations once the suite has finished, and shuts down the
+     * session pools once no other suite is running.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void shutdownSessionPool() {
+        WaitEngine.saveHistory();
+        getDurationHistory().save();
+        synchronized (BaseTest.class) {
+            activeSuites = Math.max(0, activeSuites - 1);
+            if (activeSuites > 0) {
+                return;
+            }
+            sessionPools.values().forEach(SessionPool::shutdown);
+            sessionPools.clear();
+        }
+    }
+    
+    /**
+     * Starts buffering the log of a test method in memory and recording its command latencies, and
+     * starts recording the screen when report.video.enabled is set.
+     * Runs before each test method. A session broken by an infrastructure failure of the previous test
+     * is first replaced, so that retries and the remaining tests of the class run on a healthy one. With
+     * session.reset.scope=method, the app is also reset after the previous test of the class.
+     *
+     * @param method The test method
+     * @throws Exception If no replacement session could be checked out
+     */
+    @BeforeMethod(alwaysRun = true)
+    public void startTestLog(Method method) throws Exception {
+        replaceBrokenSession();
+        if (resetScope == ResetStrategy.Scope.METHOD && sessionUsed) {
+            resetBetweenMethods();
+        }
+        sessionUsed = true;
+        PlatformLabels.setCurrentPlatform(platform.toLowerCase(Locale.ROOT));
+        TestLogBuffer.start(getClass().getSimpleName() + "." + method.getName());
+        CommandMetrics.start(getClass().getSimpleName() + "." + method.getName());
+        startScreenRecording();
+    }
+    
+    /**
+     * Starts recording the screen of the current test when report.video.enabled is set.
+     */
+    private void startScreenRecording() {
+        if (screenRecorder != null) {
+            try {
+                screenRecorder.start();
+            } catch (Exception e) {
+                LoggerUtils.warn("Failed to start screen recording: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Quits the session of this class if it was flagged as broken and checks out another one of the
+     * same kind from the pool.
+     *
+     * @throws Exception If no session could be checked out
+     */
+    private void replaceBrokenSession() throws Exception {
+        PooledSession session = DriverManager.getSession();
+        if (session == null || session.isMarkedHealthy()) {
+            return;
+        }
+        LoggerUtils.warn("Replacing broken session {}", session);
+        replaceSession(session);
+    }
+    
+    /**
+     * Resets the app between two test methods of this class, replacing the session if it no longer
+     * responds, cannot be reset, or session.reset is new_session.
+     *
+     * @throws Exception If no replacement session could be checked out
+     */
+    private void resetBetweenMethods() throws Exception {
+        PooledSession session = DriverManager.getSession();
+        if (session == null) {
+            return;
+        }
+        if (resetStrategy.keepsSession() && getSessionPool().isHealthy(session) && resetApp(session)) {
+            ElementCache.forDriver(session.getDriver()).invalidateAll();
+            return;
+        }
+        replaceSession(session);
+    }
+    
+    /**
+     * Quits the session of this class and checks out another one of the same kind from the pool.
+     * The session's handle is kept and rebound to the new session, so pages built earlier in the
+     * class send their commands to it.
+     *
+     * @param session The session to replace
+     * @throws Exception If no session could be checked out
+     */
+    private void replaceSession(PooledSession session) throws Exception {
+        if (screenRecorder != null) {
+            screenRecorder.close();
+            screenRecorder = null;
+        }
+        DriverManager.detachSession();
+        discardSession(session);
+        bindSession(checkOutClean(session.getKey()));
+    }
+    
     /**
      * Method to handle test result.
      * Runs after each test method.
+     * The buffered log and the last seconds of screen recording of a failed test are written to disk
+     * and attached to the Allure report; those of any other test are dropped. The command latencies
+     * of every test are exported and its duration is added to the total of its method.
      *
      * @param result The test result
      */
-    @AfterMethod
+    @AfterMethod(alwaysRun = true)
     public void afterMethod(ITestResult result) {
         if (result.getStatus() == ITestResult.FAILURE) {
-            LoggerUtils.error("Test failed: " + result.getName());
+            LoggerUtils.error("Test failed: {}", result.getName(), result.getThrowable());
             // Capture screenshot on failure
             captureScreenshot(result.getName());
         } else if (result.getStatus() == ITestResult.SUCCESS) {
-            LoggerUtils.info("Test passed: " + result.getName());
+            LoggerUtils.info("Test passed: {}", result.getName());
         } else if (result.getStatus() == ITestResult.SKIP) {
-            LoggerUtils.warn("Test skipped: " + result.getName());
+            LoggerUtils.warn("Test skipped: {}", result.getName());
+        }
+        
+        TestLogBuffer buffer = TestLogBuffer.stop();
+        if (buffer != null && result.getStatus() == ITestResult.FAILURE) {
+            saveTestLog(buffer);
+        }
+        if (screenRecorder != null) {
+            finishScreenRecording(result);
+        }
+        CommandMetrics metrics = CommandMetrics.stop();
+        if (metrics != null && metrics.getCommandCount() > 0) {
+            saveCommandMetrics(metrics);
+        }
+        if (result.getStatus() == ITestResult.SUCCESS || result.getStatus() == ITestResult.FAILURE) {
+            methodMillis.merge(result.getMethod().getMethodName(), result.getEndMillis() - result.getStartMillis(),
+                    Long::sum);
+            if (result.getMethod().isDataDriven()) {
+                dataDrivenMethods.add(result.getMethod().getMethodName());
+            }
+        }
+    }
+    
+    /**
+     * Writes the command latencies of a test to disk and attaches them to the Allure report.
+     *
+     * @param metrics The command metrics of the test
+     */
+    private void saveCommandMetrics(CommandMetrics metrics) {
+        LoggerUtils.debug(metrics::toString);
+        Allure.addAttachment("Command latency", "application/json", metrics.toJson().toString(2), ".json");
+        try {
+            Path file = metrics.writeTo(Paths.get(config.getString("report.metrics.path", "metrics")));
+            LoggerUtils.debug("Command latency saved to {}", file);
+        } catch (IOException e) {
+            LoggerUtils.error("Failed to save command latency of " + metrics.getTestName(), e);
+        }
+    }
+    
+    /**
+     * Keeps the screen recording of a failed test and discards that of any other test.
+     *
+     * @param result The test result
+     */
+    private void finishScreenRecording(ITestResult result) {
+        try {
+            if (result.getStatus() != ITestResult.FAILURE) {
+                screenRecorder.discard();
+                return;
+            }
+            List<Path> videos = screenRecorder.keep(getClass().getSimpleName() + "." + result.getName(),
+                    Paths.get(config.getString("report.video.path", "videos/")));
+            for (Path video : videos) {
+                LoggerUtils.info("Screen recording saved to {}", video);
+                try (InputStream in = Files.newInputStream(video)) {
+                    Allure.addAttachment(video.getFileName().toString(), "video/mp4", in, ".mp4");
+                }
+            }
+        } catch (Exception e) {
+            LoggerUtils.error("Failed to save screen recording of " + result.getName(), e);
+        }
+    }
+    
+    /**
+     * Writes the log of a failed test to disk and attaches it to the Allure report.
+     *
+     * @param buffer The buffered log of the test
+     */
+    private void saveTestLog(TestLogBuffer buffer) {
+        String log = buffer.render();
+        Allure.addAttachment("Test log", "text/plain", log, ".log");
+        try {
+            Path file = buffer.writeTo(Paths.get(config.getString("log.buffer.path", "logs/tests")));
+            LoggerUtils.info("Test log saved to {}", file);
+        } catch (IOException e) {
+            LoggerUtils.error("Failed to save test log of " + buffer.getTestName(), e);
         }
     }
     
     /**
      * Captures a screenshot.
+     * Only the screenshot call runs on the test thread; the image is written in the background.
      *
      * @param testName The name of the test
      */
     private void captureScreenshot(String testName) {
-        // Implementation for capturing screenshots
-        LoggerUtils.info("Capturing screenshot for failed test: " + testName);
-        // Add screenshot capture logic here
+        PooledSession session = DriverManager.getSession();
+        if (session == null || !config.getBoolean("report.screenshot.onFailure", true)) {
+            return;
+        }
+        LoggerUtils.info("Capturing screenshot for failed test: {}", testName);
+        try {
+            byte[] png = session.getDriver().getScreenshotAs(OutputType.BYTES);
+            getScreenshotPipeline(config).submit(getClass().getSimpleName() + "." + testName, png);
+        } catch (Exception e) {
+            LoggerUtils.error("Failed to capture screenshot for " + testName, e);
+        }
+    }
+    
+    /**
+     * Gets the screenshot pipeline shared by all test classes, creating it on first use.
+     *
+     * @param config The framework configuration
+     * @return The screenshot pipeline
+     */
+    protected static synchronized ScreenshotPipeline getScreenshotPipeline(FrameworkConfig config) {
+        if (screenshotPipeline == null) {
+            screenshotPipeline = new ScreenshotPipeline(
+                    Paths.get(config.getString("report.screenshot.path", AppConstants.SCREENSHOT_PATH)),
+                    config.getEnum("report.screenshot.format", ScreenshotPipeline.Format.class,
+                            ScreenshotPipeline.Format.PNG),
+                    config.getInt("report.screenshot.workers", 2),
+                    config.getInt("report.screenshot.queueSize", 64));
+        }
+        return screenshotPipeline;
+    }
+    
+    /**
+     * Stops the fake Appium server once the last running suite has finished and its sessions are closed.
+     */
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "shutdownSessionPool")
+    public void shutdownFakeServer() {
+        synchronized (BaseTest.class) {
+            if (activeSuites == 0 && fakeServer != null) {
+                fakeServer.close();
+                fakeServer = null;
+            }
+        }
+    }
+    
+    /**
+     * Closes the shared HTTP connections once the last running suite has finished and its sessions are closed,
+     * logging how often connections were reused.
+     */
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "shutdownSessionPool")
+    public void shutdownHttpTransport() {
+        synchronized (BaseTest.class) {
+            if (activeSuites == 0 && httpClientFactory != null) {
+                httpClientFactory.close();
+                httpClientFactory = null;
+            }
+        }
+    }
+    
+    /**
+     * Stops the Appium server started for appium.server.autostart once the last running suite's sessions
+     * are closed.
+     */
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "shutdownSessionPool")
+    public void shutdownLocalAppiumServer() {
+        synchronized (BaseTest.class) {
+            if (activeSuites == 0 && localAppiumServer != null) {
+                localAppiumServer.close();
+                localAppiumServer = null;
+            }
+        }
+    }
+    
+    /**
+     * Logs the retry rate of each device once the suite has finished, if any test was retried.
+     */
+    @AfterSuite(alwaysRun = true)
+    public void reportRetries() {
+        RetryStats stats = RetryStats.global();
+        if (stats.getByDevice().values().stream().anyMatch(device -> device.getInfrastructureFailures() > 0)) {
+            LoggerUtils.info(stats.summary());
+        }
+    }
+    
+    /**
+     * Waits for pending screenshots to be written once the suite has finished and no other suite is running.
+     */
+    @AfterSuite(alwaysRun = true, dependsOnMethods = "shutdownSessionPool")
+    public void shutdownScreenshotPipeline() {
+        synchronized (BaseTest.class) {
+            if (activeSuites == 0 && screenshotPipeline != null) {
+                screenshotPipeline.shutdown(60);
+                screenshotPipeline = null;
+            }
+        }
     }
 }
@@ -0,0 +1,94 @@
+package config;
+
+import global.BasePage;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit tests for FrameworkConfig layering, profiles and validation.
+ */
+public class FrameworkConfigTest {
+
+    private static Properties properties(String... entries) {
+        Properties properties = new Properties();
+        for (int i = 0; i < entries.length; i += 2) {
+            properties.setProperty(entries[i], entries[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test(description = "Environment variables override the file and system properties override both")
+    public void testLayerOrder() {
+        FrameworkConfig config = FrameworkConfig.load(
+                properties("test.timeout.explicit", "30", "test.timeout.uiIdle", "5", "session.pool.maxSize", "1"),
+                Map.of("TEST_TIMEOUT_EXPLICIT", "45", "SESSION_POOL_MAXSIZE", "4", "PATH", "/usr/bin"),
+                properties("test.timeout.explicit", "60", "java.version", "17", "fake.server.latencyMs", "20"));
+
+        Assert.assertEquals(config.getSeconds("test.timeout.explicit", 10), Duration.ofSeconds(60));
+        Assert.assertEquals(config.getSource("test.timeout.explicit"), FrameworkConfig.Source.SYSTEM);
+        Assert.assertEquals(config.getInt("session.pool.maxSize", 1), 4);
+        Assert.assertEquals(config.getSource("session.pool.maxSize"), FrameworkConfig.Source.ENVIRONMENT);
+        Assert.assertEquals(config.getInt("test.timeout.uiIdle", 0), 5);
+        Assert.assertEquals(config.getSource("test.timeout.uiIdle"), FrameworkConfig.Source.FILE);
+        Assert.assertEquals(config.getMillis("fake.server.latencyMs", 0), Duration.ofMillis(20));
+        Assert.assertFalse(config.contains("java.version"), "JVM properties are outside the configuration");
+        Assert.assertFalse(config.contains("path"));
+    }
+
+    @Test(description = "A device profile overrides its own keys and leaves the shared configuration unchanged")
+    public void testDeviceProfile() {
+        FrameworkConfig config = FrameworkConfig.load(
+                properties("test.timeout.explicit", "30", "page.resolution.mode", "direct",
+                        "profile.slowdevice.test.timeout.explicit", "90"),
+                Collections.emptyMap(),
+                properties("profile.slowdevice.page.resolution.mode", "snapshot"));
+
+        FrameworkConfig slow = config.forProfile("slowdevice");
+        Assert.assertEquals(slow.getProfile(), "slowdevice");
+        Assert.assertEquals(slow.getSeconds("test.timeout.explicit", 10), Duration.ofSeconds(90));
+        Assert.assertEquals(slow.getSource("test.timeout.explicit"), FrameworkConfig.Source.PROFILE);
+        Assert.assertEquals(slow.getEnum("page.resolution.mode", BasePage.ResolutionMode.class,
+                BasePage.ResolutionMode.DIRECT), BasePage.ResolutionMode.SNAPSHOT);
+        Assert.assertSame(config.forProfile("slowdevice"), slow, "Profiles are built once");
+
+        Assert.assertEquals(config.getSeconds("test.timeout.explicit", 10), Duration.ofSeconds(30));
+        Assert.assertSame(config.forProfile(""), config);
+        Assert.assertEquals(config.forProfile("otherdevice").getString("test.timeout.explicit"), "30");
+    }
+
+    @Test(description = "Every invalid value is reported at load time, in one error")
+    public void testValidation() {
+        IllegalStateException error = Assert.expectThrows(IllegalStateException.class, () -> FrameworkConfig.load(
+                properties("test.timeout.explicit", "thirty", "test.timeout.polling", "sometimes",
+                        "session.pool.maxSize", "0", "appium.server.url", "localhost:4723"),
+                Collections.emptyMap(), properties("fake.server.failureRate", "2")));
+
+        for (String key : new String[] {"test.timeout.explicit", "test.timeout.polling", "session.pool.maxSize",
+                "appium.server.url", "fake.server.failureRate"}) {
+            Assert.assertTrue(error.getMessage().contains(key), key + " missing from: " + error.getMessage());
+        }
+
+        FrameworkConfig config = FrameworkConfig.load(properties("test.timeout.explicit", "30",
+                "profile.broken.test.timeout.explicit", "-1"), Collections.emptyMap(), new Properties());
+        Assert.assertThrows(IllegalStateException.class, () -> config.forProfile("broken"));
+    }
+
+    @Test(description = "Typed getters fall back to defaults and reject malformed values of unchecked keys")
+    public void testTypedGetters() {
+        FrameworkConfig config = FrameworkConfig.load(properties("report.video.enabled", "true",
+                "custom.count", "many"), Collections.emptyMap(), new Properties());
+
+        Assert.assertTrue(config.getBoolean("report.video.enabled", false));
+        Assert.assertEquals(config.getInt("log.buffer.size", 2000), 2000);
+        Assert.assertEquals(config.getString("env.name", "local"), "local");
+        Assert.assertNull(config.getString("env.name"));
+        Assert.assertThrows(IllegalStateException.class, () -> config.getInt("custom.count", 0));
+        Assert.assertThrows(IllegalStateException.class, () -> config.getRequiredString("appium.server.url"));
+        Assert.assertEquals(config.toProperties().getProperty("custom.count"), "many");
+    }
+}
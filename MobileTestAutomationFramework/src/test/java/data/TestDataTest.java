@@ -0,0 +1,186 @@
+package data;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the streaming test data readers and data partitions.
+ */
+public class TestDataTest {
+
+    /**
+     * A reader over generated records that counts how many characters were consumed.
+     */
+    private static final class GeneratedReader extends Reader {
+
+        private final int records;
+        private final String header;
+        private final boolean json;
+        private String pending;
+        private int position;
+        private int produced = -1;
+        private long consumed;
+
+        private GeneratedReader(int records, boolean json) {
+            this.records = records;
+            this.json = json;
+            this.header = json ? "[" : "username,locale\n";
+            this.pending = header;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == pending.length()) {
+                produced++;
+                if (produced > records) {
+                    return -1;
+                }
+                pending = produced == records ? (json ? "]" : "")
+                        : json ? (produced > 0 ? "," : "") + "{\"username\":\"user" + produced + "\",\"locale\":\"en\"}"
+                        : "user" + produced + ",en\n";
+                position = 0;
+                if (pending.isEmpty()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(length, pending.length() - position);
+            pending.getChars(position, position + count, buffer, offset);
+            position += count;
+            consumed += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+
+    private static List<DataRecord> readAll(RecordReader reader) {
+        List<DataRecord> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+
+    @Test(description = "CSV fields may be quoted and contain commas, quotes and line breaks")
+    public void testCsvQuoting() {
+        List<DataRecord> records = readAll(new CsvRecordReader(new StringReader(
+                "case,username,password\n"
+                        + "plain,validuser,validpassword\n"
+                        + "\n"
+                        + "quoted,\"o'brien, \"\"admin\"\"\",\"two\nlines\"\n"
+                        + "short,onlyuser\n"), "test.csv"));
+
+        Assert.assertEquals(records.size(), 3);
+        Assert.assertEquals(records.get(0).getColumns(), List.of("case", "username", "password"));
+        Assert.assertEquals(records.get(1).get("username"), "o'brien, \"admin\"");
+        Assert.assertEquals(records.get(1).get("password"), "two\nlines");
+        Assert.assertEquals(records.get(1).getIndex(), 1);
+        Assert.assertNull(records.get(2).get("password"));
+        Assert.assertEquals(records.get(2).get("password", ""), "");
+        Assert.assertFalse(records.get(0).toString().contains("validpassword"), "Passwords are masked in reports");
+    }
+
+    @Test(description = "Malformed CSV rows are reported with their line")
+    public void testCsvErrors() {
+        RecordReader reader = new CsvRecordReader(new StringReader("a,b\n1,2\n1,2,3\n"), "bad.csv");
+        Assert.assertNotNull(reader.next());
+        UncheckedIOException error = Assert.expectThrows(UncheckedIOException.class, reader::next);
+        Assert.assertTrue(error.getMessage().contains("bad.csv line 3"), error.getMessage());
+    }
+
+    @Test(description = "JSON records are read from the document array or from a section of the top-level object, "
+            + "and a missing section is an error")
+    public void testJsonSections() {
+        String json = "{\"settings\": {\"retries\": [1, 2]}, \"accounts\": ["
+                + "{\"username\": \"a\", \"active\": true, \"pin\": 1234, \"tags\": [\"x\"], \"note\": null},"
+                + "{\"username\": \"b\"}], \"other\": []}";
+
+        List<DataRecord> records = readAll(new JsonRecordReader(new StringReader(json), "accounts", "test.json"));
+        Assert.assertEquals(records.size(), 2);
+        Assert.assertTrue(records.get(0).getBoolean("active"));
+        Assert.assertEquals(records.get(0).get("pin"), "1234");
+        Assert.assertEquals(records.get(0).get("tags"), "[\"x\"]");
+        Assert.assertNull(records.get(0).get("note"));
+        Assert.assertEquals(records.get(1).get("username"), "b");
+        Assert.assertEquals(records.get(1).getIndex(), 1);
+
+        IllegalArgumentException missing = Assert.expectThrows(IllegalArgumentException.class,
+                () -> readAll(new JsonRecordReader(new StringReader(json), "acounts", "test.json")));
+        Assert.assertTrue(missing.getMessage().contains("\"acounts\""), missing.getMessage());
+        Assert.assertEquals(readAll(new JsonRecordReader(new StringReader("[{\"a\": 1}, {\"a\": 2}]"),
+                null, "test.json")).size(), 2);
+        Assert.assertTrue(readAll(new JsonRecordReader(new StringReader(" [ ] "), null, "test.json")).isEmpty());
+    }
+
+    @Test(description = "Records are read on demand instead of loading the whole file")
+    public void testStreaming() {
+        for (boolean json : new boolean[] {false, true}) {
+            GeneratedReader source = new GeneratedReader(100_000, json);
+            RecordReader reader = json ? new JsonRecordReader(source, null, "generated.json")
+                    : new CsvRecordReader(source, "generated.csv");
+
+            Assert.assertEquals(reader.next().get("username"), "user0");
+            Assert.assertTrue(source.consumed < 64 * 1024, "Read " + source.consumed + " chars for the first record");
+
+            long count = 1;
+            DataRecord last = null;
+            while (reader.hasNext()) {
+                last = reader.next();
+                count++;
+            }
+            Assert.assertEquals(count, 100_000);
+            Assert.assertEquals(last.get("username"), "user99999");
+            Assert.assertEquals(last.getIndex(), 99_999);
+        }
+    }
+
+    @Test(description = "Partitions split the records of a file without gaps or overlaps")
+    public void testPartitions() throws IOException {
+        Path file = Files.createTempFile("accounts", ".csv");
+        try {
+            StringBuilder csv = new StringBuilder("username\n");
+            for (int i = 0; i < 100; i++) {
+                csv.append("user").append(i).append('\n');
+            }
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+
+            Set<String> seen = new HashSet<>();
+            for (int index = 0; index < 3; index++) {
+                List<String> first = new ArrayList<>();
+                for (Iterator<Object[]> rows = TestData.rows(file.toString(), null, new DataPartition(index, 3));
+                     rows.hasNext(); ) {
+                    DataRecord record = (DataRecord) rows.next()[0];
+                    Assert.assertEquals(record.getIndex() % 3, index);
+                    Assert.assertTrue(seen.add(record.get("username")), "Record in two partitions: " + record);
+                    first.add(record.get("username"));
+                }
+                List<String> second = new ArrayList<>();
+                TestData.rows(file.toString(), null, DataPartition.parse(index + "/3"))
+                        .forEachRemaining(row -> second.add(((DataRecord) row[0]).get("username")));
+                Assert.assertEquals(second, first, "Partitions are deterministic");
+            }
+            Assert.assertEquals(seen.size(), 100);
+        } finally {
+            Files.delete(file);
+        }
+
+        Assert.assertEquals(DataPartition.parse(""), DataPartition.all());
+        Assert.assertThrows(IllegalArgumentException.class, () -> DataPartition.parse("3/3"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> DataPartition.parse("half"));
+        Assert.assertThrows(IOException.class, () -> TestData.open("testdata/accounts.xlsx", null));
+    }
+}
@@ -0,0 +1,104 @@
+package fakeserver;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+import session.AppiumDriverFactory;
+import session.SessionKey;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Unit tests for FakeAppiumServer, driving the framework's page objects against it.
+ */
+public class FakeAppiumServerTest {
+
+    private static AppiumDriver newDriver(FakeAppiumServer server, String platform) {
+        DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", platform,
+                "appium:automationName", "android".equals(platform) ? "UiAutomator2" : "XCUITest"));
+        return new AppiumDriverFactory().create(new SessionKey(platform, server.getUrl(), capabilities));
+    }
+
+    @Test(description = "Valid credentials lead to the home screen after the transition delay")
+    public void testLoginFlow() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withTransitionDelay(Duration.ofMillis(300))).start()) {
+            AppiumDriver driver = newDriver(server, "android");
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                Assert.assertTrue(loginPage.isLoginPageLoaded());
+                loginPage.login(ScriptedApp.VALID_USERNAME, ScriptedApp.VALID_PASSWORD);
+
+                HomePage homePage = new HomePage(driver).waitForHomePageToLoad();
+                Assert.assertEquals(homePage.getHomePageTitle(), ScriptedApp.HOME_TITLE);
+                Assert.assertTrue(driver.getPageSource().contains("home_title"));
+            } finally {
+                driver.quit();
+            }
+            Assert.assertEquals(server.getSessionCount(), 0);
+        }
+    }
+
+    @Test(description = "Invalid credentials show the login error on iOS")
+    public void testFailedLoginOnIos() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            AppiumDriver driver = newDriver(server, "ios");
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                loginPage.login("invaliduser", "invalidpassword");
+
+                Assert.assertFalse(loginPage.isLoginSuccessful());
+                Assert.assertEquals(loginPage.getErrorMessage(), ScriptedApp.LOGIN_ERROR);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "Elements of a previous screen are stale")
+    public void testElementsGoStaleOnNavigation() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            AppiumDriver driver = newDriver(server, "android");
+            try {
+                WebElement loginButton = driver.findElement(AppiumBy.id("login_button"));
+                driver.findElement(AppiumBy.id("username_input")).sendKeys(ScriptedApp.VALID_USERNAME);
+                driver.findElement(AppiumBy.xpath("//*[@resource-id='com.example.mymobileapp:id/password_input']"))
+                        .sendKeys(ScriptedApp.VALID_PASSWORD);
+                loginButton.click();
+
+                Assert.assertThrows(StaleElementReferenceException.class, loginButton::getText);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "Latency and failures are injected per command")
+    public void testLatencyAndFailureInjection() throws Exception {
+        LatencyProfile profile = LatencyProfile.none()
+                .withCommandLatency("getPageSource", Duration.ofMillis(200))
+                .withCommandFailureRate("clickElement", 1.0);
+        try (FakeAppiumServer server = new FakeAppiumServer(0, profile).start()) {
+            AppiumDriver driver = newDriver(server, "android");
+            try {
+                long start = System.nanoTime();
+                driver.getPageSource();
+                Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 200);
+
+                WebElement loginButton = driver.findElement(AppiumBy.id("login_button"));
+                Assert.assertThrows(WebDriverException.class, loginButton::click);
+                Assert.assertEquals(server.getInjectedFailures(), 1);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+}
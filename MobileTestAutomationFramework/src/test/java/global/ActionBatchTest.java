@@ -0,0 +1,132 @@
+package global;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+import session.AppiumDriverFactory;
+import session.SessionKey;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for ActionBatch, running batched page flows against the fake Appium server.
+ */
+public class ActionBatchTest {
+
+    /**
+     * The error label of the login screen, read through a batch.
+     */
+    public static class LoginErrorPage extends PageUtils {
+
+        @AndroidFindBy(id = "error_message")
+        @iOSXCUITFindBy(accessibility = "error_message")
+        private WebElement errorMessage;
+
+        /**
+         * Constructor to initialize LoginErrorPage.
+         *
+         * @param driver AppiumDriver instance
+         */
+        public LoginErrorPage(AppiumDriver driver) {
+            super(driver);
+        }
+    }
+
+    private static AppiumDriver newDriver(FakeAppiumServer server, String platform) {
+        DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", platform,
+                "appium:automationName", "android".equals(platform) ? "UiAutomator2" : "XCUITest"));
+        return new AppiumDriverFactory().create(new SessionKey(platform, server.getUrl(), capabilities));
+    }
+
+    @Test(description = "A batched login is a single request")
+    public void testBatchedLoginIsOneRequest() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withTransitionDelay(Duration.ofMillis(200))).start()) {
+            AppiumDriver driver = newDriver(server, "android");
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                long before = server.getCommandCount();
+                loginPage.loginBatched("validuser", "validpassword");
+
+                Assert.assertEquals(server.getCommandCount() - before, 1);
+                Assert.assertEquals(new HomePage(driver).waitForHomePageToLoad().getHomePageTitle(), "Home");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "Elements are waited for on the server and getText results are returned in order")
+    public void testBatchWaitsAndReturnsText() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withTransitionDelay(Duration.ofMillis(300))).start()) {
+            AppiumDriver driver = newDriver(server, "ios");
+            try {
+                new LoginPage(driver).loginBatched("invaliduser", "invalidpassword");
+                LoginErrorPage errorPage = new LoginErrorPage(driver);
+                long before = server.getCommandCount();
+                List<String> results = errorPage.batch().getText(errorPage.errorMessage).run();
+
+                Assert.assertEquals(results, Collections.singletonList("Invalid username or password"));
+                Assert.assertEquals(server.getCommandCount() - before, 1);
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+
+    @Test(description = "On iOS, batched and one-by-one text entry replace what a failed login left in the fields")
+    public void testTextEntryReplacesContentOnIos() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            AppiumDriver batched = newDriver(server, "ios");
+            AppiumDriver sequential = newDriver(server, "ios");
+            try {
+                LoginPage loginPage = new LoginPage(batched);
+                loginPage.loginBatched("invaliduser", "invalidpassword");
+                Assert.assertEquals(loginPage.getErrorMessage(), "Invalid username or password");
+                loginPage.loginBatched("validuser", "validpassword");
+                Assert.assertTrue(new HomePage(batched).isHomePageDisplayed(), "Batched login should replace the text");
+
+                loginPage = new LoginPage(sequential);
+                loginPage.login("invaliduser", "invalidpassword");
+                Assert.assertEquals(loginPage.getErrorMessage(), "Invalid username or password");
+                loginPage.login("validuser", "validpassword");
+                Assert.assertTrue(new HomePage(sequential).isHomePageDisplayed(), "Login should replace the text");
+            } finally {
+                batched.quit();
+                sequential.quit();
+            }
+        }
+    }
+
+    @Test(description = "Servers without driver scripts get the actions one by one, and are not asked again")
+    public void testFallsBackWhenScriptsAreRejected() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none())
+                .setDriverScriptsEnabled(false).start()) {
+            AppiumDriver driver = newDriver(server, "android");
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                loginPage.loginBatched("invaliduser", "invalidpassword");
+                Assert.assertEquals(loginPage.getErrorMessage(), "Invalid username or password");
+
+                server.setDriverScriptsEnabled(true);
+                long before = server.getCommandCount();
+                loginPage.loginBatched("invaliduser", "invalidpassword");
+                Assert.assertTrue(server.getCommandCount() - before > 1, "Rejection should be remembered per session");
+            } finally {
+                driver.quit();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package locators;
+
+import components.ButtonComponent;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for compile-time generated page locators and PageBinder.
+ */
+public class PageBinderTest {
+
+    @Test(description = "Generated locators match the annotations on the page fields")
+    public void testGeneratedLocatorsMatchAnnotations() {
+        for (Class<?> page : List.of(LoginPage.class, HomePage.class)) {
+            GeneratedLocators generated = PageLocators.generatedFor(page);
+
+            Assert.assertNotNull(generated, "No locators generated for " + page.getSimpleName());
+            Assert.assertTrue(generated.isBindable());
+            Assert.assertEquals(generated.android(), PageLocators.scanAnnotations(page, false));
+            Assert.assertEquals(generated.ios(), PageLocators.scanAnnotations(page, true));
+            Assert.assertTrue(PageBinder.isBindable(page));
+        }
+        Assert.assertFalse(PageBinder.isBindable(ButtonComponent.class));
+    }
+
+    @Test(description = "Bound pages resolve their elements through the element cache")
+    public void testBoundPageUsesElementCache() throws Exception {
+        FakeExecutor executor = new FakeExecutor();
+        AppiumDriver driver = new AppiumDriver(executor, new DesiredCapabilities(Map.of("platformName", "Android")));
+
+        LoginPage first = new LoginPage(driver);
+        new LoginPage(driver);
+
+        Assert.assertNull(first.getErrorMessage(), "Missing error message should be reported as absent");
+        Assert.assertEquals(executor.finds.get(), 1, "Absence check should take a single lookup");
+        ButtonComponent buttons = ButtonComponent.forDriver(driver);
+        Assert.assertSame(ButtonComponent.forDriver(driver), buttons);
+        ElementCache.release(driver);
+        ButtonComponent.release(driver);
+        Assert.assertNotSame(ButtonComponent.forDriver(driver), buttons, "A released component should not be reused");
+        ButtonComponent.release(driver);
+    }
+
+    /**
+     * Command executor that starts a session and finds no elements.
+     */
+    private static class FakeExecutor extends AppiumCommandExecutor {
+
+        private final AtomicInteger finds = new AtomicInteger();
+
+        FakeExecutor() throws Exception {
+            super(MobileCommand.commandRepository, new URL("http://127.0.0.1:4723"));
+        }
+
+        @Override
+        public Response execute(Command command) {
+            Response response = new Response();
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setSessionId(UUID.randomUUID().toString());
+                response.setValue(Map.of("platformName", "Android"));
+                return response;
+            }
+            response.setSessionId(command.getSessionId().toString());
+            if (DriverCommand.FIND_ELEMENTS.equals(command.getName())) {
+                finds.incrementAndGet();
+                response.setValue(Collections.emptyList());
+            }
+            return response;
+        }
+    }
+}
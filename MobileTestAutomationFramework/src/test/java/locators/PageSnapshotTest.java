@@ -0,0 +1,109 @@
+package locators;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import global.BasePage;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.login.LoginPage;
+import session.AppiumDriverFactory;
+import session.SessionKey;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for PageSnapshot locator matching and the page checks built on it.
+ */
+public class PageSnapshotTest {
+
+    private static final String ANDROID_SOURCE = "<?xml version='1.0' encoding='UTF-8'?>"
+            + "<hierarchy rotation='0'>"
+            + "<android.widget.FrameLayout class='android.widget.FrameLayout' displayed='true'>"
+            + "<android.widget.TextView class='android.widget.TextView' text='Home'"
+            + " resource-id='com.example.mymobileapp:id/home_title' displayed='true'/>"
+            + "<android.widget.Button class='android.widget.Button' text='Profile' content-desc='profile'"
+            + " resource-id='com.example.mymobileapp:id/profile_button' displayed='true'/>"
+            + "<android.widget.Button class='android.widget.Button' text='Search'"
+            + " resource-id='com.example.mymobileapp:id/search_button' displayed='false'/>"
+            + "</android.widget.FrameLayout>"
+            + "</hierarchy>";
+
+    private static final String IOS_SOURCE = "<?xml version='1.0' encoding='UTF-8'?>"
+            + "<AppiumAUT><XCUIElementTypeApplication name='MyMobileApp' visible='true'>"
+            + "<XCUIElementTypeStaticText name='home_title' label='Home' visible='true'/>"
+            + "<XCUIElementTypeButton name='profile_button' label='Profile' visible='true'/>"
+            + "</XCUIElementTypeApplication></AppiumAUT>";
+
+    @Test(description = "Android ids match with and without the package prefix")
+    public void testAndroidIdMatching() {
+        PageSnapshot snapshot = PageSnapshot.parse(ANDROID_SOURCE, Platform.ANDROID);
+
+        Assert.assertTrue(snapshot.isPresent(new Locator(Locator.Strategy.ID, "home_title")));
+        Assert.assertTrue(snapshot.isPresent(new Locator(Locator.Strategy.ID, "com.example.mymobileapp:id/home_title")));
+        Assert.assertEquals(snapshot.getText(new Locator(Locator.Strategy.ID, "home_title")), "Home");
+        Assert.assertFalse(snapshot.isPresent(new Locator(Locator.Strategy.ID, "error_message")));
+        Assert.assertFalse(snapshot.isDisplayed(new Locator(Locator.Strategy.ID, "search_button")));
+    }
+
+    @Test(description = "Accessibility id, class name and XPath locators are matched locally")
+    public void testOtherStrategies() {
+        PageSnapshot snapshot = PageSnapshot.parse(ANDROID_SOURCE, Platform.ANDROID);
+
+        Assert.assertTrue(snapshot.isPresent(new Locator(Locator.Strategy.ACCESSIBILITY_ID, "profile")));
+        Assert.assertEquals(snapshot.findAll(new Locator(Locator.Strategy.CLASS_NAME, "android.widget.Button")).size(), 2);
+        Assert.assertEquals(snapshot.getText(new Locator(Locator.Strategy.XPATH,
+                "//android.widget.Button[@text='Search']")), "Search");
+    }
+
+    @Test(description = "All page locators are matched in one pass")
+    public void testMatchAll() {
+        PageSnapshot snapshot = PageSnapshot.parse(IOS_SOURCE, Platform.IOS);
+        Map<String, Locator> locators = new LinkedHashMap<>();
+        locators.put("homeTitle", new Locator(Locator.Strategy.ACCESSIBILITY_ID, "home_title"));
+        locators.put("profileButton", new Locator(Locator.Strategy.ACCESSIBILITY_ID, "profile_button"));
+        locators.put("errorMessage", new Locator(Locator.Strategy.ACCESSIBILITY_ID, "error_message"));
+        locators.put("searchField", new Locator(Locator.Strategy.IOS_PREDICATE, "type == 'XCUIElementTypeSearchField'"));
+
+        Map<String, List<PageSnapshot.SnapshotElement>> matches = snapshot.matchAll(locators);
+
+        Assert.assertEquals(matches.get("homeTitle").get(0).getText(), "Home");
+        Assert.assertEquals(matches.get("profileButton").size(), 1);
+        Assert.assertTrue(matches.get("errorMessage").isEmpty());
+        Assert.assertFalse(matches.containsKey("searchField"), "Predicate locators need the server");
+    }
+
+    @Test(description = "Page checks cost one page source call in snapshot mode and reuse cached elements otherwise")
+    public void testPageCheckRoundTrips() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", "android",
+                    "appium:automationName", "UiAutomator2"));
+            AppiumDriver driver = new AppiumDriverFactory().create(
+                    new SessionKey("android", server.getUrl(), capabilities));
+            BasePage.ResolutionMode previous = BasePage.getDefaultResolutionMode();
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                BasePage.setDefaultResolutionMode(BasePage.ResolutionMode.SNAPSHOT);
+                long before = server.getCommandCount();
+                Assert.assertTrue(loginPage.isLoginPageLoaded());
+                Assert.assertEquals(server.getCommandCount() - before, 1, "Only the page source is fetched");
+
+                BasePage.setDefaultResolutionMode(BasePage.ResolutionMode.DIRECT);
+                before = server.getCommandCount();
+                Assert.assertTrue(loginPage.isLoginPageLoaded());
+                Assert.assertEquals(server.getCommandCount() - before, 6, "One lookup and one check per element");
+                before = server.getCommandCount();
+                Assert.assertTrue(loginPage.isLoginPageLoaded());
+                Assert.assertEquals(server.getCommandCount() - before, 3, "Cached elements only need their check");
+            } finally {
+                BasePage.setDefaultResolutionMode(previous);
+                ElementCache.release(driver);
+                driver.quit();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package metrics;
+
+import io.appium.java_client.AppiumDriver;
+import org.json.JSONObject;
+import org.openqa.selenium.By;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.login.LoginPage;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Unit tests for LatencyHistogram, CommandMetrics and InstrumentedCommandExecutor.
+ */
+public class CommandMetricsTest {
+
+    @Test(description = "Percentiles are reported within the bucket error")
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 100);
+        Assert.assertEquals(histogram.getMax(), 100_000);
+        Assert.assertEquals(histogram.getPercentile(50), 50_000, 50_000 * 0.07);
+        Assert.assertEquals(histogram.getPercentile(95), 95_000, 95_000 * 0.07);
+        Assert.assertEquals(histogram.getPercentile(99), 99_000, 99_000 * 0.07);
+        Assert.assertEquals(histogram.getPercentile(100), 100_000);
+        Assert.assertEquals(new LatencyHistogram().getPercentile(99), 0);
+    }
+
+    @Test(description = "Commands are recorded per command and per page-object method")
+    public void testCommandsAreTaggedWithPageMethod() throws Exception {
+        AppiumDriver driver = new AppiumDriver(new FakeExecutor(),
+                new DesiredCapabilities(Map.of("platformName", "Android")));
+        CommandMetrics.start("CommandMetricsTest.testCommandsAreTaggedWithPageMethod");
+        try {
+            new LoginPage(driver).getErrorMessage();
+            driver.findElements(By.id("error_message"));
+        } finally {
+            CommandMetrics metrics = CommandMetrics.stop();
+
+            Assert.assertNotNull(metrics);
+            Assert.assertEquals(metrics.getHistogram(DriverCommand.FIND_ELEMENTS).getCount(), 2);
+            Assert.assertEquals(metrics.getHistogram("LoginPage.getErrorMessage", DriverCommand.FIND_ELEMENTS)
+                    .getCount(), 1);
+            Assert.assertEquals(metrics.getHistogram(CommandMetrics.NO_PAGE, DriverCommand.FIND_ELEMENTS)
+                    .getCount(), 1);
+            JSONObject json = metrics.toJson();
+            Assert.assertEquals(json.getString("test"), "CommandMetricsTest.testCommandsAreTaggedWithPageMethod");
+            Assert.assertTrue(json.getJSONArray("commands").getJSONObject(0).has("p99Ms"));
+        }
+        Assert.assertNull(CommandMetrics.current());
+    }
+
+    /**
+     * Executor that starts a session and finds no elements, without a server.
+     */
+    private static class FakeExecutor extends InstrumentedCommandExecutor {
+
+        FakeExecutor() throws Exception {
+            super(new URL("http://127.0.0.1:4723"));
+        }
+
+        @Override
+        protected Response send(Command command) {
+            Response response = new Response();
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setSessionId(UUID.randomUUID().toString());
+                response.setValue(Map.of("platformName", "Android"));
+                return response;
+            }
+            response.setSessionId(command.getSessionId().toString());
+            if (DriverCommand.FIND_ELEMENTS.equals(command.getName())) {
+                response.setValue(Collections.emptyList());
+            }
+            return response;
+        }
+    }
+}
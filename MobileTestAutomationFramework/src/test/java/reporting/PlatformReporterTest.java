@@ -0,0 +1,155 @@
+package reporting;
+
+import io.qameta.allure.model.TestResult;
+import org.testng.Assert;
+import org.testng.ITestClass;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for the platform-tagged reporting of concurrent platform suites.
+ * TestNG results are stubbed, as a nested TestNG run would report its tests to the outer suite.
+ */
+public class PlatformReporterTest {
+
+    /**
+     * Creates a stand-in for a TestNG interface that answers the given methods and returns defaults otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (answers.containsKey(method.getName())) {
+                return answers.get(method.getName());
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            return returnType == long.class ? (Object) 0L : null;
+        });
+    }
+
+    private static ITestResult result(String name, int status, long start, long end, Object... parameters) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getName", name);
+        answers.put("getStatus", status);
+        answers.put("getStartMillis", start);
+        answers.put("getEndMillis", end);
+        answers.put("getParameters", parameters);
+        answers.put("getTestClass", stub(ITestClass.class, Map.of("getName", "tests.login.LoginTest")));
+        if (status == ITestResult.FAILURE) {
+            answers.put("getThrowable", new AssertionError("Home page should be displayed"));
+        }
+        return stub(ITestResult.class, answers);
+    }
+
+    private static ITestResult retriedAttempt() {
+        return stub(ITestResult.class, Map.of("getName", "testSuccessfulLogin", "getStatus", ITestResult.SKIP,
+                "wasRetried", true));
+    }
+
+    private static List<PlatformReporter.PlatformResult> platforms() {
+        PlatformReporter.PlatformResult android = new PlatformReporter.PlatformResult("android");
+        android.add(result("testSuccessfulLogin", ITestResult.SUCCESS, 1_000, 3_000, "validuser"));
+        android.add(result("testSuccessfulLogin", ITestResult.SUCCESS, 3_000, 5_000, "otheruser"));
+        android.add(result("testLoginWithEmptyPassword", ITestResult.SKIP, 5_000, 5_000));
+        PlatformReporter.PlatformResult ios = new PlatformReporter.PlatformResult("ios");
+        ios.add(retriedAttempt());
+        ios.add(result("testSuccessfulLogin", ITestResult.FAILURE, 2_000, 6_000, "validuser"));
+        return List.of(android, ios);
+    }
+
+    @Test(description = "Results of both platforms are merged into one JUnit XML file, tagged per platform")
+    public void testMergedJUnitXml() throws Exception {
+        Path dir = Files.createTempDirectory("platform-results");
+        Path file = dir.resolve(PlatformReporter.REPORT_FILE);
+        try {
+            PlatformReporter.writeJUnitXml(platforms(), file);
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file.toFile());
+
+            Element root = document.getDocumentElement();
+            Assert.assertEquals(root.getAttribute("tests"), "4", "Retried attempts are left out");
+            Assert.assertEquals(root.getAttribute("failures"), "1");
+            NodeList suites = root.getElementsByTagName("testsuite");
+            Assert.assertEquals(suites.getLength(), 2);
+            Element android = (Element) suites.item(0);
+            Assert.assertEquals(android.getAttribute("name"), "android");
+            Assert.assertEquals(android.getAttribute("skipped"), "1");
+            Assert.assertEquals(android.getAttribute("time"), "4.000");
+
+            NodeList cases = android.getElementsByTagName("testcase");
+            Element first = (Element) cases.item(0);
+            Assert.assertEquals(first.getAttribute("classname"), "android.tests.login.LoginTest");
+            Assert.assertEquals(first.getAttribute("name"), "testSuccessfulLogin[1]");
+            Assert.assertEquals(((Element) cases.item(1)).getAttribute("name"), "testSuccessfulLogin[2]");
+            Assert.assertEquals(((Element) cases.item(2)).getElementsByTagName("skipped").getLength(), 1);
+
+            Element ios = (Element) ((Element) suites.item(1)).getElementsByTagName("testcase").item(0);
+            Assert.assertEquals(ios.getAttribute("classname"), "ios.tests.login.LoginTest");
+            Element failure = (Element) ios.getElementsByTagName("failure").item(0);
+            Assert.assertEquals(failure.getAttribute("type"), AssertionError.class.getName());
+            Assert.assertEquals(failure.getAttribute("message"), "Home page should be displayed");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test(description = "The timing summary compares the wall clock with running the platforms one after another")
+    public void testTimingSummary() {
+        String summary = PlatformReporter.summary(platforms());
+
+        Assert.assertTrue(summary.contains("android: 3 tests (2 passed, 0 failed, 1 skipped) in 4.0 s"), summary);
+        Assert.assertTrue(summary.contains("ios: 1 tests (0 passed, 1 failed, 0 skipped) in 4.0 s"), summary);
+        Assert.assertTrue(summary.contains("Total: 5.0 s wall clock, 8.0 s if run one after another"), summary);
+    }
+
+    @Test(description = "Platforms are read from the platform parameter, then platformName, then default to android")
+    public void testPlatformOf() {
+        XmlSuite suite = new XmlSuite();
+        suite.setParameters(Map.of("platformName", "iOS"));
+        XmlTest test = new XmlTest(suite);
+        Assert.assertEquals(PlatformReporter.platformOf(test), "ios");
+        test.setParameters(Map.of("platform", "android"));
+        Assert.assertEquals(PlatformReporter.platformOf(test), "android");
+        Assert.assertEquals(PlatformReporter.platformOf(new XmlTest(new XmlSuite())), "android");
+    }
+
+    @Test(description = "Allure results carry their platform and a history id per platform")
+    public void testAllureLabels() {
+        PlatformLabels labels = new PlatformLabels();
+        TestResult untagged = new TestResult().setHistoryId("abc");
+        PlatformLabels.setCurrentPlatform(null);
+        labels.beforeTestStop(untagged);
+        Assert.assertEquals(untagged.getHistoryId(), "abc");
+        Assert.assertTrue(untagged.getLabels().isEmpty());
+
+        PlatformLabels.setCurrentPlatform("ios");
+        try {
+            TestResult result = new TestResult().setHistoryId("abc");
+            labels.beforeTestStop(result);
+            Assert.assertEquals(result.getHistoryId(), "abc-ios");
+            Assert.assertEquals(result.getLabels().get(0).getName(), "tag");
+            Assert.assertEquals(result.getLabels().get(0).getValue(), "ios");
+            Assert.assertEquals(result.getParameters().get(0).getValue(), "ios");
+        } finally {
+            PlatformLabels.setCurrentPlatform(null);
+        }
+    }
+}
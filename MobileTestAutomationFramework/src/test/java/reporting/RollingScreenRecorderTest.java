@@ -0,0 +1,91 @@
+package reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for RollingScreenRecorder.
+ */
+public class RollingScreenRecorderTest {
+
+    /**
+     * Stand-in for a device: every stopped recording is a synthetic segment "segment-N".
+     */
+    private static class FakeRecorder implements ScreenRecorder {
+        private final AtomicInteger stopped = new AtomicInteger();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public byte[] stop() {
+            return ("segment-" + stopped.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long countFiles(Path dir) throws Exception {
+        if (!Files.exists(dir)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    @Test(description = "A failed test keeps only the newest segments and empties the ring")
+    public void testKeepsLastSegmentsOnFailure() throws Exception {
+        Path ring = Files.createTempDirectory("video-ring");
+        Path output = Files.createTempDirectory("videos");
+        FakeRecorder fake = new FakeRecorder();
+        try (RollingScreenRecorder recorder = new RollingScreenRecorder(fake, ring,
+                Duration.ofMillis(50), Duration.ofMillis(100))) {
+            Assert.assertEquals(recorder.getMaxSegments(), 3);
+            recorder.start();
+            for (int i = 0; i < 10; i++) {
+                Thread.sleep(50);
+                Assert.assertTrue(countFiles(ring) <= recorder.getMaxSegments(), "Ring grew past its capacity");
+            }
+
+            List<Path> kept = recorder.keep("LoginTest.testInvalidLogin", output);
+
+            Assert.assertFalse(kept.isEmpty());
+            Assert.assertTrue(kept.size() <= recorder.getMaxSegments(), kept.toString());
+            Assert.assertTrue(fake.stopped.get() > kept.size(), "Older segments should have been dropped");
+            // The last kept file is the segment that was running when the test failed
+            Assert.assertEquals(new String(Files.readAllBytes(kept.get(kept.size() - 1)), StandardCharsets.UTF_8),
+                    "segment-" + fake.stopped.get());
+            Assert.assertEquals(kept.get(0).getFileName().toString(), "LoginTest.testInvalidLogin-part1.mp4");
+            Assert.assertEquals(countFiles(output), kept.size());
+            Assert.assertEquals(countFiles(ring), 0);
+        }
+    }
+
+    @Test(description = "A passing test leaves no recording behind")
+    public void testDiscardDeletesSegments() throws Exception {
+        Path ring = Files.createTempDirectory("video-ring");
+        FakeRecorder fake = new FakeRecorder();
+        try (RollingScreenRecorder recorder = new RollingScreenRecorder(fake, ring,
+                Duration.ofMillis(20), Duration.ofMillis(40))) {
+            recorder.start();
+            Thread.sleep(100);
+            recorder.discard();
+
+            Assert.assertTrue(fake.stopped.get() > 0);
+            Assert.assertEquals(countFiles(ring), 0);
+
+            // The recorder can be reused for the next test
+            recorder.start();
+            Thread.sleep(30);
+        }
+        Assert.assertEquals(countFiles(ring), 0);
+    }
+}
@@ -0,0 +1,86 @@
+package reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Unit tests for ScreenshotPipeline.
+ */
+public class ScreenshotPipelineTest {
+
+    private static byte[] png(Color color) throws Exception {
+        BufferedImage image = new BufferedImage(40, 80, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                image.setRGB(x, y, color.getRGB());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Test(description = "Identical screenshots are written once")
+    public void testDuplicatesAreWrittenOnce() throws Exception {
+        Path dir = Files.createTempDirectory("screenshots");
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(dir, ScreenshotPipeline.Format.PNG, 2, 8);
+
+        Path first = pipeline.submit("LoginTest.testInvalidLogin", png(Color.RED)).get();
+        Path second = pipeline.submit("LoginTest.testEmptyUsername", png(Color.RED)).get();
+        Path third = pipeline.submit("LoginTest.testSuccessfulLogin", png(Color.BLUE)).get();
+        pipeline.shutdown(5);
+
+        Assert.assertEquals(second, first);
+        Assert.assertNotEquals(third, first);
+        Assert.assertEquals(pipeline.getWritten(), 2);
+        Assert.assertEquals(pipeline.getDuplicates(), 1);
+        Assert.assertEquals(Files.list(dir).count(), 2);
+    }
+
+    @Test(description = "Screenshots can be re-encoded as JPEG")
+    public void testJpgEncoding() throws Exception {
+        Path dir = Files.createTempDirectory("screenshots");
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(dir, ScreenshotPipeline.Format.JPG, 1, 8);
+
+        Path file = pipeline.submit("HomePageTest.testTitle", png(Color.GREEN)).get();
+        pipeline.shutdown(5);
+
+        Assert.assertTrue(file.toString().endsWith(".jpg"), file.toString());
+        Assert.assertNotNull(ImageIO.read(file.toFile()));
+    }
+
+    @Test(description = "Screenshots are dropped instead of blocking when the queue is full")
+    public void testFullQueueDrops() throws Exception {
+        Path dir = Files.createTempDirectory("screenshots");
+        ThreadPoolExecutor executor = ScreenshotPipeline.newExecutor(1, 1);
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(dir, ScreenshotPipeline.Format.PNG, executor);
+        CountDownLatch release = new CountDownLatch(1);
+        // Keep the only worker busy so the queue fills up
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CompletableFuture<Path> queued = pipeline.submit("LoginTest.testInvalidLogin", png(Color.RED));
+        CompletableFuture<Path> dropped = pipeline.submit("LoginTest.testEmptyUsername", png(Color.BLUE));
+        release.countDown();
+
+        Assert.assertNull(dropped.get());
+        Assert.assertNotNull(queued.get());
+        Assert.assertEquals(pipeline.getDropped(), 1);
+        pipeline.shutdown(5);
+    }
+}
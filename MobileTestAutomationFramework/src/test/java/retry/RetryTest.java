@@ -0,0 +1,150 @@
+package retry;
+
+import config.FrameworkConfig;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.testng.internal.annotations.DisabledRetryAnalyzer;
+import org.testng.internal.annotations.TestAnnotation;
+import org.testng.util.RetryAnalyzerCount;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Proxy;
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit tests for the failure classifier, the infrastructure retry analyzer and its listener.
+ * TestNG results are stubbed, as a nested TestNG run would report its tests to the outer suite.
+ */
+public class RetryTest {
+
+    /**
+     * Creates a stand-in for a TestNG interface that answers the given methods and returns defaults otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (answers.containsKey(method.getName())) {
+                return answers.get(method.getName());
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            return returnType == long.class ? (Object) 0L : null;
+        });
+    }
+
+    private static ITestResult result(String device, Throwable failure, IRetryAnalyzer analyzer) {
+        XmlSuite suite = new XmlSuite();
+        suite.setParameters(Map.of("device", device));
+        XmlTest test = new XmlTest(suite);
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getName", "testLogin");
+        answers.put("getThrowable", failure);
+        answers.put("getTestContext", stub(ITestContext.class, Map.of("getCurrentXmlTest", test)));
+        Map<String, Object> method = new HashMap<>();
+        method.put("getRetryAnalyzer", analyzer);
+        answers.put("getMethod", stub(ITestNGMethod.class, method));
+        return stub(ITestResult.class, answers);
+    }
+
+    @BeforeClass
+    public void configureRetries() {
+        Properties file = new Properties();
+        file.setProperty("test.retry.count", "2");
+        file.setProperty("test.retry.infraMessages", "usb hub reset, ");
+        InfrastructureRetryAnalyzer.configure(FrameworkConfig.load(file, Collections.emptyMap(), new Properties()));
+    }
+
+    @Test(description = "Session, transport, stale element and device errors are infrastructure; assertions are not")
+    public void testClassification() {
+        FailureClassifier classifier = InfrastructureRetryAnalyzer.getClassifier();
+
+        Assert.assertTrue(classifier.isInfrastructure(new NoSuchSessionException("gone")));
+        Assert.assertTrue(classifier.isInfrastructure(
+                new WebDriverException("wrapped", new SocketTimeoutException("Read timed out"))));
+        Assert.assertTrue(classifier.isInfrastructure(new StaleElementReferenceException("stale")));
+        Assert.assertTrue(classifier.isInfrastructure(new WebDriverException("adb: device offline")));
+        Assert.assertTrue(classifier.isInfrastructure(new WebDriverException("USB hub reset while reading")));
+        Assert.assertTrue(classifier.isInfrastructure(new java.util.concurrent.TimeoutException("No session available")));
+
+        Assert.assertFalse(classifier.isInfrastructure(new AssertionError("expected [Home] but found [Login]")));
+        Assert.assertFalse(classifier.isInfrastructure(new TimeoutException("Expected condition failed: visibility")));
+        Assert.assertFalse(classifier.isInfrastructure(new WebDriverException("An unknown server-side error")));
+        Assert.assertFalse(classifier.isInfrastructure(new IllegalArgumentException("bad data")));
+        Assert.assertFalse(classifier.isInfrastructure(null));
+        Assert.assertEquals(new FailureClassifier().classify(new WebDriverException("USB hub reset")),
+                FailureClassifier.Kind.TEST, "Extra messages only apply when configured");
+    }
+
+    @Test(description = "Only infrastructure failures are retried, at most test.retry.count times per test")
+    public void testRetriesInfrastructureFailures() {
+        RetryListener listener = new RetryListener();
+        InfrastructureRetryAnalyzer flaky = new InfrastructureRetryAnalyzer();
+        InfrastructureRetryAnalyzer broken = new InfrastructureRetryAnalyzer();
+        InfrastructureRetryAnalyzer failing = new InfrastructureRetryAnalyzer();
+        Throwable lost = new NoSuchSessionException("Session is either terminated or not started");
+
+        // A test that loses its session once and then passes
+        listener.onTestStart(result("retry-device-A", null, flaky));
+        Assert.assertTrue(flaky.retry(result("retry-device-A", lost, flaky)));
+        listener.onTestStart(result("retry-device-A", null, flaky));
+        listener.onTestSuccess(result("retry-device-A", null, flaky));
+
+        // A test whose session never comes back is given up after two retries
+        for (int attempt = 0; attempt < 3; attempt++) {
+            listener.onTestStart(result("retry-device-A", null, broken));
+            Assert.assertEquals(broken.retry(result("retry-device-A",
+                    new WebDriverException("Could not proxy command", new SocketTimeoutException("Read timed out")),
+                    broken)), attempt < 2, "Attempt " + attempt);
+        }
+        Assert.assertEquals(broken.getRetries(), 2);
+
+        // A real failure is reported at once
+        listener.onTestStart(result("retry-device-A", null, failing));
+        Assert.assertFalse(failing.retry(result("retry-device-A", new AssertionError("Wrong title"), failing)));
+        listener.onTestStart(result("retry-device-A", null, null));
+        listener.onTestSuccess(result("retry-device-A", null, null));
+
+        RetryStats.DeviceStats stats = RetryStats.global().get("retry-device-A");
+        Assert.assertEquals(stats.getAttempts(), 7);
+        Assert.assertEquals(stats.getRetries(), 3);
+        Assert.assertEquals(stats.getInfrastructureFailures(), 4);
+        Assert.assertEquals(stats.getRecovered(), 1);
+        Assert.assertEquals(stats.getRetryRate(), 3.0 / 7, 1e-9);
+        Assert.assertEquals(RetryStats.global().get("retry-device-unused").getAttempts(), 0);
+        Assert.assertTrue(RetryStats.global().summary().contains("retry-device-A: 7 attempts"),
+                RetryStats.global().summary());
+        Assert.assertEquals(InfrastructureRetryAnalyzer.deviceOf(stub(ITestResult.class, Map.of())), "local");
+    }
+
+    @Test(description = "Tests without a retry analyzer of their own get the infrastructure retry analyzer")
+    public void testListenerAttachesAnalyzer() {
+        TestAnnotation plain = new TestAnnotation();
+        plain.setRetryAnalyzer(DisabledRetryAnalyzer.class);
+        new RetryListener().transform(plain, RetryTest.class, null, null);
+        Assert.assertEquals(plain.getRetryAnalyzerClass(), InfrastructureRetryAnalyzer.class);
+
+        TestAnnotation own = new TestAnnotation();
+        own.setRetryAnalyzer(RetryAnalyzerCount.class);
+        new RetryListener().transform(own, RetryTest.class, null, null);
+        Assert.assertEquals(own.getRetryAnalyzerClass(), RetryAnalyzerCount.class);
+    }
+}
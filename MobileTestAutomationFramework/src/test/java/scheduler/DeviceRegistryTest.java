@@ -0,0 +1,77 @@
+package scheduler;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Unit tests for DeviceRegistry and device identity.
+ */
+public class DeviceRegistryTest {
+
+    private static Properties devices(String... entries) {
+        Properties properties = new Properties();
+        for (int i = 0; i < entries.length; i += 2) {
+            properties.setProperty(entries[i], entries[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test(description = "Emulators of the same name on different servers are different devices")
+    public void testSameNameOnDifferentServersHasDistinctIds() {
+        Device first = new Device("Pixel_7", "android", "http://127.0.0.1:4723", "");
+        Device second = new Device("Pixel_7", "android", "http://127.0.0.1:4724", "");
+
+        Assert.assertNotEquals(first.getId(), second.getId());
+        Assert.assertEquals(new Device("Pixel_7", "android", "http://127.0.0.1:4723", "emulator-5554").getId(),
+                "emulator-5554", "A device with a UDID is identified by it");
+    }
+
+    @Test(description = "Declared devices are loaded in declaration order")
+    public void testLoadsDeclaredDevices() {
+        List<Device> loaded = DeviceRegistry.fromProperties(devices(
+                "devices", "pixel1, pixel2",
+                "device.pixel1.platform", "android", "device.pixel1.url", "http://127.0.0.1:4723",
+                "device.pixel1.udid", "emulator-5554",
+                "device.pixel2.platform", "android", "device.pixel2.url", "http://127.0.0.1:4723",
+                "device.pixel2.udid", "emulator-5556"));
+
+        Assert.assertEquals(loaded.size(), 2);
+        Assert.assertEquals(loaded.get(0).getId(), "emulator-5554");
+        Assert.assertEquals(loaded.get(1).getId(), "emulator-5556");
+    }
+
+    @Test(description = "A device declared twice is rejected",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Devices pixel1 and pixel1 .*")
+    public void testRejectsDuplicateName() {
+        DeviceRegistry.fromProperties(devices(
+                "devices", "pixel1,pixel1",
+                "device.pixel1.platform", "android", "device.pixel1.url", "http://127.0.0.1:4723",
+                "device.pixel1.udid", "emulator-5554"));
+    }
+
+    @Test(description = "Two devices with the same UDID are rejected",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Devices pixel1 and pixel2 .*emulator-5554.*")
+    public void testRejectsDuplicateUdid() {
+        DeviceRegistry.fromProperties(devices(
+                "devices", "pixel1,pixel2",
+                "device.pixel1.platform", "android", "device.pixel1.url", "http://127.0.0.1:4723",
+                "device.pixel1.udid", "emulator-5554",
+                "device.pixel2.platform", "android", "device.pixel2.url", "http://127.0.0.1:4724",
+                "device.pixel2.udid", "emulator-5554"));
+    }
+
+    @Test(description = "Two devices left to the same server to pick are rejected",
+            expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "Devices pixel1 and pixel2 .*http://127.0.0.1:4723.*")
+    public void testRejectsTwoDevicesPickedBySameServer() {
+        DeviceRegistry.fromProperties(devices(
+                "devices", "pixel1,pixel2",
+                "device.pixel1.platform", "android", "device.pixel1.url", "http://127.0.0.1:4723",
+                "device.pixel2.platform", "android", "device.pixel2.url", "http://127.0.0.1:4723"));
+    }
+}
@@ -0,0 +1,135 @@
+package scheduler;
+
+import data.DataPartition;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for DurationHistory and ShardPlanner.
+ */
+public class ShardPlannerTest {
+
+    private static List<Device> devices(int count) {
+        List<Device> devices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            devices.add(new Device("device" + i, "android", "http://127.0.0.1:" + (4723 + i), ""));
+        }
+        return devices;
+    }
+
+    private static List<WorkItem> items(DurationHistory history, long... durations) {
+        List<WorkItem> items = new ArrayList<>();
+        for (int i = 0; i < durations.length; i++) {
+            WorkItem item = new WorkItem("tests.Item" + i + "_" + durations[i]);
+            history.record(DurationHistory.itemKey("android", item), durations[i]);
+            items.add(item);
+        }
+        return items;
+    }
+
+    @Test(description = "Longest items are placed first, each on the least loaded device")
+    public void testLongestFirstBalancesShards() {
+        DurationHistory history = new DurationHistory();
+        List<WorkItem> items = items(history, 10, 1, 9, 2, 8, 3, 7, 4, 6, 5);
+
+        ShardPlan plan = new ShardPlanner(history).plan("android", devices(3), items);
+
+        Assert.assertEquals(plan.getShards().get(0).get(0), items.get(0), "The longest item starts first");
+        Assert.assertEquals(plan.getPredictedMakespanMillis(), 19);
+        long total = plan.getPredictedMillisByDevice().values().stream().mapToLong(Long::longValue).sum();
+        Assert.assertEquals(total, 55);
+        for (List<WorkItem> shard : plan.getShards()) {
+            for (int i = 1; i < shard.size(); i++) {
+                Assert.assertTrue(history.estimate("android", shard.get(i - 1))
+                        >= history.estimate("android", shard.get(i)), "Shards run longest first: " + shard);
+            }
+        }
+        Assert.assertEquals(plan.getShards().stream().mapToInt(List::size).sum(), items.size());
+    }
+
+    @Test(description = "Items without their own history are estimated from their methods or the average")
+    public void testEstimates() {
+        DurationHistory history = new DurationHistory();
+        history.record(DurationHistory.methodKey("android", "tests.LoginTest", "testA"), 300);
+        history.record(DurationHistory.methodKey("android", "tests.LoginTest", "testB"), 900);
+        history.record(DurationHistory.methodKey("ios", "tests.LoginTest", "testA"), 5000);
+
+        Assert.assertEquals(history.estimate("android", new WorkItem("tests.LoginTest")), Long.valueOf(1200));
+        Assert.assertEquals(history.estimate("android", new WorkItem("tests.LoginTest", List.of("testB"))),
+                Long.valueOf(900));
+        Assert.assertEquals(history.estimate("android", new WorkItem("tests.LoginTest", List.of("testA", "testB"),
+                new DataPartition(0, 4))), Long.valueOf(300));
+        Assert.assertNull(history.estimate("android", new WorkItem("tests.HomeTest")));
+
+        ShardPlan plan = new ShardPlanner(history).plan("android", devices(2),
+                Arrays.asList(new WorkItem("tests.LoginTest"), new WorkItem("tests.HomeTest")));
+        Assert.assertEquals(plan.getItemsWithoutHistory(), 1);
+        Assert.assertEquals(plan.getPredictedMakespanMillis(), 1200, "Unknown items count as the average");
+    }
+
+    @Test(description = "A partition's run is recorded as the whole method, so each partition is estimated at its share")
+    public void testPartitionEstimates() {
+        DurationHistory history = new DurationHistory();
+        String key = DurationHistory.methodKey("android", "tests.LoginTest", "testA");
+        history.recordPartition(key, 250, new DataPartition(2, 4));
+
+        Assert.assertEquals(history.get(key), Long.valueOf(1000));
+        Assert.assertEquals(history.estimate("android", new WorkItem("tests.LoginTest", List.of("testA"))),
+                Long.valueOf(1000));
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(history.estimate("android", new WorkItem("tests.LoginTest", List.of("testA"),
+                    new DataPartition(i, 4))), Long.valueOf(250), "Partition " + i);
+        }
+    }
+
+    @Test(description = "Durations are smoothed across runs and survive a save and reload")
+    public void testHistoryPersistence() throws Exception {
+        Path file = Files.createTempFile("durations", ".properties");
+        try {
+            DurationHistory history = DurationHistory.forFile(file.toString());
+            Assert.assertSame(DurationHistory.forFile(file.toString()), history, "One store per file");
+            history.record("android|tests.LoginTest", 1000);
+            history.record("android|tests.LoginTest", 2000);
+            Assert.assertEquals(history.get("android|tests.LoginTest"), Long.valueOf(1300));
+            history.save();
+
+            // A fresh store of the same content, as the next run would load it
+            Path copy = Files.copy(file, Path.of(file + ".copy"));
+            try {
+                Assert.assertEquals(DurationHistory.forFile(copy.toString()).get("android|tests.LoginTest"),
+                        Long.valueOf(1300));
+            } finally {
+                Files.deleteIfExists(copy);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(description = "A planned run reports predicted and actual makespan, and its durations feed the next plan")
+    public void testPlannedRunReportsPrediction() throws Exception {
+        DurationHistory history = new DurationHistory();
+        List<WorkItem> items = items(history, 120, 20, 20, 20, 20, 20, 20);
+        List<Device> devices = devices(2);
+        ShardPlan plan = new ShardPlanner(history).plan("android", devices, items);
+
+        ScheduleReport report = new WorkStealingScheduler((device, item) -> {
+            Thread.sleep(Long.parseLong(item.getClassName().substring(item.getClassName().lastIndexOf('_') + 1)));
+            return true;
+        }, 2, 2).runPlanned(devices, plan);
+
+        Assert.assertSame(report.getPlan(), plan);
+        Assert.assertEquals(plan.getPredictedMakespanMillis(), 120);
+        Assert.assertTrue(report.getMakespanMillis() >= 120);
+        Assert.assertTrue(report.summary().contains("(predicted 120 ms)"), report.summary());
+
+        DeviceFarmRunner.recordDurations(history, "android", report);
+        Assert.assertTrue(history.get(DurationHistory.itemKey("android", items.get(0))) >= 120);
+    }
+}
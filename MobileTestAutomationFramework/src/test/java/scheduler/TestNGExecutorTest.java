@@ -0,0 +1,54 @@
+package scheduler;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unit tests for TestNGExecutor.
+ * Runs LoginTest through TestNG on devices served by the embedded fake Appium server.
+ */
+public class TestNGExecutorTest {
+
+    @Test(description = "Devices of the farm run their suites at the same time, each on its own session")
+    public void testDevicesRunInParallel() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withLatency(Duration.ofMillis(100))).start()) {
+            List<Device> devices = List.of(
+                    new Device("farm-device0", "android", server.getUrl().toString(), "emulator-5560"),
+                    new Device("farm-device1", "android", server.getUrl().toString(), "emulator-5562"));
+            WorkItem item = new WorkItem("tests.login.LoginTest", List.of("testLoginWithEmptyPassword"));
+            TestNGExecutor executor = new TestNGExecutor(Paths.get("target", "device-farm-test").toString(),
+                    Collections.emptyMap());
+            Map<String, long[]> spans = new ConcurrentHashMap<>();
+            TestExecutor timed = (device, workItem) -> {
+                long start = System.currentTimeMillis();
+                try {
+                    return executor.execute(device, workItem);
+                } finally {
+                    spans.put(device.getName(), new long[] {start, System.currentTimeMillis()});
+                }
+            };
+
+            ScheduleReport report = new WorkStealingScheduler(timed, 1, 1)
+                    .runAssigned(devices, List.of(List.of(item), List.of(item)));
+
+            Assert.assertTrue(report.isSuccessful(), report.summary());
+            Assert.assertEquals(server.getSessionsCreated(), 2);
+            Assert.assertEquals(server.getMaxSessionCount(), 2, "Both devices should hold a session at the same time");
+            long[] first = spans.get("farm-device0");
+            long[] second = spans.get("farm-device1");
+            Assert.assertTrue(first[0] < second[1] && second[0] < first[1], "The device runs should overlap");
+            long busy = report.getBusyMillisByDevice().values().stream().mapToLong(Long::longValue).sum();
+            Assert.assertTrue(report.getMakespanMillis() < busy, "The run should take less than the devices' busy time");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package scheduler;
+
+import com.sun.net.httpserver.HttpServer;
+import data.DataPartition;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for WorkStealingScheduler.
+ * Each device points at a local stand-in WebDriver endpoint that only answers GET /status.
+ */
+public class WorkStealingSchedulerTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @BeforeClass
+    public void startEndpoints() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/status", exchange -> {
+                byte[] body = "{\"value\":{\"ready\":true}}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            servers.add(server);
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopEndpoints() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    private Device device(int index) {
+        return new Device("device" + index, "android",
+                "http://127.0.0.1:" + servers.get(index).getAddress().getPort(), "emulator-555" + index);
+    }
+
+    /**
+     * Executor that pings the device endpoint, then "runs" the item for the time encoded in its name.
+     */
+    private static boolean pingAndRun(Device device, WorkItem item) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(device.getServerUrl() + "/status").openConnection();
+        try {
+            if (connection.getResponseCode() != 200) {
+                throw new IOException("Device endpoint not ready: " + device);
+            }
+        } finally {
+            connection.disconnect();
+        }
+        Thread.sleep(Long.parseLong(item.getClassName().substring(item.getClassName().lastIndexOf('_') + 1)));
+        return true;
+    }
+
+    private static List<WorkItem> items(long... durations) {
+        List<WorkItem> items = new ArrayList<>();
+        for (int i = 0; i < durations.length; i++) {
+            items.add(new WorkItem("tests.Item" + i + "_" + durations[i]));
+        }
+        return items;
+    }
+
+    @Test(description = "Every item runs exactly once")
+    public void testAllItemsRunOnce() throws Exception {
+        List<WorkItem> items = items(20, 20, 20, 20, 20, 20, 20, 20, 20, 20);
+        ScheduleReport report = new WorkStealingScheduler(WorkStealingSchedulerTest::pingAndRun, 2, 2)
+                .run(Arrays.asList(device(0), device(1), device(2)), items);
+
+        List<WorkItem> executed = report.getResults().stream()
+                .map(ScheduleReport.ItemResult::getItem)
+                .sorted((a, b) -> a.getClassName().compareTo(b.getClassName()))
+                .collect(Collectors.toList());
+        Assert.assertEquals(executed, items);
+        Assert.assertTrue(report.isSuccessful());
+    }
+
+    @Test(description = "An idle device steals queued work from a busy one")
+    public void testIdleDeviceStealsWork() throws Exception {
+        // Round-robin puts the long item and two short ones on device0
+        List<WorkItem> items = items(600, 10, 10, 10, 10, 10);
+        ScheduleReport report = new WorkStealingScheduler(WorkStealingSchedulerTest::pingAndRun, 2, 2)
+                .run(Arrays.asList(device(0), device(1)), items);
+
+        Map<String, Long> itemsPerDevice = report.getResults().stream()
+                .collect(Collectors.groupingBy(r -> r.getDevice().getName(), Collectors.counting()));
+        Assert.assertEquals(itemsPerDevice.get("device0"), Long.valueOf(1), "Busy device should only run the long item");
+        Assert.assertEquals(report.getStolenCount(), 2);
+        Assert.assertTrue(report.getMakespanMillis() < 1000, "Makespan should be close to the longest item");
+    }
+
+    @Test(description = "Work of an unreachable device is taken over by the others")
+    public void testUnreachableDeviceIsRetired() throws Exception {
+        Device offline = new Device("offline", "android", "http://127.0.0.1:1", "");
+        List<WorkItem> items = items(10, 10, 10, 10, 10, 10);
+        ScheduleReport report = new WorkStealingScheduler(WorkStealingSchedulerTest::pingAndRun, 1, 3)
+                .run(Arrays.asList(offline, device(0)), items);
+
+        Assert.assertTrue(report.isSuccessful(), report.summary());
+        Assert.assertEquals(report.getResults().size(), items.size());
+        Assert.assertTrue(report.getResults().stream().allMatch(r -> r.getDevice().getName().equals("device0")));
+    }
+
+    @Test(description = "An item that failed is retried by a healthy device that has already run out of work")
+    public void testFailedItemIsRetriedByIdleDevice() throws Exception {
+        Device broken = new Device("broken", "android", "http://127.0.0.1:1", "emulator-5580");
+        List<WorkItem> items = items(10, 10);
+        TestExecutor executor = (device, item) -> {
+            if (device == broken) {
+                // Fail only after the healthy device has emptied its own queue
+                Thread.sleep(200);
+                throw new IOException("Device lost: " + device);
+            }
+            return pingAndRun(device, item);
+        };
+        ScheduleReport report = new WorkStealingScheduler(executor, 1, 3)
+                .runAssigned(Arrays.asList(broken, device(0)), List.of(items.subList(0, 1), items.subList(1, 2)));
+
+        Assert.assertTrue(report.isSuccessful(), report.summary());
+        Assert.assertEquals(report.getResults().size(), items.size());
+        Assert.assertTrue(report.getResults().stream().allMatch(r -> r.getOutcome() == ScheduleReport.Outcome.PASSED
+                && r.getDevice().getName().equals("device0")), report.summary());
+    }
+
+    @Test(description = "Data provider tests are split into one work item per data partition")
+    public void testWorkItemsSplitDataPartitions() {
+        XmlSuite suite = new XmlSuite();
+        XmlTest test = new XmlTest(suite);
+        test.setXmlClasses(Collections.singletonList(new XmlClass("tests.login.LoginTest", false)));
+
+        Assert.assertEquals(DeviceFarmRunner.workItemsOf(suite), List.of(new WorkItem("tests.login.LoginTest")));
+
+        List<WorkItem> items = DeviceFarmRunner.workItemsOf(suite, 3);
+        List<String> dataMethods = List.of("testFailedLogin", "testSuccessfulLogin");
+        Assert.assertEquals(items, List.of(
+                new WorkItem("tests.login.LoginTest", List.of("testLoginWithEmptyPassword", "testLoginWithEmptyUsername")),
+                new WorkItem("tests.login.LoginTest", dataMethods, new DataPartition(0, 3)),
+                new WorkItem("tests.login.LoginTest", dataMethods, new DataPartition(1, 3)),
+                new WorkItem("tests.login.LoginTest", dataMethods, new DataPartition(2, 3))));
+    }
+}
@@ -0,0 +1,80 @@
+package session;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for AppInstallCache.
+ */
+public class AppInstallCacheTest {
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test(description = "A build is identified by its content, for single files and bundle directories")
+    public void testFingerprint() throws IOException {
+        Path dir = Files.createTempDirectory("apps");
+        try {
+            Path apk = Files.write(dir.resolve("app.apk"), "build 1".getBytes(StandardCharsets.UTF_8));
+            Path copy = Files.write(dir.resolve("copy.apk"), "build 1".getBytes(StandardCharsets.UTF_8));
+            String first = AppInstallCache.fingerprint(apk.toFile());
+            Assert.assertEquals(first.length(), 64);
+            Assert.assertEquals(AppInstallCache.fingerprint(copy.toFile()), first, "Same content, same build");
+
+            Files.write(apk, "build 2".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(apk, FileTime.fromMillis(Files.getLastModifiedTime(apk).toMillis() + 2000));
+            Assert.assertNotEquals(AppInstallCache.fingerprint(apk.toFile()), first, "A new build is hashed again");
+
+            Path bundle = Files.createDirectories(dir.resolve("MyApp.app/Frameworks"));
+            Files.write(bundle.resolve("lib.dylib"), "lib".getBytes(StandardCharsets.UTF_8));
+            Files.write(bundle.getParent().resolve("MyApp"), "binary".getBytes(StandardCharsets.UTF_8));
+            String bundleHash = AppInstallCache.fingerprint(bundle.getParent().toFile());
+            Files.move(bundle.resolve("lib.dylib"), bundle.resolve("other.dylib"));
+            Assert.assertNotEquals(AppInstallCache.fingerprint(bundle.getParent().toFile()), bundleHash,
+                    "Renaming a bundle file changes the build");
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test(description = "Installs are recorded per device and app and survive a reload")
+    public void testInstallRecord() throws IOException {
+        Path file = Files.createTempFile("app-installs", ".properties");
+        Path copy = Path.of(file + ".copy");
+        try {
+            Files.delete(file);
+            AppInstallCache cache = AppInstallCache.forFile(file.toString());
+            Assert.assertSame(AppInstallCache.forFile(file.toString()), cache, "One record per file");
+            Assert.assertFalse(cache.isInstalled("emulator-5554", "com.example.app", "aaa"));
+
+            cache.recordInstall("emulator-5554", "com.example.app", "aaa");
+            Assert.assertTrue(cache.isInstalled("emulator-5554", "com.example.app", "aaa"));
+            Assert.assertFalse(cache.isInstalled("emulator-5554", "com.example.app", "bbb"), "Other build");
+            Assert.assertFalse(cache.isInstalled("emulator-5556", "com.example.app", "aaa"), "Other device");
+            Assert.assertTrue(Files.exists(file), "Installs are saved as they are recorded");
+
+            // A fresh record of the same content, as the next run would load it
+            Files.copy(file, copy);
+            AppInstallCache reloaded = AppInstallCache.forFile(copy.toString());
+            Assert.assertTrue(reloaded.isInstalled("emulator-5554", "com.example.app", "aaa"));
+            reloaded.forget("emulator-5554", "com.example.app");
+            Assert.assertFalse(reloaded.isInstalled("emulator-5554", "com.example.app", "aaa"));
+            Assert.assertEquals(reloaded.size(), 0);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(copy);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package session;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import io.appium.java_client.AppiumDriver;
+import locators.ElementCache;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for DriverHandle and the lazy sessions of DriverManager.
+ */
+public class DriverHandleTest {
+
+    @Test(description = "Pages built from a handle open the session on their first command, once")
+    public void testPagesOpenSessionOnFirstCommand() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            AtomicInteger opened = new AtomicInteger();
+            DriverHandle handle = new DriverHandle(Platform.ANDROID, () -> {
+                opened.incrementAndGet();
+                DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", "android",
+                        "appium:automationName", "UiAutomator2"));
+                SessionKey key = new SessionKey("android", server.getUrl(), capabilities);
+                return new AppiumDriverFactory().create(key);
+            });
+            LoginPage loginPage = new LoginPage(handle);
+            HomePage homePage = new HomePage(handle);
+            Assert.assertFalse(handle.isOpen());
+            Assert.assertEquals(server.getSessionsCreated(), 0, "Building pages does not create a session");
+
+            try {
+                loginPage.login("validuser", "validpassword");
+                Assert.assertTrue(homePage.isHomePageDisplayed());
+                Assert.assertTrue(handle.isOpen());
+                Assert.assertEquals(server.getSessionsCreated(), 1);
+                Assert.assertEquals(opened.get(), 1);
+                Assert.assertEquals(loginPage.getElementCache(), homePage.getElementCache(), "One cache per session");
+            } finally {
+                handle.get().quit();
+            }
+        }
+    }
+
+    @Test(description = "Pages built before a session is replaced send their commands to the new session")
+    public void testPagesFollowReplacedSession() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", "android",
+                    "appium:automationName", "UiAutomator2"));
+            SessionKey key = new SessionKey("android", server.getUrl(), capabilities);
+            SessionPool pool = new SessionPool(new AppiumDriverFactory(), 1, Duration.ofSeconds(10));
+            DriverHandle handle = new DriverHandle(Platform.ANDROID, () -> {
+                DriverManager.setSession(pool.checkOut(key));
+                return DriverManager.getSession().getDriver();
+            });
+            DriverManager.setLazySession(handle);
+            try {
+                LoginPage loginPage = new LoginPage(handle);
+                HomePage homePage = new HomePage(handle);
+                loginPage.login("validuser", "validpassword");
+                Assert.assertTrue(homePage.isHomePageDisplayed());
+
+                // As BaseTest does for a broken session
+                PooledSession broken = DriverManager.detachSession();
+                pool.discard(broken);
+                DriverManager.setSession(pool.checkOut(key));
+                AppiumDriver replacement = DriverManager.getSession().getDriver();
+                Assert.assertSame(handle.get(), replacement);
+                Assert.assertSame(DriverManager.getHandle(), handle, "The handle is kept");
+
+                loginPage.login("validuser", "validpassword");
+                Assert.assertTrue(homePage.isHomePageDisplayed());
+                Assert.assertEquals(loginPage.getElementCache(), ElementCache.forDriver(replacement));
+                Assert.assertEquals(server.getSessionsCreated(), 2);
+                Assert.assertEquals(server.getSessionCount(), 1, "The broken session was quit");
+            } finally {
+                pool.discard(DriverManager.removeSession());
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test(description = "A lazy session that is never used needs no teardown, and a failed open is tried again")
+    public void testUnopenedSessions() {
+        AtomicInteger attempts = new AtomicInteger();
+        DriverHandle handle = new DriverHandle(Platform.IOS, () -> {
+            attempts.incrementAndGet();
+            throw new IOException("Connection refused");
+        });
+        DriverManager.setLazySession(handle);
+        try {
+            Assert.assertSame(DriverManager.getHandle(), handle);
+            Assert.assertNull(DriverManager.getSession(), "Nothing is opened by binding the handle");
+            Assert.assertEquals(handle.getPlatform(), Platform.IOS);
+            Assert.assertThrows(IllegalStateException.class, () -> DriverManager.setLazySession(handle));
+        } finally {
+            Assert.assertNull(DriverManager.removeSession(), "A session that was never opened has no teardown");
+        }
+        Assert.assertEquals(attempts.get(), 0);
+        Assert.assertThrows(IllegalStateException.class, DriverManager::getHandle);
+
+        Assert.assertThrows(SessionNotCreatedException.class, handle::get);
+        Assert.assertThrows(SessionNotCreatedException.class, handle::get);
+        Assert.assertEquals(attempts.get(), 2);
+        Assert.assertFalse(handle.isOpen());
+    }
+}
@@ -0,0 +1,73 @@
+package session;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.common.HomePage;
+import pages.login.LoginPage;
+
+import java.util.Map;
+
+/**
+ * Unit tests for ResetStrategy, resetting the scripted app of the fake Appium server.
+ */
+public class ResetStrategyTest {
+
+    private static final String APP_ID = "com.example.mymobileapp";
+
+    private static PooledSession newSession(FakeAppiumServer server, String platform) {
+        DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", platform,
+                "appium:automationName", "android".equals(platform) ? "UiAutomator2" : "XCUITest"));
+        SessionKey key = new SessionKey(platform, server.getUrl(), capabilities);
+        return new PooledSession(key, new AppiumDriverFactory().create(key));
+    }
+
+    private static void logIn(PooledSession session) {
+        new LoginPage(session.getDriver()).login("validuser", "validpassword");
+        Assert.assertTrue(new HomePage(session.getDriver()).isHomePageDisplayed());
+    }
+
+    @Test(description = "Relaunching and clearing data bring the app back to its first screen in the same session")
+    public void testInPlaceResets() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            for (String platform : new String[] {"android", "ios"}) {
+                for (ResetStrategy strategy : new ResetStrategy[] {ResetStrategy.RELAUNCH, ResetStrategy.CLEAR_DATA}) {
+                    PooledSession session = newSession(server, platform);
+                    try {
+                        logIn(session);
+                        long launches = server.getAppLaunches();
+
+                        strategy.reset(session, APP_ID);
+
+                        Assert.assertTrue(new LoginPage(session.getDriver()).isLoginPageLoaded(),
+                                strategy + " on " + platform);
+                        Assert.assertEquals(server.getAppLaunches(), launches + 1);
+                    } finally {
+                        session.getDriver().quit();
+                    }
+                }
+            }
+            Assert.assertEquals(server.getSessionsCreated(), 4, "Resets do not create sessions");
+        }
+    }
+
+    @Test(description = "NONE leaves the app alone and NEW_SESSION cannot reset in place")
+    public void testOtherStrategies() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start()) {
+            PooledSession session = newSession(server, "android");
+            try {
+                logIn(session);
+                ResetStrategy.NONE.reset(session, APP_ID);
+                Assert.assertTrue(new HomePage(session.getDriver()).isHomePageDisplayed());
+                Assert.assertThrows(IllegalStateException.class, () -> ResetStrategy.NEW_SESSION.reset(session, APP_ID));
+            } finally {
+                session.getDriver().quit();
+            }
+            Assert.assertEquals(server.getAppLaunches(), 0);
+        }
+        Assert.assertTrue(ResetStrategy.RELAUNCH.keepsSession());
+        Assert.assertFalse(ResetStrategy.NEW_SESSION.keepsSession());
+    }
+}
@@ -0,0 +1,177 @@
+package session;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for SessionPool.
+ * Sessions are backed by an in-process command executor, so no Appium server is needed.
+ */
+public class SessionPoolTest {
+
+    private static SessionKey key(String platform) throws Exception {
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilities.setCapability("platformName", platform);
+        return new SessionKey(platform, new URL("http://127.0.0.1:4723"), capabilities);
+    }
+
+    @Test(description = "Checked-in sessions are handed out again for the same key")
+    public void testSessionIsReused() throws Exception {
+        FakeDriverFactory factory = new FakeDriverFactory();
+        SessionPool pool = new SessionPool(factory, 2, Duration.ofSeconds(1));
+
+        PooledSession first = pool.checkOut(key("android"));
+        pool.checkIn(first);
+        PooledSession second = pool.checkOut(key("android"));
+
+        Assert.assertSame(second, first, "Idle session should be reused");
+        Assert.assertEquals(factory.created.get(), 1, "Only one session should be created");
+        Assert.assertEquals(second.getCheckouts(), 2);
+        pool.shutdown();
+    }
+
+    @Test(description = "Checkout times out when every session is in use")
+    public void testCheckoutBlocksWhenFull() throws Exception {
+        SessionPool pool = new SessionPool(new FakeDriverFactory(), 1, Duration.ofMillis(200));
+        pool.checkOut(key("android"));
+
+        Assert.assertThrows(TimeoutException.class, () -> pool.checkOut(key("android")));
+        Assert.assertEquals(pool.getLiveSessions(), 1);
+    }
+
+    @Test(description = "An idle session of another key is evicted when the pool is full")
+    public void testIdleSessionOfOtherKeyIsEvicted() throws Exception {
+        FakeDriverFactory factory = new FakeDriverFactory();
+        SessionPool pool = new SessionPool(factory, 1, Duration.ofSeconds(1));
+
+        PooledSession android = pool.checkOut(key("android"));
+        String androidSessionId = android.getDriver().getSessionId().toString();
+        pool.checkIn(android);
+        PooledSession ios = pool.checkOut(key("ios"));
+
+        Assert.assertEquals(ios.getKey().getPlatform(), "ios");
+        Assert.assertTrue(factory.quit.contains(androidSessionId),
+                "Evicted session should be quit");
+        Assert.assertEquals(pool.getLiveSessions(), 1);
+    }
+
+    @Test(description = "Unhealthy idle sessions are replaced by new ones")
+    public void testUnhealthySessionIsReplaced() throws Exception {
+        FakeDriverFactory factory = new FakeDriverFactory();
+        SessionPool pool = new SessionPool(factory, 1, Duration.ofSeconds(1));
+
+        PooledSession first = pool.checkOut(key("android"));
+        pool.checkIn(first);
+        factory.failHealthChecks = true;
+        PooledSession second = pool.checkOut(key("android"));
+
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(factory.created.get(), 2);
+        Assert.assertEquals(pool.getLiveSessions(), 1);
+    }
+
+    @Test(description = "Concurrent workers never hold more sessions than the pool size")
+    public void testConcurrentWorkersAreBounded() throws Exception {
+        FakeDriverFactory factory = new FakeDriverFactory();
+        SessionPool pool = new SessionPool(factory, 3, Duration.ofSeconds(10));
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(40);
+
+        for (int i = 0; i < 40; i++) {
+            workers.submit(() -> {
+                try {
+                    PooledSession session = pool.checkOut(key("android"));
+                    DriverManager.setSession(session);
+                    maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    inUse.decrementAndGet();
+                    pool.checkIn(DriverManager.removeSession());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+                return null;
+            });
+        }
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        workers.shutdown();
+
+        Assert.assertTrue(maxInUse.get() <= 3, "At most 3 sessions may be in use, saw " + maxInUse.get());
+        Assert.assertTrue(factory.created.get() <= 3, "At most 3 sessions may be created");
+        pool.shutdown();
+        Assert.assertEquals(pool.getLiveSessions(), 0);
+    }
+
+    /**
+     * Driver factory producing drivers that answer commands in-process.
+     */
+    private static class FakeDriverFactory implements DriverFactory {
+
+        private final AtomicInteger created = new AtomicInteger();
+        private final Set<String> quit = ConcurrentHashMap.newKeySet();
+        private volatile boolean failHealthChecks;
+
+        @Override
+        public AppiumDriver create(SessionKey key) throws Exception {
+            created.incrementAndGet();
+            return new AppiumDriver(new FakeExecutor(this), key.getCapabilities());
+        }
+    }
+
+    /**
+     * Command executor that fakes the few W3C commands the pool issues.
+     */
+    private static class FakeExecutor extends AppiumCommandExecutor {
+
+        private final FakeDriverFactory factory;
+
+        FakeExecutor(FakeDriverFactory factory) throws Exception {
+            super(MobileCommand.commandRepository, new URL("http://127.0.0.1:4723"));
+            this.factory = factory;
+        }
+
+        @Override
+        public Response execute(Command command) {
+            Response response = new Response();
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setSessionId(UUID.randomUUID().toString());
+                response.setValue(Map.of("platformName", "Android"));
+                return response;
+            }
+            response.setSessionId(command.getSessionId().toString());
+            if (DriverCommand.QUIT.equals(command.getName())) {
+                factory.quit.add(command.getSessionId().toString());
+            } else if (factory.failHealthChecks) {
+                throw new WebDriverException("Session is gone");
+            } else {
+                response.setValue(Map.of("implicit", 0, "pageLoad", 300000, "script", 30000));
+            }
+            return response;
+        }
+    }
+}
@@ -2,13 +2,18 @@ package tests.login;
 
 import base.BaseTest;
 import constants.AppConstants;
+import data.DataRecord;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import pages.common.HomePage;
 import pages.login.LoginPage;
 import utilities.LoggerUtils;
 
+import java.io.IOException;
+import java.util.Iterator;
+
 /**
  * Test class for login functionality.
  * Contains test methods for various login scenarios.
@@ -20,24 +25,50 @@ public class LoginTest extends BaseTest {
     
     /**
      * Setup method to initialize page objects.
-     * Runs before each test method.
+     * Runs before each test method, also when groups are filtered; the pages only open the session
+     * once a test uses them.
      */
-    @BeforeMethod
+    @BeforeMethod(alwaysRun = true)
     public void setupTest() {
         LoggerUtils.info("Setting up LoginTest");
-        loginPage = new LoginPage(driver);
-        homePage = new HomePage(driver);
+        loginPage = new LoginPage(getDriverHandle());
+        homePage = new HomePage(getDriverHandle());
+    }
+    
+    /**
+     * Data provider of accounts that can log in.
+     *
+     * @return One row per valid account in the test data file
+     * @throws IOException If the test data file cannot be read
+     */
+    @DataProvider(name = "validAccounts")
+    public Iterator<Object[]> validAccounts() throws IOException {
+        return testData(AppConstants.TEST_DATA_FILE, "validAccounts");
+    }
+    
+    /**
+     * Data provider of credentials that must be rejected.
+     *
+     * @return One row per invalid account in the login failures file
+     * @throws IOException If the test data file cannot be read
+     */
+    @DataProvider(name = "invalidAccounts")
+    public Iterator<Object[]> invalidAccounts() throws IOException {
+        return testData(AppConstants.LOGIN_FAILURES_FILE, null);
     }
     
     /**
      * Test successful login with valid credentials.
+     *
+     * @param account The account to log in with
      */
-    @Test(description = "Verify successful login with valid credentials", groups = {"smoke", "regression"})
-    public void testSuccessfulLogin() {
-        LoggerUtils.info("Starting test: testSuccessfulLogin");
+    @Test(description = "Verify successful login with valid credentials", groups = {"smoke", "regression"},
+            dataProvider = "validAccounts")
+    public void testSuccessfulLogin(DataRecord account) {
+        LoggerUtils.info("Starting test: testSuccessfulLogin {}", account);
         
         // Perform login
-        loginPage.login("validuser", "validpassword");
+        loginPage.login(account.get("username"), account.get("password"));
         
         // Verify login was successful
         Assert.assertTrue(homePage.isHomePageDisplayed(), "Home page should be displayed after successful login");
@@ -48,13 +79,16 @@ public class LoginTest extends BaseTest {
     
     /**
      * Test failed login with invalid credentials.
+     *
+     * @param account The credentials to log in with
      */
-    @Test(description = "Verify failed login with invalid credentials", groups = {"regression"})
-    public void testFailedLogin() {
-        LoggerUtils.info("Starting test: testFailedLogin");
+    @Test(description = "Verify failed login with invalid credentials", groups = {"regression"},
+            dataProvider = "invalidAccounts")
+    public void testFailedLogin(DataRecord account) {
+        LoggerUtils.info("Starting test: testFailedLogin {}", account);
         
         // Perform login with invalid credentials
-        loginPage.login("invaliduser", "invalidpassword");
+        loginPage.login(account.get("username"), account.get("password"));
         
         // Verify login failed
         Assert.assertFalse(loginPage.isLoginSuccessful(), "Login should fail with invalid credentials");
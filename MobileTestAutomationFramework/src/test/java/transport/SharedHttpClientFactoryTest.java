@@ -0,0 +1,211 @@
+package transport;
+
+import fakeserver.FakeAppiumServer;
+import fakeserver.LatencyProfile;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import pages.login.LoginPage;
+import session.AppiumDriverFactory;
+import session.SessionKey;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for SharedHttpClientFactory, running driver sessions against the fake Appium server.
+ */
+public class SharedHttpClientFactoryTest {
+
+    private static SharedHttpClientFactory newFactory(String... settings) {
+        Properties properties = new Properties();
+        for (int i = 0; i < settings.length; i += 2) {
+            properties.setProperty("transport.http." + settings[i], settings[i + 1]);
+        }
+        return new SharedHttpClientFactory(TransportConfig.fromProperties(properties, "transport.http."));
+    }
+
+    private static AppiumDriver newDriver(SharedHttpClientFactory factory, FakeAppiumServer server) {
+        DesiredCapabilities capabilities = new DesiredCapabilities(Map.of("platformName", "android",
+                "appium:automationName", "UiAutomator2"));
+        return new AppiumDriverFactory(factory).create(new SessionKey("android", server.getUrl(), capabilities));
+    }
+
+    @Test(description = "Consecutive sessions reuse the connections of earlier sessions")
+    public void testSessionsShareConnections() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start();
+             SharedHttpClientFactory factory = newFactory("poolSize", "2")) {
+            for (int i = 0; i < 3; i++) {
+                AppiumDriver driver = newDriver(factory, server);
+                try {
+                    new LoginPage(driver).login("validuser", "validpassword");
+                } finally {
+                    driver.quit();
+                }
+            }
+
+            TransportMetrics metrics = factory.getMetrics(server.getUrl());
+            Assert.assertEquals(metrics.getRequests(), server.getCommandCount());
+            Assert.assertEquals(metrics.getNewConnections(), 1);
+            Assert.assertEquals(metrics.getReusedConnections(), metrics.getRequests() - 1);
+            Assert.assertTrue(metrics.getReuseRatio() > 0.9, metrics.toString());
+            Assert.assertEquals(metrics.getFailures(), 0);
+        }
+    }
+
+    @Test(description = "Parallel sessions never open more connections than the pool allows")
+    public void testPoolBoundsParallelSessions() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withLatency(Duration.ofMillis(10))).start();
+             SharedHttpClientFactory factory = newFactory("poolSize", "2")) {
+            ExecutorService workers = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> runs = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    runs.add(workers.submit(() -> {
+                        AppiumDriver driver = newDriver(factory, server);
+                        try {
+                            for (int j = 0; j < 10; j++) {
+                                driver.getPageSource();
+                            }
+                        } finally {
+                            driver.quit();
+                        }
+                    }));
+                }
+                for (Future<?> run : runs) {
+                    run.get();
+                }
+            } finally {
+                workers.shutdownNow();
+            }
+
+            TransportMetrics metrics = factory.getMetrics(server.getUrl());
+            Assert.assertEquals(server.getSessionsCreated(), 4);
+            Assert.assertTrue(metrics.getNewConnections() <= 2, metrics.toString());
+            Assert.assertEquals(metrics.getFailures(), 0);
+            Assert.assertTrue(metrics.getMaxAcquireMillis() > 0, metrics.toString());
+        }
+    }
+
+    @Test(description = "A command fails fast when no connection becomes free within the acquire timeout")
+    public void testPoolTimeout() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0,
+                LatencyProfile.none().withCommandLatency("getPageSource", Duration.ofMillis(1000))).start();
+             SharedHttpClientFactory factory = newFactory("poolSize", "1", "acquireTimeoutSeconds", "0")) {
+            AppiumDriver slow = newDriver(factory, server);
+            AppiumDriver blocked = newDriver(factory, server);
+            ExecutorService worker = Executors.newSingleThreadExecutor();
+            try {
+                Future<String> source = worker.submit(slow::getPageSource);
+                Thread.sleep(200);
+                Assert.assertThrows(WebDriverException.class, blocked::getPageSource);
+                Assert.assertFalse(source.get().isEmpty());
+            } finally {
+                worker.shutdownNow();
+                slow.quit();
+                blocked.quit();
+            }
+
+            TransportMetrics metrics = factory.getMetrics(server.getUrl());
+            Assert.assertEquals(metrics.getPoolTimeouts(), 1);
+            Assert.assertEquals(metrics.getFailures(), 1);
+        }
+    }
+
+    @Test(description = "Request bodies are gzipped when request compression is enabled")
+    public void testRequestCompression() throws Exception {
+        try (FakeAppiumServer server = new FakeAppiumServer(0, LatencyProfile.none()).start();
+             SharedHttpClientFactory factory = newFactory("compressRequests", "true",
+                     "compressRequestsMinBytes", "0")) {
+            AppiumDriver driver = newDriver(factory, server);
+            try {
+                LoginPage loginPage = new LoginPage(driver);
+                loginPage.login("invaliduser", "invalidpassword");
+                Assert.assertEquals(loginPage.getErrorMessage(), "Invalid username or password");
+            } finally {
+                driver.quit();
+            }
+            Assert.assertTrue(server.getCompressedRequests() > 0);
+        }
+    }
+
+    @Test(description = "WebSockets open through a session's own client while commands stay pooled")
+    public void testWebSocketsAreNotPooled() throws Exception {
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             SharedHttpClientFactory factory = newFactory()) {
+            CompletableFuture<Void> served = CompletableFuture.runAsync(() -> greetWebSocket(listener, "hello"));
+            URI baseUri = new URI("http://127.0.0.1:" + listener.getLocalPort());
+            HttpClient client = factory.createClient(ClientConfig.defaultConfig().baseUri(baseUri));
+            CompletableFuture<String> received = new CompletableFuture<>();
+            try {
+                WebSocket socket = client.openSocket(new HttpRequest(HttpMethod.GET, "/log"), new WebSocket.Listener() {
+                    @Override
+                    public void onText(CharSequence data) {
+                        received.complete(data.toString());
+                    }
+                });
+                Assert.assertEquals(received.get(5, TimeUnit.SECONDS), "hello");
+                socket.close();
+            } finally {
+                client.close();
+            }
+            served.get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(factory.getMetrics(baseUri.toURL()).getRequests(), 0,
+                    "The socket should not go through the command pool");
+        }
+    }
+
+    /**
+     * Accepts one WebSocket handshake, sends a single unmasked text frame and hangs up.
+     */
+    private static void greetWebSocket(ServerSocket listener, String text) {
+        try (Socket socket = listener.accept()) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String key = null;
+            for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+                if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                    key = line.substring(line.indexOf(':') + 1).trim();
+                }
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(digest) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+            out.write(new byte[] {(byte) 0x81, (byte) payload.length});
+            out.write(payload);
+            out.flush();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for TestLogBuffer.
+ */
+public class TestLogBufferTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void resetBuffer() {
+        TestLogBuffer.stop();
+        TestLogBuffer.configure(true, TestLogBuffer.DEFAULT_CAPACITY);
+    }
+
+    @Test(description = "Messages logged through LoggerUtils are buffered for the running test")
+    public void testLoggerUtilsFeedsBuffer() {
+        TestLogBuffer.start("LoginTest.testSuccessfulLogin");
+        LoggerUtils.info("Entering username: {}", "validuser");
+        LoggerUtils.debug(() -> "Element cache hit");
+        LoggerUtils.error("Failed to click on button: {}", "Login", new IllegalStateException("boom"));
+
+        String log = TestLogBuffer.stop().render();
+        Assert.assertTrue(log.contains("INFO  - Entering username: validuser"), log);
+        Assert.assertTrue(log.contains("DEBUG - Element cache hit"), log);
+        Assert.assertTrue(log.contains("Failed to click on button: Login"), log);
+        Assert.assertTrue(log.contains("java.lang.IllegalStateException: boom"), log);
+    }
+
+    @Test(description = "A full buffer keeps the most recent messages")
+    public void testBufferKeepsLatestMessages() {
+        TestLogBuffer.configure(true, 3);
+        TestLogBuffer.start("LoginTest.testInvalidLogin");
+        for (int i = 1; i <= 5; i++) {
+            LoggerUtils.info("Step {}", i);
+        }
+
+        TestLogBuffer buffer = TestLogBuffer.stop();
+        String log = buffer.render();
+        Assert.assertEquals(buffer.getDropped(), 2);
+        Assert.assertFalse(log.contains("Step 2"), log);
+        Assert.assertTrue(log.contains("Step 3") && log.contains("Step 5"), log);
+    }
+
+    @Test(description = "Nothing is buffered outside a test or when buffering is disabled")
+    public void testNoBufferWhenNotStarted() throws Exception {
+        LoggerUtils.info("Outside any test");
+        Assert.assertNull(TestLogBuffer.current());
+
+        TestLogBuffer.configure(false, 10);
+        TestLogBuffer.start("LoginTest.testEmptyUsername");
+        Assert.assertNull(TestLogBuffer.stop());
+
+        TestLogBuffer.configure(true, 10);
+        TestLogBuffer.start("LoginTest.test:Empty/Username");
+        LoggerUtils.warn("Something odd");
+        Path dir = Files.createTempDirectory("test-logs");
+        Path file = TestLogBuffer.stop().writeTo(dir);
+        Assert.assertTrue(file.getFileName().toString().startsWith("LoginTest.test_Empty_Username-"));
+        Assert.assertTrue(new String(Files.readAllBytes(file)).contains("WARN  - Something odd"));
+    }
+
+    @Test(description = "Mutable arguments are logged as they were when the message was recorded")
+    public void testArgumentsAreSnapshotted() {
+        StringBuilder state = new StringBuilder("hits=1");
+        TestLogBuffer.start("LoginTest.testSuccessfulLogin");
+        LoggerUtils.info("Element cache: {}", state);
+        LoggerUtils.debug(() -> "Lazy " + state);
+        state.setLength(0);
+        state.append("hits=9");
+
+        String log = TestLogBuffer.stop().render();
+        Assert.assertTrue(log.contains("Element cache: hits=1"), log);
+        Assert.assertTrue(log.contains("Lazy hits=1"), log);
+    }
+
+    @Test(description = "Each thread reuses one buffer across tests")
+    public void testBufferIsReusedPerThread() {
+        TestLogBuffer.configure(true, 10);
+        TestLogBuffer.start("LoginTest.testFirst");
+        LoggerUtils.info("First test");
+        TestLogBuffer first = TestLogBuffer.stop();
+
+        TestLogBuffer.start("LoginTest.testSecond");
+        LoggerUtils.info("Second test");
+        TestLogBuffer second = TestLogBuffer.stop();
+        Assert.assertSame(second, first);
+        Assert.assertEquals(second.getTestName(), "LoginTest.testSecond");
+        Assert.assertEquals(second.getRecorded(), 1);
+        Assert.assertFalse(second.render().contains("First test"));
+    }
+}
@@ -0,0 +1,78 @@
+package waits;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for WaitEngine and its polling strategies.
+ */
+public class WaitEngineTest {
+
+    private final WaitEngine waits = new WaitEngine(null);
+
+    @Test(description = "Exponential backoff grows from the initial delay up to the cap")
+    public void testExponentialBackoffDelays() {
+        PollingStrategy strategy = new ExponentialBackoffPolling(Duration.ofMillis(50), 2.0, Duration.ofMillis(300));
+
+        Assert.assertEquals(strategy.nextDelay("k", 1, Duration.ZERO).toMillis(), 50);
+        Assert.assertEquals(strategy.nextDelay("k", 2, Duration.ZERO).toMillis(), 100);
+        Assert.assertEquals(strategy.nextDelay("k", 3, Duration.ZERO).toMillis(), 200);
+        Assert.assertEquals(strategy.nextDelay("k", 4, Duration.ZERO).toMillis(), 300);
+    }
+
+    @Test(description = "Not-found errors are retried until the condition is met")
+    public void testUntilRetriesNotFound() {
+        AtomicInteger checks = new AtomicInteger();
+        String result = waits.until("login:button", () -> {
+            if (checks.incrementAndGet() < 3) {
+                throw new NoSuchElementException("not yet");
+            }
+            return "found";
+        }, Duration.ofSeconds(5), new FixedPolling(Duration.ofMillis(1)));
+
+        Assert.assertEquals(result, "found");
+        Assert.assertEquals(checks.get(), 3);
+    }
+
+    @Test(description = "A condition that never holds times out with the last error as cause",
+            expectedExceptions = TimeoutException.class)
+    public void testUntilTimesOut() {
+        waits.until("login:button", () -> {
+            throw new NoSuchElementException("never");
+        }, Duration.ofMillis(50), new FixedPolling(Duration.ofMillis(5)));
+    }
+
+    @Test(description = "Learned polling schedules the first re-check just before the usual latency")
+    public void testLearnedLatency() {
+        LearnedLatencyPolling strategy = new LearnedLatencyPolling(new FixedPolling(Duration.ofMillis(10)));
+
+        Assert.assertEquals(strategy.nextDelay("home:title", 1, Duration.ZERO).toMillis(), 10);
+        strategy.onSuccess("home:title", Duration.ofMillis(1000));
+        Assert.assertEquals(strategy.nextDelay("home:title", 1, Duration.ofMillis(100)).toMillis(), 800);
+        Assert.assertEquals(strategy.nextDelay("home:title", 2, Duration.ofMillis(900)).toMillis(), 10);
+    }
+
+    @Test(description = "UI idle wait returns once the hierarchy stops changing")
+    public void testUiIdleAfterAnimation() {
+        AtomicInteger frames = new AtomicInteger();
+        UiIdleWait idleWait = new UiIdleWait(() -> "<frame " + Math.min(frames.incrementAndGet(), 4) + "/>",
+                Duration.ofMillis(1), Duration.ofMillis(5));
+
+        Assert.assertTrue(idleWait.waitForIdle(Duration.ofMillis(20), Duration.ofSeconds(5)));
+        Assert.assertTrue(idleWait.getSamples() > 4);
+    }
+
+    @Test(description = "UI idle wait gives up on a screen that never settles")
+    public void testUiNeverIdle() {
+        AtomicInteger frames = new AtomicInteger();
+        UiIdleWait idleWait = new UiIdleWait(() -> "<frame " + frames.incrementAndGet() + "/>",
+                Duration.ofMillis(1), Duration.ofMillis(5));
+
+        Assert.assertFalse(idleWait.waitForIdle(Duration.ofMillis(100), Duration.ofMillis(50)));
+    }
+}